@@ -0,0 +1,101 @@
+package com.clubsportif.bench;
+
+import com.clubsportif.config.Database;
+
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.util.Random;
+
+/**
+ * Schema and seed data for the database benchmarks.
+ * Uses whatever db.properties is first on the classpath: the in-memory H2
+ * database bundled with the benchmarks, or a local PostgreSQL if one is
+ * put in front of it.
+ */
+final class BenchmarkDatabase {
+
+    private static final String[] LAST_NAMES = {"Benali", "Martin", "O'Neil", "Dupont, Jr", "Haddad", "Nguyen"};
+    private static final String[] FIRST_NAMES = {"Yasmine", "Karim", "Lea", "Hugo", "Ines", "Sami"};
+    private static final String[] SUBSCRIPTIONS = {"1 month", "3 months", "1 year"};
+
+    private BenchmarkDatabase() {
+    }
+
+    /**
+     * Recreate the members and requests tables with the given row counts.
+     * A fixed seed keeps the data identical between runs.
+     */
+    static void reset(int members, int requests) throws SQLException {
+        try (Connection conn = Database.getConnection()) {
+            try (Statement stmt = conn.createStatement()) {
+                stmt.execute("DROP TABLE IF EXISTS members");
+                stmt.execute("DROP TABLE IF EXISTS requests");
+                stmt.execute("CREATE TABLE members (" +
+                        "id SERIAL PRIMARY KEY, " +
+                        "user_id INTEGER NOT NULL, " +
+                        "nom VARCHAR(100) NOT NULL, " +
+                        "prenom VARCHAR(100) NOT NULL, " +
+                        "subscription VARCHAR(50) NOT NULL, " +
+                        "date_start DATE NOT NULL, " +
+                        "date_end DATE NOT NULL, " +
+                        "status VARCHAR(20) NOT NULL, " +
+                        "updated_at TIMESTAMP WITH TIME ZONE DEFAULT CURRENT_TIMESTAMP NOT NULL)");
+                stmt.execute("CREATE TABLE requests (" +
+                        "id SERIAL PRIMARY KEY, " +
+                        "user_id INTEGER NOT NULL, " +
+                        "nom VARCHAR(100) NOT NULL, " +
+                        "prenom VARCHAR(100) NOT NULL, " +
+                        "subscription VARCHAR(50) NOT NULL, " +
+                        "request_date DATE NOT NULL, " +
+                        "status VARCHAR(20) NOT NULL, " +
+                        "updated_at TIMESTAMP WITH TIME ZONE DEFAULT CURRENT_TIMESTAMP NOT NULL)");
+            }
+
+            Random random = new Random(42);
+            LocalDate today = LocalDate.now();
+            conn.setAutoCommit(false);
+            try (PreparedStatement stmt = conn.prepareStatement(
+                    "INSERT INTO members (user_id, nom, prenom, subscription, date_start, date_end, status) " +
+                            "VALUES (?, ?, ?, ?, ?, ?, ?)")) {
+                for (int i = 1; i <= members; i++) {
+                    LocalDate start = today.minusDays(random.nextInt(730));
+                    LocalDate end = start.plusMonths(1 + random.nextInt(12));
+                    stmt.setInt(1, i);
+                    stmt.setString(2, LAST_NAMES[random.nextInt(LAST_NAMES.length)]);
+                    stmt.setString(3, FIRST_NAMES[random.nextInt(FIRST_NAMES.length)]);
+                    stmt.setString(4, SUBSCRIPTIONS[random.nextInt(SUBSCRIPTIONS.length)]);
+                    stmt.setDate(5, Date.valueOf(start));
+                    stmt.setDate(6, Date.valueOf(end));
+                    stmt.setString(7, end.isBefore(today) ? "EXPIRED" : "ACTIVE");
+                    stmt.addBatch();
+                    if (i % 1000 == 0) {
+                        stmt.executeBatch();
+                    }
+                }
+                stmt.executeBatch();
+            }
+            try (PreparedStatement stmt = conn.prepareStatement(
+                    "INSERT INTO requests (user_id, nom, prenom, subscription, request_date, status) " +
+                            "VALUES (?, ?, ?, ?, ?, ?)")) {
+                for (int i = 1; i <= requests; i++) {
+                    stmt.setInt(1, members + i);
+                    stmt.setString(2, LAST_NAMES[random.nextInt(LAST_NAMES.length)]);
+                    stmt.setString(3, FIRST_NAMES[random.nextInt(FIRST_NAMES.length)]);
+                    stmt.setString(4, SUBSCRIPTIONS[random.nextInt(SUBSCRIPTIONS.length)]);
+                    stmt.setDate(5, Date.valueOf(today.minusDays(random.nextInt(30))));
+                    stmt.setString(6, random.nextInt(4) == 0 ? "PENDING" : "ACCEPTED");
+                    stmt.addBatch();
+                    if (i % 1000 == 0) {
+                        stmt.executeBatch();
+                    }
+                }
+                stmt.executeBatch();
+            }
+            conn.commit();
+        }
+    }
+}
@@ -0,0 +1,176 @@
+package com.clubsportif.bench;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * Entry point of benchmarks.jar.
+ * Takes the usual JMH command line, but adds the GC profiler and writes the
+ * result JSON to results/&lt;timestamp&gt;[-&lt;commit&gt;].json unless -prof, -rf or
+ * -rff are given, so every run leaves an allocation-aware record behind.
+ * <p>
+ * {@code -compare old.json new.json} prints the change of every benchmark
+ * present in both files and exits with status 1 if any got slower, or
+ * allocates more per operation, by more than -Dbench.threshold percent
+ * (default 10).
+ */
+public class BenchmarkRunner {
+
+    private static final Path RESULTS_DIR = Path.of("results");
+    private static final String ALLOC_METRIC = "gc.alloc.rate.norm";
+
+    // Options that only print something; handed to JMH unchanged
+    private static final Set<String> INFO_OPTIONS = Set.of("-h", "-l", "-lp", "-lrf", "-lprof");
+
+    public static void main(String[] args) throws Exception {
+        if (args.length > 0 && "-compare".equals(args[0])) {
+            if (args.length != 3) {
+                System.err.println("Usage: -compare <old.json> <new.json>");
+                System.exit(2);
+            }
+            double threshold = Double.parseDouble(System.getProperty("bench.threshold", "10"));
+            System.exit(compare(Path.of(args[1]), Path.of(args[2]), threshold) ? 1 : 0);
+        }
+        for (String arg : args) {
+            if (INFO_OPTIONS.contains(arg)) {
+                org.openjdk.jmh.Main.main(args);
+                return;
+            }
+        }
+
+        CommandLineOptions cmd = new CommandLineOptions(args);
+        ChainedOptionsBuilder options = new OptionsBuilder().parent(cmd);
+        if (cmd.getProfilers().isEmpty()) {
+            options.addProfiler(GCProfiler.class);
+        }
+        if (!cmd.getResultFormat().hasValue() && !cmd.getResult().hasValue()) {
+            Files.createDirectories(RESULTS_DIR);
+            Path result = RESULTS_DIR.resolve(runName() + ".json");
+            options.resultFormat(ResultFormatType.JSON).result(result.toString());
+            System.out.println("[Bench] Results will be written to " + result);
+        }
+        new Runner(options.build()).run();
+    }
+
+    /**
+     * Timestamp, plus the short commit id when run inside a git checkout.
+     */
+    private static String runName() {
+        String name = LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss"));
+        try {
+            Process git = new ProcessBuilder("git", "rev-parse", "--short", "HEAD")
+                    .redirectErrorStream(true)
+                    .start();
+            String commit = new String(git.getInputStream().readAllBytes()).trim();
+            if (git.waitFor() == 0 && commit.matches("[0-9a-f]+")) {
+                name += "-" + commit;
+            }
+        } catch (IOException e) {
+            // git not installed
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        return name;
+    }
+
+    // ==================== Comparison ====================
+
+    private record Score(String mode, double score, String unit, double allocBytes) {
+    }
+
+    /**
+     * @return true if a regression above the threshold was found
+     */
+    private static boolean compare(Path oldFile, Path newFile, double threshold) throws IOException {
+        Map<String, Score> before = load(oldFile);
+        Map<String, Score> after = load(newFile);
+        boolean regressed = false;
+
+        System.out.printf("%-70s %14s %14s %-7s %8s %12s %12s%n",
+                "Benchmark", "old", "new", "unit", "change", "B/op old", "B/op new");
+        for (Map.Entry<String, Score> entry : after.entrySet()) {
+            Score oldScore = before.get(entry.getKey());
+            if (oldScore == null) {
+                continue;
+            }
+            Score newScore = entry.getValue();
+            // Positive change = worse, whatever the mode
+            double change = "thrpt".equals(newScore.mode())
+                    ? percent(newScore.score(), oldScore.score())
+                    : percent(oldScore.score(), newScore.score());
+            double allocChange = percent(oldScore.allocBytes(), newScore.allocBytes());
+            boolean worse = change > threshold || allocChange > threshold;
+            regressed |= worse;
+
+            System.out.printf("%-70s %14.3f %14.3f %-7s %+7.1f%% %12.0f %12.0f %s%n",
+                    entry.getKey(), oldScore.score(), newScore.score(), newScore.unit(), change,
+                    oldScore.allocBytes(), newScore.allocBytes(),
+                    worse ? "REGRESSION" : "");
+        }
+        if (!regressed) {
+            System.out.println("No regressions above " + threshold + "%");
+        }
+        return regressed;
+    }
+
+    /**
+     * How much worse b is than a, in percent of a; 0 when either is unknown.
+     */
+    private static double percent(double a, double b) {
+        if (a <= 0 || b < 0 || Double.isNaN(a) || Double.isNaN(b)) {
+            return 0;
+        }
+        return (b - a) / a * 100;
+    }
+
+    private static Map<String, Score> load(Path file) throws IOException {
+        Map<String, Score> scores = new LinkedHashMap<>();
+        try (Reader reader = Files.newBufferedReader(file)) {
+            JsonArray runs = JsonParser.parseReader(reader).getAsJsonArray();
+            for (JsonElement element : runs) {
+                JsonObject run = element.getAsJsonObject();
+                JsonObject primary = run.getAsJsonObject("primaryMetric");
+                JsonObject secondary = run.getAsJsonObject("secondaryMetrics");
+                double alloc = -1;
+                if (secondary != null && secondary.has(ALLOC_METRIC)) {
+                    alloc = secondary.getAsJsonObject(ALLOC_METRIC).get("score").getAsDouble();
+                }
+                scores.put(key(run), new Score(run.get("mode").getAsString(),
+                        primary.get("score").getAsDouble(), primary.get("scoreUnit").getAsString(), alloc));
+            }
+        }
+        return scores;
+    }
+
+    private static String key(JsonObject run) {
+        String benchmark = run.get("benchmark").getAsString().replace("com.clubsportif.bench.", "");
+        JsonObject params = run.getAsJsonObject("params");
+        if (params == null) {
+            return benchmark;
+        }
+        Map<String, String> sorted = new TreeMap<>();
+        for (Map.Entry<String, JsonElement> param : params.entrySet()) {
+            sorted.put(param.getKey(), param.getValue().getAsString());
+        }
+        return benchmark + sorted;
+    }
+}
@@ -0,0 +1,66 @@
+package com.clubsportif.bench;
+
+import com.clubsportif.model.Member;
+import com.clubsportif.service.MemberCsvExporter;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Member CSV export: formatting alone (into memory) and formatting plus
+ * writing a file, as the admin export does.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class CsvExportBenchmark {
+
+    @Param({"1000", "10000"})
+    public int members;
+
+    private List<Member> memberList;
+    private Path file;
+
+    @Setup(Level.Trial)
+    public void setup() throws IOException {
+        memberList = new ArrayList<>(members);
+        LocalDate start = LocalDate.of(2025, 1, 1);
+        for (int i = 1; i <= members; i++) {
+            // Every fourth name needs quoting
+            String nom = i % 4 == 0 ? "Dupont, Jr" : "Benali";
+            memberList.add(new Member(i, i, nom, "Yasmine", "3 months",
+                    start.plusDays(i % 365), start.plusDays(i % 365 + 90), "ACTIVE"));
+        }
+        file = Files.createTempFile("members_export", ".csv");
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(file);
+    }
+
+    @Benchmark
+    public int format() throws IOException {
+        StringWriter writer = new StringWriter(members * 64);
+        MemberCsvExporter.write(memberList, writer);
+        return writer.getBuffer().length();
+    }
+
+    @Benchmark
+    public void writeFile() throws IOException {
+        try (FileWriter writer = new FileWriter(file.toFile())) {
+            MemberCsvExporter.write(memberList, writer);
+        }
+    }
+}
@@ -0,0 +1,50 @@
+package com.clubsportif.bench;
+
+import com.clubsportif.dao.MemberDAO;
+import com.clubsportif.dao.RequestDAO;
+import com.clubsportif.model.Member;
+import com.clubsportif.model.Request;
+import org.openjdk.jmh.annotations.*;
+
+import java.sql.SQLException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * ResultSet to Member / Request mapping through the DAOs, including the
+ * query and connection setup they do on every call.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class DaoMappingBenchmark {
+
+    @Param({"100", "10000"})
+    public int rows;
+
+    private final MemberDAO memberDAO = new MemberDAO();
+    private final RequestDAO requestDAO = new RequestDAO();
+
+    @Setup(Level.Trial)
+    public void setup() throws SQLException {
+        BenchmarkDatabase.reset(rows, rows);
+    }
+
+    @Benchmark
+    public List<Member> getAllMembers() {
+        return memberDAO.getAllMembers();
+    }
+
+    @Benchmark
+    public Member getMemberByUserId() {
+        return memberDAO.getMemberByUserId(rows / 2);
+    }
+
+    @Benchmark
+    public List<Request> getAllRequests() {
+        return requestDAO.getAllRequests();
+    }
+}
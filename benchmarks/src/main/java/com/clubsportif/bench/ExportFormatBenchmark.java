@@ -0,0 +1,68 @@
+package com.clubsportif.bench;
+
+import com.clubsportif.dao.MemberDAO;
+import com.clubsportif.dao.RequestDAO;
+import com.clubsportif.service.ColumnarExportService;
+import com.clubsportif.service.CsvExportService;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.SQLException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Member export from the database to a file as CSV, gzipped CSV and Arrow
+ * IPC, through the same services as the admin console. The file sizes of
+ * each format are printed when the trial ends.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ExportFormatBenchmark {
+
+    @Param({"10000", "100000"})
+    public int members;
+
+    private final CsvExportService csvExportService = new CsvExportService(new MemberDAO(), new RequestDAO());
+    private final ColumnarExportService columnarExportService = new ColumnarExportService();
+    private Path directory;
+
+    @Setup(Level.Trial)
+    public void setup() throws SQLException, IOException {
+        BenchmarkDatabase.reset(members, 0);
+        directory = Files.createTempDirectory("export_formats");
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        for (String name : new String[]{"members.csv", "members.csv.gz", "members.arrow"}) {
+            Path file = directory.resolve(name);
+            if (Files.exists(file)) {
+                System.out.printf("[Bench] %-15s %,12d bytes, %.1f bytes/member%n",
+                        name, Files.size(file), (double) Files.size(file) / members);
+                Files.delete(file);
+            }
+        }
+        Files.delete(directory);
+    }
+
+    @Benchmark
+    public long csv() {
+        return csvExportService.exportMembers(directory.resolve("members.csv"), false, rows -> {}).block();
+    }
+
+    @Benchmark
+    public long csvGzip() {
+        return csvExportService.exportMembers(directory.resolve("members.csv.gz"), true, rows -> {}).block();
+    }
+
+    @Benchmark
+    public long arrow() {
+        return columnarExportService.exportMembers(directory.resolve("members.arrow"), rows -> {}).block();
+    }
+}
@@ -0,0 +1,121 @@
+package com.clubsportif.bench;
+
+import com.clubsportif.websocket.ClubServerEndpoint;
+import com.clubsportif.websocket.WebSocketMessage;
+import jakarta.websocket.CloseReason;
+import jakarta.websocket.RemoteEndpoint;
+import jakarta.websocket.SendHandler;
+import jakarta.websocket.SendResult;
+import jakarta.websocket.Session;
+import org.openjdk.jmh.annotations.*;
+
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Server-side fan-out in ClubServerEndpoint: event log append, JSON
+ * encoding and queueing on every target session's outbox. Sessions are
+ * in-memory stand-ins whose sends complete immediately, so the network is
+ * not measured. Batching and heartbeats are off so each frame is handed to
+ * the session straight away.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = {"-Dws.batch.windowMs=0", "-Dws.heartbeat.intervalMs=0",
+        "-Dws.auth.required=false"})
+@State(Scope.Benchmark)
+public class FanoutBenchmark {
+
+    @Param({"100", "1000", "10000"})
+    public int sessions;
+
+    private final ClubServerEndpoint endpoint = new ClubServerEndpoint();
+    private final List<Session> sessionList = new ArrayList<>();
+    private int requestId;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        for (int i = 1; i <= sessions; i++) {
+            Session session = fakeSession("bench-" + i);
+            sessionList.add(session);
+            endpoint.onOpen(session);
+            // One admin per 25 sessions, as in the load test's default mix
+            String role = i % 25 == 0 ? "ADMIN" : "MEMBER";
+            endpoint.onMessage(WebSocketMessage.register(i, role).toJson(), session);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        CloseReason reason = new CloseReason(CloseReason.CloseCodes.NORMAL_CLOSURE, "");
+        for (Session session : sessionList) {
+            endpoint.onClose(session, reason);
+        }
+    }
+
+    @Benchmark
+    public void broadcast() {
+        ClubServerEndpoint.broadcast(WebSocketMessage.dataRefresh("members"));
+    }
+
+    @Benchmark
+    public void sendToRole() {
+        ClubServerEndpoint.send(WebSocketMessage.statsUpdate(sessions, sessions / 2, 7));
+    }
+
+    @Benchmark
+    public void sendToUser() {
+        ClubServerEndpoint.send(WebSocketMessage.requestAccepted(
+                sessions / 2, ++requestId, "3 months", "2026-12-31"));
+    }
+
+    /**
+     * A Session that is always open and completes every send immediately.
+     */
+    private static Session fakeSession(String id) {
+        RemoteEndpoint.Async async = (RemoteEndpoint.Async) Proxy.newProxyInstance(
+                FanoutBenchmark.class.getClassLoader(), new Class<?>[]{RemoteEndpoint.Async.class},
+                (proxy, method, args) -> {
+                    if (args != null && args.length == 2 && args[1] instanceof SendHandler handler) {
+                        handler.onResult(new SendResult());
+                        return null;
+                    }
+                    if (method.getReturnType() == Future.class) {
+                        return CompletableFuture.completedFuture(null);
+                    }
+                    return defaultValue(method.getReturnType());
+                });
+        HashMap<String, Object> userProperties = new HashMap<>();
+        return (Session) Proxy.newProxyInstance(
+                FanoutBenchmark.class.getClassLoader(), new Class<?>[]{Session.class},
+                (proxy, method, args) -> switch (method.getName()) {
+                    case "getId", "toString" -> id;
+                    case "isOpen" -> true;
+                    case "getAsyncRemote" -> async;
+                    case "getUserProperties" -> userProperties;
+                    case "hashCode" -> System.identityHashCode(proxy);
+                    case "equals" -> proxy == args[0];
+                    default -> defaultValue(method.getReturnType());
+                });
+    }
+
+    private static Object defaultValue(Class<?> type) {
+        if (type == boolean.class) {
+            return false;
+        }
+        if (type == int.class) {
+            return 0;
+        }
+        if (type == long.class) {
+            return 0L;
+        }
+        return null;
+    }
+}
@@ -0,0 +1,75 @@
+package com.clubsportif.bench;
+
+import com.clubsportif.model.Member;
+import com.clubsportif.model.MemberStore;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.lang.ref.Reference;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Heap retained per member by a List&lt;Member&gt; (what membersList held)
+ * and by a MemberStore holding the same rows. Not a JMH benchmark, as
+ * the interesting number is retained size rather than time:
+ * <pre>
+ * java -XX:+UseSerialGC -cp target/benchmarks.jar com.clubsportif.bench.MemberFootprint [members]
+ * </pre>
+ * Names are drawn from a few thousand values and copied per row, like
+ * strings read from a ResultSet.
+ */
+public class MemberFootprint {
+
+    private static final String[] SUBSCRIPTIONS = {"1 month", "3 months", "1 year"};
+
+    public static void main(String[] args) throws InterruptedException {
+        int members = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+
+        long base = usedHeap();
+        List<Member> list = generate(members);
+        long listBytes = usedHeap() - base;
+        System.out.printf("[Bench] List<Member>: %,d bytes, %.1f bytes/member%n",
+                listBytes, (double) listBytes / members);
+
+        MemberStore.Builder builder = MemberStore.builder();
+        for (Member member : generate(members)) {
+            builder.add(member);
+        }
+        MemberStore store = builder.build();
+        long storeBytes = usedHeap() - base - listBytes;
+        System.out.printf("[Bench] MemberStore:  %,d bytes, %.1f bytes/member%n",
+                storeBytes, (double) storeBytes / members);
+        System.out.printf("[Bench] %.1fx smaller%n", (double) listBytes / storeBytes);
+        Reference.reachabilityFence(list);
+        Reference.reachabilityFence(store);
+    }
+
+    private static List<Member> generate(int count) {
+        Random random = new Random(42);
+        LocalDate today = LocalDate.now();
+        List<Member> members = new ArrayList<>(count);
+        for (int i = 1; i <= count; i++) {
+            LocalDate start = today.minusDays(random.nextInt(730));
+            LocalDate end = start.plusMonths(1 + random.nextInt(12));
+            members.add(new Member(i, i,
+                    "Nom" + random.nextInt(5000),
+                    "Prenom" + random.nextInt(1000),
+                    new String(SUBSCRIPTIONS[random.nextInt(SUBSCRIPTIONS.length)]),
+                    start, end,
+                    new String(end.isBefore(today) ? "EXPIRED" : "ACTIVE")));
+        }
+        return members;
+    }
+
+    private static long usedHeap() throws InterruptedException {
+        MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+            Thread.sleep(100);
+        }
+        return memory.getHeapMemoryUsage().getUsed();
+    }
+}
@@ -0,0 +1,142 @@
+package com.clubsportif.bench;
+
+import com.clubsportif.websocket.WebSocketMessage;
+import com.clubsportif.websocket.WebSocketMessage.MessageType;
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import com.google.gson.ToNumberPolicy;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Typed streaming codec of WebSocketMessage against the previous reflective
+ * Gson path (Map payload), for the message shapes the server sends most.
+ * Compare allocation rates in the gc.alloc.rate.norm secondary results.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class MessageCodecBenchmark {
+
+    @Param({"NEW_MEMBER_REQUEST", "STATS_UPDATE", "DATA_REFRESH"})
+    public String messageType;
+
+    private WebSocketMessage typedMessage;
+    private LegacyMessage legacyMessage;
+    private String json;
+    private String batchJson;
+
+    @Setup
+    public void setup() {
+        switch (MessageType.valueOf(messageType)) {
+            case NEW_MEMBER_REQUEST -> {
+                typedMessage = WebSocketMessage.newMemberRequest(4211, "Yasmine Benali", "3 months");
+                legacyMessage = new LegacyMessage(MessageType.NEW_MEMBER_REQUEST, Map.of(
+                        "requestId", 4211, "memberName", "Yasmine Benali", "subscription", "3 months"));
+                legacyMessage.targetRole = "ADMIN";
+            }
+            case STATS_UPDATE -> {
+                typedMessage = WebSocketMessage.statsUpdate(1520, 1311, 27);
+                legacyMessage = new LegacyMessage(MessageType.STATS_UPDATE, Map.of(
+                        "totalMembers", 1520, "activeMembers", 1311, "dailyRequests", 27));
+                legacyMessage.targetRole = "ADMIN";
+            }
+            default -> {
+                typedMessage = WebSocketMessage.dataRefresh("members");
+                legacyMessage = new LegacyMessage(MessageType.DATA_REFRESH, Map.of("tableType", "members"));
+            }
+        }
+        typedMessage.setSeq(1879464743597506561L);
+        legacyMessage.seq = typedMessage.getSeq();
+        legacyMessage.timestamp = typedMessage.getTimestamp();
+        json = typedMessage.toJson();
+
+        List<String> frames = new ArrayList<>();
+        for (int i = 0; i < 32; i++) {
+            frames.add(json);
+        }
+        batchJson = WebSocketMessage.batchJson(frames);
+    }
+
+    @Benchmark
+    public String encodeTyped() {
+        return typedMessage.toJson();
+    }
+
+    @Benchmark
+    public String encodeReflective() {
+        return LegacyMessage.GSON.toJson(legacyMessage);
+    }
+
+    @Benchmark
+    public WebSocketMessage decodeTyped() {
+        return WebSocketMessage.fromJson(json);
+    }
+
+    @Benchmark
+    public LegacyMessage decodeReflective() {
+        return LegacyMessage.GSON.fromJson(json, LegacyMessage.class);
+    }
+
+    @Benchmark
+    public List<WebSocketMessage> decodeBatchTyped() {
+        return WebSocketMessage.fromJsonAll(batchJson);
+    }
+
+    @Benchmark
+    public List<LegacyMessage> decodeBatchReflective() {
+        return LegacyMessage.fromJsonAll(batchJson);
+    }
+
+    /**
+     * Shape and Gson setup of WebSocketMessage before the typed codec.
+     */
+    public static class LegacyMessage {
+
+        static final Gson GSON = new GsonBuilder()
+                .setObjectToNumberStrategy(ToNumberPolicy.LONG_OR_DOUBLE)
+                .create();
+
+        MessageType type;
+        int targetUserId;
+        String targetRole;
+        Map<String, Object> payload;
+        long timestamp;
+        long seq;
+
+        public LegacyMessage() {
+            this.timestamp = System.currentTimeMillis();
+        }
+
+        LegacyMessage(MessageType type, Map<String, Object> payload) {
+            this();
+            this.type = type;
+            this.payload = payload;
+        }
+
+        static List<LegacyMessage> fromJsonAll(String json) {
+            JsonObject root = JsonParser.parseString(json).getAsJsonObject();
+            JsonElement type = root.get("type");
+            if (type == null || !MessageType.BATCH.name().equals(type.getAsString())) {
+                return List.of(GSON.fromJson(root, LegacyMessage.class));
+            }
+            JsonArray messages = root.getAsJsonObject("payload").getAsJsonArray("messages");
+            List<LegacyMessage> result = new ArrayList<>(messages.size());
+            for (JsonElement element : messages) {
+                result.add(GSON.fromJson(element, LegacyMessage.class));
+            }
+            return result;
+        }
+    }
+}
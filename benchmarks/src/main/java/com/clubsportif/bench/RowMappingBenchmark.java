@@ -0,0 +1,65 @@
+package com.clubsportif.bench;
+
+import com.clubsportif.config.Database;
+import com.clubsportif.dao.MemberDAO;
+import com.clubsportif.model.Member;
+import org.openjdk.jmh.annotations.*;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Loading the whole members table: MemberDAO's ordinal mapper over an
+ * explicit column list, against the previous SELECT * with a name lookup
+ * per column and java.sql.Date conversion, kept here as the baseline.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx2g"})
+@State(Scope.Benchmark)
+public class RowMappingBenchmark {
+
+    @Param({"1000000"})
+    public int rows;
+
+    private final MemberDAO memberDAO = new MemberDAO();
+
+    @Setup(Level.Trial)
+    public void setup() throws SQLException {
+        BenchmarkDatabase.reset(rows, 0);
+    }
+
+    @Benchmark
+    public List<Member> ordinal() {
+        return memberDAO.getAllMembers();
+    }
+
+    @Benchmark
+    public List<Member> byName() throws SQLException {
+        List<Member> members = new ArrayList<>();
+        try (Connection conn = Database.getConnection();
+             Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT * FROM members ORDER BY id")) {
+            while (rs.next()) {
+                members.add(new Member(
+                    rs.getInt("id"),
+                    rs.getInt("user_id"),
+                    rs.getString("nom"),
+                    rs.getString("prenom"),
+                    rs.getString("subscription"),
+                    rs.getDate("date_start").toLocalDate(),
+                    rs.getDate("date_end").toLocalDate(),
+                    rs.getString("status")
+                ));
+            }
+        }
+        return members;
+    }
+}
@@ -0,0 +1,36 @@
+package com.clubsportif.bench;
+
+import com.clubsportif.service.ReactiveStatsService;
+import com.clubsportif.service.ReactiveStatsService.DashboardStats;
+import org.openjdk.jmh.annotations.*;
+
+import java.sql.SQLException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Dashboard statistics as the admin view refreshes them, end to end
+ * through the reactive DAOs and the bounded elastic scheduler.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class StatsBenchmark {
+
+    @Param({"100", "10000"})
+    public int members;
+
+    private final ReactiveStatsService statsService = new ReactiveStatsService();
+
+    @Setup(Level.Trial)
+    public void setup() throws SQLException {
+        BenchmarkDatabase.reset(members, members / 10);
+    }
+
+    @Benchmark
+    public DashboardStats getCurrentStats() {
+        return statsService.getCurrentStats().block();
+    }
+}
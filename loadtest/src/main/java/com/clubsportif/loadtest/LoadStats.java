@@ -0,0 +1,50 @@
+package com.clubsportif.loadtest;
+
+import com.clubsportif.metrics.LatencyHistogram;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counters shared by the simulated clients and the traffic driver.
+ * Only messages stamped at or after {@link #recordFrom} are counted, so
+ * traffic sent during warm-up does not leak into the measured window.
+ */
+final class LoadStats {
+
+    final LatencyHistogram connectTime = new LatencyHistogram("ms");
+    final LatencyHistogram deliveryLatency = new LatencyHistogram("ms");
+
+    final LongAdder connected = new LongAdder();
+    final LongAdder connectFailures = new LongAdder();
+    final LongAdder unexpectedCloses = new LongAdder();
+
+    final LongAdder sent = new LongAdder();
+    final LongAdder sendFailures = new LongAdder();
+    final LongAdder expected = new LongAdder();
+    final LongAdder delivered = new LongAdder();
+
+    volatile long recordFrom = Long.MAX_VALUE;
+    volatile String firstConnectError;
+
+    /**
+     * Record a message received by a client, using the timestamp the sender stamped on it.
+     */
+    void recordDelivery(long sentAtMillis, long receivedAtMillis) {
+        if (sentAtMillis >= recordFrom) {
+            delivered.increment();
+            deliveryLatency.record(receivedAtMillis - sentAtMillis);
+        }
+    }
+
+    /**
+     * Start counting messages stamped from now on.
+     */
+    void startMeasuring() {
+        sent.reset();
+        sendFailures.reset();
+        expected.reset();
+        delivered.reset();
+        deliveryLatency.reset();
+        recordFrom = System.currentTimeMillis();
+    }
+}
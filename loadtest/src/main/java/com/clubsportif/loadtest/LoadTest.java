@@ -0,0 +1,378 @@
+package com.clubsportif.loadtest;
+
+import com.clubsportif.config.WebSocketConfig;
+import com.clubsportif.websocket.WebSocketMessage;
+import org.glassfish.tyrus.client.ClientManager;
+import org.glassfish.tyrus.client.ClientProperties;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.net.URI;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * WebSocket load test for ClubWebSocketServer, runnable on one Linux box.
+ * <p>
+ * Starts the server in a child JVM (unless load.url points at a running one),
+ * opens load.clients connections that register as ADMIN/MEMBER/USER in the
+ * load.roles mix, then has the ADMIN clients send notifications at load.rate
+ * per second. The server relays them through ClubServerEndpoint.send, i.e.
+ * broadcast, sendToRole or sendToUser, and each receiving client records the
+ * delivery latency against the message timestamp. Reports connect-storm
+ * timings, delivery percentiles, throughput and the server's heap and threads.
+ * <p>
+ * Settings (system properties):
+ * <pre>
+ * load.clients=1000                     simulated connections
+ * load.roles=ADMIN:1,MEMBER:20,USER:5   role weights
+ * load.traffic=broadcast:1,role:2,user:7  weights of DATA_REFRESH / STATS_UPDATE / REQUEST_ACCEPTED
+ * load.rate=200                         notifications per second
+ * load.warmupSec=5, load.durationSec=30
+ * load.connectConcurrency=256           handshakes in flight
+ * load.connectRate=0                    connections per second (0 = all at once)
+ * load.url=                             external server; empty starts one on load.serverPort
+ * load.serverPort=18025, load.jmxPort=18026, load.serverJvmArgs=-Xmx512m
+ * load.serverJmx=host:port              JMX agent of an external server (optional)
+ * load.serverPid=                       pid of an external server on this box (optional)
+ * </pre>
+ * ws.* properties are passed on to a server started here. Each connection
+ * costs a file descriptor on both sides, so raise ulimit -n for large runs.
+ */
+public class LoadTest {
+
+    private static final int CLIENTS = WebSocketConfig.getInt("load.clients", 1000);
+    private static final String ROLES = WebSocketConfig.getString("load.roles", "ADMIN:1,MEMBER:20,USER:5");
+    private static final String TRAFFIC = WebSocketConfig.getString("load.traffic", "broadcast:1,role:2,user:7");
+    private static final int RATE = WebSocketConfig.getInt("load.rate", 200);
+    private static final int WARMUP_SEC = WebSocketConfig.getInt("load.warmupSec", 5);
+    private static final int DURATION_SEC = WebSocketConfig.getInt("load.durationSec", 30);
+    private static final int CONNECT_CONCURRENCY = WebSocketConfig.getInt("load.connectConcurrency", 256);
+    private static final int CONNECT_RATE = WebSocketConfig.getInt("load.connectRate", 0);
+    private static final String URL = WebSocketConfig.getString("load.url", "");
+    private static final int SERVER_PORT = WebSocketConfig.getInt("load.serverPort", 18025);
+    private static final int JMX_PORT = WebSocketConfig.getInt("load.jmxPort", 18026);
+    private static final String SERVER_JVM_ARGS = WebSocketConfig.getString("load.serverJvmArgs", "-Xmx512m");
+    private static final String SERVER_JMX = WebSocketConfig.getString("load.serverJmx", "");
+    private static final long SERVER_PID = WebSocketConfig.getLong("load.serverPid", -1);
+
+    // Time given to in-flight deliveries after the last send
+    private static final long SETTLE_MS = 2000;
+
+    private enum Traffic { BROADCAST, ROLE, USER }
+
+    private final LoadStats stats = new LoadStats();
+    private final List<SimulatedClient> clients = new ArrayList<>();
+    private final List<SimulatedClient> admins = new ArrayList<>();
+    private final List<SimulatedClient> recipients = new ArrayList<>();
+
+    public static void main(String[] args) throws Exception {
+        new LoadTest().run();
+    }
+
+    private void run() throws Exception {
+        Process server = null;
+        String url = URL;
+        String jmx = SERVER_JMX;
+        long pid = SERVER_PID;
+        if (url.isEmpty()) {
+            server = startServer();
+            url = "ws://localhost:" + SERVER_PORT + "/club";
+            jmx = "localhost:" + JMX_PORT;
+            pid = server.pid();
+        }
+
+        ClientManager manager = ClientManager.createClient();
+        // One selector/worker pool for every connection instead of one per connection
+        manager.getProperties().put(ClientProperties.SHARED_CONTAINER, true);
+
+        ScheduledExecutorService sampler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "LoadTest-Sampler");
+            t.setDaemon(true);
+            return t;
+        });
+        try (ServerProbe probe = ServerProbe.open(jmx, pid)) {
+            System.out.println("[LoadTest] Server " + url + " idle: " + probe.sample());
+            sampler.scheduleAtFixedRate(probe::sample, 1, 1, TimeUnit.SECONDS);
+
+            connectAll(manager, URI.create(url));
+            // Let the REGISTER messages land before routing to users and roles
+            Thread.sleep(1000);
+            System.out.println("[LoadTest] Server after connect: " + probe.sample());
+
+            if (admins.isEmpty() || RATE <= 0) {
+                System.out.println("[LoadTest] No ADMIN senders or load.rate=0, skipping traffic");
+            } else {
+                drive(WARMUP_SEC);
+                stats.startMeasuring();
+                long elapsedMs = drive(DURATION_SEC);
+                Thread.sleep(SETTLE_MS);
+                report(elapsedMs, probe);
+            }
+        } finally {
+            sampler.shutdownNow();
+            for (SimulatedClient client : clients) {
+                client.close();
+            }
+            manager.shutdown();
+            if (server != null) {
+                stopServer(server);
+            }
+        }
+    }
+
+    // ==================== Server ====================
+
+    /**
+     * Launch ServerMain in a child JVM with a local JMX agent for the probe.
+     * Output goes to target/loadtest-server.log.
+     */
+    private Process startServer() throws IOException, InterruptedException {
+        List<String> command = new ArrayList<>();
+        command.add(Path.of(System.getProperty("java.home"), "bin", "java").toString());
+        for (String arg : SERVER_JVM_ARGS.split("\\s+")) {
+            if (!arg.isBlank()) {
+                command.add(arg);
+            }
+        }
+        command.add("-Dcom.sun.management.jmxremote.port=" + JMX_PORT);
+        command.add("-Dcom.sun.management.jmxremote.rmi.port=" + JMX_PORT);
+        command.add("-Dcom.sun.management.jmxremote.authenticate=false");
+        command.add("-Dcom.sun.management.jmxremote.ssl=false");
+        command.add("-Dcom.sun.management.jmxremote.local.only=true");
+        command.add("-Djava.rmi.server.hostname=localhost");
+        command.add("-Dws.server.host=localhost");
+        command.add("-Dws.server.port=" + SERVER_PORT);
+        // Simulated admins have no login token; trust their claimed role
+        command.add("-Dws.auth.required=false");
+        for (String name : System.getProperties().stringPropertyNames()) {
+            if (name.startsWith("ws.") && !name.equals("ws.server.host") && !name.equals("ws.server.port")) {
+                command.add("-D" + name + "=" + System.getProperty(name));
+            }
+        }
+        command.add("-cp");
+        command.add(System.getProperty("java.class.path"));
+        command.add("com.clubsportif.app.ServerMain");
+
+        File log = new File("target", "loadtest-server.log");
+        log.getParentFile().mkdirs();
+        Process process = new ProcessBuilder(command)
+                .redirectErrorStream(true)
+                .redirectOutput(log)
+                .start();
+
+        long deadline = System.currentTimeMillis() + 30_000;
+        while (System.currentTimeMillis() < deadline) {
+            if (!process.isAlive()) {
+                throw new IllegalStateException("Server exited with " + process.exitValue() + ", see " + log);
+            }
+            try (Socket socket = new Socket()) {
+                socket.connect(new InetSocketAddress("localhost", SERVER_PORT), 200);
+                System.out.println("[LoadTest] Server started (pid " + process.pid() + "), log: " + log);
+                return process;
+            } catch (IOException e) {
+                Thread.sleep(100);
+            }
+        }
+        process.destroyForcibly();
+        throw new IllegalStateException("Server did not listen on port " + SERVER_PORT + " within 30s, see " + log);
+    }
+
+    /**
+     * SIGTERM, so ServerMain drains sessions as in production.
+     */
+    private static void stopServer(Process server) throws InterruptedException {
+        server.destroy();
+        if (!server.waitFor(15, TimeUnit.SECONDS)) {
+            server.destroyForcibly();
+        }
+    }
+
+    // ==================== Connect storm ====================
+
+    private void connectAll(ClientManager manager, URI uri) throws InterruptedException {
+        List<String> roles = expand(parseWeights(ROLES));
+        for (int i = 0; i < CLIENTS; i++) {
+            String role = roles.get(i % roles.size()).toUpperCase();
+            SimulatedClient client = new SimulatedClient(i + 1, role, stats);
+            clients.add(client);
+            if ("ADMIN".equals(role)) {
+                admins.add(client);
+            } else {
+                recipients.add(client);
+            }
+        }
+        System.out.println("[LoadTest] Connecting " + CLIENTS + " clients (" + admins.size() + " ADMIN), " +
+                (CONNECT_RATE > 0 ? CONNECT_RATE + "/s" : "all at once") + ", " + CONNECT_CONCURRENCY + " in flight");
+
+        ExecutorService pool = Executors.newFixedThreadPool(CONNECT_CONCURRENCY);
+        long start = System.nanoTime();
+        for (int i = 0; i < clients.size(); i++) {
+            if (CONNECT_RATE > 0) {
+                pace(start, i, CONNECT_RATE);
+            }
+            SimulatedClient client = clients.get(i);
+            pool.execute(() -> {
+                long t0 = System.nanoTime();
+                try {
+                    client.connect(manager, uri);
+                    stats.connectTime.record((System.nanoTime() - t0) / 1_000_000);
+                    stats.connected.increment();
+                } catch (Exception e) {
+                    stats.connectFailures.increment();
+                    if (stats.firstConnectError == null) {
+                        stats.firstConnectError = e.toString();
+                    }
+                }
+            });
+        }
+        pool.shutdown();
+        pool.awaitTermination(10, TimeUnit.MINUTES);
+        long elapsedMs = Math.max(1, (System.nanoTime() - start) / 1_000_000);
+
+        System.out.println("[LoadTest] Connected " + stats.connected.sum() + "/" + CLIENTS +
+                " in " + elapsedMs + " ms (" + stats.connected.sum() * 1000 / elapsedMs + "/s), failures=" +
+                stats.connectFailures.sum());
+        System.out.println("[LoadTest] Handshake time: " + stats.connectTime);
+        if (stats.firstConnectError != null) {
+            System.out.println("[LoadTest] First connect error: " + stats.firstConnectError);
+        }
+    }
+
+    // ==================== Traffic ====================
+
+    /**
+     * Send notifications at load.rate for the given number of seconds.
+     *
+     * @return elapsed milliseconds
+     */
+    private long drive(int seconds) {
+        List<String> traffic = expand(parseWeights(TRAFFIC));
+        long total = (long) RATE * seconds;
+        long start = System.nanoTime();
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        String endDate = LocalDate.now().plusMonths(1).toString();
+
+        for (long i = 0; i < total; i++) {
+            pace(start, i, RATE);
+            SimulatedClient sender = admins.get(random.nextInt(admins.size()));
+            switch (Traffic.valueOf(traffic.get(random.nextInt(traffic.size())).toUpperCase())) {
+                case BROADCAST -> {
+                    sender.send(WebSocketMessage.dataRefresh("members"));
+                    stats.expected.add(countOpen(clients));
+                }
+                case ROLE -> {
+                    sender.send(WebSocketMessage.statsUpdate(CLIENTS, recipients.size(), (int) i));
+                    stats.expected.add(countOpen(admins));
+                }
+                case USER -> {
+                    if (recipients.isEmpty()) {
+                        continue;
+                    }
+                    SimulatedClient target = recipients.get(random.nextInt(recipients.size()));
+                    sender.send(WebSocketMessage.requestAccepted(target.getUserId(), (int) i, "1 month", endDate));
+                    if (target.isOpen()) {
+                        stats.expected.increment();
+                    }
+                }
+            }
+        }
+        return (System.nanoTime() - start) / 1_000_000;
+    }
+
+    private static long countOpen(List<SimulatedClient> list) {
+        long open = 0;
+        for (SimulatedClient client : list) {
+            if (client.isOpen()) {
+                open++;
+            }
+        }
+        return open;
+    }
+
+    /**
+     * Wait until the i-th event of a fixed-rate schedule is due.
+     */
+    private static void pace(long startNanos, long i, int perSecond) {
+        long due = startNanos + i * 1_000_000_000L / perSecond;
+        long wait;
+        while ((wait = due - System.nanoTime()) > 0) {
+            LockSupport.parkNanos(wait);
+        }
+    }
+
+    // ==================== Report ====================
+
+    private void report(long elapsedMs, ServerProbe probe) {
+        long sent = stats.sent.sum();
+        long expected = stats.expected.sum();
+        long delivered = stats.delivered.sum();
+        double seconds = Math.max(1, elapsedMs) / 1000.0;
+
+        System.out.println("[LoadTest] ==================== Results ====================");
+        System.out.printf("[LoadTest] Clients: %d connected, %d closed unexpectedly%n",
+                stats.connected.sum(), stats.unexpectedCloses.sum());
+        System.out.printf("[LoadTest] Sent: %d notifications in %.1f s (%.0f/s), send failures=%d%n",
+                sent, seconds, sent / seconds, stats.sendFailures.sum());
+        System.out.printf("[LoadTest] Delivered: %d of %d expected (%.2f%% missing, conflated or dropped), %.0f msg/s%n",
+                delivered, expected, expected == 0 ? 0.0 : 100.0 * (expected - Math.min(expected, delivered)) / expected,
+                delivered / seconds);
+        System.out.printf("[LoadTest] Delivery latency: p50=%d p90=%d p99=%d p99.9=%d max=%d mean=%.1f ms%n",
+                stats.deliveryLatency.getPercentile(50), stats.deliveryLatency.getPercentile(90),
+                stats.deliveryLatency.getPercentile(99), stats.deliveryLatency.getPercentile(99.9),
+                stats.deliveryLatency.getMax(), stats.deliveryLatency.getMean());
+        System.out.println("[LoadTest] Server now: " + probe.sample());
+        System.out.println("[LoadTest] Server " + probe.getPeaks());
+    }
+
+    // ==================== Settings ====================
+
+    /**
+     * Parse "NAME:weight,NAME:weight" into an ordered map.
+     */
+    private static Map<String, Integer> parseWeights(String spec) {
+        Map<String, Integer> weights = new LinkedHashMap<>();
+        for (String part : spec.split(",")) {
+            String[] kv = part.trim().split(":");
+            if (kv[0].isEmpty()) {
+                continue;
+            }
+            int weight = kv.length > 1 ? Integer.parseInt(kv[1].trim()) : 1;
+            if (weight > 0) {
+                weights.put(kv[0].trim(), weight);
+            }
+        }
+        if (weights.isEmpty()) {
+            throw new IllegalArgumentException("No positive weights in '" + spec + "'");
+        }
+        return weights;
+    }
+
+    /**
+     * Repeat each name by its weight, interleaved so that any prefix keeps the mix.
+     */
+    private static List<String> expand(Map<String, Integer> weights) {
+        List<String> result = new ArrayList<>();
+        int max = weights.values().stream().mapToInt(Integer::intValue).max().orElse(0);
+        for (int round = 0; round < max; round++) {
+            for (Map.Entry<String, Integer> entry : weights.entrySet()) {
+                if (round < entry.getValue()) {
+                    result.add(entry.getKey());
+                }
+            }
+        }
+        return result;
+    }
+}
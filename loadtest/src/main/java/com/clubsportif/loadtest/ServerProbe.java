@@ -0,0 +1,159 @@
+package com.clubsportif.loadtest;
+
+import javax.management.MBeanServerConnection;
+import javax.management.remote.JMXConnector;
+import javax.management.remote.JMXConnectorFactory;
+import javax.management.remote.JMXServiceURL;
+import java.io.IOException;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.lang.management.MemoryUsage;
+import java.lang.management.ThreadMXBean;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+/**
+ * Samples heap and thread usage of the server under test.
+ * Heap, JVM threads and GC totals come from the server's JMX agent;
+ * resident memory and OS threads come from /proc/&lt;pid&gt;/status when the
+ * server runs on this Linux box. Either source may be missing.
+ */
+final class ServerProbe implements AutoCloseable {
+
+    record Sample(long heapUsed, long heapCommitted, int jvmThreads, long gcCount, long gcMillis,
+                  long rssBytes, int osThreads) {
+
+        @Override
+        public String toString() {
+            StringBuilder sb = new StringBuilder();
+            if (heapUsed >= 0) {
+                sb.append("heap=").append(mb(heapUsed)).append('/').append(mb(heapCommitted)).append(" MB")
+                        .append(" threads=").append(jvmThreads)
+                        .append(" gc=").append(gcCount).append(" (").append(gcMillis).append(" ms)");
+            }
+            if (rssBytes >= 0) {
+                if (!sb.isEmpty()) {
+                    sb.append(' ');
+                }
+                sb.append("rss=").append(mb(rssBytes)).append(" MB osThreads=").append(osThreads);
+            }
+            return sb.isEmpty() ? "n/a" : sb.toString();
+        }
+    }
+
+    private final JMXConnector connector;
+    private final MemoryMXBean memory;
+    private final ThreadMXBean threads;
+    private final List<GarbageCollectorMXBean> collectors;
+    private final Path procStatus;
+
+    private long peakHeapUsed = -1;
+    private int peakThreads = -1;
+    private long peakRss = -1;
+
+    private ServerProbe(JMXConnector connector, MemoryMXBean memory, ThreadMXBean threads,
+                        List<GarbageCollectorMXBean> collectors, Path procStatus) {
+        this.connector = connector;
+        this.memory = memory;
+        this.threads = threads;
+        this.collectors = collectors;
+        this.procStatus = procStatus;
+    }
+
+    /**
+     * @param jmxHostPort host:port of the server's JMX agent, or null
+     * @param pid         server process id on this machine, or -1
+     */
+    static ServerProbe open(String jmxHostPort, long pid) {
+        JMXConnector connector = null;
+        MemoryMXBean memory = null;
+        ThreadMXBean threads = null;
+        List<GarbageCollectorMXBean> collectors = List.of();
+        if (jmxHostPort != null && !jmxHostPort.isBlank()) {
+            try {
+                connector = JMXConnectorFactory.connect(
+                        new JMXServiceURL("service:jmx:rmi:///jndi/rmi://" + jmxHostPort + "/jmxrmi"));
+                MBeanServerConnection connection = connector.getMBeanServerConnection();
+                memory = ManagementFactory.newPlatformMXBeanProxy(
+                        connection, ManagementFactory.MEMORY_MXBEAN_NAME, MemoryMXBean.class);
+                threads = ManagementFactory.newPlatformMXBeanProxy(
+                        connection, ManagementFactory.THREAD_MXBEAN_NAME, ThreadMXBean.class);
+                collectors = ManagementFactory.getPlatformMXBeans(connection, GarbageCollectorMXBean.class);
+            } catch (IOException e) {
+                System.err.println("[LoadTest] JMX unavailable at " + jmxHostPort + ": " + e.getMessage());
+            }
+        }
+        Path status = pid > 0 ? Path.of("/proc", Long.toString(pid), "status") : null;
+        if (status != null && !Files.isReadable(status)) {
+            status = null;
+        }
+        return new ServerProbe(connector, memory, threads, collectors, status);
+    }
+
+    Sample sample() {
+        long heapUsed = -1;
+        long heapCommitted = -1;
+        int jvmThreads = -1;
+        long gcCount = 0;
+        long gcMillis = 0;
+        if (memory != null) {
+            try {
+                MemoryUsage heap = memory.getHeapMemoryUsage();
+                heapUsed = heap.getUsed();
+                heapCommitted = heap.getCommitted();
+                jvmThreads = threads.getThreadCount();
+                for (GarbageCollectorMXBean collector : collectors) {
+                    gcCount += Math.max(0, collector.getCollectionCount());
+                    gcMillis += Math.max(0, collector.getCollectionTime());
+                }
+            } catch (RuntimeException e) {
+                // Server went away between samples
+                heapUsed = -1;
+            }
+        }
+
+        long rss = -1;
+        int osThreads = -1;
+        if (procStatus != null) {
+            try {
+                for (String line : Files.readAllLines(procStatus)) {
+                    if (line.startsWith("VmRSS:")) {
+                        rss = Long.parseLong(line.substring(6).replace("kB", "").trim()) * 1024;
+                    } else if (line.startsWith("Threads:")) {
+                        osThreads = Integer.parseInt(line.substring(8).trim());
+                    }
+                }
+            } catch (IOException | NumberFormatException e) {
+                rss = -1;
+            }
+        }
+
+        peakHeapUsed = Math.max(peakHeapUsed, heapUsed);
+        peakThreads = Math.max(peakThreads, Math.max(jvmThreads, osThreads));
+        peakRss = Math.max(peakRss, rss);
+        return new Sample(heapUsed, heapCommitted, jvmThreads, gcCount, gcMillis, rss, osThreads);
+    }
+
+    String getPeaks() {
+        return "peakHeap=" + (peakHeapUsed >= 0 ? mb(peakHeapUsed) + " MB" : "n/a") +
+                " peakThreads=" + (peakThreads >= 0 ? peakThreads : "n/a") +
+                " peakRss=" + (peakRss >= 0 ? mb(peakRss) + " MB" : "n/a");
+    }
+
+    private static long mb(long bytes) {
+        return bytes / (1024 * 1024);
+    }
+
+    @Override
+    public void close() {
+        if (connector != null) {
+            try {
+                connector.close();
+            } catch (IOException e) {
+                // ignore
+            }
+        }
+    }
+}
@@ -0,0 +1,117 @@
+package com.clubsportif.loadtest;
+
+import com.clubsportif.websocket.WebSocketMessage;
+import jakarta.websocket.ClientEndpointConfig;
+import jakarta.websocket.CloseReason;
+import jakarta.websocket.Endpoint;
+import jakarta.websocket.EndpointConfig;
+import jakarta.websocket.MessageHandler;
+import jakarta.websocket.Session;
+import org.glassfish.tyrus.client.ClientManager;
+
+import java.io.IOException;
+import java.net.URI;
+
+/**
+ * One simulated desktop client: connects, registers with a user id and role,
+ * and records the delivery latency of every notification it receives.
+ */
+final class SimulatedClient extends Endpoint {
+
+    private static final ClientEndpointConfig CONFIG = ClientEndpointConfig.Builder.create().build();
+
+    private final int userId;
+    private final String role;
+    private final LoadStats stats;
+
+    private volatile Session session;
+    private volatile boolean closing;
+
+    SimulatedClient(int userId, String role, LoadStats stats) {
+        this.userId = userId;
+        this.role = role;
+        this.stats = stats;
+    }
+
+    /**
+     * Open the connection; blocks until the handshake completes.
+     */
+    void connect(ClientManager manager, URI uri) throws Exception {
+        manager.connectToServer(this, CONFIG, uri);
+    }
+
+    @Override
+    public void onOpen(Session session, EndpointConfig config) {
+        this.session = session;
+        session.addMessageHandler(String.class, (MessageHandler.Whole<String>) this::onText);
+        try {
+            session.getBasicRemote().sendText(WebSocketMessage.register(userId, role).toJson());
+        } catch (IOException e) {
+            System.err.println("[LoadTest] Register failed for user " + userId + ": " + e.getMessage());
+        }
+    }
+
+    private void onText(String text) {
+        long now = System.currentTimeMillis();
+        for (WebSocketMessage message : WebSocketMessage.fromJsonAll(text)) {
+            if (message.getType() == null) {
+                continue;
+            }
+            switch (message.getType()) {
+                case DATA_REFRESH, STATS_UPDATE, REQUEST_ACCEPTED -> stats.recordDelivery(message.getTimestamp(), now);
+                default -> {
+                    // RESYNC, PING and other control traffic is not part of the measurement
+                }
+            }
+        }
+    }
+
+    @Override
+    public void onClose(Session session, CloseReason closeReason) {
+        if (!closing) {
+            stats.unexpectedCloses.increment();
+        }
+    }
+
+    /**
+     * Send a notification for the server to relay; does not block.
+     */
+    void send(WebSocketMessage message) {
+        Session current = session;
+        if (current == null || !current.isOpen()) {
+            stats.sendFailures.increment();
+            return;
+        }
+        current.getAsyncRemote().sendText(message.toJson(), result -> {
+            if (!result.isOK()) {
+                stats.sendFailures.increment();
+            }
+        });
+        stats.sent.increment();
+    }
+
+    void close() {
+        closing = true;
+        Session current = session;
+        if (current != null && current.isOpen()) {
+            try {
+                current.close();
+            } catch (IOException e) {
+                // Server may already be gone
+            }
+        }
+    }
+
+    boolean isOpen() {
+        Session current = session;
+        return current != null && current.isOpen();
+    }
+
+    int getUserId() {
+        return userId;
+    }
+
+    String getRole() {
+        return role;
+    }
+}
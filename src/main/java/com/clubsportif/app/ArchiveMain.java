@@ -0,0 +1,47 @@
+package com.clubsportif.app;
+
+import com.clubsportif.config.DatabaseInitializer;
+import com.clubsportif.service.RequestArchiver;
+
+import java.time.LocalDate;
+
+/**
+ * Headless launcher for the request archiver, meant to be run by cron:
+ * <pre>
+ * java -cp "target/classes:deps/*" com.clubsportif.app.ArchiveMain [horizonDays]
+ * </pre>
+ * Moves decided requests older than horizonDays (default
+ * db.archive.horizonDays; 0, the default, leaves everything in place) to
+ * requests_archive. Exits with status 1 on failure; batches already moved
+ * stay moved.
+ */
+public class ArchiveMain {
+
+    public static void main(String[] args) {
+        int horizonDays = RequestArchiver.horizonDays();
+        try {
+            if (args.length > 1) {
+                throw new NumberFormatException();
+            }
+            if (args.length == 1) {
+                horizonDays = Integer.parseInt(args[0]);
+            }
+        } catch (NumberFormatException e) {
+            System.err.println("Usage: ArchiveMain [horizonDays]");
+            System.exit(2);
+        }
+        if (horizonDays <= 0) {
+            System.out.println("[Archive] Off: set db.archive.horizonDays or pass a horizon");
+            System.exit(0);
+        }
+        try {
+            DatabaseInitializer.initializeTables();
+            RequestArchiver.archive(LocalDate.now().minusDays(horizonDays));
+            System.exit(0);
+        } catch (Exception e) {
+            System.err.println("[Archive] Archiving failed: " + e);
+            e.printStackTrace();
+            System.exit(1);
+        }
+    }
+}
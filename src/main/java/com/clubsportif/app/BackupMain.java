@@ -0,0 +1,38 @@
+package com.clubsportif.app;
+
+import com.clubsportif.service.BackupService;
+
+import java.nio.file.Path;
+
+/**
+ * Headless launcher for backups of users, members and requests:
+ * <pre>
+ * java -cp "target/classes:deps/*" com.clubsportif.app.BackupMain backup club.cbak
+ * java -cp "target/classes:deps/*" com.clubsportif.app.BackupMain restore club.cbak
+ * </pre>
+ * A restore replaces the current contents of the backed-up tables, so stop
+ * the server and close the admin consoles first. Exits with status 1 on
+ * failure; a failed restore leaves the tables unchanged.
+ */
+public class BackupMain {
+
+    public static void main(String[] args) {
+        if (args.length != 2 || !(args[0].equals("backup") || args[0].equals("restore"))) {
+            System.err.println("Usage: BackupMain backup|restore <file>");
+            System.exit(2);
+        }
+        try {
+            BackupService service = new BackupService();
+            if (args[0].equals("backup")) {
+                service.backup(Path.of(args[1]));
+            } else {
+                service.restore(Path.of(args[1]));
+            }
+            System.exit(0);
+        } catch (Exception e) {
+            System.err.println("[Backup] " + args[0] + " of " + args[1] + " failed: " + e);
+            e.printStackTrace();
+            System.exit(1);
+        }
+    }
+}
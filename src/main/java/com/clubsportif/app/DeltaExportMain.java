@@ -0,0 +1,40 @@
+package com.clubsportif.app;
+
+import com.clubsportif.config.DatabaseInitializer;
+import com.clubsportif.dao.ChangeLogDAO;
+import com.clubsportif.service.DeltaExportService;
+
+import java.nio.file.Path;
+import java.util.List;
+
+/**
+ * Headless launcher for the change-only export, meant to be run by cron:
+ * <pre>
+ * java -cp "target/classes:deps/*" com.clubsportif.app.DeltaExportMain &lt;target&gt; &lt;directory&gt; [--gzip]
+ * </pre>
+ * Each target (one per downstream consumer) keeps its own watermarks, so
+ * several consumers can pull at different paces. Prints the files written
+ * and exits with status 1 on failure, leaving the watermarks unchanged.
+ */
+public class DeltaExportMain {
+
+    public static void main(String[] args) {
+        if (args.length < 2 || args.length > 3 || (args.length == 3 && !args[2].equals("--gzip"))) {
+            System.err.println("Usage: DeltaExportMain <target> <directory> [--gzip]");
+            System.exit(2);
+        }
+        try {
+            DatabaseInitializer.initializeTables();
+            DeltaExportService service = new DeltaExportService(new ChangeLogDAO());
+            List<DeltaExportService.DeltaFile> files = service.export(args[0], Path.of(args[1]), args.length == 3);
+            for (DeltaExportService.DeltaFile file : files) {
+                System.out.println(file.file());
+            }
+            System.exit(0);
+        } catch (Exception e) {
+            System.err.println("[Export] Delta export for " + args[0] + " failed: " + e);
+            e.printStackTrace();
+            System.exit(1);
+        }
+    }
+}
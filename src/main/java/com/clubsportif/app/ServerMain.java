@@ -0,0 +1,46 @@
+package com.clubsportif.app;
+
+import com.clubsportif.config.WebSocketConfig;
+import com.clubsportif.metrics.MetricsHttpServer;
+import com.clubsportif.websocket.ClubWebSocketServer;
+
+import java.util.concurrent.CountDownLatch;
+
+/**
+ * Headless launcher for the WebSocket server.
+ * Does not touch JavaFX, so it can run on a machine without a display:
+ * <pre>
+ * java -cp "target/classes:deps/*" com.clubsportif.app.ServerMain
+ * </pre>
+ * Settings are read from websocket.properties and can be overridden with
+ * -D flags, e.g. -Dws.server.port=9025. The server is drained and stopped
+ * on SIGTERM / Ctrl+C. Metrics are served on ws.metrics.port (GET /metrics)
+ * and over JMX as com.clubsportif:type=Metrics. Admin login tokens are
+ * checked against the database of db.properties (see ws.auth.required).
+ */
+public class ServerMain {
+
+    public static void main(String[] args) throws InterruptedException {
+        CountDownLatch stopped = new CountDownLatch(1);
+
+        ClubWebSocketServer.start();
+        if (!ClubWebSocketServer.isRunning()) {
+            System.err.println("[Server] WebSocket server failed to start");
+            System.exit(1);
+        }
+
+        int metricsPort = WebSocketConfig.getInt("ws.metrics.port", 9464);
+        if (metricsPort > 0) {
+            MetricsHttpServer.start(WebSocketConfig.getString("ws.metrics.host", "localhost"), metricsPort);
+        }
+
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            System.out.println("[Server] Shutting down...");
+            ClubWebSocketServer.stop();
+            MetricsHttpServer.stop();
+            stopped.countDown();
+        }, "Server-Shutdown"));
+
+        stopped.await();
+    }
+}
@@ -0,0 +1,49 @@
+package com.clubsportif.cluster;
+
+/**
+ * Transport used by WebSocket server nodes to exchange messages.
+ * Implementations deliver every payload published to all nodes, and payloads
+ * published to a node only to that node. Delivery is at-most-once; ClusterFanout
+ * detects gaps using per-sender sequence numbers.
+ */
+public interface ClusterBus {
+
+    /**
+     * Callback for payloads received from other nodes.
+     */
+    interface Listener {
+        void onMessage(String payload);
+
+        /**
+         * Called after the bus reconnected; messages may have been lost meanwhile.
+         */
+        void onReconnect();
+    }
+
+    /**
+     * Unique identifier of this node.
+     */
+    String getNodeId();
+
+    /**
+     * Start receiving messages.
+     */
+    void start(Listener listener);
+
+    /**
+     * Publish a payload to every node, including this one.
+     */
+    void publish(String payload);
+
+    /**
+     * Publish a payload to a single node.
+     */
+    void publishToNode(String nodeId, String payload);
+
+    /**
+     * Largest payload the transport accepts, in bytes.
+     */
+    int getMaxPayloadBytes();
+
+    void stop();
+}
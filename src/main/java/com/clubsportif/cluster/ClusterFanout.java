@@ -0,0 +1,432 @@
+package com.clubsportif.cluster;
+
+import com.clubsportif.config.WebSocketConfig;
+import com.clubsportif.metrics.LatencyHistogram;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Fans server messages out to the other WebSocket nodes over a {@link ClusterBus}.
+ * <p>
+ * Broadcasts and role messages go to every node; user messages go only to the
+ * nodes the user directory lists for that user. Each node announces its users
+ * with JOIN/LEAVE messages, answers HELLO with a full SYNC of its users, and
+ * sends periodic heartbeats; nodes that stay silent for three intervals are
+ * dropped along with their directory entries.
+ * <p>
+ * Every envelope carries a per-sender, per-channel sequence number, so gaps
+ * are counted as lost messages, and its send time, so delivery latency can
+ * be measured (assuming node clocks are in sync).
+ */
+public class ClusterFanout {
+
+    private static final long HEARTBEAT_MS = WebSocketConfig.getLong("ws.cluster.heartbeatMs", 5000);
+    private static final int SYNC_CHUNK_USERS = 200;
+
+    /**
+     * Local delivery hooks, implemented by the server endpoint.
+     */
+    public interface LocalDelivery {
+        void broadcast(String messageJson);
+
+        void toUser(int userId, String messageJson);
+
+        void toRole(String role, String messageJson);
+
+        /**
+         * Users currently connected to this node, mapped to their role.
+         */
+        Map<Integer, String> localUsers();
+    }
+
+    private final ClusterBus bus;
+    private final String nodeId;
+    private final LocalDelivery local;
+
+    // Remote nodes: nodeId -> presence and directory entries
+    private final Map<String, NodeInfo> nodes = new ConcurrentHashMap<>();
+    // Last sequence seen per "sender/channel"
+    private final Map<String, Long> lastSeqs = new ConcurrentHashMap<>();
+    // Next sequence per outgoing channel; only touched on the publisher thread
+    private final Map<String, Long> nextSeqs = new HashMap<>();
+
+    private final ExecutorService publisher;
+    private final ScheduledExecutorService heartbeatScheduler;
+
+    private final LongAdder published = new LongAdder();
+    private final LongAdder received = new LongAdder();
+    private final LongAdder lost = new LongAdder();
+    private final LongAdder oversized = new LongAdder();
+    private final LongAdder unroutable = new LongAdder();
+    private final LongAdder publishFailures = new LongAdder();
+    private final LatencyHistogram deliveryLatency = new LatencyHistogram("ms");
+
+    public ClusterFanout(ClusterBus bus, LocalDelivery local) {
+        this.bus = bus;
+        this.nodeId = bus.getNodeId();
+        this.local = local;
+        this.publisher = Executors.newSingleThreadExecutor(r -> {
+            Thread t = new Thread(r, "Cluster-Publisher");
+            t.setDaemon(true);
+            return t;
+        });
+        this.heartbeatScheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "Cluster-Heartbeat");
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    /**
+     * Start listening, announce this node and begin heartbeats.
+     */
+    public void start() {
+        bus.start(new ClusterBus.Listener() {
+            @Override
+            public void onMessage(String payload) {
+                handle(payload);
+            }
+
+            @Override
+            public void onReconnect() {
+                // Presence may have changed while disconnected
+                announce();
+            }
+        });
+        announce();
+        heartbeatScheduler.scheduleAtFixedRate(this::heartbeat, HEARTBEAT_MS, HEARTBEAT_MS, TimeUnit.MILLISECONDS);
+        System.out.println("[Cluster] Node " + nodeId + " started");
+    }
+
+    public void stop() {
+        heartbeatScheduler.shutdownNow();
+        publisher.shutdown();
+        try {
+            publisher.awaitTermination(2, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        bus.stop();
+        nodes.clear();
+        System.out.println("[Cluster] Node " + nodeId + " stopped: " + getStats());
+    }
+
+    // ==================== Outgoing ====================
+
+    /**
+     * Deliver a broadcast on every other node.
+     */
+    public void publishBroadcast(String messageJson) {
+        JsonObject envelope = envelope("MSG");
+        envelope.addProperty("route", "ALL");
+        envelope.addProperty("m", messageJson);
+        publish(null, envelope);
+    }
+
+    /**
+     * Deliver a role message on every other node.
+     */
+    public void publishToRole(String role, String messageJson) {
+        JsonObject envelope = envelope("MSG");
+        envelope.addProperty("route", "ROLE");
+        envelope.addProperty("role", role);
+        envelope.addProperty("m", messageJson);
+        publish(null, envelope);
+    }
+
+    /**
+     * Deliver a user message on the nodes the user is connected to.
+     * Returns false if no other node is known to have the user.
+     */
+    public boolean publishToUser(int userId, String messageJson) {
+        List<String> targets = new ArrayList<>();
+        for (Map.Entry<String, NodeInfo> entry : nodes.entrySet()) {
+            if (entry.getValue().hasUser(userId)) {
+                targets.add(entry.getKey());
+            }
+        }
+        if (targets.isEmpty()) {
+            unroutable.increment();
+            return false;
+        }
+        for (String target : targets) {
+            JsonObject envelope = envelope("MSG");
+            envelope.addProperty("route", "USER");
+            envelope.addProperty("userId", userId);
+            envelope.addProperty("m", messageJson);
+            publish(target, envelope);
+        }
+        return true;
+    }
+
+    /**
+     * Announce that a user connected to this node.
+     */
+    public void userJoined(int userId, String role) {
+        JsonObject envelope = envelope("JOIN");
+        envelope.add("users", usersJson(Map.of(userId, role != null ? role : "")));
+        publish(null, envelope);
+    }
+
+    /**
+     * Announce that a user has no more sessions on this node.
+     */
+    public void userLeft(int userId) {
+        JsonObject envelope = envelope("LEAVE");
+        JsonArray users = new JsonArray();
+        users.add(userId);
+        envelope.add("users", users);
+        publish(null, envelope);
+    }
+
+    private void announce() {
+        publish(null, envelope("HELLO"));
+        sendSync(null);
+    }
+
+    private void heartbeat() {
+        publish(null, envelope("BEAT"));
+
+        long expiry = System.currentTimeMillis() - 3 * HEARTBEAT_MS;
+        nodes.entrySet().removeIf(entry -> {
+            if (entry.getValue().lastSeenMillis < expiry) {
+                System.out.println("[Cluster] Node " + entry.getKey() + " expired");
+                return true;
+            }
+            return false;
+        });
+    }
+
+    /**
+     * Send this node's full user list, in chunks that fit the bus payload limit.
+     */
+    private void sendSync(String targetNode) {
+        List<Map.Entry<Integer, String>> users = new ArrayList<>(local.localUsers().entrySet());
+        int i = 0;
+        boolean first = true;
+        do {
+            Map<Integer, String> chunk = new HashMap<>();
+            for (int end = Math.min(users.size(), i + SYNC_CHUNK_USERS); i < end; i++) {
+                chunk.put(users.get(i).getKey(), users.get(i).getValue());
+            }
+            JsonObject envelope = envelope("SYNC");
+            // The first chunk replaces what the receiver knows about this node
+            envelope.addProperty("reset", first);
+            envelope.add("users", usersJson(chunk));
+            publish(targetNode, envelope);
+            first = false;
+        } while (i < users.size());
+    }
+
+    private JsonObject envelope(String kind) {
+        JsonObject envelope = new JsonObject();
+        envelope.addProperty("kind", kind);
+        envelope.addProperty("node", nodeId);
+        return envelope;
+    }
+
+    private static JsonArray usersJson(Map<Integer, String> users) {
+        JsonArray array = new JsonArray();
+        for (Map.Entry<Integer, String> entry : users.entrySet()) {
+            JsonArray pair = new JsonArray();
+            pair.add(entry.getKey());
+            pair.add(entry.getValue());
+            array.add(pair);
+        }
+        return array;
+    }
+
+    /**
+     * Queue an envelope for publishing; a single thread keeps per-channel order.
+     * A null target publishes to every node.
+     */
+    private void publish(String targetNode, JsonObject envelope) {
+        try {
+            publisher.execute(() -> {
+                String channel = targetNode != null ? targetNode : "*";
+                if (targetNode != null) {
+                    envelope.addProperty("to", targetNode);
+                }
+                long seq = nextSeqs.merge(channel, 1L, Long::sum);
+                envelope.addProperty("seq", seq);
+                envelope.addProperty("sentAt", System.currentTimeMillis());
+
+                String payload = envelope.toString();
+                if (payload.getBytes(StandardCharsets.UTF_8).length > bus.getMaxPayloadBytes()) {
+                    // Not sent, so the sequence number is not consumed
+                    nextSeqs.merge(channel, -1L, Long::sum);
+                    oversized.increment();
+                    System.err.println("[Cluster] Dropping oversized " + envelope.get("kind").getAsString() +
+                            " envelope (" + payload.length() + " chars)");
+                    return;
+                }
+                try {
+                    if (targetNode != null) {
+                        bus.publishToNode(targetNode, payload);
+                    } else {
+                        bus.publish(payload);
+                    }
+                    published.increment();
+                } catch (Exception e) {
+                    publishFailures.increment();
+                    System.err.println("[Cluster] Publish failed: " + e.getMessage());
+                }
+            });
+        } catch (Exception e) {
+            // Publisher already stopped
+            publishFailures.increment();
+        }
+    }
+
+    // ==================== Incoming ====================
+
+    private void handle(String payload) {
+        JsonObject envelope = JsonParser.parseString(payload).getAsJsonObject();
+        String sender = envelope.get("node").getAsString();
+        if (nodeId.equals(sender)) {
+            return;
+        }
+        received.increment();
+        trackSequence(sender, envelope);
+        deliveryLatency.record(System.currentTimeMillis() - envelope.get("sentAt").getAsLong());
+
+        NodeInfo node = nodes.computeIfAbsent(sender, id -> {
+            System.out.println("[Cluster] Node " + id + " joined");
+            return new NodeInfo();
+        });
+        node.lastSeenMillis = System.currentTimeMillis();
+
+        String kind = envelope.get("kind").getAsString();
+        switch (kind) {
+            case "MSG" -> deliver(envelope);
+            case "JOIN" -> node.addUsers(envelope.getAsJsonArray("users"));
+            case "LEAVE" -> {
+                for (JsonElement user : envelope.getAsJsonArray("users")) {
+                    node.removeUser(user.getAsInt());
+                }
+            }
+            case "SYNC" -> {
+                if (envelope.get("reset").getAsBoolean()) {
+                    node.clear();
+                }
+                node.addUsers(envelope.getAsJsonArray("users"));
+                node.synced = true;
+            }
+            case "HELLO" -> sendSync(sender);
+            case "BEAT" -> {
+                if (!node.synced) {
+                    // A node we have no directory for, e.g. after it expired here
+                    publish(sender, envelope("HELLO"));
+                }
+            }
+            default -> System.err.println("[Cluster] Unknown envelope kind: " + kind);
+        }
+    }
+
+    private void deliver(JsonObject envelope) {
+        String messageJson = envelope.get("m").getAsString();
+        switch (envelope.get("route").getAsString()) {
+            case "USER" -> local.toUser(envelope.get("userId").getAsInt(), messageJson);
+            case "ROLE" -> local.toRole(envelope.get("role").getAsString(), messageJson);
+            default -> local.broadcast(messageJson);
+        }
+    }
+
+    private void trackSequence(String sender, JsonObject envelope) {
+        // Envelopes addressed to this node arrive on its own channel, the rest on the shared one
+        String key = sender + "/" + (envelope.has("to") ? nodeId : "*");
+        long seq = envelope.get("seq").getAsLong();
+        Long last = lastSeqs.put(key, seq);
+        if (last != null && seq > last + 1) {
+            long gap = seq - last - 1;
+            lost.add(gap);
+            System.err.println("[Cluster] Lost " + gap + " message(s) from node " + sender);
+        }
+    }
+
+    // ==================== Stats ====================
+
+    public String getNodeId() {
+        return nodeId;
+    }
+
+    public int getNodeCount() {
+        return nodes.size() + 1;
+    }
+
+    public long getPublishedCount() {
+        return published.sum();
+    }
+
+    public long getReceivedCount() {
+        return received.sum();
+    }
+
+    public long getLostCount() {
+        return lost.sum();
+    }
+
+    public long getOversizedCount() {
+        return oversized.sum();
+    }
+
+    /**
+     * Get the bus delivery latency histogram (milliseconds).
+     */
+    public LatencyHistogram getDeliveryLatency() {
+        return deliveryLatency;
+    }
+
+    public String getStats() {
+        return "ClusterStats{nodes=" + getNodeCount() +
+                ", published=" + published.sum() +
+                ", received=" + received.sum() +
+                ", lost=" + lost.sum() +
+                ", oversized=" + oversized.sum() +
+                ", unroutable=" + unroutable.sum() +
+                ", publishFailures=" + publishFailures.sum() +
+                ", latency=[" + deliveryLatency + "]}";
+    }
+
+    /**
+     * Presence and directory entries of one remote node.
+     */
+    private static final class NodeInfo {
+        private final Map<Integer, String> users = new HashMap<>();
+        private volatile long lastSeenMillis = System.currentTimeMillis();
+        private volatile boolean synced;
+
+        synchronized boolean hasUser(int userId) {
+            return users.containsKey(userId);
+        }
+
+        synchronized void addUsers(JsonArray array) {
+            for (JsonElement element : array) {
+                JsonArray pair = element.getAsJsonArray();
+                users.put(pair.get(0).getAsInt(), pair.get(1).getAsString());
+            }
+        }
+
+        synchronized void removeUser(int userId) {
+            users.remove(userId);
+        }
+
+        synchronized void clear() {
+            users.clear();
+        }
+    }
+}
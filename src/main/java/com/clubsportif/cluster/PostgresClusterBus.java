@@ -0,0 +1,163 @@
+package com.clubsportif.cluster;
+
+import com.clubsportif.config.Database;
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Cluster bus on PostgreSQL LISTEN/NOTIFY.
+ * Every node listens on a shared channel and on its own node channel, so
+ * targeted messages are only delivered to the node that needs them.
+ * One connection is held for listening and one for publishing; both are
+ * re-opened after failures.
+ */
+public class PostgresClusterBus implements ClusterBus {
+
+    private static final String ALL_CHANNEL = "club_all";
+    private static final String NODE_CHANNEL_PREFIX = "club_node_";
+
+    // NOTIFY payloads must be shorter than 8000 bytes
+    private static final int MAX_PAYLOAD_BYTES = 7900;
+    private static final int POLL_TIMEOUT_MS = 500;
+    private static final long MAX_RECONNECT_DELAY_MS = 10000;
+
+    private final String nodeId;
+    private final AtomicBoolean running = new AtomicBoolean(false);
+    private final Object publishLock = new Object();
+    private Connection publishConnection;
+    private PreparedStatement notifyStatement;
+    private Thread listenerThread;
+
+    public PostgresClusterBus(String nodeId) {
+        if (!nodeId.matches("[a-z0-9_]{1,40}")) {
+            throw new IllegalArgumentException("Node id must be lowercase letters, digits or '_': " + nodeId);
+        }
+        this.nodeId = nodeId;
+    }
+
+    @Override
+    public String getNodeId() {
+        return nodeId;
+    }
+
+    @Override
+    public void start(Listener listener) {
+        if (!running.compareAndSet(false, true)) {
+            return;
+        }
+        listenerThread = new Thread(() -> listen(listener), "Cluster-Listener");
+        listenerThread.setDaemon(true);
+        listenerThread.start();
+    }
+
+    private void listen(Listener listener) {
+        long delay = 500;
+        boolean reconnecting = false;
+        while (running.get()) {
+            try (Connection conn = Database.getConnection();
+                 Statement stmt = conn.createStatement()) {
+
+                stmt.execute("LISTEN " + ALL_CHANNEL);
+                stmt.execute("LISTEN " + NODE_CHANNEL_PREFIX + nodeId);
+                PGConnection pgConnection = conn.unwrap(PGConnection.class);
+                System.out.println("[Cluster] Node " + nodeId + " listening");
+                delay = 500;
+                if (reconnecting) {
+                    listener.onReconnect();
+                }
+
+                while (running.get()) {
+                    PGNotification[] notifications = pgConnection.getNotifications(POLL_TIMEOUT_MS);
+                    if (notifications == null) {
+                        continue;
+                    }
+                    for (PGNotification notification : notifications) {
+                        try {
+                            listener.onMessage(notification.getParameter());
+                        } catch (Exception e) {
+                            System.err.println("[Cluster] Failed to handle message: " + e.getMessage());
+                        }
+                    }
+                }
+            } catch (Exception e) {
+                if (!running.get()) {
+                    return;
+                }
+                System.err.println("[Cluster] Listener connection lost: " + e.getMessage());
+                reconnecting = true;
+                try {
+                    Thread.sleep(delay);
+                } catch (InterruptedException ie) {
+                    return;
+                }
+                delay = Math.min(delay * 2, MAX_RECONNECT_DELAY_MS);
+            }
+        }
+    }
+
+    @Override
+    public void publish(String payload) {
+        notify(ALL_CHANNEL, payload);
+    }
+
+    @Override
+    public void publishToNode(String targetNodeId, String payload) {
+        notify(NODE_CHANNEL_PREFIX + targetNodeId, payload);
+    }
+
+    private void notify(String channel, String payload) {
+        synchronized (publishLock) {
+            for (int attempt = 0; attempt < 2; attempt++) {
+                try {
+                    if (notifyStatement == null) {
+                        publishConnection = Database.getConnection();
+                        notifyStatement = publishConnection.prepareStatement("SELECT pg_notify(?, ?)");
+                    }
+                    notifyStatement.setString(1, channel);
+                    notifyStatement.setString(2, payload);
+                    notifyStatement.execute();
+                    return;
+                } catch (Exception e) {
+                    System.err.println("[Cluster] Publish failed: " + e.getMessage());
+                    closePublisher();
+                }
+            }
+            throw new IllegalStateException("Cluster publish failed on channel " + channel);
+        }
+    }
+
+    private void closePublisher() {
+        try {
+            if (publishConnection != null) {
+                publishConnection.close();
+            }
+        } catch (SQLException e) {
+            // ignore, connection is being replaced
+        }
+        publishConnection = null;
+        notifyStatement = null;
+    }
+
+    @Override
+    public int getMaxPayloadBytes() {
+        return MAX_PAYLOAD_BYTES;
+    }
+
+    @Override
+    public void stop() {
+        running.set(false);
+        if (listenerThread != null) {
+            listenerThread.interrupt();
+            listenerThread = null;
+        }
+        synchronized (publishLock) {
+            closePublisher();
+        }
+    }
+}
@@ -1,20 +1,81 @@
 package com.clubsportif.config;
 
+import com.clubsportif.metrics.SlowQueryLog;
+
 import java.sql.Connection;
 import java.sql.DriverManager;
 
+/**
+ * JDBC connections configured by db.properties.
+ * Unless db.slowQuery.enabled is false, connections are wrapped by
+ * {@link MonitoredConnection} so every statement is timed into
+ * {@link SlowQueryLog}. db.slowQuery.thresholdMs (default 200) and
+ * db.slowQuery.explainSampleRate (default 0.1) tune the slow-query log,
+ * which only logs the values of bound parameters, passwords and login
+ * tokens included, when db.slowQuery.logParameterValues is true;
+ * like the connection settings they can be overridden with -D flags, as
+ * can the other db.* settings read through {@link #getInt}.
+ */
 public class Database {
 
     private static final String PROPERTIES_FILE = "/db.properties";
 
+    private static final java.util.Properties props = load();
+    private static final boolean MONITORED = Boolean.parseBoolean(setting("db.slowQuery.enabled", "true"));
+
+    static {
+        SlowQueryLog.configure(
+                Long.parseLong(setting("db.slowQuery.thresholdMs", "200")),
+                Double.parseDouble(setting("db.slowQuery.explainSampleRate", "0.1")),
+                Boolean.parseBoolean(setting("db.slowQuery.logParameterValues", "false")),
+                Database::openConnection);
+    }
+
+    private static java.util.Properties load() {
+        java.util.Properties properties = new java.util.Properties();
+        try (java.io.InputStream input = Database.class.getResourceAsStream(PROPERTIES_FILE)) {
+            if (input != null) {
+                properties.load(input);
+            }
+        } catch (Exception e) {
+            System.err.println("[Database] Failed to load " + PROPERTIES_FILE + ": " + e.getMessage());
+        }
+        return properties;
+    }
+
+    private static String setting(String key, String defaultValue) {
+        return System.getProperty(key, props.getProperty(key, defaultValue)).trim();
+    }
+
+    /**
+     * An integer db.* setting, e.g. db.archive.horizonDays.
+     */
+    public static int getInt(String key, int defaultValue) {
+        String value = setting(key, String.valueOf(defaultValue));
+        try {
+            return Integer.parseInt(value);
+        } catch (NumberFormatException e) {
+            System.err.println("[Database] Invalid integer for " + key + ": " + value);
+            return defaultValue;
+        }
+    }
+
+    /**
+     * The configured JDBC URL, e.g. to tell which database cached rows came from.
+     */
+    public static String getUrl() {
+        return props.getProperty("db.url");
+    }
+
     public static Connection getConnection() {
+        Connection connection = openConnection();
+        return MONITORED ? MonitoredConnection.wrap(connection) : connection;
+    }
+
+    private static Connection openConnection() {
         try {
-            java.util.Properties props = new java.util.Properties();
-            try (java.io.InputStream input = Database.class.getResourceAsStream(PROPERTIES_FILE)) {
-                if (input == null) {
-                    throw new RuntimeException("Sorry, unable to find " + PROPERTIES_FILE);
-                }
-                props.load(input);
+            if (props.isEmpty()) {
+                throw new RuntimeException("Sorry, unable to find " + PROPERTIES_FILE);
             }
             return DriverManager.getConnection(
                 props.getProperty("db.url"),
@@ -8,6 +8,12 @@ public class DatabaseInitializer {
     public static void initializeTables() {
         createMembersTable();
         createRequestsTable();
+        createRequestsIndexes();
+        createChangeLogTables();
+        addChangeTracking("members");
+        addChangeTracking("requests");
+        createRequestsArchive();
+        createLoginTokensTable();
         System.out.println("Database tables initialized successfully.");
     }
 
@@ -38,6 +44,107 @@ public class DatabaseInitializer {
         executeSQL(sql);
     }
 
+    /**
+     * Indexes for the requests read by date (the archiver and daily counts),
+     * by user, and for the admin's pending queue. Only open requests are in
+     * the queue index, so it stays small however long the history.
+     */
+    private static void createRequestsIndexes() {
+        executeSQL("CREATE INDEX IF NOT EXISTS requests_request_date_idx ON requests (request_date)");
+        executeSQL("CREATE INDEX IF NOT EXISTS requests_user_id_idx ON requests (user_id)");
+        executeSQL("CREATE INDEX IF NOT EXISTS requests_pending_idx ON requests (request_date, id) WHERE status = 'PENDING'");
+    }
+
+    /**
+     * Adds change_xid, the id of the transaction that last wrote the row,
+     * and updated_at, both kept current by a trigger, so clients can fetch
+     * only the rows changed since their last read (see TableChanges).
+     * updated_at is only shown: it is the transaction start time, so it
+     * cannot tell which rows a long transaction committed after a read. The
+     * trigger skips updates that change nothing, so they do not look like
+     * changes.
+     */
+    private static void addChangeTracking(String table) {
+        executeSQL("ALTER TABLE " + table + " ADD COLUMN IF NOT EXISTS " +
+                   "updated_at TIMESTAMPTZ NOT NULL DEFAULT now()");
+        executeSQL("ALTER TABLE " + table + " ADD COLUMN IF NOT EXISTS " +
+                   "change_xid BIGINT NOT NULL DEFAULT pg_current_xact_id()::text::bigint");
+        executeSQL("CREATE INDEX IF NOT EXISTS " + table + "_change_xid_idx ON " + table + " (change_xid)");
+        executeSQL("CREATE OR REPLACE FUNCTION touch_updated_at() RETURNS trigger AS $$ " +
+                   "BEGIN NEW.updated_at := now(); NEW.change_xid := pg_current_xact_id()::text::bigint; RETURN NEW; END; " +
+                   "$$ LANGUAGE plpgsql");
+        executeSQL("DROP TRIGGER IF EXISTS " + table + "_touch_updated_at ON " + table);
+        executeSQL("CREATE TRIGGER " + table + "_touch_updated_at BEFORE UPDATE ON " + table + " " +
+                   "FOR EACH ROW WHEN (OLD IS DISTINCT FROM NEW) EXECUTE FUNCTION touch_updated_at()");
+        executeSQL("DROP TRIGGER IF EXISTS " + table + "_record_deleted_row ON " + table);
+        executeSQL("CREATE TRIGGER " + table + "_record_deleted_row AFTER DELETE ON " + table + " " +
+                   "FOR EACH ROW EXECUTE FUNCTION record_deleted_row()");
+    }
+
+    /**
+     * deleted_rows keeps a tombstone per deleted row for incremental
+     * exports, versioned by change_xid like the rows themselves;
+     * export_watermarks records how far each export target got.
+     */
+    private static void createChangeLogTables() {
+        executeSQL("CREATE TABLE IF NOT EXISTS deleted_rows (" +
+                   "table_name VARCHAR(50) NOT NULL, " +
+                   "row_id INTEGER NOT NULL, " +
+                   "deleted_at TIMESTAMPTZ NOT NULL DEFAULT now(), " +
+                   "change_xid BIGINT NOT NULL DEFAULT pg_current_xact_id()::text::bigint" +
+                   ")");
+        executeSQL("CREATE INDEX IF NOT EXISTS deleted_rows_table_change_xid_idx ON deleted_rows (table_name, change_xid)");
+        // Rows moved to an archive table by RequestArchiver are not deletions
+        executeSQL("CREATE OR REPLACE FUNCTION record_deleted_row() RETURNS trigger AS $$ " +
+                   "BEGIN " +
+                   "IF current_setting('clubsportif.archiving', true) = 'on' THEN RETURN OLD; END IF; " +
+                   "INSERT INTO deleted_rows (table_name, row_id) VALUES (TG_TABLE_NAME, OLD.id); RETURN OLD; " +
+                   "END; " +
+                   "$$ LANGUAGE plpgsql");
+        executeSQL("CREATE TABLE IF NOT EXISTS export_watermarks (" +
+                   "target VARCHAR(100) NOT NULL, " +
+                   "table_name VARCHAR(50) NOT NULL, " +
+                   "change_mark BIGINT, " +
+                   "sequence INTEGER NOT NULL, " +
+                   "PRIMARY KEY (target, table_name)" +
+                   ")");
+    }
+
+    /**
+     * Decided requests past the retention horizon are moved from requests to
+     * requests_archive by RequestArchiver, so the table the app reads only
+     * holds recent and open requests. The archive is partitioned by year of
+     * request_date; the archiver adds each year's partition before moving
+     * rows into it, and the default partition only catches the rest.
+     */
+    private static void createRequestsArchive() {
+        executeSQL("CREATE TABLE IF NOT EXISTS requests_archive (" +
+                   "id INTEGER NOT NULL, " +
+                   "user_id INTEGER NOT NULL, " +
+                   "nom VARCHAR(100) NOT NULL, " +
+                   "prenom VARCHAR(100) NOT NULL, " +
+                   "subscription VARCHAR(50) NOT NULL, " +
+                   "request_date DATE NOT NULL, " +
+                   "status VARCHAR(20) NOT NULL, " +
+                   "archived_at TIMESTAMPTZ NOT NULL DEFAULT now(), " +
+                   "PRIMARY KEY (id, request_date)" +
+                   ") PARTITION BY RANGE (request_date)");
+        executeSQL("CREATE TABLE IF NOT EXISTS requests_archive_default PARTITION OF requests_archive DEFAULT");
+        executeSQL("CREATE INDEX IF NOT EXISTS requests_archive_user_id_idx ON requests_archive (user_id)");
+    }
+
+    /**
+     * Tokens issued at login; the WebSocket server only trusts the role of
+     * a client that registers with one.
+     */
+    private static void createLoginTokensTable() {
+        executeSQL("CREATE TABLE IF NOT EXISTS login_tokens (" +
+                   "token VARCHAR(64) PRIMARY KEY, " +
+                   "user_id INTEGER NOT NULL, " +
+                   "expires_at TIMESTAMPTZ NOT NULL" +
+                   ")");
+    }
+
     private static void executeSQL(String sql) {
         try (Connection conn = Database.getConnection();
              Statement stmt = conn.createStatement()) {
@@ -0,0 +1,144 @@
+package com.clubsportif.config;
+
+import com.clubsportif.metrics.SlowQueryLog;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.Arrays;
+
+/**
+ * JDBC interception layer: dynamic proxies around a Connection and the
+ * statements and result sets it hands out, reporting every executed
+ * statement to {@link SlowQueryLog}.
+ * <p>
+ * Updates are reported when they return. Queries are reported when their
+ * result set (or, failing that, the statement) is closed, so the row count
+ * is known; the time is that of the execute call only.
+ */
+final class MonitoredConnection {
+
+    private static final ClassLoader LOADER = MonitoredConnection.class.getClassLoader();
+
+    private MonitoredConnection() {
+        // prevent instantiation
+    }
+
+    static Connection wrap(Connection connection) {
+        return (Connection) Proxy.newProxyInstance(LOADER, new Class<?>[]{Connection.class},
+                (proxy, method, args) -> {
+                    Object result = invoke(connection, method, args);
+                    return switch (method.getName()) {
+                        case "prepareStatement" -> statement((Statement) result, PreparedStatement.class, (String) args[0]);
+                        case "createStatement" -> statement((Statement) result, Statement.class, null);
+                        default -> result;
+                    };
+                });
+    }
+
+    private static Statement statement(Statement statement, Class<? extends Statement> type, String sql) {
+        return (Statement) Proxy.newProxyInstance(LOADER, new Class<?>[]{type},
+                new StatementHandler(statement, sql));
+    }
+
+    private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+
+    /**
+     * Remembers the SQL and bound parameters of one statement and times its executions.
+     */
+    private static final class StatementHandler implements InvocationHandler {
+
+        private static final Object[] NO_PARAMS = new Object[0];
+
+        private final Statement statement;
+        private final String preparedSql;
+        private Object[] params = NO_PARAMS;
+
+        // Query waiting for its result set to be read
+        private String pendingSql;
+        private Object[] pendingParams;
+        private long pendingNanos;
+        private long pendingRows;
+
+        StatementHandler(Statement statement, String preparedSql) {
+            this.statement = statement;
+            this.preparedSql = preparedSql;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            String name = method.getName();
+            if (name.startsWith("set") && args != null && args.length >= 2 && args[0] instanceof Integer index
+                    && method.getDeclaringClass() == PreparedStatement.class) {
+                bind(index, "setNull".equals(name) ? null : args[1]);
+            } else if ("clearParameters".equals(name)) {
+                params = NO_PARAMS;
+            } else if ("close".equals(name)) {
+                flush();
+            } else if (name.startsWith("execute") && !"executeBatch".equals(name)) {
+                return execute(method, args);
+            }
+            return MonitoredConnection.invoke(statement, method, args);
+        }
+
+        private void bind(int index, Object value) {
+            if (index > params.length) {
+                params = Arrays.copyOf(params, index);
+            }
+            params[index - 1] = value;
+        }
+
+        private Object execute(Method method, Object[] args) throws Throwable {
+            flush();
+            boolean prepared = args == null || args.length == 0 || !(args[0] instanceof String);
+            String sql = prepared ? preparedSql : (String) args[0];
+            Object[] bound = prepared ? params.clone() : NO_PARAMS;
+            long start = System.nanoTime();
+            Object result = MonitoredConnection.invoke(statement, method, args);
+            long nanos = System.nanoTime() - start;
+
+            if (result instanceof ResultSet rs) {
+                pendingSql = sql;
+                pendingParams = bound;
+                pendingNanos = nanos;
+                pendingRows = 0;
+                return resultSet(rs);
+            }
+            long rows = result instanceof Number n ? n.longValue() : -1;
+            SlowQueryLog.record(sql, bound, nanos, rows);
+            return result;
+        }
+
+        private ResultSet resultSet(ResultSet rs) {
+            return (ResultSet) Proxy.newProxyInstance(LOADER, new Class<?>[]{ResultSet.class},
+                    (proxy, method, args) -> {
+                        Object result = MonitoredConnection.invoke(rs, method, args);
+                        if ("next".equals(method.getName()) && Boolean.TRUE.equals(result)) {
+                            pendingRows++;
+                        } else if ("close".equals(method.getName())) {
+                            flush();
+                        }
+                        return result;
+                    });
+        }
+
+        private void flush() {
+            if (pendingSql != null) {
+                SlowQueryLog.record(pendingSql, pendingParams, pendingNanos, pendingRows);
+                pendingSql = null;
+                pendingParams = null;
+            }
+        }
+    }
+}
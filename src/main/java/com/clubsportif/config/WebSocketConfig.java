@@ -0,0 +1,64 @@
+package com.clubsportif.config;
+
+import java.io.InputStream;
+import java.util.Properties;
+
+/**
+ * WebSocket settings loaded from websocket.properties.
+ * Any key can be overridden with a JVM system property of the same name
+ * (e.g. -Dws.deflate.threshold=512).
+ */
+public class WebSocketConfig {
+
+    private static final String PROPERTIES_FILE = "/websocket.properties";
+
+    private static final Properties props = load();
+
+    private WebSocketConfig() {
+        // prevent instantiation
+    }
+
+    private static Properties load() {
+        Properties properties = new Properties();
+        try (InputStream input = WebSocketConfig.class.getResourceAsStream(PROPERTIES_FILE)) {
+            if (input != null) {
+                properties.load(input);
+            }
+        } catch (Exception e) {
+            System.err.println("[Config] Failed to load " + PROPERTIES_FILE + ": " + e.getMessage());
+        }
+        return properties;
+    }
+
+    public static String getString(String key, String defaultValue) {
+        String value = System.getProperty(key, props.getProperty(key));
+        return value != null && !value.isBlank() ? value.trim() : defaultValue;
+    }
+
+    public static int getInt(String key, int defaultValue) {
+        String value = getString(key, null);
+        if (value == null) return defaultValue;
+        try {
+            return Integer.parseInt(value);
+        } catch (NumberFormatException e) {
+            System.err.println("[Config] Invalid integer for " + key + ": " + value);
+            return defaultValue;
+        }
+    }
+
+    public static long getLong(String key, long defaultValue) {
+        String value = getString(key, null);
+        if (value == null) return defaultValue;
+        try {
+            return Long.parseLong(value);
+        } catch (NumberFormatException e) {
+            System.err.println("[Config] Invalid number for " + key + ": " + value);
+            return defaultValue;
+        }
+    }
+
+    public static boolean getBoolean(String key, boolean defaultValue) {
+        String value = getString(key, null);
+        return value != null ? Boolean.parseBoolean(value) : defaultValue;
+    }
+}
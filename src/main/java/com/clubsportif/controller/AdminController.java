@@ -6,12 +6,19 @@ import com.clubsportif.dao.ReactiveMemberDAO;
 import com.clubsportif.dao.ReactiveRequestDAO;
 import com.clubsportif.dao.RequestDAO;
 import com.clubsportif.dao.UserDAO;
+import com.clubsportif.metrics.TableRefreshEvent;
 import com.clubsportif.model.Member;
+import com.clubsportif.model.MemberStore;
 import com.clubsportif.model.Request;
+import com.clubsportif.model.Subscription;
 import com.clubsportif.model.User;
+import com.clubsportif.service.AdminSnapshotCache;
+import com.clubsportif.service.AuthService;
+import com.clubsportif.service.ColumnarExportService;
+import com.clubsportif.service.CsvExportService;
+import com.clubsportif.service.MemberCsvImporter;
 import com.clubsportif.service.ReactiveStatsService;
 import com.clubsportif.service.Session;
-import com.clubsportif.websocket.ClubServerEndpoint;
 import com.clubsportif.websocket.WebSocketClientService;
 import javafx.application.Platform;
 import javafx.scene.control.Button;
@@ -21,6 +28,7 @@ import javafx.beans.property.SimpleStringProperty;
 import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
 import javafx.event.ActionEvent;
+import javafx.event.EventHandler;
 import javafx.fxml.FXML;
 import javafx.beans.binding.DoubleBinding;
 import javafx.scene.control.TableColumn;
@@ -36,16 +44,22 @@ import javafx.scene.layout.HBox;
 import javafx.scene.layout.VBox;
 import javafx.stage.Modality;
 import javafx.stage.Stage;
+import javafx.stage.WindowEvent;
 import reactor.core.Disposable;
+import reactor.core.publisher.Mono;
 
 import java.time.Duration;
 import java.time.LocalDate;
 import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.LongConsumer;
 import javafx.stage.FileChooser;
 import java.io.File;
-import java.io.FileWriter;
-import java.io.IOException;
 
 public class AdminController {
 
@@ -85,6 +99,9 @@ public class AdminController {
     @FXML private TableColumn<Request, String> requestDateCol;
     @FXML private TableColumn<Request, String> requestStatusCol;
     @FXML private TableColumn<Request, Void> requestActionsCol;
+    @FXML private Label pendingCountLabel;
+    @FXML private CheckBox allRequestsCheck;
+    @FXML private Button loadMoreRequestsBtn;
 
     // ================= DATA =================
     private MemberDAO memberDAO;
@@ -92,12 +109,35 @@ public class AdminController {
     private ReactiveMemberDAO reactiveMemberDAO;
     private ReactiveRequestDAO reactiveRequestDAO;
     private ReactiveStatsService statsService;
+    private CsvExportService csvExportService;
+    private ColumnarExportService columnarExportService;
+    private MemberCsvImporter memberCsvImporter;
     private ObservableList<Member> membersList;
+    // Rows behind membersList; the table shows and sorts them without a Member per row
+    private MemberStore.View memberRows;
     private ObservableList<Request> requestsList;
+    // Rows as last read and the change marks they are current to (FX thread);
+    // saved locally on close so the next session starts from them, see AdminSnapshotCache
+    private MemberStore memberStore = MemberStore.builder().build();
+    private Long membersMark;
+    private List<Request> requestRows = List.of();
+    private Long requestsMark;
+    // Last row of the pending queue shown, where the next page starts (FX thread)
+    private Request lastPendingRequest;
+    private final EventHandler<WindowEvent> closeHandler = event -> cleanup();
+    // Order of the requests table (was ORDER BY request_date DESC)
+    private static final Comparator<Request> NEWEST_FIRST = Comparator
+        .comparing(Request::getRequestDate, Comparator.nullsLast(Comparator.reverseOrder()))
+        .thenComparing(Comparator.comparingInt(Request::getId).reversed());
+    private static final int PENDING_PAGE_SIZE = 200;
+    private static final int MAX_SHOWN_IMPORT_ERRORS = 500;
     private DateTimeFormatter dateFormatter = DateTimeFormatter.ofPattern("dd/MM/yy");
 
     // ================= REACTIVE & WEBSOCKET =================
     private WebSocketClientService wsClient;
+    private final AuthService authService = new AuthService();
+    // Proves to the WebSocket server that this session is an admin's; revoked on cleanup
+    private String wsToken;
     private Disposable statsSubscription;
 
     // ================= INITIALIZATION =================
@@ -108,6 +148,9 @@ public class AdminController {
         reactiveMemberDAO = new ReactiveMemberDAO(memberDAO);
         reactiveRequestDAO = new ReactiveRequestDAO(requestDAO);
         statsService = new ReactiveStatsService(reactiveMemberDAO, reactiveRequestDAO);
+        csvExportService = new CsvExportService(memberDAO, requestDAO);
+        columnarExportService = new ColumnarExportService();
+        memberCsvImporter = new MemberCsvImporter(memberDAO);
         membersList = FXCollections.observableArrayList();
         requestsList = FXCollections.observableArrayList();
 
@@ -124,6 +167,9 @@ public class AdminController {
         setupMembersTable();
         setupRequestsTable();
 
+        // Show the rows saved by the last session, then fetch what changed since
+        restoreSnapshot();
+
         // Load initial data
         loadDashboardStats();
         loadMembers();
@@ -132,6 +178,10 @@ public class AdminController {
         Platform.runLater(() -> {
             membersTable.setColumnResizePolicy(TableView.CONSTRAINED_RESIZE_POLICY);
             requestsTable.setColumnResizePolicy(TableView.CONSTRAINED_RESIZE_POLICY);
+            // Closing the window skips logout, so save the snapshot there too
+            if (membersTable.getScene() != null) {
+                membersTable.getScene().getWindow().addEventHandler(WindowEvent.WINDOW_CLOSE_REQUEST, closeHandler);
+            }
         });
 
         // Initialize WebSocket client
@@ -169,6 +219,14 @@ public class AdminController {
             loadDashboardStats();
         });
 
+        // Missed events could not be replayed after a reconnect - reload everything
+        wsClient.setOnResync(message -> {
+            System.out.println("[Admin] Resync requested by server");
+            loadMembers();
+            loadRequests();
+            loadDashboardStats();
+        });
+
         // Handle connection state changes
         wsClient.setOnConnectionStateChanged(connected -> {
             System.out.println("[Admin] WebSocket connection: " + (connected ? "connected" : "disconnected"));
@@ -177,7 +235,8 @@ public class AdminController {
         // Connect with admin role
         User currentUser = Session.getCurrentUser();
         if (currentUser != null) {
-            wsClient.connect(currentUser.getId(), "ADMIN");
+            wsToken = authService.issueToken(currentUser);
+            wsClient.connect(currentUser.getId(), "ADMIN", wsToken);
         }
     }
 
@@ -199,12 +258,18 @@ public class AdminController {
      * Clean up resources when controller is destroyed.
      */
     public void cleanup() {
+        if (membersTable.getScene() != null) {
+            membersTable.getScene().getWindow().removeEventHandler(WindowEvent.WINDOW_CLOSE_REQUEST, closeHandler);
+        }
+        AdminSnapshotCache.save(new AdminSnapshotCache.Snapshot(memberStore, membersMark, requestRows, requestsMark));
         if (statsSubscription != null && !statsSubscription.isDisposed()) {
             statsSubscription.dispose();
         }
         if (wsClient != null) {
             wsClient.shutdown();
         }
+        authService.revokeToken(wsToken);
+        wsToken = null;
     }
 
     // ================= NAVIGATION =================
@@ -325,20 +390,60 @@ public class AdminController {
         });
 
         membersTable.setItems(membersList);
+        // Sort the view's row order on the store's columns instead of the rows themselves
+        Map<TableColumn<Member, ?>, MemberStore.Column> sortColumns = Map.of(
+            memberIdCol, MemberStore.Column.ID,
+            memberNomCol, MemberStore.Column.NOM,
+            memberPrenomCol, MemberStore.Column.PRENOM,
+            memberSubscriptionCol, MemberStore.Column.SUBSCRIPTION,
+            memberDateEndCol, MemberStore.Column.DATE_END,
+            memberStatusCol, MemberStore.Column.STATUS);
+        membersTable.setSortPolicy(table -> {
+            if (memberRows != null) {
+                List<MemberStore.SortKey> keys = new ArrayList<>();
+                for (TableColumn<Member, ?> column : table.getSortOrder()) {
+                    MemberStore.Column sortColumn = sortColumns.get(column);
+                    if (sortColumn != null) {
+                        keys.add(new MemberStore.SortKey(sortColumn,
+                            column.getSortType() == TableColumn.SortType.ASCENDING));
+                    }
+                }
+                memberRows.sort(keys);
+                table.refresh();
+            }
+            return true;
+        });
     }
 
     private void loadMembers() {
+        TableRefreshEvent refresh = new TableRefreshEvent();
+        refresh.begin();
+        MemberStore base = memberStore;
         reactiveMemberDAO.updateMemberStatuses()
-            .thenMany(reactiveMemberDAO.getAllMembers())
-            .collectList()
-            .subscribe(members -> Platform.runLater(() -> {
-                membersList.clear();
-                membersList.addAll(members);
-            }), error -> {
+            .then(reactiveMemberDAO.getMembersChangedSince(membersMark))
+            .subscribe(changes -> {
+                // Merge off the FX thread; a full read replaces the rows
+                MemberStore store = (changes.isFullRead() ? MemberStore.builder().build() : base)
+                    .merge(changes.rows(), changes::isLive);
+                Platform.runLater(() -> {
+                    long fxStart = System.nanoTime();
+                    memberStore = store;
+                    membersMark = changes.changeMark();
+                    showMembers(store);
+                    commitRefresh(refresh, "members", changes.rows().size(), fxStart);
+                });
+            }, error -> {
                 System.err.println("[Admin] Failed to load members: " + error.getMessage());
             });
     }
 
+    private void showMembers(MemberStore store) {
+        memberRows = store.view();
+        membersList = FXCollections.observableList(memberRows);
+        membersTable.setItems(membersList);
+        membersTable.sort();
+    }
+
     @FXML
     public void refreshMembers() {
         loadMembers();
@@ -351,71 +456,146 @@ public class AdminController {
 
     @FXML
     public void exportMembersToCsv() {
+        File file = chooseExportFile("Export Members to CSV", "members_export_");
+        if (file != null) {
+            runWithProgress("Exporting members", file, memberStore.size(),
+                progress -> isArrow(file)
+                    ? columnarExportService.exportMembers(file.toPath(), progress)
+                    : csvExportService.exportMembers(file.toPath(), isGzip(file), progress),
+                rows -> showExportDone("members", rows, file));
+        }
+    }
+
+    @FXML
+    public void exportRequestsToCsv() {
+        File file = chooseExportFile("Export Requests to CSV", "requests_export_");
+        if (file != null) {
+            runWithProgress("Exporting requests", file, requestRows.size(),
+                progress -> isArrow(file)
+                    ? columnarExportService.exportRequests(file.toPath(), progress)
+                    : csvExportService.exportRequests(file.toPath(), isGzip(file), progress),
+                rows -> showExportDone("requests", rows, file));
+        }
+    }
+
+    @FXML
+    public void importMembersFromCsv() {
         FileChooser fileChooser = new FileChooser();
-        fileChooser.setTitle("Export Members to CSV");
+        fileChooser.setTitle("Import Members from CSV");
         fileChooser.getExtensionFilters().add(new FileChooser.ExtensionFilter("CSV Files", "*.csv"));
-        fileChooser.setInitialFileName("members_export_" + LocalDate.now().toString() + ".csv");
-        
-        File file = fileChooser.showSaveDialog(membersTable.getScene().getWindow());
-        
+        File file = fileChooser.showOpenDialog(membersTable.getScene().getWindow());
         if (file != null) {
-            reactiveMemberDAO.getAllMembers()
-                .collectList()
-                .subscribe(members -> {
-                    try (FileWriter writer = new FileWriter(file)) {
-                        // Write header
-                        writer.write("ID,Last Name,First Name,Subscription,Start Date,End Date,Status\n");
-                        
-                        // Write data
-                        for (Member member : members) {
-                            writer.write(String.format("%d,%s,%s,%s,%s,%s,%s\n",
-                                member.getId(),
-                                escapeCsv(member.getNom()),
-                                escapeCsv(member.getPrenom()),
-                                escapeCsv(member.getSubscription()),
-                                member.getDateStart(),
-                                member.getDateEnd(),
-                                member.getStatus()
-                            ));
-                        }
-                        
-                        Platform.runLater(() -> {
-                            Alert alert = new Alert(Alert.AlertType.INFORMATION);
-                            alert.setTitle("Export Successful");
-                            alert.setHeaderText(null);
-                            alert.setContentText("Members exported successfully to " + file.getName());
-                            alert.showAndWait();
-                        });
-                        
-                    } catch (IOException e) {
-                        Platform.runLater(() -> {
-                            Alert alert = new Alert(Alert.AlertType.ERROR);
-                            alert.setTitle("Export Error");
-                            alert.setHeaderText("Failed to export members");
-                            alert.setContentText(e.getMessage());
-                            alert.showAndWait();
-                        });
-                        e.printStackTrace();
+            runWithProgress("Importing members", file, 0,
+                // Batches committed before a cancel stay, so reload then too
+                progress -> memberCsvImporter.importMembers(file.toPath(), progress)
+                    .doOnCancel(() -> Platform.runLater(this::loadMembers)),
+                report -> {
+                    if (report.imported() > 0) {
+                        loadMembers();
+                        loadDashboardStats();
+                        wsClient.notifyDataRefresh("members");
                     }
-                }, error -> {
-                    Platform.runLater(() -> {
-                        Alert alert = new Alert(Alert.AlertType.ERROR);
-                        alert.setTitle("Export Error");
-                        alert.setHeaderText("Failed to fetch members");
-                        alert.setContentText(error.getMessage());
-                        alert.showAndWait();
-                    });
+                    showImportReport(report, file);
                 });
         }
     }
 
-    private String escapeCsv(String data) {
-        if (data == null) return "";
-        String escapedData = data.replaceAll("\"", "\"\"");
-        if (escapedData.contains(",") || escapedData.contains("\n") || escapedData.contains("\"")) {
-            data = "\"" + escapedData + "\"";
+    private File chooseExportFile(String title, String prefix) {
+        FileChooser fileChooser = new FileChooser();
+        fileChooser.setTitle(title);
+        fileChooser.getExtensionFilters().addAll(
+            new FileChooser.ExtensionFilter("CSV Files", "*.csv"),
+            new FileChooser.ExtensionFilter("Compressed CSV Files", "*.csv.gz"),
+            new FileChooser.ExtensionFilter("Arrow IPC Files (pandas, polars, DuckDB)", "*.arrow"));
+        fileChooser.setInitialFileName(prefix + LocalDate.now().toString() + ".csv");
+        return fileChooser.showSaveDialog(membersTable.getScene().getWindow());
+    }
+
+    private static boolean isGzip(File file) {
+        return file.getName().endsWith(".gz");
+    }
+
+    private static boolean isArrow(File file) {
+        return file.getName().endsWith(".arrow");
+    }
+
+    private void showExportDone(String table, long rows, File file) {
+        Alert alert = new Alert(Alert.AlertType.INFORMATION);
+        alert.setTitle("Export Successful");
+        alert.setHeaderText(null);
+        alert.setContentText(rows + " " + table + " exported successfully to " + file.getName());
+        alert.showAndWait();
+    }
+
+    private void showImportReport(MemberCsvImporter.ImportReport report, File file) {
+        Alert alert = new Alert(report.errors().isEmpty() ? Alert.AlertType.INFORMATION : Alert.AlertType.WARNING);
+        alert.setTitle("Import Finished");
+        alert.setHeaderText(file.getName());
+        alert.setContentText(String.format("%d rows read, %d members imported, %d rows rejected%s.%n%.0f rows/s",
+            report.rows(), report.imported(), report.errors().size(),
+            report.cancelled() ? " (cancelled)" : "", report.rowsPerSecond()));
+        if (!report.errors().isEmpty()) {
+            StringBuilder text = new StringBuilder();
+            report.errors().stream().limit(MAX_SHOWN_IMPORT_ERRORS).forEach(error ->
+                text.append("Line ").append(error.line()).append(": ").append(error.message()).append('\n'));
+            if (report.errors().size() > MAX_SHOWN_IMPORT_ERRORS) {
+                text.append("... and ").append(report.errors().size() - MAX_SHOWN_IMPORT_ERRORS).append(" more\n");
+            }
+            TextArea errors = new TextArea(text.toString());
+            errors.setEditable(false);
+            errors.setPrefRowCount(12);
+            alert.getDialogPane().setExpandableContent(errors);
+            alert.getDialogPane().setExpanded(true);
         }
-        return data;
+        alert.showAndWait();
+    }
+
+    /**
+     * Run a background task behind a progress dialog whose Cancel button
+     * stops it. {@code expectedRows} only scales the bar (0: indeterminate).
+     */
+    private <T> void runWithProgress(String title, File file, int expectedRows,
+                                     Function<LongConsumer, Mono<T>> task, Consumer<T> onDone) {
+        ProgressBar progressBar = new ProgressBar(expectedRows > 0 ? 0 : ProgressBar.INDETERMINATE_PROGRESS);
+        progressBar.setPrefWidth(320);
+        Label progressLabel = new Label("Starting...");
+        VBox content = new VBox(12, progressLabel, progressBar);
+        content.setPadding(new Insets(20));
+
+        Dialog<ButtonType> dialog = new Dialog<>();
+        dialog.setTitle(title);
+        dialog.setHeaderText(file.getName());
+        dialog.getDialogPane().setContent(content);
+        dialog.getDialogPane().getButtonTypes().add(ButtonType.CANCEL);
+        dialog.initOwner(membersTable.getScene().getWindow());
+
+        Disposable running = task.apply(rows -> Platform.runLater(() -> {
+                progressLabel.setText(rows + " rows");
+                if (expectedRows > 0) {
+                    progressBar.setProgress(Math.min(1.0, (double) rows / expectedRows));
+                }
+            }))
+            .subscribe(result -> Platform.runLater(() -> {
+                dialog.setResult(ButtonType.OK);
+                dialog.close();
+                onDone.accept(result);
+            }), error -> Platform.runLater(() -> {
+                dialog.setResult(ButtonType.OK);
+                dialog.close();
+                Alert alert = new Alert(Alert.AlertType.ERROR);
+                alert.setTitle("Error");
+                alert.setHeaderText(title + " failed");
+                alert.setContentText(error.getMessage());
+                alert.showAndWait();
+                error.printStackTrace();
+            }));
+
+        dialog.showAndWait()
+            .filter(response -> response == ButtonType.CANCEL)
+            .ifPresent(response -> {
+                running.dispose();
+                System.out.println("[Admin] " + title + " cancelled");
+            });
     }
 
     private void showMemberOptionsDialog(Member member) {
@@ -431,7 +611,7 @@ public class AdminController {
         nameLabel.setStyle("-fx-font-size: 14px; -fx-font-weight: 600;");
 
         ComboBox<String> subscriptionCombo = new ComboBox<>();
-        subscriptionCombo.getItems().addAll("1 month", "3 months", "1 year");
+        subscriptionCombo.getItems().addAll(Subscription.PLANS);
         subscriptionCombo.setValue(member.getSubscription());
         subscriptionCombo.setPromptText("Select subscription");
 
@@ -461,7 +641,7 @@ public class AdminController {
                         loadMembers();
                         loadDashboardStats();
                         // Notify status change
-                        ClubServerEndpoint.notifyDataRefresh("members");
+                        wsClient.notifyDataRefresh("members");
                     })).subscribe();
             } else if (response.getButtonData() == ButtonBar.ButtonData.OTHER) {
                 // Cancel subscription
@@ -471,7 +651,7 @@ public class AdminController {
                     .doOnSuccess(v -> Platform.runLater(() -> {
                         loadMembers();
                         loadDashboardStats();
-                        ClubServerEndpoint.notifyDataRefresh("members");
+                        wsClient.notifyDataRefresh("members");
                     })).subscribe();
             }
         });
@@ -492,7 +672,7 @@ public class AdminController {
         prenomField.setPromptText("First name");
 
         ComboBox<String> subscriptionCombo = new ComboBox<>();
-        subscriptionCombo.getItems().addAll("1 month", "3 months", "1 year");
+        subscriptionCombo.getItems().addAll(Subscription.PLANS);
         subscriptionCombo.setPromptText("Select subscription");
 
         content.getChildren().addAll(
@@ -522,24 +702,14 @@ public class AdminController {
                     .doOnSuccess(v -> Platform.runLater(() -> {
                         loadMembers();
                         loadDashboardStats();
-                        ClubServerEndpoint.notifyDataRefresh("members");
+                        wsClient.notifyDataRefresh("members");
                     })).subscribe();
             }
         });
     }
 
     private LocalDate calculateEndDate(String subscription) {
-        LocalDate now = LocalDate.now();
-        switch (subscription) {
-            case "1 month":
-                return now.plusMonths(1);
-            case "3 months":
-                return now.plusMonths(3);
-            case "1 year":
-                return now.plusYears(1);
-            default:
-                return now.plusMonths(1);
-        }
+        return Subscription.endDateFor(subscription, LocalDate.now());
     }
 
     // ================= REQUESTS MANAGEMENT =================
@@ -628,17 +798,142 @@ public class AdminController {
         requestsTable.setItems(requestsList);
     }
 
+    /**
+     * The requests view shows the pending queue, oldest first and a page at
+     * a time, unless "Show decided requests" is ticked; then it shows every
+     * request, newest first, kept current with the rows changed since.
+     * Reloading the queue fetches as many rows as are shown, so the pages
+     * added with "Load more" stay.
+     */
     private void loadRequests() {
-        reactiveRequestDAO.getAllRequests()
-            .collectList()
-            .subscribe(requests -> Platform.runLater(() -> {
-                requestsList.clear();
-                requestsList.addAll(requests);
+        if (allRequestsCheck.isSelected()) {
+            loadAllRequests();
+        } else {
+            loadPendingRequests(null, Math.max(PENDING_PAGE_SIZE, requestsList.size()));
+        }
+        loadPendingCount();
+    }
+
+    @FXML
+    public void toggleAllRequests() {
+        showLoadMoreRequests(false);
+        if (allRequestsCheck.isSelected()) {
+            requestsList.setAll(requestRows);
+        } else {
+            requestsList.clear();
+        }
+        loadRequests();
+    }
+
+    @FXML
+    public void loadMoreRequests() {
+        if (lastPendingRequest != null) {
+            loadPendingRequests(lastPendingRequest, PENDING_PAGE_SIZE);
+        }
+    }
+
+    // Drop a request just decided from the queue in place, rather than reloading it
+    private void removeDecidedRequest(Request request) {
+        if (allRequestsCheck.isSelected()) {
+            loadAllRequests();
+        } else {
+            requestsList.removeIf(shown -> shown.getId() == request.getId());
+        }
+        loadPendingCount();
+    }
+
+    // Up to limit rows of the pending queue following after, or from the start when after is null
+    private void loadPendingRequests(Request after, int limit) {
+        TableRefreshEvent refresh = new TableRefreshEvent();
+        refresh.begin();
+        reactiveRequestDAO.getPendingRequests(after, limit)
+            .subscribe(page -> Platform.runLater(() -> {
+                if (allRequestsCheck.isSelected()) {
+                    return;
+                }
+                long fxStart = System.nanoTime();
+                if (after == null) {
+                    requestsList.setAll(page);
+                    lastPendingRequest = null;
+                } else {
+                    requestsList.addAll(page);
+                }
+                if (!page.isEmpty()) {
+                    lastPendingRequest = page.get(page.size() - 1);
+                }
+                showLoadMoreRequests(page.size() == limit);
+                commitRefresh(refresh, "requests", page.size(), fxStart);
+            }), error -> {
+                System.err.println("[Admin] Failed to load pending requests: " + error.getMessage());
+            });
+    }
+
+    private void showLoadMoreRequests(boolean show) {
+        loadMoreRequestsBtn.setVisible(show);
+        loadMoreRequestsBtn.setManaged(show);
+    }
+
+    // Pending count next to the title and on the sidebar button
+    private void loadPendingCount() {
+        reactiveRequestDAO.getPendingRequestsCount()
+            .subscribe(count -> Platform.runLater(() -> {
+                pendingCountLabel.setText(count + " pending");
+                requestsBtn.setText(count > 0 ? "Requests (" + count + ")" : "Requests");
             }), error -> {
+                System.err.println("[Admin] Failed to count pending requests: " + error.getMessage());
+            });
+    }
+
+    private void loadAllRequests() {
+        TableRefreshEvent refresh = new TableRefreshEvent();
+        refresh.begin();
+        List<Request> base = requestRows;
+        reactiveRequestDAO.getRequestsChangedSince(requestsMark)
+            .subscribe(changes -> {
+                List<Request> requests = changes.applyTo(base, Request::getId);
+                requests.sort(NEWEST_FIRST);
+                Platform.runLater(() -> {
+                    long fxStart = System.nanoTime();
+                    requestRows = requests;
+                    requestsMark = changes.changeMark();
+                    if (allRequestsCheck.isSelected()) {
+                        requestsList.setAll(requests);
+                    }
+                    commitRefresh(refresh, "requests", changes.rows().size(), fxStart);
+                });
+            }, error -> {
                 System.err.println("[Admin] Failed to load requests: " + error.getMessage());
             });
     }
 
+    /**
+     * Fill the members table from the locally saved snapshot, if any, and
+     * keep its requests for the all-requests view; loadMembers and
+     * loadAllRequests then only fetch the rows changed since.
+     */
+    private void restoreSnapshot() {
+        AdminSnapshotCache.Snapshot snapshot = AdminSnapshotCache.load();
+        if (snapshot == null) {
+            return;
+        }
+        memberStore = snapshot.members();
+        membersMark = snapshot.membersMark();
+        requestRows = snapshot.requests();
+        requestsMark = snapshot.requestsMark();
+        showMembers(memberStore);
+    }
+
+    // Emit the JFR TableRefresh event once the rows are in the table (FX thread)
+    private static void commitRefresh(TableRefreshEvent refresh, String table, int rows, long fxStart) {
+        refresh.end();
+        if (refresh.shouldCommit()) {
+            refresh.table = table;
+            refresh.rows = rows;
+            refresh.fxTime = System.nanoTime() - fxStart;
+            refresh.commit();
+        }
+    }
+
     @FXML
     public void refreshRequests() {
         loadRequests();
@@ -692,18 +987,18 @@ public class AdminController {
                     e.printStackTrace();
                 }
 
-                loadRequests();
+                removeDecidedRequest(request);
                 loadMembers();
                 loadDashboardStats();
 
                 // Send WebSocket notification to member
-                ClubServerEndpoint.notifyRequestAccepted(
+                wsClient.notifyRequestAccepted(
                     request.getUserId(),
                     request.getId(),
                     request.getSubscription(),
                     endDate.format(DateTimeFormatter.ISO_LOCAL_DATE)
                 );
-                ClubServerEndpoint.notifyDataRefresh("all");
+                wsClient.notifyDataRefresh("all");
 
                 Alert alert = new Alert(Alert.AlertType.INFORMATION);
                 alert.setTitle("Request Accepted");
@@ -719,28 +1014,23 @@ public class AdminController {
      * Add subscription duration to a base date.
      */
     private LocalDate addSubscriptionToDate(LocalDate baseDate, String subscription) {
-        return switch (subscription) {
-            case "1 month" -> baseDate.plusMonths(1);
-            case "3 months" -> baseDate.plusMonths(3);
-            case "1 year" -> baseDate.plusYears(1);
-            default -> baseDate.plusMonths(1);
-        };
+        return Subscription.endDateFor(subscription, baseDate);
     }
 
 
     private void handleDeclineRequest(Request request) {
         reactiveRequestDAO.updateRequestStatus(request.getId(), "DECLINED")
             .doOnSuccess(v -> Platform.runLater(() -> {
-                loadRequests();
+                removeDecidedRequest(request);
                 loadDashboardStats();
 
                 // Send WebSocket notification to member
-                ClubServerEndpoint.notifyRequestDeclined(
+                wsClient.notifyRequestDeclined(
                     request.getUserId(),
                     request.getId(),
                     null
                 );
-                ClubServerEndpoint.notifyDataRefresh("requests");
+                wsClient.notifyDataRefresh("requests");
 
                 Alert alert = new Alert(Alert.AlertType.INFORMATION);
                 alert.setTitle("Request Declined");
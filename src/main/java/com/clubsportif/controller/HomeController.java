@@ -8,7 +8,6 @@ import com.clubsportif.model.Member;
 import com.clubsportif.model.Request;
 import com.clubsportif.model.User;
 import com.clubsportif.service.Session;
-import com.clubsportif.websocket.ClubServerEndpoint;
 import com.clubsportif.websocket.WebSocketClientService;
 import javafx.application.Platform;
 import javafx.event.ActionEvent;
@@ -134,6 +133,16 @@ public class HomeController {
             Platform.runLater(this::showPricingPlans);
         });
 
+        // Missed events could not be replayed after a reconnect - re-check request state
+        wsClient.setOnResync(message -> reactiveRequestDAO.hasActiveRequest(currentUserId)
+            .subscribe(pending -> Platform.runLater(() -> {
+                if (pending) {
+                    showWelcomeMessage();
+                } else {
+                    showPricingPlans();
+                }
+            })));
+
         // Connect with USER role (visitor)
         wsClient.connect(user.getId(), "USER");
     }
@@ -222,12 +231,12 @@ public class HomeController {
             reactiveRequestDAO.createRequest(request)
                 .doOnSuccess(v -> Platform.runLater(() -> {
                     // Send WebSocket notification to admins
-                    ClubServerEndpoint.notifyNewRequest(
+                    wsClient.notifyNewRequest(
                         request.getId(),
                         currentUser.getUsername(),
                         selectedPlan
                     );
-                    ClubServerEndpoint.notifyDataRefresh("requests");
+                    wsClient.notifyDataRefresh("requests");
                     
                     confirmDialog.setVisible(false);
                     showWelcomeMessage();
@@ -262,7 +271,7 @@ public class HomeController {
                     reactiveRequestDAO.deleteRequest(latestRequest.getId())
                         .doOnSuccess(v -> Platform.runLater(() -> {
                             // Notify admins about data refresh
-                            ClubServerEndpoint.notifyDataRefresh("requests");
+                            wsClient.notifyDataRefresh("requests");
                             
                             // Hide welcome box and show pricing plans
                             welcomeBox.setVisible(false);
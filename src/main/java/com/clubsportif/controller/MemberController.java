@@ -8,7 +8,6 @@ import com.clubsportif.dao.UserDAO;
 import com.clubsportif.model.Member;
 import com.clubsportif.model.User;
 import com.clubsportif.service.Session;
-import com.clubsportif.websocket.ClubServerEndpoint;
 import com.clubsportif.websocket.WebSocketClientService;
 import javafx.application.Platform;
 import javafx.fxml.FXML;
@@ -111,7 +110,10 @@ public class MemberController {
         // Handle data refresh
         wsClient.setOnDataRefresh(message -> {
             loadMemberData();
-        });
+        }, "members");
+
+        // Missed events could not be replayed after a reconnect
+        wsClient.setOnResync(message -> loadMemberData());
 
         // Handle connection state changes
         wsClient.setOnConnectionStateChanged(connected -> {
@@ -288,12 +290,12 @@ public class MemberController {
                         reactiveRequestDAO.createRequest(req)
                             .doOnSuccess(v -> Platform.runLater(() -> {
                                 // Send WebSocket notification to admin
-                                ClubServerEndpoint.notifyNewRequest(
+                                wsClient.notifyNewRequest(
                                     req.getId(),
                                     currentUser.getUsername(),
                                     plan
                                 );
-                                ClubServerEndpoint.notifyDataRefresh("requests");
+                                wsClient.notifyDataRefresh("requests");
 
                                 Alert a = new Alert(Alert.AlertType.INFORMATION);
                                 a.setTitle("Request Sent");
@@ -342,7 +344,7 @@ public class MemberController {
                     reactiveMemberDAO.updateMember(currentMember)
                         .doOnSuccess(v -> Platform.runLater(() -> {
                             // Notify about status change
-                            ClubServerEndpoint.notifyDataRefresh("members");
+                            wsClient.notifyDataRefresh("members");
                         })).subscribe();
                 }
 
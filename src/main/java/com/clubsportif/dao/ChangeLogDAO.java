@@ -0,0 +1,102 @@
+package com.clubsportif.dao;
+
+import com.clubsportif.config.Database;
+
+import java.sql.*;
+
+/**
+ * Tombstones of deleted rows and the watermarks of incremental export
+ * targets (tables deleted_rows and export_watermarks). The tombstones
+ * themselves are read through {@link ConsistentRead}, in the same snapshot
+ * as the changed rows.
+ */
+public class ChangeLogDAO {
+
+    /**
+     * How far an export target got in one table: the change mark of the
+     * snapshot its last export read (null before the first export) and the
+     * sequence number of the last file written.
+     */
+    public record Watermark(Long changeMark, int sequence) {
+    }
+
+    // Get the watermark of a target for a table; a zero sequence when it never exported it
+    public Watermark getWatermark(String target, String table) {
+        String sql = "SELECT change_mark, sequence FROM export_watermarks WHERE target = ? AND table_name = ?";
+
+        try (DbCall call = DbCall.start("dao.changeLog.getWatermark");
+             Connection conn = Database.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+
+            stmt.setString(1, target);
+            stmt.setString(2, table);
+            ResultSet rs = stmt.executeQuery();
+
+            if (rs.next()) {
+                call.rows(1);
+                long changeMark = rs.getLong(1);
+                return new Watermark(rs.wasNull() ? null : changeMark, rs.getInt(2));
+            }
+        } catch (SQLException e) {
+            throw new RuntimeException("Failed to read the watermark of " + target, e);
+        }
+
+        return new Watermark(null, 0);
+    }
+
+    // Record the watermark of a target for a table
+    public void saveWatermark(String target, String table, Watermark watermark) {
+        String update = "UPDATE export_watermarks SET change_mark = ?, sequence = ? WHERE target = ? AND table_name = ?";
+        String insert = "INSERT INTO export_watermarks (change_mark, sequence, target, table_name) VALUES (?, ?, ?, ?)";
+
+        try (DbCall call = DbCall.start("dao.changeLog.saveWatermark");
+             Connection conn = Database.getConnection()) {
+
+            int rows = execute(conn, update, target, table, watermark);
+            if (rows == 0) {
+                rows = execute(conn, insert, target, table, watermark);
+            }
+            call.rows(rows);
+        } catch (SQLException e) {
+            throw new RuntimeException("Failed to save the watermark of " + target, e);
+        }
+    }
+
+    // Drop tombstones below every target's watermark: no export can need them any more
+    public int pruneTombstones(String table) {
+        String oldest = "SELECT min(change_mark) FROM export_watermarks WHERE table_name = ?";
+        String delete = "DELETE FROM deleted_rows WHERE table_name = ? AND change_xid < ?";
+
+        try (DbCall call = DbCall.start("dao.changeLog.pruneTombstones");
+             Connection conn = Database.getConnection();
+             PreparedStatement select = conn.prepareStatement(oldest);
+             PreparedStatement stmt = conn.prepareStatement(delete)) {
+
+            select.setString(1, table);
+            ResultSet rs = select.executeQuery();
+            long changeMark = rs.next() ? rs.getLong(1) : 0;
+            if (changeMark == 0) {
+                return 0;
+            }
+            stmt.setString(1, table);
+            stmt.setLong(2, changeMark);
+            int rows = stmt.executeUpdate();
+            call.rows(rows);
+            return rows;
+        } catch (SQLException e) {
+            e.printStackTrace();
+            return 0;
+        }
+    }
+
+    private static int execute(Connection conn, String sql, String target, String table, Watermark watermark)
+            throws SQLException {
+        try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+            stmt.setObject(1, watermark.changeMark(), Types.BIGINT);
+            stmt.setInt(2, watermark.sequence());
+            stmt.setString(3, target);
+            stmt.setString(4, table);
+            return stmt.executeUpdate();
+        }
+    }
+}
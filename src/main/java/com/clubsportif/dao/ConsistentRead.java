@@ -0,0 +1,186 @@
+package com.clubsportif.dao;
+
+import com.clubsportif.config.Database;
+import com.clubsportif.model.Member;
+import com.clubsportif.model.Request;
+import com.clubsportif.model.User;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.regex.Pattern;
+
+/**
+ * Several reads that see the database as of one instant: they share a
+ * read-only REPEATABLE READ transaction, so rows committed by others in
+ * between are not seen. Large results are streamed as by {@link Cursor}.
+ * Closing it ends the transaction.
+ * <p>
+ * On PostgreSQL the snapshot can be shared with reads on other connections
+ * (see {@link #exportSnapshot()}), so several tables can be read in
+ * parallel and still be consistent with each other, as pg_dump -j does.
+ */
+public final class ConsistentRead implements AutoCloseable {
+
+    private static final Pattern SNAPSHOT_ID = Pattern.compile("[0-9A-Fa-f-]+");
+
+    private final Connection conn;
+
+    private ConsistentRead(Connection conn) {
+        this.conn = conn;
+    }
+
+    public static ConsistentRead open() {
+        return open(null);
+    }
+
+    /**
+     * Start a read that sees the snapshot exported by another, still open,
+     * read; a null snapshot starts a new one.
+     */
+    public static ConsistentRead open(String snapshot) {
+        if (snapshot != null && !SNAPSHOT_ID.matcher(snapshot).matches()) {
+            throw new IllegalArgumentException("Invalid snapshot id: " + snapshot);
+        }
+        Connection conn = Database.getConnection();
+        try {
+            conn.setAutoCommit(false);
+            conn.setTransactionIsolation(Connection.TRANSACTION_REPEATABLE_READ);
+            conn.setReadOnly(true);
+            if (snapshot != null) {
+                // Must come before any query of the transaction
+                try (Statement stmt = conn.createStatement()) {
+                    stmt.execute("SET TRANSACTION SNAPSHOT '" + snapshot + "'");
+                }
+            }
+            return new ConsistentRead(conn);
+        } catch (SQLException e) {
+            try {
+                conn.close();
+            } catch (SQLException closeFailure) {
+                e.addSuppressed(closeFailure);
+            }
+            throw new RuntimeException("Failed to start a consistent read", e);
+        }
+    }
+
+    /**
+     * The id other connections can pass to {@link #open(String)} to see
+     * this read's snapshot while it stays open, or null when the database
+     * is not PostgreSQL and cannot share snapshots.
+     */
+    public String exportSnapshot() {
+        try {
+            if (!"PostgreSQL".equals(conn.getMetaData().getDatabaseProductName())) {
+                return null;
+            }
+            try (Statement stmt = conn.createStatement();
+                 ResultSet rs = stmt.executeQuery("SELECT pg_export_snapshot()")) {
+                rs.next();
+                return rs.getString(1);
+            }
+        } catch (SQLException e) {
+            throw new RuntimeException("Failed to export the snapshot", e);
+        }
+    }
+
+    /**
+     * The change mark of this read's snapshot: pass it to the changed-since
+     * reads of a later one to get what changed after this read.
+     */
+    public long changeMark() {
+        try {
+            return TableChanges.changeMark(conn);
+        } catch (SQLException e) {
+            throw new RuntimeException("Failed to read the change mark", e);
+        }
+    }
+
+    // Get the distinct non-null values of a column, sorted
+    public List<String> distinctValues(String table, String column) {
+        List<String> values = new ArrayList<>();
+        read("dao.consistentRead.distinctValues",
+                "SELECT DISTINCT " + column + " FROM " + table + " WHERE " + column + " IS NOT NULL ORDER BY " + column,
+                rs -> rs.getString(1), values::add);
+        return values;
+    }
+
+    // Stream all members in id order
+    public int forEachMember(Consumer<Member> action) {
+        return read("dao.consistentRead.forEachMember",
+                "SELECT " + RowMappers.MEMBER_COLUMNS + " FROM members ORDER BY id", RowMappers.MEMBER, action);
+    }
+
+    // Stream all requests in id order
+    public int forEachRequest(Consumer<Request> action) {
+        return read("dao.consistentRead.forEachRequest",
+                "SELECT " + RowMappers.REQUEST_COLUMNS + " FROM requests ORDER BY id", RowMappers.REQUEST, action);
+    }
+
+    // Stream all archived requests in id order
+    public int forEachArchivedRequest(Consumer<Request> action) {
+        return read("dao.consistentRead.forEachArchivedRequest",
+                "SELECT " + RowMappers.REQUEST_COLUMNS + " FROM requests_archive ORDER BY id", RowMappers.REQUEST, action);
+    }
+
+    // Stream members changed since a change mark, oldest change first (all members when since is null)
+    public int forEachMemberChangedSince(Long since, Consumer<Versioned<Member>> action) {
+        try {
+            return TableChanges.forEachChangedSince(conn, "dao.consistentRead.forEachMemberChangedSince", "members",
+                    RowMappers.MEMBER_COLUMNS, RowMappers.MEMBER, since, action);
+        } catch (SQLException e) {
+            throw new RuntimeException("Failed to read changed members", e);
+        }
+    }
+
+    // Stream requests changed since a change mark, oldest change first (all requests when since is null)
+    public int forEachRequestChangedSince(Long since, Consumer<Versioned<Request>> action) {
+        try {
+            return TableChanges.forEachChangedSince(conn, "dao.consistentRead.forEachRequestChangedSince", "requests",
+                    RowMappers.REQUEST_COLUMNS, RowMappers.REQUEST, since, action);
+        } catch (SQLException e) {
+            throw new RuntimeException("Failed to read changed requests", e);
+        }
+    }
+
+    // Stream the tombstones of rows of table deleted since a change mark, oldest first
+    public int forEachDeletedSince(String table, long since, Consumer<Tombstone> action) {
+        try {
+            return Cursor.forEach(conn, "dao.consistentRead.forEachDeletedSince",
+                    "SELECT row_id, deleted_at FROM deleted_rows WHERE table_name = ? AND change_xid >= ? " +
+                    "ORDER BY change_xid, row_id",
+                    rs -> new Tombstone(rs.getInt(1), rs.getObject(2, OffsetDateTime.class).toInstant()),
+                    action, table, since);
+        } catch (SQLException e) {
+            throw new RuntimeException("Failed to read deleted rows of " + table, e);
+        }
+    }
+
+    // Stream all users in id order
+    public int forEachUser(Consumer<User> action) {
+        return read("dao.consistentRead.forEachUser",
+                "SELECT " + RowMappers.USER_COLUMNS + " FROM users ORDER BY id", RowMappers.USER, action);
+    }
+
+    private <T> int read(String name, String sql, RowMapper<T> mapper, Consumer<? super T> action) {
+        try {
+            return Cursor.forEach(conn, name, sql, mapper, action);
+        } catch (SQLException e) {
+            throw new RuntimeException("Failed to read " + name, e);
+        }
+    }
+
+    @Override
+    public void close() {
+        try (conn) {
+            conn.rollback();
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+    }
+}
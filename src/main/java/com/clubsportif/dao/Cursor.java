@@ -0,0 +1,67 @@
+package com.clubsportif.dao;
+
+import com.clubsportif.config.Database;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.function.Consumer;
+
+/**
+ * Streams the rows of a query to a callback without holding them all.
+ * PostgreSQL only uses a server-side cursor, fetching FETCH_SIZE rows at a
+ * time, inside a transaction; otherwise the driver reads the whole result
+ * into memory before the first row is returned.
+ */
+final class Cursor {
+
+    private static final int FETCH_SIZE = 1000;
+
+    private Cursor() {
+        // prevent instantiation
+    }
+
+    /**
+     * Map and pass each row to {@code action}, returning the row count. An
+     * exception thrown by the action stops the query and is rethrown.
+     * {@code params} are bound to the statement's placeholders in order.
+     */
+    static <T> int forEach(String name, String sql, RowMapper<T> mapper, Consumer<? super T> action,
+                           Object... params) {
+        try (Connection conn = Database.getConnection()) {
+            conn.setAutoCommit(false);
+            try {
+                return forEach(conn, name, sql, mapper, action, params);
+            } finally {
+                conn.rollback();
+            }
+        } catch (SQLException e) {
+            throw new RuntimeException("Failed to read " + name, e);
+        }
+    }
+
+    /**
+     * As above, on a connection the caller keeps in a transaction.
+     */
+    static <T> int forEach(Connection conn, String name, String sql, RowMapper<T> mapper,
+                           Consumer<? super T> action, Object... params) throws SQLException {
+        try (DbCall call = DbCall.start(name);
+             PreparedStatement stmt = conn.prepareStatement(sql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY)) {
+            stmt.setFetchSize(FETCH_SIZE);
+            for (int i = 0; i < params.length; i++) {
+                stmt.setObject(i + 1, params[i]);
+            }
+            int rows = 0;
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    action.accept(mapper.map(rs));
+                    rows++;
+                }
+            } finally {
+                call.rows(rows);
+            }
+            return rows;
+        }
+    }
+}
@@ -0,0 +1,47 @@
+package com.clubsportif.dao;
+
+import com.clubsportif.metrics.DbQueryEvent;
+import com.clubsportif.metrics.LatencyHistogram;
+import com.clubsportif.metrics.MetricsRegistry;
+
+/**
+ * Times one JDBC call into the dao.* metric of the same name and, while a
+ * flight recording has the event enabled, emits a DbQuery JFR event with
+ * the row count. Opened as the first resource of the DAO's try block.
+ */
+final class DbCall implements AutoCloseable {
+
+    private final String name;
+    private final LatencyHistogram timer;
+    private final DbQueryEvent event = new DbQueryEvent();
+    private final long start = System.nanoTime();
+    private long rows = -1;
+
+    private DbCall(String name) {
+        this.name = name;
+        this.timer = MetricsRegistry.timer(name);
+        event.begin();
+    }
+
+    static DbCall start(String name) {
+        return new DbCall(name);
+    }
+
+    /**
+     * Rows returned or updated, reported with the JFR event.
+     */
+    void rows(int rows) {
+        this.rows = rows;
+    }
+
+    @Override
+    public void close() {
+        timer.record((System.nanoTime() - start) / 1000);
+        event.end();
+        if (event.shouldCommit()) {
+            event.sqlId = name;
+            event.rows = rows;
+            event.commit();
+        }
+    }
+}
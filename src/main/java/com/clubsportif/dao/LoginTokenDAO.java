@@ -0,0 +1,81 @@
+package com.clubsportif.dao;
+
+import com.clubsportif.config.Database;
+import com.clubsportif.model.User;
+
+import java.security.SecureRandom;
+import java.sql.*;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HexFormat;
+import java.util.Optional;
+
+/**
+ * Random tokens standing for a logged-in user, so the WebSocket server can
+ * tell who a client is from the database rather than from what it claims.
+ */
+public class LoginTokenDAO {
+
+    private static final SecureRandom RANDOM = new SecureRandom();
+
+    // Create a token for a user, valid for ttl, and drop the expired ones
+    public String createToken(int userId, Duration ttl) {
+        byte[] bytes = new byte[32];
+        RANDOM.nextBytes(bytes);
+        String token = HexFormat.of().formatHex(bytes);
+
+        try (DbCall call = DbCall.start("dao.loginToken.createToken");
+             Connection conn = Database.getConnection();
+             PreparedStatement insert = conn.prepareStatement(
+                     "INSERT INTO login_tokens (token, user_id, expires_at) VALUES (?, ?, ?)");
+             PreparedStatement prune = conn.prepareStatement("DELETE FROM login_tokens WHERE expires_at < ?")) {
+
+            Instant now = Instant.now();
+            insert.setString(1, token);
+            insert.setInt(2, userId);
+            insert.setTimestamp(3, Timestamp.from(now.plus(ttl)));
+            call.rows(insert.executeUpdate());
+            prune.setTimestamp(1, Timestamp.from(now));
+            prune.executeUpdate();
+            return token;
+        } catch (SQLException e) {
+            throw new RuntimeException("Failed to create a login token", e);
+        }
+    }
+
+    // Get the user a token stands for, with its current role, if the token is known and not expired
+    public Optional<User> findUser(String token) {
+        String sql = "SELECT u.id, u.username, u.email, u.phone, u.password, u.role " +
+                     "FROM login_tokens t JOIN users u ON u.id = t.user_id " +
+                     "WHERE t.token = ? AND t.expires_at > ?";
+
+        try (DbCall call = DbCall.start("dao.loginToken.findUser");
+             Connection conn = Database.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+
+            stmt.setString(1, token);
+            stmt.setTimestamp(2, Timestamp.from(Instant.now()));
+            ResultSet rs = stmt.executeQuery();
+            if (rs.next()) {
+                call.rows(1);
+                return Optional.of(RowMappers.USER.map(rs));
+            }
+            return Optional.empty();
+        } catch (SQLException e) {
+            throw new RuntimeException("Failed to look up a login token", e);
+        }
+    }
+
+    // Delete a token
+    public void deleteToken(String token) {
+        try (DbCall call = DbCall.start("dao.loginToken.deleteToken");
+             Connection conn = Database.getConnection();
+             PreparedStatement stmt = conn.prepareStatement("DELETE FROM login_tokens WHERE token = ?")) {
+
+            stmt.setString(1, token);
+            call.rows(stmt.executeUpdate());
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+    }
+}
@@ -5,15 +5,21 @@ import com.clubsportif.model.Member;
 
 import java.sql.*;
 import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
+import java.util.function.Consumer;
 
 public class MemberDAO {
 
+    private static final String STATUS_BY_DATE_END = "CASE WHEN date_end < CURRENT_DATE THEN 'EXPIRED' ELSE 'ACTIVE' END";
+
     // Create a new member
     public void createMember(Member member) {
         String sql = "INSERT INTO members (user_id, nom, prenom, subscription, date_start, date_end, status) VALUES (?, ?, ?, ?, ?, ?, ?)";
 
-        try (Connection conn = Database.getConnection();
+        try (DbCall call = DbCall.start("dao.member.createMember");
+             Connection conn = Database.getConnection();
              PreparedStatement stmt = conn.prepareStatement(sql)) {
 
             stmt.setInt(1, member.getUserId());
@@ -24,34 +30,78 @@ public class MemberDAO {
             stmt.setDate(6, Date.valueOf(member.getDateEnd()));
             stmt.setString(7, member.getStatus());
 
-            stmt.executeUpdate();
+            call.rows(stmt.executeUpdate());
         } catch (SQLException e) {
             e.printStackTrace();
         }
     }
 
+    // Insert members with one batched statement in a single transaction: all rows or none.
+    // Unlike createMember, failures are thrown so the caller knows the rows were not saved
+    public int createMembers(List<Member> members) {
+        String sql = "INSERT INTO members (user_id, nom, prenom, subscription, date_start, date_end, status) VALUES (?, ?, ?, ?, ?, ?, ?)";
+
+        try (DbCall call = DbCall.start("dao.member.createMembers");
+             Connection conn = Database.getConnection()) {
+
+            conn.setAutoCommit(false);
+            try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+                for (Member member : members) {
+                    stmt.setInt(1, member.getUserId());
+                    stmt.setString(2, member.getNom());
+                    stmt.setString(3, member.getPrenom());
+                    stmt.setString(4, member.getSubscription());
+                    stmt.setDate(5, Date.valueOf(member.getDateStart()));
+                    stmt.setDate(6, Date.valueOf(member.getDateEnd()));
+                    stmt.setString(7, member.getStatus());
+                    stmt.addBatch();
+                }
+                stmt.executeBatch();
+                conn.commit();
+                call.rows(members.size());
+                return members.size();
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            }
+        } catch (SQLException e) {
+            throw new RuntimeException("Failed to insert " + members.size() + " members", e);
+        }
+    }
+
+    // Get the user ids that already have a member row (0, for members added by an admin, is left out)
+    public Set<Integer> getMemberUserIds() {
+        Set<Integer> userIds = new HashSet<>();
+        String sql = "SELECT user_id FROM members WHERE user_id <> 0";
+
+        try (DbCall call = DbCall.start("dao.member.getMemberUserIds");
+             Connection conn = Database.getConnection();
+             Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery(sql)) {
+
+            while (rs.next()) {
+                userIds.add(rs.getInt(1));
+            }
+            call.rows(userIds.size());
+        } catch (SQLException e) {
+            throw new RuntimeException("Failed to read member user ids", e);
+        }
+
+        return userIds;
+    }
+
     // Get all members
     public List<Member> getAllMembers() {
         List<Member> members = new ArrayList<>();
-        String sql = "SELECT * FROM members ORDER BY id";
+        String sql = "SELECT " + RowMappers.MEMBER_COLUMNS + " FROM members ORDER BY id";
 
-        try (Connection conn = Database.getConnection();
+        try (DbCall call = DbCall.start("dao.member.getAllMembers");
+             Connection conn = Database.getConnection();
              Statement stmt = conn.createStatement();
              ResultSet rs = stmt.executeQuery(sql)) {
 
-            while (rs.next()) {
-                Member member = new Member(
-                    rs.getInt("id"),
-                    rs.getInt("user_id"),
-                    rs.getString("nom"),
-                    rs.getString("prenom"),
-                    rs.getString("subscription"),
-                    rs.getDate("date_start").toLocalDate(),
-                    rs.getDate("date_end").toLocalDate(),
-                    rs.getString("status")
-                );
-                members.add(member);
-            }
+            members = RowMappers.MEMBER.mapAll(rs);
+            call.rows(members.size());
         } catch (SQLException e) {
             e.printStackTrace();
         }
@@ -59,27 +109,32 @@ public class MemberDAO {
         return members;
     }
 
+    // Pass every member to action in id order, streaming rather than loading the table
+    public int forEachMember(Consumer<Member> action) {
+        return Cursor.forEach("dao.member.forEachMember",
+                "SELECT " + RowMappers.MEMBER_COLUMNS + " FROM members ORDER BY id", RowMappers.MEMBER, action);
+    }
+
+    // Get members changed since a change mark (all members when since is null)
+    public TableChanges<Member> getMembersChangedSince(Long since) {
+        return TableChanges.read("dao.member.getMembersChangedSince", "members",
+                RowMappers.MEMBER_COLUMNS, RowMappers.MEMBER, since);
+    }
+
     // Get member by ID
     public Member getMemberById(int id) {
-        String sql = "SELECT * FROM members WHERE id = ?";
+        String sql = "SELECT " + RowMappers.MEMBER_COLUMNS + " FROM members WHERE id = ?";
 
-        try (Connection conn = Database.getConnection();
+        try (DbCall call = DbCall.start("dao.member.getMemberById");
+             Connection conn = Database.getConnection();
              PreparedStatement stmt = conn.prepareStatement(sql)) {
 
             stmt.setInt(1, id);
             ResultSet rs = stmt.executeQuery();
 
             if (rs.next()) {
-                return new Member(
-                    rs.getInt("id"),
-                    rs.getInt("user_id"),
-                    rs.getString("nom"),
-                    rs.getString("prenom"),
-                    rs.getString("subscription"),
-                    rs.getDate("date_start").toLocalDate(),
-                    rs.getDate("date_end").toLocalDate(),
-                    rs.getString("status")
-                );
+                call.rows(1);
+                return RowMappers.MEMBER.map(rs);
             }
         } catch (SQLException e) {
             e.printStackTrace();
@@ -92,7 +147,8 @@ public class MemberDAO {
     public void updateMember(Member member) {
         String sql = "UPDATE members SET user_id = ?, nom = ?, prenom = ?, subscription = ?, date_start = ?, date_end = ?, status = ? WHERE id = ?";
 
-        try (Connection conn = Database.getConnection();
+        try (DbCall call = DbCall.start("dao.member.updateMember");
+             Connection conn = Database.getConnection();
              PreparedStatement stmt = conn.prepareStatement(sql)) {
 
             stmt.setInt(1, member.getUserId());
@@ -104,7 +160,7 @@ public class MemberDAO {
             stmt.setString(7, member.getStatus());
             stmt.setInt(8, member.getId());
 
-            stmt.executeUpdate();
+            call.rows(stmt.executeUpdate());
         } catch (SQLException e) {
             e.printStackTrace();
         }
@@ -114,24 +170,27 @@ public class MemberDAO {
     public void deleteMember(int id) {
         String sql = "DELETE FROM members WHERE id = ?";
 
-        try (Connection conn = Database.getConnection();
+        try (DbCall call = DbCall.start("dao.member.deleteMember");
+             Connection conn = Database.getConnection();
              PreparedStatement stmt = conn.prepareStatement(sql)) {
 
             stmt.setInt(1, id);
-            stmt.executeUpdate();
+            call.rows(stmt.executeUpdate());
         } catch (SQLException e) {
             e.printStackTrace();
         }
     }
 
-    // Update member status based on date_end
+    // Update member status based on date_end; only rows whose status changes are written,
+    // so unchanged rows do not look changed to the changed-since reads
     public void updateMemberStatuses() {
-        String sql = "UPDATE members SET status = CASE WHEN date_end < CURRENT_DATE THEN 'EXPIRED' ELSE 'ACTIVE' END";
+        String sql = "UPDATE members SET status = " + STATUS_BY_DATE_END + " WHERE status <> " + STATUS_BY_DATE_END;
 
-        try (Connection conn = Database.getConnection();
+        try (DbCall call = DbCall.start("dao.member.updateMemberStatuses");
+             Connection conn = Database.getConnection();
              Statement stmt = conn.createStatement()) {
 
-            stmt.executeUpdate(sql);
+            call.rows(stmt.executeUpdate(sql));
         } catch (SQLException e) {
             e.printStackTrace();
         }
@@ -139,25 +198,18 @@ public class MemberDAO {
 
     // Get member by user ID
     public Member getMemberByUserId(int userId) {
-        String sql = "SELECT * FROM members WHERE user_id = ?";
+        String sql = "SELECT " + RowMappers.MEMBER_COLUMNS + " FROM members WHERE user_id = ?";
 
-        try (Connection conn = Database.getConnection();
+        try (DbCall call = DbCall.start("dao.member.getMemberByUserId");
+             Connection conn = Database.getConnection();
              PreparedStatement stmt = conn.prepareStatement(sql)) {
 
             stmt.setInt(1, userId);
             ResultSet rs = stmt.executeQuery();
 
             if (rs.next()) {
-                return new Member(
-                    rs.getInt("id"),
-                    rs.getInt("user_id"),
-                    rs.getString("nom"),
-                    rs.getString("prenom"),
-                    rs.getString("subscription"),
-                    rs.getDate("date_start").toLocalDate(),
-                    rs.getDate("date_end").toLocalDate(),
-                    rs.getString("status")
-                );
+                call.rows(1);
+                return RowMappers.MEMBER.map(rs);
             }
         } catch (SQLException e) {
             e.printStackTrace();
@@ -0,0 +1,51 @@
+package com.clubsportif.dao;
+
+import com.clubsportif.metrics.MetricsRegistry;
+import com.clubsportif.metrics.ReactiveHopEvent;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.util.concurrent.Callable;
+
+/**
+ * Runs blocking DAO calls on the bounded elastic scheduler and records, per
+ * call name, how long the call waited for a scheduler thread (.wait) and how
+ * long it then ran (.exec). The wait is also emitted as a ReactiveHop JFR
+ * event while a recording has it enabled.
+ */
+final class ReactiveCalls {
+
+    private ReactiveCalls() {
+    }
+
+    static <T> Mono<T> call(String name, Callable<T> callable) {
+        return Mono.defer(() -> {
+            long submitted = System.nanoTime();
+            ReactiveHopEvent hop = new ReactiveHopEvent();
+            hop.begin();
+            String fromThread = hop.isEnabled() ? Thread.currentThread().getName() : null;
+            return Mono.fromCallable(() -> {
+                long started = System.nanoTime();
+                MetricsRegistry.timer(name + ".wait").record((started - submitted) / 1000);
+                hop.end();
+                if (hop.shouldCommit()) {
+                    hop.operation = name;
+                    hop.fromThread = fromThread;
+                    hop.commit();
+                }
+                try {
+                    return callable.call();
+                } finally {
+                    MetricsRegistry.timer(name + ".exec").record((System.nanoTime() - started) / 1000);
+                }
+            }).subscribeOn(Schedulers.boundedElastic());
+        });
+    }
+
+    static Mono<Void> run(String name, Runnable runnable) {
+        return call(name, () -> {
+            runnable.run();
+            return null;
+        }).then();
+    }
+}
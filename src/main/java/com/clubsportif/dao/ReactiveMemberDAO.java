@@ -3,7 +3,6 @@ package com.clubsportif.dao;
 import com.clubsportif.model.Member;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
-import reactor.core.scheduler.Schedulers;
 
 import java.time.Duration;
 import java.util.List;
@@ -11,7 +10,8 @@ import java.util.List;
 /**
  * Reactive wrapper for MemberDAO using Project Reactor.
  * All database operations are executed on a bounded elastic scheduler
- * to avoid blocking the main thread.
+ * to avoid blocking the main thread; see {@link ReactiveCalls} for the
+ * timings recorded per call.
  */
 public class ReactiveMemberDAO {
 
@@ -29,17 +29,23 @@ public class ReactiveMemberDAO {
      * Get all members as a Flux.
      */
     public Flux<Member> getAllMembers() {
-        return Mono.fromCallable(memberDAO::getAllMembers)
-                .subscribeOn(Schedulers.boundedElastic())
+        return ReactiveCalls.call("reactive.member.getAllMembers", memberDAO::getAllMembers)
                 .flatMapMany(Flux::fromIterable);
     }
 
+    /**
+     * Get the members changed since a change mark; see {@link TableChanges}.
+     */
+    public Mono<TableChanges<Member>> getMembersChangedSince(Long since) {
+        return ReactiveCalls.call("reactive.member.getMembersChangedSince",
+                () -> memberDAO.getMembersChangedSince(since));
+    }
+
     /**
      * Get member by ID.
      */
     public Mono<Member> getMemberById(int id) {
-        return Mono.fromCallable(() -> memberDAO.getMemberById(id))
-                .subscribeOn(Schedulers.boundedElastic());
+        return ReactiveCalls.call("reactive.member.getMemberById", () -> memberDAO.getMemberById(id));
     }
 
     /**
@@ -47,8 +53,7 @@ public class ReactiveMemberDAO {
      * Returns empty Mono if member not found.
      */
     public Mono<Member> getMemberByUserId(int userId) {
-        return Mono.fromCallable(() -> memberDAO.getMemberByUserId(userId))
-                .subscribeOn(Schedulers.boundedElastic())
+        return ReactiveCalls.call("reactive.member.getMemberByUserId", () -> memberDAO.getMemberByUserId(userId))
                 .flatMap(member -> member != null ? Mono.just(member) : Mono.empty());
     }
 
@@ -56,56 +61,47 @@ public class ReactiveMemberDAO {
      * Create a new member.
      */
     public Mono<Void> createMember(Member member) {
-        return Mono.fromRunnable(() -> memberDAO.createMember(member))
-                .subscribeOn(Schedulers.boundedElastic())
-                .then();
+        return ReactiveCalls.run("reactive.member.createMember", () -> memberDAO.createMember(member));
     }
 
     /**
      * Update a member.
      */
     public Mono<Void> updateMember(Member member) {
-        return Mono.fromRunnable(() -> memberDAO.updateMember(member))
-                .subscribeOn(Schedulers.boundedElastic())
-                .then();
+        return ReactiveCalls.run("reactive.member.updateMember", () -> memberDAO.updateMember(member));
     }
 
     /**
      * Delete a member.
      */
     public Mono<Void> deleteMember(int id) {
-        return Mono.fromRunnable(() -> memberDAO.deleteMember(id))
-                .subscribeOn(Schedulers.boundedElastic())
-                .then();
+        return ReactiveCalls.run("reactive.member.deleteMember", () -> memberDAO.deleteMember(id));
     }
 
     /**
      * Update member statuses based on expiration dates.
      */
     public Mono<Void> updateMemberStatuses() {
-        return Mono.fromRunnable(memberDAO::updateMemberStatuses)
-                .subscribeOn(Schedulers.boundedElastic())
-                .then();
+        return ReactiveCalls.run("reactive.member.updateMemberStatuses", memberDAO::updateMemberStatuses);
     }
 
     /**
      * Get count of all members.
      */
     public Mono<Integer> getTotalMemberCount() {
-        return Mono.fromCallable(() -> memberDAO.getAllMembers().size())
-                .subscribeOn(Schedulers.boundedElastic());
+        return ReactiveCalls.call("reactive.member.getTotalMemberCount", () -> memberDAO.getAllMembers().size());
     }
 
     /**
      * Get count of active members.
      */
     public Mono<Long> getActiveMemberCount() {
-        return Mono.fromCallable(() -> {
+        return ReactiveCalls.call("reactive.member.getActiveMemberCount", () -> {
             List<Member> members = memberDAO.getAllMembers();
             return members.stream()
                     .filter(m -> "ACTIVE".equals(m.getStatus()))
                     .count();
-        }).subscribeOn(Schedulers.boundedElastic());
+        });
     }
 
     /**
@@ -114,8 +110,7 @@ public class ReactiveMemberDAO {
      */
     public Flux<List<Member>> watchMembers(Duration interval) {
         return Flux.interval(interval)
-                .flatMap(tick -> Mono.fromCallable(memberDAO::getAllMembers)
-                        .subscribeOn(Schedulers.boundedElastic()));
+                .flatMap(tick -> ReactiveCalls.call("reactive.member.watchMembers", memberDAO::getAllMembers));
     }
 
     /**
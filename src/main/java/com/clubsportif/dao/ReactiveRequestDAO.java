@@ -3,7 +3,6 @@ package com.clubsportif.dao;
 import com.clubsportif.model.Request;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
-import reactor.core.scheduler.Schedulers;
 
 import java.time.Duration;
 import java.util.List;
@@ -11,10 +10,13 @@ import java.util.List;
 /**
  * Reactive wrapper for RequestDAO using Project Reactor.
  * All database operations are executed on a bounded elastic scheduler
- * to avoid blocking the main thread.
+ * to avoid blocking the main thread; see {@link ReactiveCalls} for the
+ * timings recorded per call.
  */
 public class ReactiveRequestDAO {
 
+    private static final int PENDING_PAGE_SIZE = 500;
+
     private final RequestDAO requestDAO;
 
     public ReactiveRequestDAO() {
@@ -29,25 +31,51 @@ public class ReactiveRequestDAO {
      * Get all requests as a Flux.
      */
     public Flux<Request> getAllRequests() {
-        return Mono.fromCallable(requestDAO::getAllRequests)
-                .subscribeOn(Schedulers.boundedElastic())
+        return ReactiveCalls.call("reactive.request.getAllRequests", requestDAO::getAllRequests)
                 .flatMapMany(Flux::fromIterable);
     }
 
     /**
-     * Get pending requests only.
+     * Get the requests changed since a change mark; see {@link TableChanges}.
+     */
+    public Mono<TableChanges<Request>> getRequestsChangedSince(Long since) {
+        return ReactiveCalls.call("reactive.request.getRequestsChangedSince",
+                () -> requestDAO.getRequestsChangedSince(since));
+    }
+
+    /**
+     * Get all pending requests, oldest first, read a page at a time.
      */
     public Flux<Request> getPendingRequests() {
-        return getAllRequests()
-                .filter(r -> "PENDING".equals(r.getStatus()));
+        return getPendingRequests(null, PENDING_PAGE_SIZE)
+                .expand(page -> page.size() < PENDING_PAGE_SIZE
+                        ? Mono.empty()
+                        : getPendingRequests(page.get(page.size() - 1), PENDING_PAGE_SIZE))
+                .flatMapIterable(page -> page);
+    }
+
+    /**
+     * Get a page of pending requests, oldest first, following {@code after}
+     * (null for the first page).
+     */
+    public Mono<List<Request>> getPendingRequests(Request after, int limit) {
+        return ReactiveCalls.call("reactive.request.getPendingRequests",
+                () -> requestDAO.getPendingRequests(after, limit));
+    }
+
+    /**
+     * Get the number of pending requests.
+     */
+    public Mono<Integer> getPendingRequestsCount() {
+        return ReactiveCalls.call("reactive.request.getPendingRequestsCount", requestDAO::getPendingRequestsCount);
     }
 
     /**
      * Get requests by user ID.
      */
     public Flux<Request> getRequestsByUserId(int userId) {
-        return Mono.fromCallable(() -> requestDAO.getRequestsByUserId(userId))
-                .subscribeOn(Schedulers.boundedElastic())
+        return ReactiveCalls.call("reactive.request.getRequestsByUserId",
+                        () -> requestDAO.getRequestsByUserId(userId))
                 .flatMapMany(Flux::fromIterable);
     }
 
@@ -55,43 +83,36 @@ public class ReactiveRequestDAO {
      * Create a new request.
      */
     public Mono<Void> createRequest(Request request) {
-        return Mono.fromRunnable(() -> requestDAO.createRequest(request))
-                .subscribeOn(Schedulers.boundedElastic())
-                .then();
+        return ReactiveCalls.run("reactive.request.createRequest", () -> requestDAO.createRequest(request));
     }
 
     /**
      * Update request status.
      */
     public Mono<Void> updateRequestStatus(int requestId, String status) {
-        return Mono.fromRunnable(() -> requestDAO.updateRequestStatus(requestId, status))
-                .subscribeOn(Schedulers.boundedElastic())
-                .then();
+        return ReactiveCalls.run("reactive.request.updateRequestStatus",
+                () -> requestDAO.updateRequestStatus(requestId, status));
     }
 
     /**
      * Delete a request.
      */
     public Mono<Void> deleteRequest(int id) {
-        return Mono.fromRunnable(() -> requestDAO.deleteRequest(id))
-                .subscribeOn(Schedulers.boundedElastic())
-                .then();
+        return ReactiveCalls.run("reactive.request.deleteRequest", () -> requestDAO.deleteRequest(id));
     }
 
     /**
      * Get daily requests count.
      */
     public Mono<Integer> getDailyRequestsCount() {
-        return Mono.fromCallable(requestDAO::getDailyRequestsCount)
-                .subscribeOn(Schedulers.boundedElastic());
+        return ReactiveCalls.call("reactive.request.getDailyRequestsCount", requestDAO::getDailyRequestsCount);
     }
 
     /**
      * Check if user has active (pending) request.
      */
     public Mono<Boolean> hasActiveRequest(int userId) {
-        return Mono.fromCallable(() -> requestDAO.hasActiveRequest(userId))
-                .subscribeOn(Schedulers.boundedElastic());
+        return ReactiveCalls.call("reactive.request.hasActiveRequest", () -> requestDAO.hasActiveRequest(userId));
     }
 
     /**
@@ -100,8 +121,7 @@ public class ReactiveRequestDAO {
      */
     public Flux<List<Request>> watchRequests(Duration interval) {
         return Flux.interval(interval)
-                .flatMap(tick -> Mono.fromCallable(requestDAO::getAllRequests)
-                        .subscribeOn(Schedulers.boundedElastic()));
+                .flatMap(tick -> ReactiveCalls.call("reactive.request.watchRequests", requestDAO::getAllRequests));
     }
 
     /**
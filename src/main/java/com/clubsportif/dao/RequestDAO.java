@@ -4,16 +4,21 @@ import com.clubsportif.config.Database;
 import com.clubsportif.model.Request;
 
 import java.sql.*;
+import java.time.LocalDate;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.function.Consumer;
 
 public class RequestDAO {
 
+    private static final String DECIDED_STATUSES = "('ACCEPTED', 'DECLINED', 'CANCELED')";
+
     // Create a new request
     public void createRequest(Request request) {
         String sql = "INSERT INTO requests (user_id, nom, prenom, subscription, request_date, status) VALUES (?, ?, ?, ?, ?, ?)";
         
-        try (Connection conn = Database.getConnection();
+        try (DbCall call = DbCall.start("dao.request.createRequest");
+             Connection conn = Database.getConnection();
              PreparedStatement stmt = conn.prepareStatement(sql)) {
             
             stmt.setInt(1, request.getUserId());
@@ -23,7 +28,7 @@ public class RequestDAO {
             stmt.setDate(5, Date.valueOf(request.getRequestDate()));
             stmt.setString(6, request.getStatus());
             
-            stmt.executeUpdate();
+            call.rows(stmt.executeUpdate());
         } catch (SQLException e) {
             e.printStackTrace();
         }
@@ -32,24 +37,15 @@ public class RequestDAO {
     // Get all requests
     public List<Request> getAllRequests() {
         List<Request> requests = new ArrayList<>();
-        String sql = "SELECT * FROM requests ORDER BY request_date DESC";
+        String sql = "SELECT " + RowMappers.REQUEST_COLUMNS + " FROM requests ORDER BY request_date DESC";
         
-        try (Connection conn = Database.getConnection();
+        try (DbCall call = DbCall.start("dao.request.getAllRequests");
+             Connection conn = Database.getConnection();
              Statement stmt = conn.createStatement();
              ResultSet rs = stmt.executeQuery(sql)) {
             
-            while (rs.next()) {
-                Request request = new Request(
-                    rs.getInt("id"),
-                    rs.getInt("user_id"),
-                    rs.getString("nom"),
-                    rs.getString("prenom"),
-                    rs.getString("subscription"),
-                    rs.getDate("request_date").toLocalDate(),
-                    rs.getString("status")
-                );
-                requests.add(request);
-            }
+            requests = RowMappers.REQUEST.mapAll(rs);
+            call.rows(requests.size());
         } catch (SQLException e) {
             e.printStackTrace();
         }
@@ -57,29 +53,80 @@ public class RequestDAO {
         return requests;
     }
 
+    // Get up to limit pending requests, oldest first, following the request after (null for the first page)
+    public List<Request> getPendingRequests(Request after, int limit) {
+        List<Request> requests = new ArrayList<>();
+        String sql = "SELECT " + RowMappers.REQUEST_COLUMNS + " FROM requests WHERE status = 'PENDING' " +
+                     (after != null ? "AND (request_date, id) > (?, ?) " : "") +
+                     "ORDER BY request_date, id LIMIT ?";
+
+        try (DbCall call = DbCall.start("dao.request.getPendingRequests");
+             Connection conn = Database.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+
+            int param = 1;
+            if (after != null) {
+                stmt.setObject(param++, after.getRequestDate());
+                stmt.setInt(param++, after.getId());
+            }
+            stmt.setInt(param, limit);
+            ResultSet rs = stmt.executeQuery();
+
+            requests = RowMappers.REQUEST.mapAll(rs);
+            call.rows(requests.size());
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+
+        return requests;
+    }
+
+    // Get the number of pending requests
+    public int getPendingRequestsCount() {
+        String sql = "SELECT COUNT(*) FROM requests WHERE status = 'PENDING'";
+
+        try (DbCall call = DbCall.start("dao.request.getPendingRequestsCount");
+             Connection conn = Database.getConnection();
+             Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery(sql)) {
+
+            if (rs.next()) {
+                call.rows(1);
+                return rs.getInt(1);
+            }
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+
+        return 0;
+    }
+
+    // Pass every request to action in id order, streaming rather than loading the table
+    public int forEachRequest(Consumer<Request> action) {
+        return Cursor.forEach("dao.request.forEachRequest",
+                "SELECT " + RowMappers.REQUEST_COLUMNS + " FROM requests ORDER BY id", RowMappers.REQUEST, action);
+    }
+
+    // Get requests changed since a change mark (all requests when since is null)
+    public TableChanges<Request> getRequestsChangedSince(Long since) {
+        return TableChanges.read("dao.request.getRequestsChangedSince", "requests",
+                RowMappers.REQUEST_COLUMNS, RowMappers.REQUEST, since);
+    }
+
     // Get requests by user ID
     public List<Request> getRequestsByUserId(int userId) {
         List<Request> requests = new ArrayList<>();
-        String sql = "SELECT * FROM requests WHERE user_id = ? ORDER BY request_date DESC";
+        String sql = "SELECT " + RowMappers.REQUEST_COLUMNS + " FROM requests WHERE user_id = ? ORDER BY request_date DESC";
         
-        try (Connection conn = Database.getConnection();
+        try (DbCall call = DbCall.start("dao.request.getRequestsByUserId");
+             Connection conn = Database.getConnection();
              PreparedStatement stmt = conn.prepareStatement(sql)) {
             
             stmt.setInt(1, userId);
             ResultSet rs = stmt.executeQuery();
             
-            while (rs.next()) {
-                Request request = new Request(
-                    rs.getInt("id"),
-                    rs.getInt("user_id"),
-                    rs.getString("nom"),
-                    rs.getString("prenom"),
-                    rs.getString("subscription"),
-                    rs.getDate("request_date").toLocalDate(),
-                    rs.getString("status")
-                );
-                requests.add(request);
-            }
+            requests = RowMappers.REQUEST.mapAll(rs);
+            call.rows(requests.size());
         } catch (SQLException e) {
             e.printStackTrace();
         }
@@ -87,15 +134,83 @@ public class RequestDAO {
         return requests;
     }
 
+    // Get the oldest request date among decided requests before a date (null when there are none)
+    public LocalDate getOldestDecidedRequestDate(LocalDate before) {
+        String sql = "SELECT MIN(request_date) FROM requests WHERE status IN " + DECIDED_STATUSES + " AND request_date < ?";
+
+        try (DbCall call = DbCall.start("dao.request.getOldestDecidedRequestDate");
+             Connection conn = Database.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+
+            stmt.setObject(1, before);
+            ResultSet rs = stmt.executeQuery();
+            call.rows(1);
+            return rs.next() ? rs.getObject(1, LocalDate.class) : null;
+        } catch (SQLException e) {
+            throw new RuntimeException("Failed to read the oldest decided request", e);
+        }
+    }
+
+    // Create the archive partition of a year if it is missing
+    public void createArchivePartition(int year) {
+        String sql = String.format("CREATE TABLE IF NOT EXISTS requests_archive_%d PARTITION OF requests_archive " +
+                                   "FOR VALUES FROM ('%d-01-01') TO ('%d-01-01')", year, year, year + 1);
+
+        try (DbCall call = DbCall.start("dao.request.createArchivePartition");
+             Connection conn = Database.getConnection();
+             Statement stmt = conn.createStatement()) {
+
+            call.rows(stmt.executeUpdate(sql));
+        } catch (SQLException e) {
+            // Fails when the default partition already holds rows of that year; they stay there
+            System.err.println("[Archive] Could not create the " + year + " partition: " + e.getMessage());
+        }
+    }
+
+    // Move up to limit decided requests dated before a date to requests_archive, in one transaction
+    public int archiveDecidedRequests(LocalDate before, int limit) {
+        String sql = "WITH moved AS (" +
+                     "DELETE FROM requests WHERE id IN (" +
+                     "SELECT id FROM requests WHERE status IN " + DECIDED_STATUSES + " AND request_date < ? " +
+                     "ORDER BY request_date, id LIMIT ? FOR UPDATE SKIP LOCKED) " +
+                     "RETURNING " + RowMappers.REQUEST_COLUMNS + ") " +
+                     "INSERT INTO requests_archive (" + RowMappers.REQUEST_COLUMNS + ") " +
+                     "SELECT " + RowMappers.REQUEST_COLUMNS + " FROM moved";
+
+        try (DbCall call = DbCall.start("dao.request.archiveDecidedRequests");
+             Connection conn = Database.getConnection()) {
+
+            conn.setAutoCommit(false);
+            try (Statement mark = conn.createStatement();
+                 PreparedStatement stmt = conn.prepareStatement(sql)) {
+                // Tells the delete trigger these rows are archived, not deleted
+                mark.execute("SELECT set_config('clubsportif.archiving', 'on', true)");
+                stmt.setObject(1, before);
+                stmt.setInt(2, limit);
+                int rows = stmt.executeUpdate();
+                conn.commit();
+                call.rows(rows);
+                return rows;
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            }
+        } catch (SQLException e) {
+            throw new RuntimeException("Failed to archive requests", e);
+        }
+    }
+
     // Get daily requests count
     public int getDailyRequestsCount() {
         String sql = "SELECT COUNT(*) FROM requests WHERE request_date = CURRENT_DATE";
         
-        try (Connection conn = Database.getConnection();
+        try (DbCall call = DbCall.start("dao.request.getDailyRequestsCount");
+             Connection conn = Database.getConnection();
              Statement stmt = conn.createStatement();
              ResultSet rs = stmt.executeQuery(sql)) {
             
             if (rs.next()) {
+                call.rows(1);
                 return rs.getInt(1);
             }
         } catch (SQLException e) {
@@ -109,13 +224,14 @@ public class RequestDAO {
     public void updateRequestStatus(int requestId, String status) {
         String sql = "UPDATE requests SET status = ? WHERE id = ?";
         
-        try (Connection conn = Database.getConnection();
+        try (DbCall call = DbCall.start("dao.request.updateRequestStatus");
+             Connection conn = Database.getConnection();
              PreparedStatement stmt = conn.prepareStatement(sql)) {
             
             stmt.setString(1, status);
             stmt.setInt(2, requestId);
             
-            stmt.executeUpdate();
+            call.rows(stmt.executeUpdate());
         } catch (SQLException e) {
             e.printStackTrace();
         }
@@ -125,11 +241,12 @@ public class RequestDAO {
     public void deleteRequest(int id) {
         String sql = "DELETE FROM requests WHERE id = ?";
         
-        try (Connection conn = Database.getConnection();
+        try (DbCall call = DbCall.start("dao.request.deleteRequest");
+             Connection conn = Database.getConnection();
              PreparedStatement stmt = conn.prepareStatement(sql)) {
             
             stmt.setInt(1, id);
-            stmt.executeUpdate();
+            call.rows(stmt.executeUpdate());
         } catch (SQLException e) {
             e.printStackTrace();
         }
@@ -139,13 +256,15 @@ public class RequestDAO {
     public boolean hasActiveRequest(int userId) {
         String sql = "SELECT COUNT(*) FROM requests WHERE user_id = ? AND status = 'PENDING'";
         
-        try (Connection conn = Database.getConnection();
+        try (DbCall call = DbCall.start("dao.request.hasActiveRequest");
+             Connection conn = Database.getConnection();
              PreparedStatement stmt = conn.prepareStatement(sql)) {
             
             stmt.setInt(1, userId);
             ResultSet rs = stmt.executeQuery();
             
             if (rs.next()) {
+                call.rows(1);
                 return rs.getInt(1) > 0;
             }
         } catch (SQLException e) {
@@ -0,0 +1,28 @@
+package com.clubsportif.dao;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Maps the current row of a ResultSet to an object. Mappers read columns
+ * by position, so the query must select the mapper's column list, in that
+ * order; see {@link RowMappers}.
+ */
+@FunctionalInterface
+interface RowMapper<T> {
+
+    T map(ResultSet rs) throws SQLException;
+
+    /**
+     * Map every remaining row.
+     */
+    default List<T> mapAll(ResultSet rs) throws SQLException {
+        List<T> rows = new ArrayList<>();
+        while (rs.next()) {
+            rows.add(map(rs));
+        }
+        return rows;
+    }
+}
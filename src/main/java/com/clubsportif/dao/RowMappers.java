@@ -0,0 +1,56 @@
+package com.clubsportif.dao;
+
+import com.clubsportif.model.Member;
+import com.clubsportif.model.Request;
+import com.clubsportif.model.User;
+
+import java.time.LocalDate;
+
+/**
+ * Column lists and the matching mappers for members, requests and users.
+ * Queries select exactly the listed columns, so each value is read by its
+ * position instead of a name lookup per column and row, and dates are read
+ * straight into LocalDate by the driver.
+ */
+final class RowMappers {
+
+    static final String MEMBER_COLUMNS = "id, user_id, nom, prenom, subscription, date_start, date_end, status";
+
+    static final RowMapper<Member> MEMBER = rs -> new Member(
+            rs.getInt(1),
+            rs.getInt(2),
+            rs.getString(3),
+            rs.getString(4),
+            rs.getString(5),
+            rs.getObject(6, LocalDate.class),
+            rs.getObject(7, LocalDate.class),
+            rs.getString(8)
+    );
+
+    static final String REQUEST_COLUMNS = "id, user_id, nom, prenom, subscription, request_date, status";
+
+    static final RowMapper<Request> REQUEST = rs -> new Request(
+            rs.getInt(1),
+            rs.getInt(2),
+            rs.getString(3),
+            rs.getString(4),
+            rs.getString(5),
+            rs.getObject(6, LocalDate.class),
+            rs.getString(7)
+    );
+
+    static final String USER_COLUMNS = "id, username, email, phone, password, role";
+
+    static final RowMapper<User> USER = rs -> new User(
+            rs.getInt(1),
+            rs.getString(2),
+            rs.getString(3),
+            rs.getString(4),
+            rs.getString(5),
+            rs.getString(6)
+    );
+
+    private RowMappers() {
+        // prevent instantiation
+    }
+}
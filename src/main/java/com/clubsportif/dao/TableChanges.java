@@ -0,0 +1,157 @@
+package com.clubsportif.dao;
+
+import com.clubsportif.config.Database;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.function.ToIntFunction;
+
+/**
+ * Rows of a table changed since a change mark, in id order, as returned by
+ * the getXxxChangedSince DAO methods.
+ * <p>
+ * {@code liveIds} lists every id still in the table (sorted), so rows
+ * deleted since the last read can be dropped; it is null for a full read,
+ * where {@code rows} is the whole table. {@code changeMark} is what to pass
+ * on the next call.
+ * <p>
+ * Rows are versioned by the id of the transaction that last wrote them
+ * (change_xid) rather than by wall time, and a read runs in one REPEATABLE
+ * READ transaction whose snapshot xmin becomes the next mark: every
+ * transaction older than that had ended when the read began, so its rows
+ * were seen, while rows of those still open, however long they run, have a
+ * change_xid at or above the mark and are picked up by the next read.
+ */
+public record TableChanges<T>(List<T> rows, int[] liveIds, Long changeMark) {
+
+    public boolean isFullRead() {
+        return liveIds == null;
+    }
+
+    public boolean isLive(int id) {
+        return liveIds == null || Arrays.binarySearch(liveIds, id) >= 0;
+    }
+
+    /**
+     * Apply the changes to rows read earlier: deleted rows are dropped and
+     * changed or new rows replace or join the rest. The order of the
+     * result is unspecified.
+     */
+    public List<T> applyTo(List<T> previous, ToIntFunction<T> idOf) {
+        if (isFullRead()) {
+            return new ArrayList<>(rows);
+        }
+        Map<Integer, T> changed = new HashMap<>();
+        for (T row : rows) {
+            int id = idOf.applyAsInt(row);
+            if (isLive(id)) {
+                changed.put(id, row);
+            }
+        }
+        List<T> merged = new ArrayList<>(liveIds.length);
+        for (T row : previous) {
+            int id = idOf.applyAsInt(row);
+            if (!changed.containsKey(id) && isLive(id)) {
+                merged.add(row);
+            }
+        }
+        merged.addAll(changed.values());
+        return merged;
+    }
+
+    /**
+     * Read the rows of {@code table} changed since the mark {@code since}
+     * (all rows when null), plus the live ids unless it is a full read.
+     * Failures are thrown rather than returned as an empty result, which
+     * would read as "every row was deleted".
+     */
+    static <T> TableChanges<T> read(String name, String table, String columns, RowMapper<T> mapper, Long since) {
+        String sql = "SELECT " + columns + " FROM " + table
+                + (since != null ? " WHERE change_xid >= ?" : "") + " ORDER BY id";
+
+        try (DbCall call = DbCall.start(name);
+             Connection conn = Database.getConnection()) {
+
+            conn.setAutoCommit(false);
+            conn.setTransactionIsolation(Connection.TRANSACTION_REPEATABLE_READ);
+            conn.setReadOnly(true);
+            try {
+                long changeMark = changeMark(conn);
+                List<T> rows = new ArrayList<>();
+                try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+                    if (since != null) {
+                        stmt.setLong(1, since);
+                    }
+                    try (ResultSet rs = stmt.executeQuery()) {
+                        while (rs.next()) {
+                            rows.add(mapper.map(rs));
+                        }
+                    }
+                }
+                int[] liveIds = since != null ? readIds(conn, table) : null;
+                call.rows(rows.size());
+                return new TableChanges<>(rows, liveIds, changeMark);
+            } finally {
+                conn.rollback();
+            }
+        } catch (SQLException e) {
+            throw new RuntimeException("Failed to read changes from " + table, e);
+        }
+    }
+
+    /**
+     * The change mark of the transaction running on {@code conn}: the xmin
+     * of its snapshot. Under REPEATABLE READ that is the snapshot every
+     * query of the transaction sees.
+     */
+    static long changeMark(Connection conn) throws SQLException {
+        try (Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT pg_snapshot_xmin(pg_current_snapshot())::text::bigint")) {
+            rs.next();
+            return rs.getLong(1);
+        }
+    }
+
+    /**
+     * Stream the rows of {@code table} changed since the mark {@code since}
+     * (all rows when null) to {@code action}, oldest change first, each with
+     * its updated_at. Runs on {@code conn}, which should hold the
+     * REPEATABLE READ transaction the mark was taken in.
+     */
+    static <T> int forEachChangedSince(Connection conn, String name, String table, String columns,
+                                       RowMapper<T> mapper, Long since, Consumer<Versioned<T>> action)
+            throws SQLException {
+        String sql = "SELECT " + columns + ", updated_at FROM " + table
+                + (since != null ? " WHERE change_xid >= ?" : "") + " ORDER BY change_xid, id";
+        RowMapper<Versioned<T>> versioned = rs -> new Versioned<>(mapper.map(rs),
+                rs.getObject(rs.getMetaData().getColumnCount(), OffsetDateTime.class).toInstant());
+        return since != null
+                ? Cursor.forEach(conn, name, sql, versioned, action, since)
+                : Cursor.forEach(conn, name, sql, versioned, action);
+    }
+
+    private static int[] readIds(Connection conn, String table) throws SQLException {
+        try (Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT id FROM " + table + " ORDER BY id")) {
+            int[] ids = new int[1024];
+            int count = 0;
+            while (rs.next()) {
+                if (count == ids.length) {
+                    ids = Arrays.copyOf(ids, count * 2);
+                }
+                ids[count++] = rs.getInt(1);
+            }
+            return Arrays.copyOf(ids, count);
+        }
+    }
+}
@@ -0,0 +1,211 @@
+package com.clubsportif.dao;
+
+import com.clubsportif.config.Database;
+import org.postgresql.PGConnection;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.sql.*;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Replaces the whole contents of a set of tables in one transaction, for
+ * restoring a backup. Nothing is visible to other sessions until
+ * {@link #commit()}; closing without committing rolls everything back.
+ * <p>
+ * On PostgreSQL rows are loaded with COPY. Secondary indexes (those not
+ * backing a constraint) are dropped first and rebuilt once all rows are in,
+ * which is much faster than maintaining them row by row, and the id
+ * sequences are moved past the restored ids. Other databases (the H2
+ * benchmark database) get plain batched INSERTs.
+ */
+public final class TableLoader implements AutoCloseable {
+
+    private final Connection conn;
+    private final List<String> tables;
+    private final boolean postgres;
+    private final List<String> droppedIndexes = new ArrayList<>();
+
+    private TableLoader(Connection conn, List<String> tables, boolean postgres) {
+        this.conn = conn;
+        this.tables = tables;
+        this.postgres = postgres;
+    }
+
+    /**
+     * Start the transaction and empty {@code tables}.
+     */
+    public static TableLoader open(List<String> tables) {
+        Connection conn = Database.getConnection();
+        try {
+            conn.setAutoCommit(false);
+            TableLoader loader = new TableLoader(conn, tables,
+                    "PostgreSQL".equals(conn.getMetaData().getDatabaseProductName()));
+            loader.prepare();
+            return loader;
+        } catch (SQLException e) {
+            try {
+                conn.close();
+            } catch (SQLException closeFailure) {
+                e.addSuppressed(closeFailure);
+            }
+            throw new RuntimeException("Failed to prepare " + tables + " for loading", e);
+        }
+    }
+
+    private void prepare() throws SQLException {
+        try (Statement stmt = conn.createStatement()) {
+            if (postgres) {
+                for (String table : tables) {
+                    dropSecondaryIndexes(stmt, table);
+                }
+                stmt.execute("TRUNCATE TABLE " + String.join(", ", tables));
+            } else {
+                for (String table : tables) {
+                    stmt.execute("DELETE FROM " + table);
+                }
+            }
+        }
+    }
+
+    private void dropSecondaryIndexes(Statement stmt, String table) throws SQLException {
+        String sql = "SELECT i.indexname, i.indexdef FROM pg_indexes i " +
+                     "WHERE i.schemaname = current_schema() AND i.tablename = ? " +
+                     // The definition of a partitioned table's index would only recreate it ON ONLY the parent
+                     "AND (SELECT relkind FROM pg_class WHERE oid = format('%I.%I', i.schemaname, i.tablename)::regclass) = 'r' " +
+                     "AND NOT EXISTS (" +
+                     "SELECT 1 FROM pg_constraint c WHERE c.conindid = format('%I.%I', i.schemaname, i.indexname)::regclass)";
+        List<String> names = new ArrayList<>();
+        try (PreparedStatement select = conn.prepareStatement(sql)) {
+            select.setString(1, table);
+            ResultSet rs = select.executeQuery();
+            while (rs.next()) {
+                names.add(rs.getString(1));
+                droppedIndexes.add(rs.getString(2));
+            }
+        }
+        for (String name : names) {
+            stmt.execute("DROP INDEX \"" + name.replace("\"", "\"\"") + "\"");
+        }
+    }
+
+    /**
+     * Add rows to {@code table}; each row holds Integer, String, LocalDate
+     * or null values in the order of {@code columns}.
+     */
+    public void load(String table, String columns, List<Object[]> rows) {
+        try (DbCall call = DbCall.start("dao.tableLoader.load")) {
+            if (postgres) {
+                copy(table, columns, rows);
+            } else {
+                insert(table, columns, rows);
+            }
+            call.rows(rows.size());
+        } catch (SQLException e) {
+            throw new RuntimeException("Failed to load rows into " + table, e);
+        }
+    }
+
+    private void copy(String table, String columns, List<Object[]> rows) throws SQLException {
+        StringBuilder text = new StringBuilder(rows.size() * 96);
+        for (Object[] row : rows) {
+            for (int i = 0; i < row.length; i++) {
+                if (i > 0) {
+                    text.append('\t');
+                }
+                appendCopyValue(text, row[i]);
+            }
+            text.append('\n');
+        }
+        try {
+            conn.unwrap(PGConnection.class).getCopyAPI().copyIn(
+                    "COPY " + table + " (" + columns + ") FROM STDIN",
+                    new ByteArrayInputStream(text.toString().getBytes(StandardCharsets.UTF_8)));
+        } catch (IOException e) {
+            throw new SQLException("COPY into " + table + " failed", e);
+        }
+    }
+
+    // COPY text format: \N for null, backslash escapes for the delimiters
+    private static void appendCopyValue(StringBuilder text, Object value) {
+        if (value == null) {
+            text.append("\\N");
+            return;
+        }
+        String s = value.toString();
+        for (int i = 0; i < s.length(); i++) {
+            char c = s.charAt(i);
+            switch (c) {
+                case '\\' -> text.append("\\\\");
+                case '\t' -> text.append("\\t");
+                case '\n' -> text.append("\\n");
+                case '\r' -> text.append("\\r");
+                default -> text.append(c);
+            }
+        }
+    }
+
+    private void insert(String table, String columns, List<Object[]> rows) throws SQLException {
+        if (rows.isEmpty()) {
+            return;
+        }
+        String placeholders = "?" + ", ?".repeat(rows.get(0).length - 1);
+        try (PreparedStatement stmt = conn.prepareStatement(
+                "INSERT INTO " + table + " (" + columns + ") VALUES (" + placeholders + ")")) {
+            for (Object[] row : rows) {
+                for (int i = 0; i < row.length; i++) {
+                    stmt.setObject(i + 1, row[i]);
+                }
+                stmt.addBatch();
+            }
+            stmt.executeBatch();
+        }
+    }
+
+    /**
+     * Rebuild the dropped indexes, reset the id sequences and commit. The
+     * incremental export watermarks are cleared, as the restored rows do not
+     * follow from what the export targets already have: their next run is a
+     * full export, whose RESET line tells consumers to drop what they hold.
+     */
+    public void commit() {
+        try (Statement stmt = conn.createStatement()) {
+            if (postgres) {
+                for (String definition : droppedIndexes) {
+                    stmt.execute(definition);
+                }
+                for (String table : tables) {
+                    stmt.execute("SELECT setval(pg_get_serial_sequence('" + table + "', 'id'), " +
+                                 "COALESCE(MAX(id), 0) + 1, false) FROM " + table);
+                }
+                if (tables.contains("requests_archive")) {
+                    // Archived requests keep the ids they were given by the requests sequence
+                    stmt.execute("SELECT setval(pg_get_serial_sequence('requests', 'id'), MAX(id) + 1, false) " +
+                                 "FROM requests_archive HAVING MAX(id) >= (SELECT COALESCE(MAX(id), 0) FROM requests)");
+                }
+            }
+            stmt.executeUpdate("UPDATE export_watermarks SET change_mark = NULL");
+            conn.commit();
+            if (postgres) {
+                // Fresh statistics, or the planner still sees the old tables
+                conn.setAutoCommit(true);
+                stmt.execute("ANALYZE " + String.join(", ", tables));
+            }
+        } catch (SQLException e) {
+            throw new RuntimeException("Failed to finish loading " + tables, e);
+        }
+    }
+
+    @Override
+    public void close() {
+        try (conn) {
+            if (!conn.getAutoCommit()) {
+                conn.rollback();
+            }
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+    }
+}
@@ -0,0 +1,9 @@
+package com.clubsportif.dao;
+
+import java.time.Instant;
+
+/**
+ * A deleted row, as recorded in deleted_rows by the delete triggers.
+ */
+public record Tombstone(int id, Instant deletedAt) {
+}
@@ -18,7 +18,8 @@ public class UserDAO {
             VALUES (?, ?, ?, ?, ?)
         """;
 
-        try (Connection conn = getConnection();
+        try (DbCall call = DbCall.start("dao.user.save");
+             Connection conn = getConnection();
              PreparedStatement ps = conn.prepareStatement(sql)) {
 
             ps.setString(1, user.getUsername());
@@ -27,31 +28,24 @@ public class UserDAO {
             ps.setString(4, user.getPassword());
             ps.setString(5, user.getRole());
 
-            ps.executeUpdate();
+            call.rows(ps.executeUpdate());
         }
     }
 
     // LOGIN
     public Optional<User> findByUsername(String username) throws SQLException {
-        String sql = "SELECT * FROM users WHERE username = ?";
+        String sql = "SELECT " + RowMappers.USER_COLUMNS + " FROM users WHERE username = ?";
 
-        try (Connection conn = getConnection();
+        try (DbCall call = DbCall.start("dao.user.findByUsername");
+             Connection conn = getConnection();
              PreparedStatement ps = conn.prepareStatement(sql)) {
 
             ps.setString(1, username);
             ResultSet rs = ps.executeQuery();
 
             if (rs.next()) {
-                return Optional.of(
-                    new User(
-                        rs.getInt("id"),
-                        rs.getString("username"),
-                        rs.getString("email"),
-                        rs.getString("phone"),
-                        rs.getString("password"),
-                        rs.getString("role")
-                    )
-                );
+                call.rows(1);
+                return Optional.of(RowMappers.USER.map(rs));
             }
             return Optional.empty();
         }
@@ -61,12 +55,13 @@ public class UserDAO {
     public void updateUserRole(int userId, String newRole) {
         String sql = "UPDATE users SET role = ? WHERE id = ?";
         
-        try (Connection conn = getConnection();
+        try (DbCall call = DbCall.start("dao.user.updateUserRole");
+             Connection conn = getConnection();
              PreparedStatement ps = conn.prepareStatement(sql)) {
             
             ps.setString(1, newRole);
             ps.setInt(2, userId);
-            ps.executeUpdate();
+            call.rows(ps.executeUpdate());
             
         } catch (SQLException e) {
             e.printStackTrace();
@@ -0,0 +1,9 @@
+package com.clubsportif.dao;
+
+import java.time.Instant;
+
+/**
+ * A row with the updated_at it was read with.
+ */
+public record Versioned<T>(T row, Instant updatedAt) {
+}
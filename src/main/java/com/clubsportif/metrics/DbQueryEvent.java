@@ -0,0 +1,28 @@
+package com.clubsportif.metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Threshold;
+
+/**
+ * One JDBC call made by a DAO, from borrowing the connection to closing it.
+ */
+@Name("com.clubsportif.DbQuery")
+@Label("Database Query")
+@Category({"Club Sportif", "Database"})
+@Description("JDBC call made by a DAO")
+@Threshold("10 ms")
+@StackTrace(false)
+public class DbQueryEvent extends jdk.jfr.Event {
+
+    @Label("SQL Id")
+    @Description("DAO operation, e.g. dao.member.getAllMembers")
+    public String sqlId;
+
+    @Label("Rows")
+    @Description("Rows returned or updated; -1 when the call failed")
+    public long rows;
+}
@@ -0,0 +1,67 @@
+package com.clubsportif.metrics;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.Executors;
+
+/**
+ * Serves {@link MetricsRegistry#scrape()} as text/plain on GET /metrics,
+ * for Prometheus or curl, and the {@link SlowQueryLog} report on GET /queries.
+ * One daemon thread; the handlers only read counters.
+ */
+public class MetricsHttpServer {
+
+    private static HttpServer server;
+
+    private MetricsHttpServer() {
+        // prevent instantiation
+    }
+
+    public static synchronized void start(String host, int port) {
+        if (server != null) {
+            return;
+        }
+        try {
+            server = HttpServer.create(new InetSocketAddress(host, port), 0);
+            server.createContext("/metrics", exchange -> handle(exchange, MetricsRegistry.scrape()));
+            server.createContext("/queries", exchange -> handle(exchange, SlowQueryLog.report()));
+            server.setExecutor(Executors.newSingleThreadExecutor(r -> {
+                Thread t = new Thread(r, "Metrics-HTTP");
+                t.setDaemon(true);
+                return t;
+            }));
+            server.start();
+            System.out.println("[Metrics] Serving http://" + host + ":" + port + "/metrics");
+        } catch (IOException e) {
+            server = null;
+            System.err.println("[Metrics] Failed to start scrape endpoint: " + e.getMessage());
+        }
+    }
+
+    private static void handle(HttpExchange exchange, String text) throws IOException {
+        try (exchange) {
+            if (!"GET".equals(exchange.getRequestMethod())) {
+                exchange.sendResponseHeaders(405, -1);
+                return;
+            }
+            byte[] body = text.getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().set("Content-Type", "text/plain; version=0.0.4; charset=utf-8");
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        }
+    }
+
+    public static synchronized void stop() {
+        if (server != null) {
+            server.stop(0);
+            server = null;
+        }
+    }
+}
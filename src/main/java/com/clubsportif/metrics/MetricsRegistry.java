@@ -0,0 +1,255 @@
+package com.clubsportif.metrics;
+
+import javax.management.Attribute;
+import javax.management.AttributeList;
+import javax.management.DynamicMBean;
+import javax.management.MBeanAttributeInfo;
+import javax.management.MBeanInfo;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+/**
+ * Process-wide registry of named counters, gauges and latency histograms.
+ * Names are dotted paths ("dao.member.getAllMembers"). Everything registered
+ * here is visible over JMX as attributes of com.clubsportif:type=Metrics and
+ * in the plain-text output of {@link #scrape()}, which
+ * {@link MetricsHttpServer} serves from the headless server.
+ */
+public final class MetricsRegistry {
+
+    public static final String MBEAN_NAME = "com.clubsportif:type=Metrics";
+
+    private enum Kind { COUNTER, GAUGE, HISTOGRAM }
+
+    private record Metric(Kind kind, LongSupplier value, LatencyHistogram histogram) {
+    }
+
+    // Sorted so scrape output and JMX attributes group by prefix
+    private static final Map<String, Metric> metrics = new ConcurrentSkipListMap<>();
+    private static final Map<String, LongAdder> counters = new ConcurrentHashMap<>();
+
+    static {
+        try {
+            ManagementFactory.getPlatformMBeanServer().registerMBean(new MetricsMBean(), new ObjectName(MBEAN_NAME));
+        } catch (Exception e) {
+            System.err.println("[Metrics] JMX registration failed: " + e.getMessage());
+        }
+    }
+
+    private MetricsRegistry() {
+        // prevent instantiation
+    }
+
+    // ==================== Registration ====================
+
+    /**
+     * Get or create a counter.
+     */
+    public static LongAdder counter(String name) {
+        return counters.computeIfAbsent(name, n -> {
+            LongAdder adder = new LongAdder();
+            metrics.put(n, new Metric(Kind.COUNTER, adder::sum, null));
+            return adder;
+        });
+    }
+
+    /**
+     * Expose an existing monotonically increasing value as a counter.
+     */
+    public static void counter(String name, LongSupplier value) {
+        metrics.put(name, new Metric(Kind.COUNTER, value, null));
+    }
+
+    /**
+     * Expose a value that can go up and down; replaces any gauge of the same name.
+     */
+    public static void gauge(String name, LongSupplier value) {
+        metrics.put(name, new Metric(Kind.GAUGE, value, null));
+    }
+
+    /**
+     * Get or create a latency histogram in microseconds.
+     */
+    public static LatencyHistogram timer(String name) {
+        Metric metric = metrics.get(name);
+        if (metric != null && metric.histogram() != null) {
+            return metric.histogram();
+        }
+        return metrics.computeIfAbsent(name,
+                n -> new Metric(Kind.HISTOGRAM, null, new LatencyHistogram("us"))).histogram();
+    }
+
+    /**
+     * Expose an existing histogram; replaces any metric of the same name.
+     */
+    public static void histogram(String name, LatencyHistogram histogram) {
+        metrics.put(name, new Metric(Kind.HISTOGRAM, null, histogram));
+    }
+
+    /**
+     * Start timing into the named timer; the time is recorded on close, so
+     * close it in a finally block after the code to measure.
+     */
+    public static Timing time(String name) {
+        return new Timing(timer(name));
+    }
+
+    /**
+     * A running measurement started by {@link #time(String)}.
+     */
+    public static final class Timing implements AutoCloseable {
+        private final LatencyHistogram histogram;
+        private final long start = System.nanoTime();
+
+        private Timing(LatencyHistogram histogram) {
+            this.histogram = histogram;
+        }
+
+        @Override
+        public void close() {
+            histogram.record((System.nanoTime() - start) / 1000);
+        }
+    }
+
+    // ==================== Export ====================
+
+    /**
+     * All metrics in the Prometheus text format. Names get a clubsportif_
+     * prefix, dots become underscores and histograms are summaries with the
+     * unit as suffix.
+     */
+    public static String scrape() {
+        StringBuilder sb = new StringBuilder(8192);
+        for (Map.Entry<String, Metric> entry : metrics.entrySet()) {
+            String name = "clubsportif_" + sanitize(entry.getKey());
+            Metric metric = entry.getValue();
+            switch (metric.kind()) {
+                case COUNTER, GAUGE -> {
+                    sb.append("# TYPE ").append(name).append(' ')
+                            .append(metric.kind() == Kind.COUNTER ? "counter" : "gauge").append('\n');
+                    sb.append(name).append(' ').append(read(metric.value())).append('\n');
+                }
+                case HISTOGRAM -> {
+                    LatencyHistogram h = metric.histogram();
+                    String base = name + "_" + h.getUnit();
+                    sb.append("# TYPE ").append(base).append(" summary\n");
+                    for (double q : new double[]{0.5, 0.9, 0.99, 0.999}) {
+                        sb.append(base).append("{quantile=\"").append(q).append("\"} ")
+                                .append(h.getPercentile(q * 100)).append('\n');
+                    }
+                    sb.append(base).append("_max ").append(h.getMax()).append('\n');
+                    sb.append(base).append("_sum ").append(h.getSum()).append('\n');
+                    sb.append(base).append("_count ").append(h.getCount()).append('\n');
+                }
+            }
+        }
+        return sb.toString();
+    }
+
+    private static String sanitize(String name) {
+        StringBuilder sb = new StringBuilder(name.length());
+        for (int i = 0; i < name.length(); i++) {
+            char c = name.charAt(i);
+            sb.append(Character.isLetterOrDigit(c) ? c : '_');
+        }
+        return sb.toString();
+    }
+
+    private static long read(LongSupplier value) {
+        try {
+            return value.getAsLong();
+        } catch (RuntimeException e) {
+            return -1;
+        }
+    }
+
+    /**
+     * Current value of a JMX attribute: a counter or gauge name, or a
+     * histogram name followed by .count, .p50, .p90, .p99, .max or .mean.
+     */
+    private static Object attribute(String attribute) {
+        Metric metric = metrics.get(attribute);
+        if (metric != null && metric.value() != null) {
+            return read(metric.value());
+        }
+        int dot = attribute.lastIndexOf('.');
+        if (dot < 0 || (metric = metrics.get(attribute.substring(0, dot))) == null || metric.histogram() == null) {
+            return null;
+        }
+        LatencyHistogram h = metric.histogram();
+        return switch (attribute.substring(dot + 1)) {
+            case "count" -> h.getCount();
+            case "p50" -> h.getPercentile(50);
+            case "p90" -> h.getPercentile(90);
+            case "p99" -> h.getPercentile(99);
+            case "max" -> h.getMax();
+            case "mean" -> (long) h.getMean();
+            default -> null;
+        };
+    }
+
+    /**
+     * Read-only view of the registry; the attribute list is rebuilt on each
+     * getMBeanInfo so metrics registered later show up after a refresh.
+     */
+    private static final class MetricsMBean implements DynamicMBean {
+
+        private static final String[] HISTOGRAM_FIELDS = {"count", "p50", "p90", "p99", "max", "mean"};
+
+        @Override
+        public Object getAttribute(String attribute) {
+            return attribute(attribute);
+        }
+
+        @Override
+        public void setAttribute(Attribute attribute) {
+            throw new UnsupportedOperationException("Metrics are read-only");
+        }
+
+        @Override
+        public AttributeList getAttributes(String[] attributes) {
+            AttributeList list = new AttributeList();
+            for (String name : attributes) {
+                list.add(new Attribute(name, attribute(name)));
+            }
+            return list;
+        }
+
+        @Override
+        public AttributeList setAttributes(AttributeList attributes) {
+            return new AttributeList();
+        }
+
+        @Override
+        public Object invoke(String actionName, Object[] params, String[] signature) {
+            throw new UnsupportedOperationException(actionName);
+        }
+
+        @Override
+        public MBeanInfo getMBeanInfo() {
+            List<MBeanAttributeInfo> attributes = new ArrayList<>();
+            for (Map.Entry<String, Metric> entry : metrics.entrySet()) {
+                String name = entry.getKey();
+                Metric metric = entry.getValue();
+                if (metric.histogram() != null) {
+                    for (String field : HISTOGRAM_FIELDS) {
+                        attributes.add(new MBeanAttributeInfo(name + "." + field, "java.lang.Long",
+                                name + " " + field + " (" + metric.histogram().getUnit() + ")", true, false, false));
+                    }
+                } else {
+                    attributes.add(new MBeanAttributeInfo(name, "java.lang.Long",
+                            metric.kind().name().toLowerCase(), true, false, false));
+                }
+            }
+            return new MBeanInfo(MetricsRegistry.class.getName(), "Club Sportif metrics",
+                    attributes.toArray(new MBeanAttributeInfo[0]), null, null, null);
+        }
+    }
+}
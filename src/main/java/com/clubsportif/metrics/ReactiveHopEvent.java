@@ -0,0 +1,28 @@
+package com.clubsportif.metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Threshold;
+
+/**
+ * Time a blocking DAO call waited between being subscribed and starting on
+ * a boundedElastic thread.
+ */
+@Name("com.clubsportif.ReactiveHop")
+@Label("Reactive Hop")
+@Category({"Club Sportif", "Reactor"})
+@Description("Wait for a scheduler thread before a reactive DAO call runs")
+@Threshold("5 ms")
+@StackTrace(false)
+public class ReactiveHopEvent extends jdk.jfr.Event {
+
+    @Label("Operation")
+    public String operation;
+
+    @Label("From Thread")
+    @Description("Thread that subscribed")
+    public String fromThread;
+}
@@ -0,0 +1,293 @@
+package com.clubsportif.metrics;
+
+import javax.management.ObjectName;
+import javax.management.StandardMBean;
+import java.lang.management.ManagementFactory;
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.JDBCType;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.regex.Pattern;
+
+/**
+ * Per-statement timings collected by the JDBC interception layer in
+ * config.Database, aggregated by SQL fingerprint (the statement with
+ * literals replaced by ?).
+ * <p>
+ * Statements slower than the threshold are logged with the count and JDBC
+ * type of their bound parameters; the values themselves (passwords, login
+ * tokens) are only logged when explicitly enabled. A sampled subset of them
+ * is re-run as EXPLAIN (ANALYZE, BUFFERS) on a separate connection in a
+ * rolled-back transaction, off the caller's thread; the latest plan is kept
+ * per fingerprint. Statements on the users or login_tokens tables are never
+ * explained, as their plans can show the same values. {@link #report()} is served on /queries by
+ * {@link MetricsHttpServer} and as the report operation of
+ * com.clubsportif:type=SlowQueries.
+ */
+public final class SlowQueryLog {
+
+    public static final String MBEAN_NAME = "com.clubsportif:type=SlowQueries";
+
+    // Fingerprints beyond this are counted in the overflow entry
+    private static final int MAX_FINGERPRINTS = 256;
+    private static final String OVERFLOW = "(other statements)";
+
+    private static final Pattern STRING_LITERAL = Pattern.compile("'(?:[^']|'')*'");
+    private static final Pattern NUMBER_LITERAL = Pattern.compile("\\b\\d+(?:\\.\\d+)?\\b");
+    private static final Pattern IN_LIST = Pattern.compile("\\(\\s*\\?(?:\\s*,\\s*\\?)+\\s*\\)");
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+
+    // DDL and the like have no plan
+    private static final Set<String> EXPLAINABLE = Set.of("SELECT", "WITH", "INSERT", "UPDATE", "DELETE");
+    // Tables holding credentials, whose values a plan could show
+    private static final Pattern SENSITIVE = Pattern.compile("\\b(users|login_tokens)\\b", Pattern.CASE_INSENSITIVE);
+
+    private static final Map<String, QueryStats> stats = new ConcurrentHashMap<>();
+    private static final LongAdder explainsSkipped = new LongAdder();
+
+    private static volatile long thresholdNanos = TimeUnit.MILLISECONDS.toNanos(200);
+    private static volatile double explainSampleRate = 0.1;
+    private static volatile boolean logParameterValues;
+    private static volatile Callable<Connection> explainConnections;
+
+    // One plan at a time; slow statements arriving while the queue is full go unexplained
+    private static final ThreadPoolExecutor explainer = new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS,
+            new ArrayBlockingQueue<>(16), r -> {
+                Thread t = new Thread(r, "SlowQuery-Explain");
+                t.setDaemon(true);
+                return t;
+            }, (r, executor) -> explainsSkipped.increment());
+
+    static {
+        try {
+            StandardMBean mbean = new StandardMBean(new Control(), ControlMBean.class);
+            ManagementFactory.getPlatformMBeanServer().registerMBean(mbean, new ObjectName(MBEAN_NAME));
+        } catch (Exception e) {
+            System.err.println("[SlowQuery] JMX registration failed: " + e.getMessage());
+        }
+    }
+
+    private SlowQueryLog() {
+        // prevent instantiation
+    }
+
+    /**
+     * @param thresholdMs        statements at or above this are logged (and may be explained)
+     * @param sampleRate         fraction of slow statements explained, 0 to turn EXPLAIN off
+     * @param parameterValues    log the values of bound parameters, not only their types
+     * @param explainConnection  source of unmonitored connections for EXPLAIN
+     */
+    public static void configure(long thresholdMs, double sampleRate, boolean parameterValues,
+                                 Callable<Connection> explainConnection) {
+        thresholdNanos = TimeUnit.MILLISECONDS.toNanos(thresholdMs);
+        explainSampleRate = sampleRate;
+        logParameterValues = parameterValues;
+        explainConnections = explainConnection;
+    }
+
+    /**
+     * Record one executed statement.
+     *
+     * @param rows rows read or updated, -1 if unknown
+     */
+    public static void record(String sql, Object[] params, long nanos, long rows) {
+        String fingerprint = fingerprint(sql);
+        QueryStats entry = stats.get(fingerprint);
+        boolean overflow = entry == null && stats.size() >= MAX_FINGERPRINTS;
+        if (entry == null) {
+            entry = stats.computeIfAbsent(overflow ? OVERFLOW : fingerprint, QueryStats::new);
+        }
+        entry.record(nanos, rows);
+
+        if (nanos >= thresholdNanos) {
+            entry.slow.increment();
+            System.err.println("[SlowQuery] " + TimeUnit.NANOSECONDS.toMillis(nanos) + " ms, rows=" + rows
+                    + ": " + sql.strip() + describe(params));
+            if (explainConnections != null && !overflow && EXPLAINABLE.contains(keyword(sql))
+                    && !SENSITIVE.matcher(sql).find()
+                    && ThreadLocalRandom.current().nextDouble() < explainSampleRate) {
+                QueryStats target = entry;
+                explainer.execute(() -> target.plan = explain(sql, params));
+            }
+        }
+    }
+
+    // The bound parameters as logged: their values only when enabled, else their JDBC types
+    private static String describe(Object[] params) {
+        if (params.length == 0) {
+            return "";
+        }
+        if (logParameterValues) {
+            return " " + Arrays.toString(params);
+        }
+        StringBuilder sb = new StringBuilder(" (").append(params.length)
+                .append(params.length == 1 ? " parameter: " : " parameters: ");
+        for (int i = 0; i < params.length; i++) {
+            sb.append(i > 0 ? ", " : "").append(jdbcType(params[i]));
+        }
+        return sb.append(')').toString();
+    }
+
+    private static JDBCType jdbcType(Object value) {
+        if (value == null) {
+            return JDBCType.NULL;
+        }
+        return switch (value) {
+            case String v -> JDBCType.VARCHAR;
+            case Integer v -> JDBCType.INTEGER;
+            case Long v -> JDBCType.BIGINT;
+            case Short v -> JDBCType.SMALLINT;
+            case Double v -> JDBCType.DOUBLE;
+            case Float v -> JDBCType.REAL;
+            case BigDecimal v -> JDBCType.NUMERIC;
+            case Boolean v -> JDBCType.BOOLEAN;
+            case Date v -> JDBCType.DATE;
+            case Timestamp v -> JDBCType.TIMESTAMP;
+            case LocalDate v -> JDBCType.DATE;
+            case LocalDateTime v -> JDBCType.TIMESTAMP;
+            case OffsetDateTime v -> JDBCType.TIMESTAMP_WITH_TIMEZONE;
+            case byte[] v -> JDBCType.VARBINARY;
+            default -> JDBCType.OTHER;
+        };
+    }
+
+    /**
+     * Statement text with literals, IN lists and whitespace normalized, so
+     * the same query with different values shares one entry.
+     */
+    public static String fingerprint(String sql) {
+        String s = STRING_LITERAL.matcher(sql).replaceAll("?");
+        s = NUMBER_LITERAL.matcher(s).replaceAll("?");
+        s = IN_LIST.matcher(s).replaceAll("(?...)");
+        return WHITESPACE.matcher(s).replaceAll(" ").strip();
+    }
+
+    /**
+     * Run the statement under EXPLAIN with the same parameters. Only SELECTs
+     * get ANALYZE, as it executes the statement; the transaction is rolled
+     * back either way.
+     */
+    private static String explain(String sql, Object[] params) {
+        String explainSql = ("SELECT".equals(keyword(sql)) ? "EXPLAIN (ANALYZE, BUFFERS) " : "EXPLAIN ") + sql;
+        try (Connection conn = explainConnections.call()) {
+            conn.setAutoCommit(false);
+            try (PreparedStatement stmt = conn.prepareStatement(explainSql)) {
+                for (int i = 0; i < params.length; i++) {
+                    stmt.setObject(i + 1, params[i]);
+                }
+                StringBuilder plan = new StringBuilder();
+                try (ResultSet rs = stmt.executeQuery()) {
+                    while (rs.next()) {
+                        plan.append(rs.getString(1)).append('\n');
+                    }
+                }
+                return plan.toString();
+            } finally {
+                conn.rollback();
+            }
+        } catch (Exception e) {
+            return "EXPLAIN failed: " + e.getMessage() + '\n';
+        }
+    }
+
+    private static String keyword(String sql) {
+        String s = sql.stripLeading();
+        int end = 0;
+        while (end < s.length() && Character.isLetter(s.charAt(end))) {
+            end++;
+        }
+        return s.substring(0, end).toUpperCase();
+    }
+
+    // ==================== Report ====================
+
+    /**
+     * All fingerprints, slowest total time first, with the latest sampled plan.
+     */
+    public static String report() {
+        List<QueryStats> entries = new ArrayList<>(stats.values());
+        entries.sort(Comparator.comparingLong((QueryStats s) -> s.micros.getSum()).reversed());
+
+        StringBuilder sb = new StringBuilder();
+        sb.append(String.format("Slow-query threshold %d ms, EXPLAIN sample rate %.2f, %d explains skipped%n%n",
+                TimeUnit.NANOSECONDS.toMillis(thresholdNanos), explainSampleRate, explainsSkipped.sum()));
+        sb.append(String.format("%8s %6s %10s %10s %10s %10s %10s  %s%n",
+                "count", "slow", "total ms", "p50 ms", "p99 ms", "max ms", "rows", "statement"));
+        for (QueryStats s : entries) {
+            LatencyHistogram h = s.micros;
+            sb.append(String.format("%8d %6d %10.1f %10.2f %10.2f %10.2f %10d  %s%n",
+                    h.getCount(), s.slow.sum(), h.getSum() / 1000.0, h.getPercentile(50) / 1000.0,
+                    h.getPercentile(99) / 1000.0, h.getMax() / 1000.0, s.rows.sum(), s.fingerprint));
+        }
+        for (QueryStats s : entries) {
+            String plan = s.plan;
+            if (plan != null) {
+                sb.append('\n').append(s.fingerprint).append('\n').append(plan);
+            }
+        }
+        return sb.toString();
+    }
+
+    public static void reset() {
+        stats.clear();
+        explainsSkipped.reset();
+    }
+
+    private static final class QueryStats {
+        private final String fingerprint;
+        private final LatencyHistogram micros = new LatencyHistogram("us");
+        private final LongAdder rows = new LongAdder();
+        private final LongAdder slow = new LongAdder();
+        private volatile String plan;
+
+        QueryStats(String fingerprint) {
+            this.fingerprint = fingerprint;
+        }
+
+        void record(long nanos, long rowCount) {
+            micros.record(nanos / 1000);
+            if (rowCount > 0) {
+                rows.add(rowCount);
+            }
+        }
+    }
+
+    // ==================== JMX ====================
+
+    public interface ControlMBean {
+        String report();
+
+        void reset();
+    }
+
+    private static final class Control implements ControlMBean {
+        @Override
+        public String report() {
+            return SlowQueryLog.report();
+        }
+
+        @Override
+        public void reset() {
+            SlowQueryLog.reset();
+        }
+    }
+}
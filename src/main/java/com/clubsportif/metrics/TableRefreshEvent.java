@@ -0,0 +1,33 @@
+package com.clubsportif.metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Threshold;
+import jdk.jfr.Timespan;
+
+/**
+ * A table reload in a controller, from the request for data until the rows
+ * are in the table's list on the JavaFX thread.
+ */
+@Name("com.clubsportif.TableRefresh")
+@Label("Table Refresh")
+@Category({"Club Sportif", "UI"})
+@Description("Table reloaded from the database")
+@Threshold("0 ms")
+@StackTrace(false)
+public class TableRefreshEvent extends jdk.jfr.Event {
+
+    @Label("Table")
+    public String table;
+
+    @Label("Rows")
+    public long rows;
+
+    @Label("FX Time")
+    @Description("Part of the duration spent on the JavaFX thread updating the list")
+    @Timespan(Timespan.NANOSECONDS)
+    public long fxTime;
+}
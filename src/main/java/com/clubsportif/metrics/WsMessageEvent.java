@@ -0,0 +1,40 @@
+package com.clubsportif.metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Threshold;
+
+/**
+ * One WebSocket frame. Inbound frames last while they are handled, outbound
+ * frames from the send call until the container reports completion.
+ */
+@Name("com.clubsportif.WsMessage")
+@Label("WebSocket Message")
+@Category({"Club Sportif", "WebSocket"})
+@Description("WebSocket frame handled or sent")
+@Threshold("5 ms")
+@StackTrace(false)
+public class WsMessageEvent extends jdk.jfr.Event {
+
+    public static final String IN = "IN";
+    public static final String OUT = "OUT";
+
+    @Label("Message Type")
+    public String messageType;
+
+    @Label("Size")
+    @DataAmount
+    public long size;
+
+    @Label("Direction")
+    @Description("IN or OUT")
+    public String direction;
+
+    @Label("Side")
+    @Description("server or client")
+    public String side;
+}
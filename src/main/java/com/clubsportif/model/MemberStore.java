@@ -0,0 +1,356 @@
+package com.clubsportif.model;
+
+import java.text.Collator;
+import java.time.LocalDate;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.RandomAccess;
+import java.util.function.IntPredicate;
+
+/**
+ * Read-only snapshot of the members table in columnar form: ids and dates
+ * (as epoch days) in int arrays, subscription and status as byte codes
+ * into small dictionaries, and names deduplicated so repeated values share
+ * one String. About 55 bytes per member against 250 for a List&lt;Member&gt;
+ * (see MemberFootprint in the benchmarks).
+ * <p>
+ * {@link #view()} exposes the rows as a List&lt;Member&gt; for the UI; each
+ * get() builds a short-lived Member, so only the rows being displayed
+ * exist as objects.
+ */
+public final class MemberStore {
+
+    // Epoch day standing for a missing date
+    private static final int NO_DATE = Integer.MIN_VALUE;
+
+    /**
+     * The columns a view can be sorted by.
+     */
+    public enum Column { ID, USER_ID, NOM, PRENOM, SUBSCRIPTION, DATE_START, DATE_END, STATUS }
+
+    /**
+     * One level of a sort: a column and its direction.
+     */
+    public record SortKey(Column column, boolean ascending) {
+    }
+
+    private final int size;
+    private final int[] ids;
+    private final int[] userIds;
+    private final String[] noms;
+    private final String[] prenoms;
+    private final byte[] subscriptions;
+    private final int[] dateStarts;
+    private final int[] dateEnds;
+    private final byte[] statuses;
+    private final String[] subscriptionValues;
+    private final String[] statusValues;
+
+    private MemberStore(Builder b) {
+        size = b.size;
+        ids = Arrays.copyOf(b.ids, size);
+        userIds = Arrays.copyOf(b.userIds, size);
+        noms = Arrays.copyOf(b.noms, size);
+        prenoms = Arrays.copyOf(b.prenoms, size);
+        subscriptions = Arrays.copyOf(b.subscriptions, size);
+        dateStarts = Arrays.copyOf(b.dateStarts, size);
+        dateEnds = Arrays.copyOf(b.dateEnds, size);
+        statuses = Arrays.copyOf(b.statuses, size);
+        subscriptionValues = b.subscriptionCodes.values();
+        statusValues = b.statusCodes.values();
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public int getId(int row) { return ids[row]; }
+    public int getUserId(int row) { return userIds[row]; }
+    public String getNom(int row) { return noms[row]; }
+    public String getPrenom(int row) { return prenoms[row]; }
+    public String getSubscription(int row) { return subscriptionValues[subscriptions[row]]; }
+    public LocalDate getDateStart(int row) { return toDate(dateStarts[row]); }
+    public LocalDate getDateEnd(int row) { return toDate(dateEnds[row]); }
+    public String getStatus(int row) { return statusValues[statuses[row]]; }
+
+    /**
+     * The row as a new Member; changes to it do not affect the store.
+     */
+    public Member get(int row) {
+        return new Member(ids[row], userIds[row], noms[row], prenoms[row], getSubscription(row),
+                getDateStart(row), getDateEnd(row), getStatus(row));
+    }
+
+    /**
+     * A new store with {@code changed} applied: rows whose id is not
+     * {@code live} are dropped, changed rows replace the row with the same
+     * id and new ones are inserted. Both this store and {@code changed}
+     * must be in id order, and so is the result.
+     */
+    public MemberStore merge(List<Member> changed, IntPredicate live) {
+        Builder merged = builder();
+        int row = 0;
+        for (Member member : changed) {
+            for (; row < size && ids[row] <= member.getId(); row++) {
+                if (ids[row] < member.getId() && live.test(ids[row])) {
+                    merged.add(ids[row], userIds[row], noms[row], prenoms[row], getSubscription(row),
+                            getDateStart(row), getDateEnd(row), getStatus(row));
+                }
+            }
+            if (live.test(member.getId())) {
+                merged.add(member);
+            }
+        }
+        for (; row < size; row++) {
+            if (live.test(ids[row])) {
+                merged.add(ids[row], userIds[row], noms[row], prenoms[row], getSubscription(row),
+                        getDateStart(row), getDateEnd(row), getStatus(row));
+            }
+        }
+        return merged.build();
+    }
+
+    /**
+     * A sortable, otherwise read-only list over the rows, in table order
+     * until {@link View#sort} is called.
+     */
+    public View view() {
+        return new View();
+    }
+
+    private static LocalDate toDate(int epochDay) {
+        return epochDay == NO_DATE ? null : LocalDate.ofEpochDay(epochDay);
+    }
+
+    /**
+     * For each row, an int that orders the rows as {@code column} does:
+     * the value itself for ids and dates, the rank of the value among the
+     * distinct ones (in collation order, as the table compares text) for
+     * the others. Missing values come first.
+     */
+    private int[] sortRanks(Column column) {
+        return switch (column) {
+            case ID -> ids;
+            case USER_ID -> userIds;
+            case DATE_START -> dateStarts;
+            case DATE_END -> dateEnds;
+            case NOM -> nameRanks(noms);
+            case PRENOM -> nameRanks(prenoms);
+            case SUBSCRIPTION -> codeRanks(subscriptions, subscriptionValues);
+            case STATUS -> codeRanks(statuses, statusValues);
+        };
+    }
+
+    private int[] nameRanks(String[] names) {
+        Map<String, Integer> ranks = new HashMap<>();
+        for (int row = 0; row < size; row++) {
+            if (names[row] != null) {
+                ranks.put(names[row], 0);
+            }
+        }
+        rankInCollationOrder(ranks);
+        int[] result = new int[size];
+        for (int row = 0; row < size; row++) {
+            result[row] = names[row] != null ? ranks.get(names[row]) : Integer.MIN_VALUE;
+        }
+        return result;
+    }
+
+    private int[] codeRanks(byte[] codes, String[] values) {
+        Map<String, Integer> ranks = new HashMap<>();
+        for (String value : values) {
+            if (value != null) {
+                ranks.put(value, 0);
+            }
+        }
+        rankInCollationOrder(ranks);
+        int[] rankOfCode = new int[values.length];
+        for (int code = 0; code < values.length; code++) {
+            rankOfCode[code] = values[code] != null ? ranks.get(values[code]) : Integer.MIN_VALUE;
+        }
+        int[] result = new int[size];
+        for (int row = 0; row < size; row++) {
+            result[row] = rankOfCode[codes[row]];
+        }
+        return result;
+    }
+
+    private static void rankInCollationOrder(Map<String, Integer> ranks) {
+        String[] distinct = ranks.keySet().toArray(new String[0]);
+        Arrays.sort(distinct, Collator.getInstance());
+        for (int rank = 0; rank < distinct.length; rank++) {
+            ranks.put(distinct[rank], rank);
+        }
+    }
+
+    /**
+     * List of members backed by the store. Sorting reorders a row index
+     * permutation rather than the rows, comparing the column arrays
+     * directly, so no Member is built while sorting.
+     */
+    public final class View extends AbstractList<Member> implements RandomAccess {
+
+        private int[] order;
+
+        private View() {
+        }
+
+        @Override
+        public Member get(int index) {
+            return MemberStore.this.get(order != null ? order[index] : index);
+        }
+
+        @Override
+        public int size() {
+            return size;
+        }
+
+        /**
+         * Reorder the view by {@code keys}, the first one most significant;
+         * rows that tie keep their current order. No keys restores table
+         * order.
+         * <p>
+         * Each key is one stable pass, least significant first, sorting
+         * longs that pack the row's rank for the key above its position.
+         */
+        public void sort(List<SortKey> keys) {
+            if (keys.isEmpty()) {
+                order = null;
+                return;
+            }
+            int[] rows = new int[size];
+            for (int i = 0; i < size; i++) {
+                rows[i] = order != null ? order[i] : i;
+            }
+            long[] packed = new long[size];
+            for (int k = keys.size() - 1; k >= 0; k--) {
+                SortKey key = keys.get(k);
+                int[] ranks = sortRanks(key.column());
+                for (int i = 0; i < size; i++) {
+                    int rank = ranks[rows[i]];
+                    packed[i] = (long) (key.ascending() ? rank : ~rank) << 32 | i;
+                }
+                Arrays.sort(packed);
+                int[] sorted = new int[size];
+                for (int i = 0; i < size; i++) {
+                    sorted[i] = rows[(int) packed[i]];
+                }
+                rows = sorted;
+            }
+            order = rows;
+        }
+
+        /**
+         * Not supported: a comparator would need a Member per row compared;
+         * use {@link #sort(List)}.
+         */
+        @Override
+        public void sort(Comparator<? super Member> comparator) {
+            throw new UnsupportedOperationException("sort the view by MemberStore.SortKey");
+        }
+    }
+
+    /**
+     * Accumulates rows; not thread-safe.
+     */
+    public static final class Builder {
+
+        private int size;
+        private int[] ids = new int[64];
+        private int[] userIds = new int[64];
+        private String[] noms = new String[64];
+        private String[] prenoms = new String[64];
+        private byte[] subscriptions = new byte[64];
+        private int[] dateStarts = new int[64];
+        private int[] dateEnds = new int[64];
+        private byte[] statuses = new byte[64];
+        private final Dictionary subscriptionCodes = new Dictionary("subscription");
+        private final Dictionary statusCodes = new Dictionary("status");
+        private final Map<String, String> names = new HashMap<>();
+
+        private Builder() {
+        }
+
+        public Builder add(int id, int userId, String nom, String prenom, String subscription,
+                           LocalDate dateStart, LocalDate dateEnd, String status) {
+            if (size == ids.length) {
+                grow();
+            }
+            ids[size] = id;
+            userIds[size] = userId;
+            noms[size] = dedupe(nom);
+            prenoms[size] = dedupe(prenom);
+            subscriptions[size] = subscriptionCodes.code(subscription);
+            dateStarts[size] = dateStart != null ? (int) dateStart.toEpochDay() : NO_DATE;
+            dateEnds[size] = dateEnd != null ? (int) dateEnd.toEpochDay() : NO_DATE;
+            statuses[size] = statusCodes.code(status);
+            size++;
+            return this;
+        }
+
+        public Builder add(Member member) {
+            return add(member.getId(), member.getUserId(), member.getNom(), member.getPrenom(),
+                    member.getSubscription(), member.getDateStart(), member.getDateEnd(), member.getStatus());
+        }
+
+        public MemberStore build() {
+            return new MemberStore(this);
+        }
+
+        private String dedupe(String value) {
+            return value == null ? null : names.computeIfAbsent(value, v -> v);
+        }
+
+        private void grow() {
+            int capacity = ids.length + (ids.length >> 1);
+            ids = Arrays.copyOf(ids, capacity);
+            userIds = Arrays.copyOf(userIds, capacity);
+            noms = Arrays.copyOf(noms, capacity);
+            prenoms = Arrays.copyOf(prenoms, capacity);
+            subscriptions = Arrays.copyOf(subscriptions, capacity);
+            dateStarts = Arrays.copyOf(dateStarts, capacity);
+            dateEnds = Arrays.copyOf(dateEnds, capacity);
+            statuses = Arrays.copyOf(statuses, capacity);
+        }
+    }
+
+    /**
+     * Maps the distinct values of a low-cardinality column to byte codes.
+     */
+    private static final class Dictionary {
+
+        private final String column;
+        private final List<String> values = new ArrayList<>();
+        private final Map<String, Byte> codes = new HashMap<>();
+
+        Dictionary(String column) {
+            this.column = column;
+        }
+
+        byte code(String value) {
+            Byte code = codes.get(value);
+            if (code == null) {
+                if (values.size() > Byte.MAX_VALUE) {
+                    throw new IllegalStateException("Too many distinct " + column + " values");
+                }
+                code = (byte) values.size();
+                values.add(value);
+                codes.put(value, code);
+            }
+            return code;
+        }
+
+        String[] values() {
+            return values.toArray(new String[0]);
+        }
+    }
+}
@@ -1,8 +1,13 @@
 package com.clubsportif.model;
 
 import java.time.LocalDate;
+import java.util.List;
 
 public class Subscription {
+
+    // Plans offered, as stored in members.subscription and requests.subscription
+    public static final List<String> PLANS = List.of("1 month", "3 months", "1 year");
+
     private int id;
     private int memberId;
     private String planType; // "1 month", "3 months", "1 year"
@@ -24,6 +29,17 @@ public class Subscription {
         this(0, memberId, planType, startDate, endDate, calculateStatus(endDate));
     }
 
+    /**
+     * End date of a plan taken on {@code start}; unknown plans count as one month.
+     */
+    public static LocalDate endDateFor(String plan, LocalDate start) {
+        return switch (plan) {
+            case "3 months" -> start.plusMonths(3);
+            case "1 year" -> start.plusYears(1);
+            default -> start.plusMonths(1);
+        };
+    }
+
     private static String calculateStatus(LocalDate endDate) {
         return LocalDate.now().isAfter(endDate) ? "EXPIRED" : "ACTIVE";
     }
@@ -2,6 +2,7 @@ module com.clubsportif {
     requires javafx.controls;
     requires javafx.fxml;
     requires java.sql;
+    requires org.postgresql.jdbc;
     
     // Reactor
     requires reactor.core;
@@ -14,9 +15,16 @@ module com.clubsportif {
     requires org.glassfish.tyrus.client;
     requires org.glassfish.tyrus.server;
     requires org.glassfish.tyrus.spi;
+    requires org.glassfish.tyrus.container.grizzly.server;
+    requires grizzly.framework;
     
     // JSON
     requires com.google.gson;
+
+    // Metrics (JMX, the /metrics scrape endpoint and JFR events)
+    requires java.management;
+    requires jdk.httpserver;
+    requires jdk.jfr;
     
     opens com.clubsportif.app to javafx.fxml;
     opens com.clubsportif.controller to javafx.fxml;
@@ -29,4 +37,5 @@ module com.clubsportif {
     exports com.clubsportif.websocket;
     exports com.clubsportif.dao;
     exports com.clubsportif.service;
+    exports com.clubsportif.metrics;
 }
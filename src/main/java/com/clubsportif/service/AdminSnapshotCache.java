@@ -0,0 +1,263 @@
+package com.clubsportif.service;
+
+import com.clubsportif.config.Database;
+import com.clubsportif.config.WebSocketConfig;
+import com.clubsportif.model.MemberStore;
+import com.clubsportif.model.Request;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.zip.CRC32;
+
+/**
+ * Members and requests of the admin console kept in a local file between
+ * sessions, so the tables can be shown as soon as the console opens and
+ * then brought up to date by reading only the rows changed since each
+ * table's change mark.
+ * <p>
+ * The file is a header (magic, format version, database URL, change
+ * marks, row counts, body length and CRC32 of the body) followed by the
+ * rows. It is read through a memory mapping and rejected as a whole when
+ * the version, database or checksum does not match; it is written to a
+ * temporary file that replaces the old one atomically. admin.snapshot.enabled
+ * and admin.snapshot.path in websocket.properties control it.
+ */
+public final class AdminSnapshotCache {
+
+    private static final int MAGIC = 0x43534E50; // "CSNP"
+    private static final int VERSION = 2;
+    private static final int NO_DATE = Integer.MIN_VALUE;
+    private static final long NO_MARK = Long.MIN_VALUE;
+
+    private static final boolean ENABLED = WebSocketConfig.getBoolean("admin.snapshot.enabled", true);
+    private static final Path PATH = Path.of(WebSocketConfig.getString("admin.snapshot.path",
+            Path.of(System.getProperty("user.home"), ".clubsportif", "admin-snapshot.bin").toString()));
+
+    /**
+     * Rows of both tables and the change marks they are current to;
+     * a null mark means the table has not been read yet.
+     */
+    public record Snapshot(MemberStore members, Long membersMark, List<Request> requests, Long requestsMark) {
+    }
+
+    private AdminSnapshotCache() {
+        // prevent instantiation
+    }
+
+    /**
+     * The saved snapshot, or null when there is none or it cannot be used.
+     */
+    public static Snapshot load() {
+        if (!ENABLED) {
+            return null;
+        }
+        long start = System.nanoTime();
+        try (FileChannel channel = FileChannel.open(PATH, StandardOpenOption.READ)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            Snapshot snapshot = decode(buffer);
+            if (snapshot != null) {
+                System.out.printf("[Snapshot] Loaded %d members and %d requests in %d ms%n",
+                        snapshot.members().size(), snapshot.requests().size(),
+                        (System.nanoTime() - start) / 1_000_000);
+            }
+            return snapshot;
+        } catch (NoSuchFileException e) {
+            return null;
+        } catch (IOException | RuntimeException e) {
+            System.err.println("[Snapshot] Ignoring unreadable " + PATH + ": " + e);
+            return null;
+        }
+    }
+
+    /**
+     * Replace the saved snapshot. Failures are logged, not thrown.
+     */
+    public static void save(Snapshot snapshot) {
+        if (!ENABLED) {
+            return;
+        }
+        try {
+            ByteBuffer body = encodeBody(snapshot);
+            CRC32 crc = new CRC32();
+            crc.update(body.duplicate());
+            byte[] source = source();
+
+            ByteBuffer header = ByteBuffer.allocate(64 + source.length);
+            header.putInt(MAGIC).putInt(VERSION);
+            header.putShort((short) source.length).put(source);
+            putMark(header, snapshot.membersMark());
+            putMark(header, snapshot.requestsMark());
+            header.putInt(snapshot.members().size()).putInt(snapshot.requests().size());
+            header.putInt(body.remaining()).putLong(crc.getValue());
+            header.flip();
+
+            Files.createDirectories(PATH.toAbsolutePath().getParent());
+            // createTempFile makes the file readable by the owner only
+            Path temp = Files.createTempFile(PATH.toAbsolutePath().getParent(), "admin-snapshot", ".tmp");
+            try {
+                try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.WRITE)) {
+                    while (header.hasRemaining()) {
+                        channel.write(header);
+                    }
+                    while (body.hasRemaining()) {
+                        channel.write(body);
+                    }
+                    channel.force(true);
+                }
+                Files.move(temp, PATH, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } finally {
+                Files.deleteIfExists(temp);
+            }
+        } catch (IOException | RuntimeException e) {
+            System.err.println("[Snapshot] Failed to save " + PATH + ": " + e);
+        }
+    }
+
+    private static Snapshot decode(ByteBuffer buffer) {
+        if (buffer.getInt() != MAGIC) {
+            throw new IllegalStateException("not a snapshot file");
+        }
+        int version = buffer.getInt();
+        if (version != VERSION) {
+            System.out.println("[Snapshot] Discarding snapshot of format version " + version);
+            return null;
+        }
+        byte[] source = new byte[buffer.getShort()];
+        buffer.get(source);
+        if (!Arrays.equals(source, source())) {
+            System.out.println("[Snapshot] Discarding snapshot of another database");
+            return null;
+        }
+        Long membersMark = getMark(buffer);
+        Long requestsMark = getMark(buffer);
+        int memberCount = buffer.getInt();
+        int requestCount = buffer.getInt();
+        int bodyLength = buffer.getInt();
+        long checksum = buffer.getLong();
+        if (bodyLength != buffer.remaining()) {
+            throw new IllegalStateException("truncated snapshot");
+        }
+        CRC32 crc = new CRC32();
+        crc.update(buffer.duplicate());
+        if (crc.getValue() != checksum) {
+            throw new IllegalStateException("checksum mismatch");
+        }
+
+        MemberStore.Builder members = MemberStore.builder();
+        for (int i = 0; i < memberCount; i++) {
+            members.add(buffer.getInt(), buffer.getInt(), getString(buffer), getString(buffer),
+                    getString(buffer), getDate(buffer), getDate(buffer), getString(buffer));
+        }
+        List<Request> requests = new ArrayList<>(requestCount);
+        for (int i = 0; i < requestCount; i++) {
+            requests.add(new Request(buffer.getInt(), buffer.getInt(), getString(buffer), getString(buffer),
+                    getString(buffer), getDate(buffer), getString(buffer)));
+        }
+        return new Snapshot(members.build(), membersMark, requests, requestsMark);
+    }
+
+    private static ByteBuffer encodeBody(Snapshot snapshot) {
+        Body body = new Body();
+        MemberStore members = snapshot.members();
+        for (int row = 0; row < members.size(); row++) {
+            body.putInt(members.getId(row));
+            body.putInt(members.getUserId(row));
+            body.putString(members.getNom(row));
+            body.putString(members.getPrenom(row));
+            body.putString(members.getSubscription(row));
+            body.putDate(members.getDateStart(row));
+            body.putDate(members.getDateEnd(row));
+            body.putString(members.getStatus(row));
+        }
+        for (Request request : snapshot.requests()) {
+            body.putInt(request.getId());
+            body.putInt(request.getUserId());
+            body.putString(request.getNom());
+            body.putString(request.getPrenom());
+            body.putString(request.getSubscription());
+            body.putDate(request.getRequestDate());
+            body.putString(request.getStatus());
+        }
+        return body.buffer.flip();
+    }
+
+    // Identifies the database the rows came from
+    private static byte[] source() {
+        return String.valueOf(Database.getUrl()).getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static void putMark(ByteBuffer buffer, Long mark) {
+        buffer.putLong(mark != null ? mark : NO_MARK);
+    }
+
+    private static Long getMark(ByteBuffer buffer) {
+        long mark = buffer.getLong();
+        return mark != NO_MARK ? mark : null;
+    }
+
+    private static String getString(ByteBuffer buffer) {
+        int length = buffer.getShort();
+        if (length < 0) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static LocalDate getDate(ByteBuffer buffer) {
+        int epochDay = buffer.getInt();
+        return epochDay != NO_DATE ? LocalDate.ofEpochDay(epochDay) : null;
+    }
+
+    /**
+     * Growable heap buffer for the body.
+     */
+    private static final class Body {
+
+        private ByteBuffer buffer = ByteBuffer.allocate(1 << 16);
+
+        void putInt(int value) {
+            ensure(4);
+            buffer.putInt(value);
+        }
+
+        void putDate(LocalDate date) {
+            putInt(date != null ? (int) date.toEpochDay() : NO_DATE);
+        }
+
+        void putString(String value) {
+            if (value == null) {
+                ensure(2);
+                buffer.putShort((short) -1);
+                return;
+            }
+            byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            if (bytes.length > Short.MAX_VALUE) {
+                throw new IllegalArgumentException("value too long for a snapshot: " + bytes.length + " bytes");
+            }
+            ensure(2 + bytes.length);
+            buffer.putShort((short) bytes.length).put(bytes);
+        }
+
+        private void ensure(int bytes) {
+            if (buffer.remaining() < bytes) {
+                ByteBuffer larger = ByteBuffer.allocate(Math.max(buffer.capacity() * 2, buffer.position() + bytes));
+                larger.put(buffer.flip());
+                buffer = larger;
+            }
+        }
+    }
+}
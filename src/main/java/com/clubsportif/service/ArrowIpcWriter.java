@@ -0,0 +1,484 @@
+package com.clubsportif.service;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.function.ToIntFunction;
+
+/**
+ * Rows written to an Arrow IPC file (the format of pyarrow.ipc.open_file,
+ * pandas.read_feather, polars.read_ipc or DuckDB), ROWS_PER_BATCH rows
+ * per record batch so memory use does not depend on the row count.
+ * <p>
+ * Supported column types are int32, date32 (days since the epoch), utf8
+ * and dictionary-encoded utf8 with int32 indices. Dictionary values must
+ * be known when the writer is created: they are written once, before the
+ * first batch, as the file format does not allow replacing them later.
+ * Buffers are 8-byte aligned and uncompressed.
+ */
+final class ArrowIpcWriter<T> implements AutoCloseable {
+
+    static final int ROWS_PER_BATCH = 64 * 1024;
+
+    private static final byte[] MAGIC = "ARROW1".getBytes(StandardCharsets.US_ASCII);
+    private static final int CONTINUATION = 0xFFFFFFFF;
+    private static final short METADATA_V5 = 4;
+    private static final byte HEADER_SCHEMA = 1;
+    private static final byte HEADER_DICTIONARY_BATCH = 2;
+    private static final byte HEADER_RECORD_BATCH = 3;
+    private static final byte TYPE_INT = 2;
+    private static final byte TYPE_UTF8 = 5;
+    private static final byte TYPE_DATE = 8;
+    // Returned by the value functions of nullable int columns for null
+    private static final int NULL = Integer.MIN_VALUE;
+
+    private final List<Column<T>> columns;
+    private final FileChannel channel;
+    private final List<long[]> dictionaryBlocks = new ArrayList<>();
+    private final List<long[]> batchBlocks = new ArrayList<>();
+    private long position;
+    private int rows;
+
+    ArrowIpcWriter(Path file, List<Column<T>> columns) throws IOException {
+        this.columns = columns;
+        long dictionaryId = 0;
+        for (Column<T> column : columns) {
+            if (column instanceof DictionaryColumn<T> dictionary) {
+                dictionary.id = dictionaryId++;
+            }
+            column.reset();
+        }
+        channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING);
+        write(ByteBuffer.wrap(MAGIC), ByteBuffer.allocate(2));
+
+        FlatBufferBuilder schema = new FlatBufferBuilder(1024);
+        writeMessage(schema.finish(message(schema, HEADER_SCHEMA, schema(schema), 0)), List.of());
+        for (Column<T> column : columns) {
+            if (column instanceof DictionaryColumn<T> dictionary) {
+                writeDictionary(dictionary);
+            }
+        }
+    }
+
+    static <T> Column<T> int32(String name, ToIntFunction<T> value) {
+        return new IntColumn<>(name, false, TYPE_INT, value);
+    }
+
+    static <T> Column<T> date32(String name, Function<T, LocalDate> value) {
+        return new IntColumn<>(name, true, TYPE_DATE, row -> {
+            LocalDate date = value.apply(row);
+            return date != null ? (int) date.toEpochDay() : NULL;
+        });
+    }
+
+    static <T> Column<T> utf8(String name, Function<T, String> value) {
+        return new StringColumn<>(name, value);
+    }
+
+    static <T> Column<T> dictionary(String name, Function<T, String> value, List<String> values) {
+        return new DictionaryColumn<>(name, value, values);
+    }
+
+    void add(T row) {
+        for (Column<T> column : columns) {
+            column.add(row, rows);
+        }
+        if (++rows == ROWS_PER_BATCH) {
+            try {
+                writeBatch();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+
+    /**
+     * Write the last batch and the footer; the file is complete once closed.
+     */
+    void finish() throws IOException {
+        if (rows > 0) {
+            writeBatch();
+        }
+        write(ByteBuffer.allocate(8).order(ByteOrder.LITTLE_ENDIAN).putInt(CONTINUATION).putInt(0).flip());
+
+        FlatBufferBuilder footer = new FlatBufferBuilder(1024);
+        int schema = schema(footer);
+        int dictionaries = blocks(footer, dictionaryBlocks);
+        int batches = blocks(footer, batchBlocks);
+        footer.startTable(5);
+        footer.addShort(0, METADATA_V5);
+        footer.addOffset(1, schema);
+        footer.addOffset(2, dictionaries);
+        footer.addOffset(3, batches);
+        byte[] bytes = footer.finish(footer.endTable());
+        write(ByteBuffer.wrap(bytes));
+        write(ByteBuffer.allocate(4).order(ByteOrder.LITTLE_ENDIAN).putInt(bytes.length).flip());
+        write(ByteBuffer.wrap(MAGIC));
+    }
+
+    private void writeBatch() throws IOException {
+        List<ByteBuffer> body = new ArrayList<>();
+        List<long[]> nodes = new ArrayList<>();
+        for (Column<T> column : columns) {
+            nodes.add(new long[]{rows, column.nullCount});
+            column.buffers(rows, body);
+        }
+        batchBlocks.add(writeRecordBatch(HEADER_RECORD_BATCH, -1, rows, nodes, body));
+        for (Column<T> column : columns) {
+            column.reset();
+        }
+        rows = 0;
+    }
+
+    private void writeDictionary(DictionaryColumn<T> column) throws IOException {
+        StringColumn<String> values = new StringColumn<>(column.name, value -> value);
+        values.reset();
+        for (int i = 0; i < column.values.size(); i++) {
+            values.add(column.values.get(i), i);
+        }
+        List<ByteBuffer> body = new ArrayList<>();
+        values.buffers(column.values.size(), body);
+        List<long[]> nodes = List.<long[]>of(new long[]{column.values.size(), 0});
+        dictionaryBlocks.add(writeRecordBatch(HEADER_DICTIONARY_BATCH, column.id, column.values.size(), nodes, body));
+    }
+
+    // A record batch message, or a dictionary batch wrapping one; returns its footer block
+    private long[] writeRecordBatch(byte headerType, long dictionaryId, int length, List<long[]> nodes,
+                                    List<ByteBuffer> buffers) throws IOException {
+        List<ByteBuffer> body = new ArrayList<>(buffers.size() * 2);
+        long[] layout = new long[buffers.size() * 2];
+        long bodyLength = 0;
+        for (int i = 0; i < buffers.size(); i++) {
+            ByteBuffer buffer = buffers.get(i);
+            layout[2 * i] = bodyLength;
+            layout[2 * i + 1] = buffer.remaining();
+            body.add(buffer);
+            int padding = -buffer.remaining() & 7;
+            if (padding > 0) {
+                body.add(ByteBuffer.allocate(padding));
+            }
+            bodyLength += buffer.remaining() + padding;
+        }
+
+        FlatBufferBuilder builder = new FlatBufferBuilder(1024);
+        builder.startVector(16, nodes.size(), 8);
+        for (int i = nodes.size() - 1; i >= 0; i--) {
+            builder.prep(8, 16);
+            builder.putLong(nodes.get(i)[1]);
+            builder.putLong(nodes.get(i)[0]);
+        }
+        int nodeVector = builder.endVector(nodes.size());
+        builder.startVector(16, buffers.size(), 8);
+        for (int i = buffers.size() - 1; i >= 0; i--) {
+            builder.prep(8, 16);
+            builder.putLong(layout[2 * i + 1]);
+            builder.putLong(layout[2 * i]);
+        }
+        int bufferVector = builder.endVector(buffers.size());
+        builder.startTable(5);
+        builder.addLong(0, length);
+        builder.addOffset(1, nodeVector);
+        builder.addOffset(2, bufferVector);
+        int header = builder.endTable();
+        if (headerType == HEADER_DICTIONARY_BATCH) {
+            builder.startTable(3);
+            builder.addLong(0, dictionaryId);
+            builder.addOffset(1, header);
+            builder.addBoolean(2, false);
+            header = builder.endTable();
+        }
+        long offset = position;
+        int metadataLength = writeMessage(builder.finish(message(builder, headerType, header, bodyLength)), body);
+        return new long[]{offset, metadataLength, bodyLength};
+    }
+
+    // Encapsulated message: continuation marker, metadata length, metadata padded to 8 bytes, body
+    private int writeMessage(byte[] metadata, List<ByteBuffer> body) throws IOException {
+        int padding = -(8 + metadata.length) & 7;
+        ByteBuffer prefix = ByteBuffer.allocate(8).order(ByteOrder.LITTLE_ENDIAN)
+                .putInt(CONTINUATION).putInt(metadata.length + padding).flip();
+        List<ByteBuffer> buffers = new ArrayList<>(body.size() + 3);
+        buffers.add(prefix);
+        buffers.add(ByteBuffer.wrap(metadata));
+        buffers.add(ByteBuffer.allocate(padding));
+        buffers.addAll(body);
+        write(buffers.toArray(new ByteBuffer[0]));
+        return 8 + metadata.length + padding;
+    }
+
+    private int message(FlatBufferBuilder builder, byte headerType, int header, long bodyLength) {
+        builder.startTable(5);
+        builder.addShort(0, METADATA_V5);
+        builder.addByte(1, headerType);
+        builder.addOffset(2, header);
+        builder.addLong(3, bodyLength);
+        return builder.endTable();
+    }
+
+    private int schema(FlatBufferBuilder builder) {
+        int[] fields = new int[columns.size()];
+        for (int i = 0; i < fields.length; i++) {
+            fields[i] = columns.get(i).field(builder);
+        }
+        int fieldVector = builder.createOffsetVector(fields);
+        builder.startTable(4);
+        builder.addShort(0, 0); // little-endian
+        builder.addOffset(1, fieldVector);
+        return builder.endTable();
+    }
+
+    private static int blocks(FlatBufferBuilder builder, List<long[]> blocks) {
+        builder.startVector(24, blocks.size(), 8);
+        for (int i = blocks.size() - 1; i >= 0; i--) {
+            long[] block = blocks.get(i);
+            builder.prep(8, 24);
+            builder.putLong(block[2]);
+            builder.putInt(0);
+            builder.putInt((int) block[1]);
+            builder.putLong(block[0]);
+        }
+        return builder.endVector(blocks.size());
+    }
+
+    private static int intType(FlatBufferBuilder builder) {
+        builder.startTable(2);
+        builder.addInt(0, 32);
+        builder.addBoolean(1, true);
+        return builder.endTable();
+    }
+
+    private void write(ByteBuffer... buffers) throws IOException {
+        long remaining = 0;
+        for (ByteBuffer buffer : buffers) {
+            remaining += buffer.remaining();
+        }
+        position += remaining;
+        while (remaining > 0) {
+            remaining -= channel.write(buffers);
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    /**
+     * One column of the current batch.
+     */
+    abstract static class Column<T> {
+
+        final String name;
+        final boolean nullable;
+        final byte[] validity = new byte[ROWS_PER_BATCH / 8];
+        int nullCount;
+
+        Column(String name, boolean nullable) {
+            this.name = name;
+            this.nullable = nullable;
+        }
+
+        abstract void add(T row, int index);
+
+        /**
+         * Append the buffers holding the first {@code rows} values.
+         */
+        abstract void buffers(int rows, List<ByteBuffer> body);
+
+        void reset() {
+            nullCount = 0;
+        }
+
+        void setValid(int index, boolean valid) {
+            if (valid) {
+                validity[index >> 3] |= (byte) (1 << (index & 7));
+            } else {
+                validity[index >> 3] &= (byte) ~(1 << (index & 7));
+                nullCount++;
+            }
+        }
+
+        // Without nulls the validity bitmap can be left out
+        ByteBuffer validity(int rows) {
+            return ByteBuffer.wrap(validity, 0, nullCount > 0 ? (rows + 7) / 8 : 0);
+        }
+
+        int field(FlatBufferBuilder builder) {
+            int nameOffset = builder.createString(name);
+            int type = type(builder);
+            int dictionary = dictionary(builder);
+            int children = builder.createOffsetVector();
+            builder.startTable(7);
+            builder.addOffset(0, nameOffset);
+            builder.addBoolean(1, nullable);
+            builder.addByte(2, typeType());
+            builder.addOffset(3, type);
+            if (dictionary != 0) {
+                builder.addOffset(4, dictionary);
+            }
+            builder.addOffset(5, children);
+            return builder.endTable();
+        }
+
+        abstract byte typeType();
+
+        abstract int type(FlatBufferBuilder builder);
+
+        int dictionary(FlatBufferBuilder builder) {
+            return 0;
+        }
+    }
+
+    private static class IntColumn<T> extends Column<T> {
+
+        private final byte typeType;
+        private final ToIntFunction<T> value;
+        private final ByteBuffer values = ByteBuffer.allocate(ROWS_PER_BATCH * 4).order(ByteOrder.LITTLE_ENDIAN);
+
+        IntColumn(String name, boolean nullable, byte typeType, ToIntFunction<T> value) {
+            super(name, nullable);
+            this.typeType = typeType;
+            this.value = value;
+        }
+
+        @Override
+        void add(T row, int index) {
+            int v = value.applyAsInt(row);
+            boolean valid = !nullable || v != NULL;
+            setValid(index, valid);
+            values.putInt(index * 4, valid ? v : 0);
+        }
+
+        @Override
+        void buffers(int rows, List<ByteBuffer> body) {
+            body.add(validity(rows));
+            body.add(values.slice(0, rows * 4));
+        }
+
+        @Override
+        byte typeType() {
+            return typeType;
+        }
+
+        @Override
+        int type(FlatBufferBuilder builder) {
+            if (typeType == TYPE_INT) {
+                return intType(builder);
+            }
+            builder.startTable(1);
+            builder.addShort(0, 0); // DateUnit.DAY
+            return builder.endTable();
+        }
+    }
+
+    private static class StringColumn<T> extends Column<T> {
+
+        private final Function<T, String> value;
+        private final ByteBuffer offsets = ByteBuffer.allocate((ROWS_PER_BATCH + 1) * 4).order(ByteOrder.LITTLE_ENDIAN);
+        private ByteBuffer data = ByteBuffer.allocate(ROWS_PER_BATCH * 16);
+
+        StringColumn(String name, Function<T, String> value) {
+            super(name, true);
+            this.value = value;
+        }
+
+        @Override
+        void add(T row, int index) {
+            String v = value.apply(row);
+            setValid(index, v != null);
+            if (v != null) {
+                byte[] bytes = v.getBytes(StandardCharsets.UTF_8);
+                if (data.remaining() < bytes.length) {
+                    ByteBuffer larger = ByteBuffer.allocate(Math.max(data.capacity() * 2, data.position() + bytes.length));
+                    data = larger.put(data.flip());
+                }
+                data.put(bytes);
+            }
+            offsets.putInt((index + 1) * 4, data.position());
+        }
+
+        @Override
+        void buffers(int rows, List<ByteBuffer> body) {
+            body.add(validity(rows));
+            body.add(offsets.slice(0, (rows + 1) * 4));
+            body.add(data.slice(0, data.position()));
+        }
+
+        @Override
+        void reset() {
+            super.reset();
+            data.clear();
+            offsets.putInt(0, 0);
+        }
+
+        @Override
+        byte typeType() {
+            return TYPE_UTF8;
+        }
+
+        @Override
+        int type(FlatBufferBuilder builder) {
+            builder.startTable(0);
+            return builder.endTable();
+        }
+    }
+
+    private static class DictionaryColumn<T> extends IntColumn<T> {
+
+        private final List<String> values;
+        private long id;
+
+        DictionaryColumn(String name, Function<T, String> value, List<String> values) {
+            super(name, true, TYPE_UTF8, indexer(name, value, values));
+            this.values = values;
+        }
+
+        private static <T> ToIntFunction<T> indexer(String name, Function<T, String> value, List<String> values) {
+            Map<String, Integer> indexes = new HashMap<>();
+            for (int i = 0; i < values.size(); i++) {
+                indexes.put(values.get(i), i);
+            }
+            return row -> {
+                String v = value.apply(row);
+                if (v == null) {
+                    return NULL;
+                }
+                Integer index = indexes.get(v);
+                if (index == null) {
+                    throw new IllegalStateException("Value '" + v + "' of " + name + " is not in its dictionary");
+                }
+                return index;
+            };
+        }
+
+        // The field has the type of the values; the indices are described by the encoding
+        @Override
+        int type(FlatBufferBuilder builder) {
+            builder.startTable(0);
+            return builder.endTable();
+        }
+
+        @Override
+        int dictionary(FlatBufferBuilder builder) {
+            int indexType = intType(builder);
+            builder.startTable(4);
+            builder.addLong(0, id);
+            builder.addOffset(1, indexType);
+            builder.addBoolean(2, false);
+            builder.addShort(3, 0); // DenseArray
+            return builder.endTable();
+        }
+    }
+}
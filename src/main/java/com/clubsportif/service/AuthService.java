@@ -1,13 +1,19 @@
 package com.clubsportif.service;
 
+import com.clubsportif.dao.LoginTokenDAO;
 import com.clubsportif.dao.UserDAO;
 import com.clubsportif.model.User;
 
+import java.time.Duration;
 import java.util.Optional;
 
 public class AuthService {
 
+    // How long a WebSocket login token stays valid; clients reconnect with the same token
+    private static final Duration TOKEN_TTL = Duration.ofHours(12);
+
     private final UserDAO userDAO = new UserDAO();
+    private final LoginTokenDAO loginTokenDAO = new LoginTokenDAO();
 
     public Optional<User> authenticate(String username, String password) {
 
@@ -32,6 +38,35 @@ public class AuthService {
         }
     }
 
+    /**
+     * Issue a token the WebSocket server can check the user and role
+     * against, or null if the database could not store one.
+     */
+    public String issueToken(User user) {
+        try {
+            return loginTokenDAO.createToken(user.getId(), TOKEN_TTL);
+        } catch (RuntimeException e) {
+            System.err.println("[Auth] Failed to issue a login token: " + e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * The user a token was issued to, as currently stored, if the token is
+     * valid.
+     */
+    public Optional<User> verifyToken(String token) {
+        if (token == null || token.isEmpty()) {
+            return Optional.empty();
+        }
+        return loginTokenDAO.findUser(token);
+    }
+
+    public void revokeToken(String token) {
+        if (token != null) {
+            loginTokenDAO.deleteToken(token);
+        }
+    }
 
     public void logout() {
         Session.logout();
@@ -0,0 +1,475 @@
+package com.clubsportif.service;
+
+import com.clubsportif.config.Database;
+import com.clubsportif.dao.ConsistentRead;
+import com.clubsportif.dao.TableLoader;
+import com.clubsportif.model.Request;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.zip.CRC32C;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * Application-level backup of the users, members, requests and
+ * requests_archive tables into one file, and restore of such a file.
+ * <p>
+ * A backup reads all the tables as of one instant (a REPEATABLE READ
+ * snapshot, shared between one connection per table on PostgreSQL so the
+ * tables are read in parallel). Rows are packed into blocks of about
+ * BLOCK_BYTES, each deflated and written as a frame with its table, row
+ * count, sizes and a CRC32C of the compressed bytes; frames of different
+ * tables are interleaved. An end frame with the row count of each table
+ * follows, so a truncated file is detected. The file is written under a
+ * temporary name and renamed once complete.
+ * <p>
+ * A restore checks every frame before using it and replaces the contents
+ * of the tables in a single transaction through {@link TableLoader}.
+ * updated_at, change_xid and archived_at are not kept: restored rows
+ * count as changed (or archived) now.
+ */
+public class BackupService {
+
+    private static final int MAGIC = 0x4342414B; // "CBAK"
+    private static final int VERSION = 1;
+    private static final int BLOCK_BYTES = 1 << 20;
+    private static final int FRAME_HEADER_BYTES = 17;
+    private static final byte END = -1;
+    private static final int NO_DATE = Integer.MIN_VALUE;
+
+    /**
+     * Tables in the order they are restored, with their columns and the
+     * type of each: i(nt), s(tring) or d(ate).
+     */
+    private enum Table {
+        USERS("users", "id, username, email, phone, password, role", "isssss"),
+        MEMBERS("members", "id, user_id, nom, prenom, subscription, date_start, date_end, status", "iisssdds"),
+        REQUESTS("requests", "id, user_id, nom, prenom, subscription, request_date, status", "iisssds"),
+        REQUESTS_ARCHIVE("requests_archive", "id, user_id, nom, prenom, subscription, request_date, status", "iisssds");
+
+        final String tableName;
+        final String columns;
+        final String types;
+
+        Table(String tableName, String columns, String types) {
+            this.tableName = tableName;
+            this.columns = columns;
+            this.types = types;
+        }
+    }
+
+    /**
+     * Rows per table, uncompressed and file bytes, and elapsed time of a
+     * backup or restore.
+     */
+    public record Report(Map<String, Long> rows, long rawBytes, long fileBytes, long millis) {
+
+        public double megabytesPerSecond() {
+            return millis > 0 ? rawBytes / 1000.0 / millis : 0;
+        }
+    }
+
+    /**
+     * Write a backup of the tables to {@code file}, replacing it.
+     */
+    public Report backup(Path file) throws IOException {
+        long start = System.nanoTime();
+        Path directory = file.toAbsolutePath().getParent();
+        Files.createDirectories(directory);
+        Path temp = Files.createTempFile(directory, file.getFileName().toString(), ".tmp");
+        long[] rows = new long[Table.values().length];
+        long rawBytes = 0;
+        try {
+            try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.WRITE);
+                 ConsistentRead read = ConsistentRead.open()) {
+                FrameOutput out = new FrameOutput(channel);
+                out.writeHeader();
+                String snapshot = read.exportSnapshot();
+                List<BlockEncoder> encoders = new ArrayList<>();
+                for (Table table : Table.values()) {
+                    encoders.add(new BlockEncoder(table, out));
+                }
+                if (snapshot == null) {
+                    try {
+                        for (BlockEncoder encoder : encoders) {
+                            rows[encoder.table.ordinal()] = dump(read, encoder);
+                        }
+                    } catch (UncheckedIOException e) {
+                        throw e.getCause();
+                    }
+                } else {
+                    dumpInParallel(snapshot, encoders, rows);
+                }
+                for (BlockEncoder encoder : encoders) {
+                    rawBytes += encoder.rawBytes;
+                }
+                out.writeEnd(rows);
+                channel.force(true);
+            }
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+        Report report = new Report(rowCounts(rows), rawBytes, Files.size(file), (System.nanoTime() - start) / 1_000_000);
+        System.out.printf("[Backup] %s to %s: %d bytes (%d uncompressed) in %d ms, %.1f MB/s%n", report.rows(),
+                file.getFileName(), report.fileBytes(), rawBytes, report.millis(), report.megabytesPerSecond());
+        return report;
+    }
+
+    private void dumpInParallel(String snapshot, List<BlockEncoder> encoders, long[] rows) throws IOException {
+        ExecutorService pool = Executors.newFixedThreadPool(encoders.size());
+        try {
+            List<Future<Long>> dumps = new ArrayList<>();
+            for (BlockEncoder encoder : encoders) {
+                dumps.add(pool.submit(() -> {
+                    try (ConsistentRead read = ConsistentRead.open(snapshot)) {
+                        return dump(read, encoder);
+                    }
+                }));
+            }
+            for (int i = 0; i < dumps.size(); i++) {
+                rows[encoders.get(i).table.ordinal()] = dumps.get(i).get();
+            }
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof UncheckedIOException io) {
+                throw io.getCause();
+            }
+            throw e.getCause() instanceof RuntimeException runtime ? runtime : new RuntimeException(e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Backup interrupted", e);
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    private static long dump(ConsistentRead read, BlockEncoder block) {
+        long rows = switch (block.table) {
+            case USERS -> read.forEachUser(user -> block
+                    .putInt(user.getId()).putString(user.getUsername()).putString(user.getEmail())
+                    .putString(user.getPhone()).putString(user.getPassword()).putString(user.getRole())
+                    .endRow());
+            case MEMBERS -> read.forEachMember(member -> block
+                    .putInt(member.getId()).putInt(member.getUserId()).putString(member.getNom())
+                    .putString(member.getPrenom()).putString(member.getSubscription())
+                    .putDate(member.getDateStart()).putDate(member.getDateEnd()).putString(member.getStatus())
+                    .endRow());
+            case REQUESTS -> read.forEachRequest(request -> putRequest(block, request));
+            case REQUESTS_ARCHIVE -> read.forEachArchivedRequest(request -> putRequest(block, request));
+        };
+        block.finish();
+        return rows;
+    }
+
+    private static void putRequest(BlockEncoder block, Request request) {
+        block.putInt(request.getId()).putInt(request.getUserId()).putString(request.getNom())
+                .putString(request.getPrenom()).putString(request.getSubscription())
+                .putDate(request.getRequestDate()).putString(request.getStatus())
+                .endRow();
+    }
+
+    /**
+     * Replace the contents of the tables with the backup in
+     * {@code file}. Nothing changes unless the whole file is valid.
+     */
+    public Report restore(Path file) throws IOException {
+        long start = System.nanoTime();
+        long[] rows = new long[Table.values().length];
+        long rawBytes;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            ByteBuffer header = read(channel, 18);
+            if (header.getInt() != MAGIC) {
+                throw new IOException(file + " is not a backup file");
+            }
+            int version = header.getInt();
+            if (version != VERSION) {
+                throw new IOException("Unsupported backup format version " + version);
+            }
+            Instant created = Instant.ofEpochMilli(header.getLong());
+            String source = new String(read(channel, header.getShort()).array(), StandardCharsets.UTF_8);
+            System.out.println("[Backup] Restoring backup of " + source + " taken " + created);
+            rawBytes = restoreFrames(channel, rows);
+        }
+        Report report = new Report(rowCounts(rows), rawBytes, Files.size(file), (System.nanoTime() - start) / 1_000_000);
+        System.out.printf("[Backup] Restored %s from %s in %d ms, %.1f MB/s%n", report.rows(),
+                file.getFileName(), report.millis(), report.megabytesPerSecond());
+        return report;
+    }
+
+    // Load every frame up to the end frame, then commit; returns the uncompressed bytes read
+    private static long restoreFrames(FileChannel channel, long[] rows) throws IOException {
+        long rawBytes = 0;
+        Inflater inflater = new Inflater(true);
+        CRC32C crc = new CRC32C();
+        byte[] raw = new byte[BLOCK_BYTES];
+        try (TableLoader loader = TableLoader.open(Arrays.stream(Table.values()).map(t -> t.tableName).toList())) {
+            while (true) {
+                byte tableId = read(channel, 1).get();
+                if (tableId == END) {
+                    verifyCounts(read(channel, 8 * rows.length), rows);
+                    break;
+                }
+                if (tableId < 0 || tableId >= rows.length) {
+                    throw new IOException("Corrupt backup: unknown table " + tableId);
+                }
+                Table table = Table.values()[tableId];
+                ByteBuffer frame = read(channel, FRAME_HEADER_BYTES - 1);
+                int rowCount = frame.getInt();
+                int rawLength = frame.getInt();
+                int compressedLength = frame.getInt();
+                int checksum = frame.getInt();
+                // The frame header is not covered by the checksum; bound sizes before allocating
+                if (rawLength < 0 || rawLength > 64 * BLOCK_BYTES || compressedLength < 0 || compressedLength > 64 * BLOCK_BYTES) {
+                    throw new IOException("Corrupt backup: bad block size in a " + table.tableName + " frame");
+                }
+                ByteBuffer compressed = read(channel, compressedLength);
+                crc.reset();
+                crc.update(compressed.array(), 0, compressedLength);
+                if ((int) crc.getValue() != checksum) {
+                    throw new IOException("Corrupt backup: checksum mismatch in a " + table.tableName + " block");
+                }
+                if (raw.length < rawLength) {
+                    raw = new byte[rawLength];
+                }
+                inflate(inflater, compressed.array(), compressedLength, raw, rawLength);
+                loader.load(table.tableName, table.columns, decode(table, ByteBuffer.wrap(raw, 0, rawLength), rowCount));
+                rows[tableId] += rowCount;
+                rawBytes += rawLength;
+            }
+            loader.commit();
+        } finally {
+            inflater.end();
+        }
+        return rawBytes;
+    }
+
+    private static void verifyCounts(ByteBuffer counts, long[] rows) throws IOException {
+        for (Table table : Table.values()) {
+            long expected = counts.getLong();
+            if (expected != rows[table.ordinal()]) {
+                throw new IOException("Corrupt backup: " + rows[table.ordinal()] + " " + table.tableName
+                        + " rows found, " + expected + " expected");
+            }
+        }
+    }
+
+    private static void inflate(Inflater inflater, byte[] input, int length, byte[] output, int rawLength)
+            throws IOException {
+        inflater.reset();
+        inflater.setInput(input, 0, length);
+        int produced = 0;
+        try {
+            while (produced < rawLength && !inflater.finished()) {
+                int n = inflater.inflate(output, produced, rawLength - produced);
+                if (n == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+                    break;
+                }
+                produced += n;
+            }
+        } catch (DataFormatException e) {
+            throw new IOException("Corrupt backup: " + e.getMessage(), e);
+        }
+        if (produced != rawLength) {
+            throw new IOException("Corrupt backup: block inflated to " + produced + " bytes, " + rawLength + " expected");
+        }
+    }
+
+    private static List<Object[]> decode(Table table, ByteBuffer block, int rowCount) {
+        List<Object[]> rows = new ArrayList<>(rowCount);
+        String types = table.types;
+        for (int r = 0; r < rowCount; r++) {
+            Object[] row = new Object[types.length()];
+            for (int c = 0; c < row.length; c++) {
+                row[c] = switch (types.charAt(c)) {
+                    case 'i' -> block.getInt();
+                    case 'd' -> {
+                        int epochDay = block.getInt();
+                        yield epochDay != NO_DATE ? LocalDate.ofEpochDay(epochDay) : null;
+                    }
+                    default -> {
+                        int length = block.getInt();
+                        if (length < 0) {
+                            yield null;
+                        }
+                        String value = new String(block.array(), block.position(), length, StandardCharsets.UTF_8);
+                        block.position(block.position() + length);
+                        yield value;
+                    }
+                };
+            }
+            rows.add(row);
+        }
+        return rows;
+    }
+
+    private static ByteBuffer read(FileChannel channel, int length) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(length);
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer) < 0) {
+                throw new EOFException("Corrupt backup: file ends early");
+            }
+        }
+        return buffer.flip();
+    }
+
+    private static Map<String, Long> rowCounts(long[] rows) {
+        Map<String, Long> counts = new LinkedHashMap<>();
+        for (Table table : Table.values()) {
+            counts.put(table.tableName, rows[table.ordinal()]);
+        }
+        return counts;
+    }
+
+    /**
+     * Frames from any thread to the file, one at a time.
+     */
+    private static final class FrameOutput {
+
+        private final FileChannel channel;
+
+        FrameOutput(FileChannel channel) {
+            this.channel = channel;
+        }
+
+        void writeHeader() throws IOException {
+            byte[] source = String.valueOf(Database.getUrl()).getBytes(StandardCharsets.UTF_8);
+            write(ByteBuffer.allocate(18 + source.length)
+                    .putInt(MAGIC).putInt(VERSION).putLong(System.currentTimeMillis())
+                    .putShort((short) source.length).put(source).flip());
+        }
+
+        void writeFrame(Table table, int rows, int rawLength, byte[] compressed, int compressedLength, int checksum)
+                throws IOException {
+            ByteBuffer header = ByteBuffer.allocate(FRAME_HEADER_BYTES)
+                    .put((byte) table.ordinal()).putInt(rows).putInt(rawLength).putInt(compressedLength).putInt(checksum)
+                    .flip();
+            write(header, ByteBuffer.wrap(compressed, 0, compressedLength));
+        }
+
+        void writeEnd(long[] rows) throws IOException {
+            ByteBuffer end = ByteBuffer.allocate(1 + 8 * rows.length).put(END);
+            for (long count : rows) {
+                end.putLong(count);
+            }
+            write(end.flip());
+        }
+
+        private synchronized void write(ByteBuffer... buffers) throws IOException {
+            long remaining = 0;
+            for (ByteBuffer buffer : buffers) {
+                remaining += buffer.remaining();
+            }
+            while (remaining > 0) {
+                remaining -= channel.write(buffers);
+            }
+        }
+    }
+
+    /**
+     * Rows of one table packed into a block, compressed and written as a
+     * frame whenever it reaches BLOCK_BYTES.
+     */
+    private static final class BlockEncoder {
+
+        final Table table;
+        private final FrameOutput out;
+        private final Deflater deflater = new Deflater(Deflater.BEST_SPEED, true);
+        private final CRC32C crc = new CRC32C();
+        private ByteBuffer block = ByteBuffer.allocate(BLOCK_BYTES + 4096);
+        private byte[] compressed = new byte[BLOCK_BYTES / 2];
+        private int rows;
+        long rawBytes;
+
+        BlockEncoder(Table table, FrameOutput out) {
+            this.table = table;
+            this.out = out;
+        }
+
+        BlockEncoder putInt(int value) {
+            ensure(4);
+            block.putInt(value);
+            return this;
+        }
+
+        BlockEncoder putDate(LocalDate date) {
+            return putInt(date != null ? (int) date.toEpochDay() : NO_DATE);
+        }
+
+        BlockEncoder putString(String value) {
+            if (value == null) {
+                return putInt(-1);
+            }
+            byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            ensure(4 + bytes.length);
+            block.putInt(bytes.length).put(bytes);
+            return this;
+        }
+
+        void endRow() {
+            rows++;
+            if (block.position() >= BLOCK_BYTES) {
+                flush();
+            }
+        }
+
+        void finish() {
+            flush();
+            deflater.end();
+        }
+
+        private void flush() {
+            if (rows == 0) {
+                return;
+            }
+            int rawLength = block.position();
+            deflater.reset();
+            deflater.setInput(block.array(), 0, rawLength);
+            deflater.finish();
+            int length = 0;
+            while (!deflater.finished()) {
+                if (length == compressed.length) {
+                    compressed = Arrays.copyOf(compressed, compressed.length * 2);
+                }
+                length += deflater.deflate(compressed, length, compressed.length - length);
+            }
+            crc.reset();
+            crc.update(compressed, 0, length);
+            try {
+                out.writeFrame(table, rows, rawLength, compressed, length, (int) crc.getValue());
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            rawBytes += rawLength;
+            rows = 0;
+            block.clear();
+        }
+
+        private void ensure(int bytes) {
+            if (block.remaining() < bytes) {
+                ByteBuffer larger = ByteBuffer.allocate(Math.max(block.capacity() * 2, block.position() + bytes));
+                block = larger.put(block.flip());
+            }
+        }
+    }
+}
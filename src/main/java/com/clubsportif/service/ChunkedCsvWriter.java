@@ -0,0 +1,104 @@
+package com.clubsportif.service;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * CSV text to a file, optionally gzipped: lines accumulate in one reusable
+ * StringBuilder that is encoded into a reusable byte buffer and written to
+ * a FileChannel once it holds CHUNK_CHARS characters.
+ */
+final class ChunkedCsvWriter implements AutoCloseable {
+
+    private static final int CHUNK_CHARS = 32 * 1024;
+
+    private final FileChannel channel;
+    private final WritableByteChannel out;
+    private final StringBuilder chunk = new StringBuilder(CHUNK_CHARS + 256);
+    private final char[] chars = new char[CHUNK_CHARS + 256];
+    private final ByteBuffer bytes;
+    private final CharsetEncoder encoder = StandardCharsets.UTF_8.newEncoder();
+
+    ChunkedCsvWriter(Path file, boolean gzip) throws IOException {
+        channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING);
+        if (gzip) {
+            out = Channels.newChannel(new GZIPOutputStream(Channels.newOutputStream(channel), 64 * 1024));
+            bytes = ByteBuffer.allocate(64 * 1024);
+        } else {
+            out = channel;
+            bytes = ByteBuffer.allocateDirect(64 * 1024);
+        }
+    }
+
+    /**
+     * The builder to append the next line to.
+     */
+    StringBuilder line() {
+        return chunk;
+    }
+
+    void endLine() {
+        if (chunk.length() >= CHUNK_CHARS) {
+            try {
+                flushChunk(false);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+
+    /**
+     * Write what is buffered; the file is complete once closed.
+     */
+    void finish() throws IOException {
+        flushChunk(true);
+        encoder.flush(bytes);
+        drain();
+    }
+
+    private void flushChunk(boolean endOfInput) throws IOException {
+        char[] buffer = chunk.length() <= chars.length ? chars : new char[chunk.length()];
+        chunk.getChars(0, chunk.length(), buffer, 0);
+        CharBuffer in = CharBuffer.wrap(buffer, 0, chunk.length());
+        while (true) {
+            CoderResult result = encoder.encode(in, bytes, endOfInput);
+            if (result.isOverflow()) {
+                drain();
+            } else if (result.isUnderflow()) {
+                break;
+            } else {
+                result.throwException();
+            }
+        }
+        // A surrogate pair split across chunks stays for the next one
+        chunk.delete(0, chunk.length() - in.remaining());
+    }
+
+    private void drain() throws IOException {
+        bytes.flip();
+        while (bytes.hasRemaining()) {
+            out.write(bytes);
+        }
+        bytes.clear();
+    }
+
+    @Override
+    public void close() throws IOException {
+        // Closing the gzip channel finishes the stream and closes the file
+        try (channel) {
+            out.close();
+        }
+    }
+}
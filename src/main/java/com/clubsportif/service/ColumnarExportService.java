@@ -0,0 +1,104 @@
+package com.clubsportif.service;
+
+import com.clubsportif.dao.ConsistentRead;
+import com.clubsportif.model.Member;
+import com.clubsportif.model.Request;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.LongConsumer;
+
+/**
+ * Export of the members and requests tables as Arrow IPC files for
+ * analysis tools, streamed from a DAO cursor into record batches of
+ * {@link ArrowIpcWriter#ROWS_PER_BATCH} rows.
+ * <p>
+ * subscription and status are dictionary-encoded and dates are days since
+ * the epoch. The dictionaries are the distinct values read first, in the
+ * same transaction as the rows, so every row finds its value. Progress and
+ * cancellation work as in {@link CsvExportService}.
+ */
+public class ColumnarExportService {
+
+    private static final long PROGRESS_INTERVAL_NANOS = 100_000_000;
+
+    /**
+     * Export all members to {@code file}; emits the number of rows written.
+     */
+    public Mono<Long> exportMembers(Path file, LongConsumer progress) {
+        return export(file, read -> List.of(
+                ArrowIpcWriter.int32("id", Member::getId),
+                ArrowIpcWriter.int32("user_id", Member::getUserId),
+                ArrowIpcWriter.utf8("last_name", Member::getNom),
+                ArrowIpcWriter.utf8("first_name", Member::getPrenom),
+                ArrowIpcWriter.dictionary("subscription", Member::getSubscription,
+                        read.distinctValues("members", "subscription")),
+                ArrowIpcWriter.date32("start_date", Member::getDateStart),
+                ArrowIpcWriter.date32("end_date", Member::getDateEnd),
+                ArrowIpcWriter.dictionary("status", Member::getStatus, read.distinctValues("members", "status"))
+        ), ConsistentRead::forEachMember, progress);
+    }
+
+    /**
+     * Export all requests to {@code file}; emits the number of rows written.
+     */
+    public Mono<Long> exportRequests(Path file, LongConsumer progress) {
+        return export(file, read -> List.of(
+                ArrowIpcWriter.int32("id", Request::getId),
+                ArrowIpcWriter.int32("user_id", Request::getUserId),
+                ArrowIpcWriter.utf8("last_name", Request::getNom),
+                ArrowIpcWriter.utf8("first_name", Request::getPrenom),
+                ArrowIpcWriter.dictionary("subscription", Request::getSubscription,
+                        read.distinctValues("requests", "subscription")),
+                ArrowIpcWriter.date32("request_date", Request::getRequestDate),
+                ArrowIpcWriter.dictionary("status", Request::getStatus, read.distinctValues("requests", "status"))
+        ), ConsistentRead::forEachRequest, progress);
+    }
+
+    private <T> Mono<Long> export(Path file, Function<ConsistentRead, List<ArrowIpcWriter.Column<T>>> columns,
+                                  BiConsumer<ConsistentRead, Consumer<T>> source, LongConsumer progress) {
+        AtomicBoolean cancelled = new AtomicBoolean();
+        return Mono.fromCallable(() -> {
+                    long start = System.nanoTime();
+                    long[] rows = {0};
+                    long[] lastReport = {start};
+                    try (ConsistentRead read = ConsistentRead.open();
+                         ArrowIpcWriter<T> writer = new ArrowIpcWriter<>(file, columns.apply(read))) {
+                        source.accept(read, row -> {
+                            if (cancelled.get()) {
+                                throw new CancellationException("Export cancelled");
+                            }
+                            writer.add(row);
+                            rows[0]++;
+                            long now = System.nanoTime();
+                            if (now - lastReport[0] >= PROGRESS_INTERVAL_NANOS) {
+                                lastReport[0] = now;
+                                progress.accept(rows[0]);
+                            }
+                        });
+                        writer.finish();
+                    } catch (Exception e) {
+                        Files.deleteIfExists(file);
+                        if (cancelled.get()) {
+                            System.out.println("[Export] Cancelled after " + rows[0] + " rows: " + file.getFileName());
+                            return rows[0];
+                        }
+                        throw e;
+                    }
+                    progress.accept(rows[0]);
+                    System.out.printf("[Export] %d rows, %d bytes to %s in %d ms%n", rows[0],
+                            Files.size(file), file.getFileName(), (System.nanoTime() - start) / 1_000_000);
+                    return rows[0];
+                })
+                .subscribeOn(Schedulers.boundedElastic())
+                .doOnCancel(() -> cancelled.set(true));
+    }
+}
@@ -0,0 +1,93 @@
+package com.clubsportif.service;
+
+import com.clubsportif.dao.MemberDAO;
+import com.clubsportif.dao.RequestDAO;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+import java.util.function.LongConsumer;
+
+/**
+ * Streaming CSV export of the members and requests tables.
+ * <p>
+ * Rows go from a DAO cursor into a {@link ChunkedCsvWriter}, so memory use
+ * does not depend on the table size. Progress (rows written) is reported at
+ * most every PROGRESS_INTERVAL_NANOS; cancelling the returned Mono stops
+ * the export at the next row and deletes the partial file, as does a
+ * failure.
+ */
+public class CsvExportService {
+
+    private static final long PROGRESS_INTERVAL_NANOS = 100_000_000;
+
+    private final MemberDAO memberDAO;
+    private final RequestDAO requestDAO;
+
+    public CsvExportService(MemberDAO memberDAO, RequestDAO requestDAO) {
+        this.memberDAO = memberDAO;
+        this.requestDAO = requestDAO;
+    }
+
+    /**
+     * Export all members to {@code file}; emits the number of rows written.
+     */
+    public Mono<Long> exportMembers(Path file, boolean gzip, LongConsumer progress) {
+        return export(file, gzip, MemberCsvExporter.HEADER, MemberCsvExporter::appendRow,
+                memberDAO::forEachMember, progress);
+    }
+
+    /**
+     * Export all requests to {@code file}; emits the number of rows written.
+     */
+    public Mono<Long> exportRequests(Path file, boolean gzip, LongConsumer progress) {
+        return export(file, gzip, RequestCsvExporter.HEADER, RequestCsvExporter::appendRow,
+                requestDAO::forEachRequest, progress);
+    }
+
+    private <T> Mono<Long> export(Path file, boolean gzip, String header, BiConsumer<StringBuilder, T> format,
+                                  Consumer<Consumer<T>> source, LongConsumer progress) {
+        AtomicBoolean cancelled = new AtomicBoolean();
+        return Mono.fromCallable(() -> {
+                    long start = System.nanoTime();
+                    long[] rows = {0};
+                    long[] lastReport = {start};
+                    try (ChunkedCsvWriter writer = new ChunkedCsvWriter(file, gzip)) {
+                        writer.line().append(header);
+                        source.accept(row -> {
+                            if (cancelled.get()) {
+                                throw new CancellationException("Export cancelled");
+                            }
+                            format.accept(writer.line(), row);
+                            writer.endLine();
+                            rows[0]++;
+                            long now = System.nanoTime();
+                            if (now - lastReport[0] >= PROGRESS_INTERVAL_NANOS) {
+                                lastReport[0] = now;
+                                progress.accept(rows[0]);
+                            }
+                        });
+                        writer.finish();
+                    } catch (Exception e) {
+                        Files.deleteIfExists(file);
+                        if (cancelled.get()) {
+                            // Nobody is subscribed any more; throwing would only log a dropped error
+                            System.out.println("[Export] Cancelled after " + rows[0] + " rows: " + file.getFileName());
+                            return rows[0];
+                        }
+                        throw e;
+                    }
+                    progress.accept(rows[0]);
+                    System.out.printf("[Export] %d rows, %d bytes to %s in %d ms%n", rows[0],
+                            Files.size(file), file.getFileName(), (System.nanoTime() - start) / 1_000_000);
+                    return rows[0];
+                })
+                .subscribeOn(Schedulers.boundedElastic())
+                .doOnCancel(() -> cancelled.set(true));
+    }
+}
@@ -0,0 +1,149 @@
+package com.clubsportif.service;
+
+import com.clubsportif.dao.ChangeLogDAO;
+import com.clubsportif.dao.ConsistentRead;
+import com.clubsportif.dao.Versioned;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+import java.util.regex.Pattern;
+
+/**
+ * Change-only CSV export of the members and requests tables for downstream
+ * consumers. Each export target has its own watermark per table, stored in
+ * export_watermarks, and every run writes only the rows changed since it:
+ * <pre>
+ * &lt;target&gt;-&lt;table&gt;-&lt;sequence&gt;.csv[.gz]
+ * </pre>
+ * Each file has UPSERT lines (the row as it is now, oldest change first)
+ * followed by DELETE lines (only the id) taken from the deleted_rows
+ * tombstones; applying the files in sequence order reproduces the table.
+ * <p>
+ * The first run of a target is a full export, and so is the next run
+ * after a restore from backup (TableLoader clears the watermarks, as the
+ * restored rows do not follow from the earlier files). A full export
+ * starts with a RESET line: the consumer drops every row it holds for the
+ * table before applying the file, so rows the restore removed go too. A
+ * full export has no DELETE lines and is written even when the table is
+ * empty.
+ * <p>
+ * Rows and tombstones are read in one snapshot ({@link ConsistentRead}),
+ * and the watermark saved is that snapshot's change mark (see
+ * {@link com.clubsportif.dao.TableChanges}): changes of transactions still
+ * open during a run, however long they stay open, go into a later file.
+ * Those later files may repeat rows the run already wrote, so replay must
+ * be an upsert, never a plain insert.
+ * <p>
+ * A file is written under a temporary name and renamed once complete, and
+ * the watermark only moves after that; a run that fails is simply repeated
+ * by the next one. A run with no changes writes no file.
+ */
+public class DeltaExportService {
+
+    private static final Pattern TARGET_NAME = Pattern.compile("[A-Za-z0-9_-]{1,100}");
+
+    private final ChangeLogDAO changeLogDAO;
+
+    // A changed-since read of one table within a consistent read
+    private interface ChangeSource<T> {
+        int forEachChangedSince(ConsistentRead read, Long since, Consumer<Versioned<T>> action);
+    }
+
+    /**
+     * A delta file written for one table.
+     */
+    public record DeltaFile(String table, Path file, int sequence, long upserts, long deletes) {
+    }
+
+    public DeltaExportService(ChangeLogDAO changeLogDAO) {
+        this.changeLogDAO = changeLogDAO;
+    }
+
+    /**
+     * Write the changes of both tables since the last run of {@code target}
+     * into {@code directory}; returns the files written.
+     */
+    public List<DeltaFile> export(String target, Path directory, boolean gzip) throws IOException {
+        if (!TARGET_NAME.matcher(target).matches()) {
+            throw new IllegalArgumentException("Invalid export target name: " + target);
+        }
+        Files.createDirectories(directory);
+        List<DeltaFile> files = new ArrayList<>(2);
+        DeltaFile members = exportTable(target, "members", directory, gzip, MemberCsvExporter.HEADER,
+                MemberCsvExporter::appendFields, ConsistentRead::forEachMemberChangedSince);
+        if (members != null) {
+            files.add(members);
+        }
+        DeltaFile requests = exportTable(target, "requests", directory, gzip, RequestCsvExporter.HEADER,
+                RequestCsvExporter::appendFields, ConsistentRead::forEachRequestChangedSince);
+        if (requests != null) {
+            files.add(requests);
+        }
+        return files;
+    }
+
+    private <T> DeltaFile exportTable(String target, String table, Path directory, boolean gzip, String header,
+                                      BiConsumer<StringBuilder, T> format,
+                                      ChangeSource<T> source) throws IOException {
+        long start = System.nanoTime();
+        ChangeLogDAO.Watermark last = changeLogDAO.getWatermark(target, table);
+        Long since = last.changeMark();
+        int sequence = last.sequence() + 1;
+        String name = String.format("%s-%s-%06d.csv%s", target, table, sequence, gzip ? ".gz" : "");
+        Path file = directory.resolve(name);
+        Path temp = directory.resolve(name + ".tmp");
+
+        String columns = header.substring(0, header.length() - 1);
+        String emptyFields = ",".repeat(columns.length() - columns.replace(",", "").length());
+        long changeMark;
+        long[] upserts = {0};
+        long[] deletes = {0};
+        try {
+            try (ConsistentRead read = ConsistentRead.open();
+                 ChunkedCsvWriter writer = new ChunkedCsvWriter(temp, gzip)) {
+                changeMark = read.changeMark();
+                writer.line().append("Op,").append(columns).append(",Updated At\n");
+                if (since == null) {
+                    writer.line().append("RESET,").append(emptyFields).append(",\n");
+                    writer.endLine();
+                }
+                source.forEachChangedSince(read, since, changed -> {
+                    StringBuilder line = writer.line().append("UPSERT,");
+                    format.accept(line, changed.row());
+                    line.append(',').append(changed.updatedAt()).append('\n');
+                    writer.endLine();
+                    upserts[0]++;
+                });
+                // A full export resets the table downstream, so it needs no deletes
+                if (since != null) {
+                    read.forEachDeletedSince(table, since, deleted -> {
+                        writer.line().append("DELETE,").append(deleted.id()).append(emptyFields)
+                                .append(',').append(deleted.deletedAt()).append('\n');
+                        writer.endLine();
+                        deletes[0]++;
+                    });
+                }
+                writer.finish();
+            }
+            if (since != null && upserts[0] + deletes[0] == 0) {
+                System.out.println("[Export] No changes in " + table + " for " + target);
+                return null;
+            }
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+
+        changeLogDAO.saveWatermark(target, table, new ChangeLogDAO.Watermark(changeMark, sequence));
+        changeLogDAO.pruneTombstones(table);
+        System.out.printf("[Export] %s: %s%d upserts, %d deletes to %s in %d ms%n", table,
+                since == null ? "full export, " : "", upserts[0], deletes[0], name, (System.nanoTime() - start) / 1_000_000);
+        return new DeltaFile(table, file, sequence, upserts[0], deletes[0]);
+    }
+}
@@ -0,0 +1,176 @@
+package com.clubsportif.service;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * The part of the FlatBuffers builder the Arrow IPC metadata needs: tables
+ * of scalars and offsets, strings, and vectors of offsets or structs.
+ * <p>
+ * As in the reference implementation the buffer is filled from the end, so
+ * an object has to be built before anything that refers to it, and an
+ * offset is a position counted from the end. Scalars are always written,
+ * even when equal to the schema default, and vtables are not shared.
+ */
+final class FlatBufferBuilder {
+
+    private ByteBuffer buffer;
+    private int space;
+    private int minAlign = 1;
+    private int[] vtable;
+    private int objectStart;
+
+    FlatBufferBuilder(int initialSize) {
+        buffer = ByteBuffer.allocate(initialSize).order(ByteOrder.LITTLE_ENDIAN);
+        space = initialSize;
+    }
+
+    /**
+     * The position of the last object written, for referring to it.
+     */
+    int offset() {
+        return buffer.capacity() - space;
+    }
+
+    /**
+     * Pad so that {@code size} bytes can be written aligned to {@code size}
+     * after {@code additionalBytes} more.
+     */
+    void prep(int size, int additionalBytes) {
+        minAlign = Math.max(minAlign, size);
+        int alignSize = -(buffer.capacity() - space + additionalBytes) & (size - 1);
+        while (space < alignSize + size + additionalBytes) {
+            int capacity = buffer.capacity();
+            ByteBuffer larger = ByteBuffer.allocate(capacity * 2).order(ByteOrder.LITTLE_ENDIAN);
+            larger.put(capacity, buffer, 0, capacity);
+            buffer = larger;
+            space += capacity;
+        }
+        for (int i = 0; i < alignSize; i++) {
+            buffer.put(--space, (byte) 0);
+        }
+    }
+
+    void putByte(int value) {
+        buffer.put(--space, (byte) value);
+    }
+
+    void putShort(int value) {
+        buffer.putShort(space -= 2, (short) value);
+    }
+
+    void putInt(int value) {
+        buffer.putInt(space -= 4, value);
+    }
+
+    void putLong(long value) {
+        buffer.putLong(space -= 8, value);
+    }
+
+    private void addOffset(int offset) {
+        prep(4, 0);
+        putInt(offset() - offset + 4);
+    }
+
+    int createString(String value) {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        prep(4, bytes.length + 1);
+        putByte(0);
+        space -= bytes.length;
+        buffer.put(space, bytes);
+        putInt(bytes.length);
+        return offset();
+    }
+
+    int createOffsetVector(int... offsets) {
+        startVector(4, offsets.length, 4);
+        for (int i = offsets.length - 1; i >= 0; i--) {
+            addOffset(offsets[i]);
+        }
+        return endVector(offsets.length);
+    }
+
+    /**
+     * Start a vector of structs; write the elements last to first with
+     * {@link #prep} and the put methods (fields also last to first), then
+     * call {@link #endVector}.
+     */
+    void startVector(int elementSize, int count, int alignment) {
+        prep(4, elementSize * count);
+        prep(alignment, elementSize * count);
+    }
+
+    int endVector(int count) {
+        putInt(count);
+        return offset();
+    }
+
+    void startTable(int fields) {
+        vtable = new int[fields];
+        objectStart = offset();
+    }
+
+    void addBoolean(int field, boolean value) {
+        addByte(field, value ? 1 : 0);
+    }
+
+    void addByte(int field, int value) {
+        prep(1, 0);
+        putByte(value);
+        vtable[field] = offset();
+    }
+
+    void addShort(int field, int value) {
+        prep(2, 0);
+        putShort(value);
+        vtable[field] = offset();
+    }
+
+    void addInt(int field, int value) {
+        prep(4, 0);
+        putInt(value);
+        vtable[field] = offset();
+    }
+
+    void addLong(int field, long value) {
+        prep(8, 0);
+        putLong(value);
+        vtable[field] = offset();
+    }
+
+    void addOffset(int field, int offset) {
+        addOffset(offset);
+        vtable[field] = offset();
+    }
+
+    int endTable() {
+        // Room for the offset to the vtable, filled in below
+        prep(4, 0);
+        putInt(0);
+        int table = offset();
+        int fields = vtable.length;
+        while (fields > 0 && vtable[fields - 1] == 0) {
+            fields--;
+        }
+        for (int i = fields - 1; i >= 0; i--) {
+            prep(2, 0);
+            putShort(vtable[i] != 0 ? table - vtable[i] : 0);
+        }
+        putShort(table - objectStart);
+        putShort((fields + 2) * 2);
+        buffer.putInt(buffer.capacity() - table, offset() - table);
+        vtable = null;
+        return table;
+    }
+
+    /**
+     * The finished buffer with {@code root} as its root table.
+     */
+    byte[] finish(int root) {
+        prep(minAlign, 4);
+        addOffset(root);
+        return Arrays.copyOfRange(buffer.array(), space, buffer.capacity());
+    }
+}
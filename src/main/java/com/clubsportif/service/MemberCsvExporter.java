@@ -0,0 +1,93 @@
+package com.clubsportif.service;
+
+import com.clubsportif.model.Member;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.List;
+
+/**
+ * Writes members in the CSV layout of the admin "Export to CSV" action.
+ */
+public class MemberCsvExporter {
+
+    public static final String HEADER = "ID,Last Name,First Name,Subscription,Start Date,End Date,Status\n";
+
+    private MemberCsvExporter() {
+        // prevent instantiation
+    }
+
+    /**
+     * Write the header and one line per member. The writer is not closed.
+     */
+    public static void write(List<Member> members, Writer writer) throws IOException {
+        writer.write(HEADER);
+        StringBuilder line = new StringBuilder(128);
+        for (Member member : members) {
+            line.setLength(0);
+            appendRow(line, member);
+            writer.append(line);
+        }
+    }
+
+    /**
+     * Append one member as a CSV line, newline included.
+     */
+    public static void appendRow(StringBuilder out, Member member) {
+        appendFields(out, member);
+        out.append('\n');
+    }
+
+    /**
+     * Append the fields of one member, without the line end.
+     */
+    public static void appendFields(StringBuilder out, Member member) {
+        out.append(member.getId()).append(',');
+        appendField(out, member.getNom());
+        out.append(',');
+        appendField(out, member.getPrenom());
+        out.append(',');
+        appendField(out, member.getSubscription());
+        out.append(',').append(member.getDateStart())
+           .append(',').append(member.getDateEnd())
+           .append(',').append(member.getStatus());
+    }
+
+    /**
+     * Quote a field if it contains a comma, newline or quote.
+     */
+    public static String escapeCsv(String data) {
+        if (data == null) return "";
+        StringBuilder out = new StringBuilder(data.length() + 2);
+        appendField(out, data);
+        return out.toString();
+    }
+
+    /**
+     * Append a field, quoted (with quotes doubled) if it contains a comma,
+     * line break or quote; null is written as an empty field.
+     */
+    static void appendField(StringBuilder out, String data) {
+        if (data == null) {
+            return;
+        }
+        boolean quote = false;
+        for (int i = 0; i < data.length() && !quote; i++) {
+            char c = data.charAt(i);
+            quote = c == ',' || c == '"' || c == '\n' || c == '\r';
+        }
+        if (!quote) {
+            out.append(data);
+            return;
+        }
+        out.append('"');
+        for (int i = 0; i < data.length(); i++) {
+            char c = data.charAt(i);
+            if (c == '"') {
+                out.append('"');
+            }
+            out.append(c);
+        }
+        out.append('"');
+    }
+}
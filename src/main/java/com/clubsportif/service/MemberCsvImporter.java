@@ -0,0 +1,396 @@
+package com.clubsportif.service;
+
+import com.clubsportif.dao.MemberDAO;
+import com.clubsportif.model.Member;
+import com.clubsportif.model.Subscription;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.LongConsumer;
+
+/**
+ * Bulk import of members from a CSV file, such as one written by the
+ * members export.
+ * <p>
+ * The file is memory-mapped and cut into chunks of about CHUNK_BYTES at
+ * line ends outside quoted fields. Chunks are parsed and validated in
+ * parallel; rows whose User ID already has a member, or appears earlier in
+ * the file, are then rejected, and the rest are inserted in transactions
+ * of BATCH_SIZE rows. A batch the database refuses is reported row by row
+ * and the import goes on with the next one.
+ * <p>
+ * Columns are found by header name: Last Name (or nom), First Name (or
+ * prenom) and Subscription are required; User ID, Start Date (default
+ * today) and End Date (default from the plan) are optional. ID and Status
+ * are ignored, the status following from the end date. Dates are ISO
+ * (2025-01-31) or dd/MM/yyyy.
+ */
+public class MemberCsvImporter {
+
+    private static final int CHUNK_BYTES = 1 << 20;
+    private static final int BATCH_SIZE = 1000;
+    private static final int MAX_NAME_LENGTH = 100;
+    private static final DateTimeFormatter DAY_MONTH_YEAR = DateTimeFormatter.ofPattern("dd/MM/yyyy");
+
+    private enum Column { USER_ID, NOM, PRENOM, SUBSCRIPTION, DATE_START, DATE_END }
+
+    private static final Map<String, Column> HEADER_NAMES = Map.of(
+            "userid", Column.USER_ID,
+            "lastname", Column.NOM,
+            "nom", Column.NOM,
+            "firstname", Column.PRENOM,
+            "prenom", Column.PRENOM,
+            "subscription", Column.SUBSCRIPTION,
+            "startdate", Column.DATE_START,
+            "datestart", Column.DATE_START,
+            "enddate", Column.DATE_END,
+            "dateend", Column.DATE_END);
+
+    /**
+     * A rejected row; {@code line} is the 1-based line it starts on.
+     */
+    public record RowError(long line, String message) {
+    }
+
+    /**
+     * Outcome of an import. Rows are data rows read (header excluded).
+     */
+    public record ImportReport(long rows, int imported, List<RowError> errors, long parseMillis,
+                               long insertMillis, boolean cancelled) {
+
+        public double rowsPerSecond() {
+            long millis = parseMillis + insertMillis;
+            return millis > 0 ? rows * 1000.0 / millis : rows;
+        }
+    }
+
+    private record Chunk(int start, int end, long firstLine) {
+    }
+
+    private record ParsedRow(long line, Member member) {
+    }
+
+    private record ChunkResult(List<ParsedRow> rows, List<RowError> errors) {
+    }
+
+    private final MemberDAO memberDAO;
+
+    public MemberCsvImporter(MemberDAO memberDAO) {
+        this.memberDAO = memberDAO;
+    }
+
+    /**
+     * Import {@code file}; {@code progress} receives the number of rows
+     * inserted so far. Cancelling stops before the next batch, keeping
+     * the batches already committed.
+     */
+    public Mono<ImportReport> importMembers(Path file, LongConsumer progress) {
+        AtomicBoolean cancelled = new AtomicBoolean();
+        return Mono.fromCallable(() -> run(file, progress, cancelled))
+                .subscribeOn(Schedulers.boundedElastic())
+                .doOnCancel(() -> cancelled.set(true));
+    }
+
+    private ImportReport run(Path file, LongConsumer progress, AtomicBoolean cancelled) throws IOException {
+        long start = System.nanoTime();
+        List<ParsedRow> parsed = new ArrayList<>();
+        List<RowError> errors = new ArrayList<>();
+
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            if (channel.size() > Integer.MAX_VALUE) {
+                throw new IOException("File too large to import: " + channel.size() + " bytes");
+            }
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            int headerEnd = nextLine(buffer, skipBom(buffer));
+            Map<Column, Integer> columns = header(decode(buffer, skipBom(buffer), headerEnd));
+
+            LocalDate today = LocalDate.now();
+            List<ChunkResult> results = split(buffer, headerEnd).parallelStream()
+                    .map(chunk -> parseChunk(decode(buffer, chunk.start(), chunk.end()), chunk.firstLine(), columns, today))
+                    .toList();
+            for (ChunkResult result : results) {
+                parsed.addAll(result.rows());
+                errors.addAll(result.errors());
+            }
+        }
+        long rows = parsed.size() + errors.size();
+        long parseMillis = (System.nanoTime() - start) / 1_000_000;
+
+        // Duplicates, against the table and within the file
+        long insertStart = System.nanoTime();
+        Set<Integer> userIds = memberDAO.getMemberUserIds();
+        List<ParsedRow> accepted = new ArrayList<>(parsed.size());
+        for (ParsedRow row : parsed) {
+            int userId = row.member().getUserId();
+            if (userId != 0 && !userIds.add(userId)) {
+                errors.add(new RowError(row.line(), "User ID " + userId + " already has a member"));
+            } else {
+                accepted.add(row);
+            }
+        }
+
+        int imported = 0;
+        for (int from = 0; from < accepted.size() && !cancelled.get(); from += BATCH_SIZE) {
+            List<ParsedRow> batch = accepted.subList(from, Math.min(from + BATCH_SIZE, accepted.size()));
+            try {
+                imported += memberDAO.createMembers(batch.stream().map(ParsedRow::member).toList());
+                progress.accept(imported);
+            } catch (RuntimeException e) {
+                String cause = e.getCause() != null ? e.getCause().getMessage() : e.getMessage();
+                for (ParsedRow row : batch) {
+                    errors.add(new RowError(row.line(), "Batch rejected by the database: " + cause));
+                }
+            }
+        }
+        long insertMillis = (System.nanoTime() - insertStart) / 1_000_000;
+
+        errors.sort(Comparator.comparingLong(RowError::line));
+        ImportReport report = new ImportReport(rows, imported, errors, parseMillis, insertMillis, cancelled.get());
+        System.out.printf("[Import] %s: %d rows, %d imported, %d rejected; parse %d ms, insert %d ms (%.0f rows/s)%s%n",
+                file.getFileName(), rows, imported, errors.size(), parseMillis, insertMillis,
+                report.rowsPerSecond(), report.cancelled() ? ", cancelled" : "");
+        return report;
+    }
+
+    // ================= CHUNKING =================
+
+    private static int skipBom(ByteBuffer buffer) {
+        return buffer.limit() >= 3 && buffer.get(0) == (byte) 0xEF && buffer.get(1) == (byte) 0xBB
+                && buffer.get(2) == (byte) 0xBF ? 3 : 0;
+    }
+
+    // Position after the end of the line starting at from (the header has no quoted line breaks)
+    private static int nextLine(ByteBuffer buffer, int from) {
+        for (int i = from; i < buffer.limit(); i++) {
+            if (buffer.get(i) == '\n') {
+                return i + 1;
+            }
+        }
+        return buffer.limit();
+    }
+
+    /**
+     * Cut [from, limit) into chunks ending after a '\n' that is not inside
+     * quotes. One sequential pass tracks quote parity and line numbers,
+     * which is much cheaper than the parsing done per chunk.
+     */
+    private static List<Chunk> split(ByteBuffer buffer, int from) {
+        List<Chunk> chunks = new ArrayList<>();
+        boolean quoted = false;
+        long line = 2;
+        long chunkLine = line;
+        int chunkStart = from;
+        for (int i = from; i < buffer.limit(); i++) {
+            byte b = buffer.get(i);
+            if (b == '"') {
+                quoted = !quoted;
+            } else if (b == '\n') {
+                line++;
+                if (!quoted && i + 1 - chunkStart >= CHUNK_BYTES) {
+                    chunks.add(new Chunk(chunkStart, i + 1, chunkLine));
+                    chunkStart = i + 1;
+                    chunkLine = line;
+                }
+            }
+        }
+        if (chunkStart < buffer.limit()) {
+            chunks.add(new Chunk(chunkStart, buffer.limit(), chunkLine));
+        }
+        return chunks;
+    }
+
+    private static String decode(ByteBuffer buffer, int start, int end) {
+        return StandardCharsets.UTF_8.decode(buffer.slice(start, end - start)).toString();
+    }
+
+    // ================= PARSING =================
+
+    private static Map<Column, Integer> header(String line) throws IOException {
+        Map<Column, Integer> columns = new HashMap<>();
+        List<String> names = new ArrayList<>();
+        new RecordReader(line, 1).next(names);
+        for (int i = 0; i < names.size(); i++) {
+            String key = names.get(i).toLowerCase(Locale.ROOT).replaceAll("[\\s_]", "");
+            Column column = HEADER_NAMES.get(key);
+            if (column != null) {
+                columns.putIfAbsent(column, i);
+            }
+        }
+        for (Column required : List.of(Column.NOM, Column.PRENOM, Column.SUBSCRIPTION)) {
+            if (!columns.containsKey(required)) {
+                throw new IOException("Missing column " + label(required) + " in the header line");
+            }
+        }
+        return columns;
+    }
+
+    private static ChunkResult parseChunk(String text, long firstLine, Map<Column, Integer> columns, LocalDate today) {
+        List<ParsedRow> rows = new ArrayList<>();
+        List<RowError> errors = new ArrayList<>();
+        List<String> fields = new ArrayList<>();
+        RecordReader reader = new RecordReader(text, firstLine);
+        while (reader.hasNext()) {
+            long line = reader.line;
+            reader.next(fields);
+            if (fields.size() == 1 && fields.get(0).isBlank()) {
+                continue; // empty line
+            }
+            try {
+                rows.add(new ParsedRow(line, toMember(fields, columns, today)));
+            } catch (IllegalArgumentException e) {
+                errors.add(new RowError(line, e.getMessage()));
+            }
+        }
+        return new ChunkResult(rows, errors);
+    }
+
+    private static Member toMember(List<String> fields, Map<Column, Integer> columns, LocalDate today) {
+        String nom = name(field(fields, columns, Column.NOM), Column.NOM);
+        String prenom = name(field(fields, columns, Column.PRENOM), Column.PRENOM);
+        String plan = field(fields, columns, Column.SUBSCRIPTION);
+        if (plan.isEmpty()) {
+            throw new IllegalArgumentException("Subscription is required");
+        }
+        if (!Subscription.PLANS.contains(plan)) {
+            throw new IllegalArgumentException("Unknown subscription '" + plan + "' (expected one of "
+                    + String.join(", ", Subscription.PLANS) + ")");
+        }
+
+        int userId = 0;
+        String userIdText = field(fields, columns, Column.USER_ID);
+        if (!userIdText.isEmpty()) {
+            try {
+                userId = Integer.parseInt(userIdText);
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("Invalid User ID '" + userIdText + "'");
+            }
+            if (userId < 0) {
+                throw new IllegalArgumentException("Invalid User ID '" + userIdText + "'");
+            }
+        }
+
+        LocalDate dateStart = date(field(fields, columns, Column.DATE_START), Column.DATE_START);
+        if (dateStart == null) {
+            dateStart = today;
+        }
+        LocalDate dateEnd = date(field(fields, columns, Column.DATE_END), Column.DATE_END);
+        if (dateEnd == null) {
+            dateEnd = Subscription.endDateFor(plan, dateStart);
+        } else if (dateEnd.isBefore(dateStart)) {
+            throw new IllegalArgumentException("End Date " + dateEnd + " is before Start Date " + dateStart);
+        }
+        return new Member(0, userId, nom, prenom, plan, dateStart, dateEnd,
+                dateEnd.isBefore(today) ? "EXPIRED" : "ACTIVE");
+    }
+
+    private static String field(List<String> fields, Map<Column, Integer> columns, Column column) {
+        Integer index = columns.get(column);
+        return index != null && index < fields.size() ? fields.get(index).trim() : "";
+    }
+
+    private static String name(String value, Column column) {
+        if (value.isEmpty()) {
+            throw new IllegalArgumentException(label(column) + " is required");
+        }
+        if (value.length() > MAX_NAME_LENGTH) {
+            throw new IllegalArgumentException(label(column) + " is longer than " + MAX_NAME_LENGTH + " characters");
+        }
+        return value;
+    }
+
+    private static LocalDate date(String value, Column column) {
+        if (value.isEmpty()) {
+            return null;
+        }
+        try {
+            return value.indexOf('/') >= 0 ? LocalDate.parse(value, DAY_MONTH_YEAR) : LocalDate.parse(value);
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException("Invalid " + label(column) + " '" + value + "'");
+        }
+    }
+
+    private static String label(Column column) {
+        return switch (column) {
+            case USER_ID -> "User ID";
+            case NOM -> "Last Name";
+            case PRENOM -> "First Name";
+            case SUBSCRIPTION -> "Subscription";
+            case DATE_START -> "Start Date";
+            case DATE_END -> "End Date";
+        };
+    }
+
+    /**
+     * Reads CSV records from text: quoted fields with doubled quotes,
+     * commas and line breaks, and CRLF line ends. Tracks the line number.
+     */
+    private static final class RecordReader {
+
+        private final String text;
+        private final StringBuilder field = new StringBuilder(64);
+        private int pos;
+        private long line;
+
+        RecordReader(String text, long firstLine) {
+            this.text = text;
+            this.line = firstLine;
+        }
+
+        boolean hasNext() {
+            return pos < text.length();
+        }
+
+        /**
+         * Replace the content of {@code fields} with the next record.
+         */
+        void next(List<String> fields) {
+            fields.clear();
+            field.setLength(0);
+            boolean quoted = false;
+            while (pos < text.length()) {
+                char c = text.charAt(pos++);
+                if (c == '\n') {
+                    line++;
+                }
+                if (quoted) {
+                    if (c != '"') {
+                        field.append(c);
+                    } else if (pos < text.length() && text.charAt(pos) == '"') {
+                        field.append('"');
+                        pos++;
+                    } else {
+                        quoted = false;
+                    }
+                } else if (c == '"') {
+                    quoted = true;
+                } else if (c == ',') {
+                    fields.add(field.toString());
+                    field.setLength(0);
+                } else if (c == '\n') {
+                    break;
+                } else if (c != '\r') {
+                    field.append(c);
+                }
+            }
+            fields.add(field.toString());
+        }
+    }
+}
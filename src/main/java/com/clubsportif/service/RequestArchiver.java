@@ -0,0 +1,61 @@
+package com.clubsportif.service;
+
+import com.clubsportif.config.Database;
+import com.clubsportif.dao.RequestDAO;
+
+import java.time.LocalDate;
+
+/**
+ * Moves decided requests (accepted, declined or canceled) older than
+ * db.archive.horizonDays from requests to requests_archive, so the admin
+ * views and the daily counts only ever scan recent and open requests.
+ * Pending requests are never archived, whatever their age. Off unless the
+ * horizon is set; run it with ArchiveMain.
+ * <p>
+ * Rows are moved db.archive.batchSize at a time, one transaction per
+ * batch, so a run holds no long locks.
+ */
+public class RequestArchiver {
+
+    private static final int HORIZON_DAYS = Database.getInt("db.archive.horizonDays", 0);
+    private static final int BATCH_SIZE = Database.getInt("db.archive.batchSize", 5000);
+
+    private RequestArchiver() {
+        // prevent instantiation
+    }
+
+    /**
+     * The configured horizon in days, 0 when archiving is off.
+     */
+    public static int horizonDays() {
+        return Math.max(0, HORIZON_DAYS);
+    }
+
+    /**
+     * Archive the decided requests dated before {@code before}, returning
+     * how many were moved.
+     */
+    public static long archive(LocalDate before) {
+        RequestDAO requestDAO = new RequestDAO();
+        LocalDate oldest = requestDAO.getOldestDecidedRequestDate(before);
+        if (oldest == null) {
+            System.out.println("[Archive] No decided requests dated before " + before);
+            return 0;
+        }
+        for (int year = oldest.getYear(); year <= before.getYear(); year++) {
+            requestDAO.createArchivePartition(year);
+        }
+
+        long start = System.nanoTime();
+        long moved = 0;
+        int batch;
+        do {
+            batch = requestDAO.archiveDecidedRequests(before, BATCH_SIZE);
+            moved += batch;
+        } while (batch == BATCH_SIZE);
+
+        System.out.println("[Archive] Moved " + moved + " requests dated before " + before + " in "
+                + (System.nanoTime() - start) / 1_000_000 + " ms");
+        return moved;
+    }
+}
@@ -0,0 +1,38 @@
+package com.clubsportif.service;
+
+import com.clubsportif.model.Request;
+
+/**
+ * CSV layout of the admin requests export; quoting as in {@link MemberCsvExporter}.
+ */
+public class RequestCsvExporter {
+
+    public static final String HEADER = "ID,User ID,Last Name,First Name,Subscription,Request Date,Status\n";
+
+    private RequestCsvExporter() {
+        // prevent instantiation
+    }
+
+    /**
+     * Append one request as a CSV line, newline included.
+     */
+    public static void appendRow(StringBuilder out, Request request) {
+        appendFields(out, request);
+        out.append('\n');
+    }
+
+    /**
+     * Append the fields of one request, without the line end.
+     */
+    public static void appendFields(StringBuilder out, Request request) {
+        out.append(request.getId()).append(',')
+           .append(request.getUserId()).append(',');
+        MemberCsvExporter.appendField(out, request.getNom());
+        out.append(',');
+        MemberCsvExporter.appendField(out, request.getPrenom());
+        out.append(',');
+        MemberCsvExporter.appendField(out, request.getSubscription());
+        out.append(',').append(request.getRequestDate())
+           .append(',').append(request.getStatus());
+    }
+}
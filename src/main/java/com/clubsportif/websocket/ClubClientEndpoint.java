@@ -2,9 +2,11 @@ package com.clubsportif.websocket;
 
 import jakarta.websocket.*;
 
-
-@ClientEndpoint
-public class ClubClientEndpoint {
+/**
+ * Programmatic client endpoint, so that WebSocketClientService can pass a
+ * ClientEndpointConfig (extensions, configurator) when connecting.
+ */
+public class ClubClientEndpoint extends Endpoint {
 
     private final WebSocketClientService service;
 
@@ -12,23 +14,19 @@ public class ClubClientEndpoint {
         this.service = service;
     }
 
-    @OnOpen
-    public void onOpen(Session session) {
+    @Override
+    public void onOpen(Session session, EndpointConfig config) {
+        session.addMessageHandler(String.class, service::handleMessage);
         service.handleOpen(session);
     }
 
-    @OnClose
+    @Override
     public void onClose(Session session, CloseReason closeReason) {
         service.handleClose(session, closeReason);
     }
 
-    @OnError
+    @Override
     public void onError(Session session, Throwable throwable) {
         service.handleError(session, throwable);
     }
-
-    @OnMessage
-    public void onMessage(String messageJson) {
-        service.handleMessage(messageJson);
-    }
 }
@@ -0,0 +1,55 @@
+package com.clubsportif.websocket;
+
+import jakarta.websocket.Extension;
+import org.glassfish.tyrus.core.TyrusServerEndpointConfigurator;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Server endpoint configurator for ClubServerEndpoint.
+ * Annotated endpoints have no installed extensions, so the extensions
+ * configured by ClubWebSocketServer are supplied here during negotiation.
+ */
+public class ClubServerConfigurator extends TyrusServerEndpointConfigurator {
+
+    private static volatile List<Extension> extensions = List.of();
+
+    /**
+     * Set the extensions offered to connecting clients.
+     */
+    static void setExtensions(List<Extension> installed) {
+        extensions = List.copyOf(installed);
+    }
+
+    static List<Extension> getExtensions() {
+        return extensions;
+    }
+
+    @Override
+    public List<Extension> getNegotiatedExtensions(List<Extension> installed, List<Extension> requested) {
+        List<Extension> available = new ArrayList<>(installed);
+        available.addAll(extensions);
+
+        // Drop offers our extensions cannot honour before default negotiation
+        List<Extension> acceptable = new ArrayList<>();
+        if (requested != null) {
+            for (Extension offer : requested) {
+                if (isAcceptable(offer)) {
+                    acceptable.add(offer);
+                }
+            }
+        }
+        return super.getNegotiatedExtensions(available, acceptable);
+    }
+
+    private boolean isAcceptable(Extension offer) {
+        for (Extension extension : extensions) {
+            if (extension instanceof PerMessageDeflateExtension deflate
+                    && deflate.getName().equals(offer.getName())) {
+                return deflate.accepts(offer.getParameters());
+            }
+        }
+        return true;
+    }
+}
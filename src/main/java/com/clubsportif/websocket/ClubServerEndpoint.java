@@ -2,17 +2,44 @@ package com.clubsportif.websocket;
 
 import jakarta.websocket.*;
 import jakarta.websocket.server.ServerEndpoint;
+import com.clubsportif.cluster.ClusterBus;
+import com.clubsportif.cluster.ClusterFanout;
+import com.clubsportif.config.WebSocketConfig;
+import com.clubsportif.metrics.LatencyHistogram;
+import com.clubsportif.metrics.MetricsRegistry;
+import com.clubsportif.metrics.WsMessageEvent;
+import com.clubsportif.model.User;
+import com.clubsportif.service.AuthService;
 import java.io.IOException;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.CopyOnWriteArraySet;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.Queue;
 import java.util.Set;
 
 /**
  * WebSocket server endpoint for real-time club communication.
  * Handles connections, message routing, and session management.
+ * When clustering is enabled, messages are also fanned out to the other
+ * server nodes, each of which delivers them to its own sessions.
+ * <p>
+ * Clients declare the topics they render with SUBSCRIBE/UNSUBSCRIBE; a
+ * message with a topic (see {@link WebSocketMessage#getTopic()}) only reaches
+ * subscribed sessions. Sessions that never subscribed receive everything.
+ * <p>
+ * The ADMIN role is only taken from a REGISTER whose login token (see
+ * {@link AuthService#issueToken}) belongs to an admin in the database, and
+ * only such sessions may relay accept/decline, status and stats
+ * notifications. ws.auth.required=false trusts the claimed role instead,
+ * for load tests and benchmarks without a database.
  */
-@ServerEndpoint("/club")
+@ServerEndpoint(value = "/club", configurator = ClubServerConfigurator.class)
 public class ClubServerEndpoint {
 
     // Thread-safe session storage
@@ -20,22 +47,70 @@ public class ClubServerEndpoint {
     private static final Map<Integer, Session> userSessions = new ConcurrentHashMap<>();
     private static final Map<Session, Integer> sessionUserIds = new ConcurrentHashMap<>();
     private static final Map<Session, String> sessionRoles = new ConcurrentHashMap<>();
+    // Roles checked against the database at REGISTER; only these may relay admin notifications
+    private static final Map<Session, String> verifiedRoles = new ConcurrentHashMap<>();
+    private static final Map<Session, SessionOutbox> outboxes = new ConcurrentHashMap<>();
+    private static final Map<Session, Long> sessionOpenSeqs = new ConcurrentHashMap<>();
+
+    // Topic subscriptions: topic -> sessions, and each subscribed session's topics
+    private static final Map<String, Set<Session>> topicSessions = new ConcurrentHashMap<>();
+    private static final Map<Session, Set<String>> sessionTopics = new ConcurrentHashMap<>();
+    // Sessions that have not subscribed yet and still get every message
+    private static final Set<Session> unsubscribedSessions = ConcurrentHashMap.newKeySet();
+
+    // Recent sequenced events for replay on reconnect; its monitor orders publish vs. register
+    private static final EventLog eventLog = new EventLog(WebSocketConfig.getInt("ws.replay.capacity", 1024));
+
+    // Frames and their recipients, queued in seq order under the eventLog monitor and sent after it
+    private record Delivery(List<Session> sessions, String json, String conflationKey) {}
+    private static final Queue<Delivery> deliveries = new ConcurrentLinkedQueue<>();
+    private static final AtomicBoolean delivering = new AtomicBoolean();
+
+    // Server-driven pings and idle timeouts on a shared timing wheel
+    private static final HeartbeatMonitor heartbeats = new HeartbeatMonitor(ClubServerEndpoint::closeIdleSession);
+
+    // Fan-out to other server nodes, null when running single-node
+    private static volatile ClusterFanout cluster;
+
+    static {
+        MetricsRegistry.gauge("ws.server.connections", ClubServerEndpoint::getConnectionCount);
+        MetricsRegistry.gauge("ws.server.adminConnections", ClubServerEndpoint::getAdminConnectionCount);
+        MetricsRegistry.gauge("ws.server.registeredUsers", userSessions::size);
+        MetricsRegistry.gauge("ws.server.outbox.queued", ClubServerEndpoint::getQueuedMessageCount);
+        MetricsRegistry.gauge("ws.server.outbox.maxDepth", ClubServerEndpoint::getMaxQueueDepth);
+        MetricsRegistry.histogram("ws.server.heartbeatRtt", heartbeats.getRttHistogram());
+    }
+
+    private static final boolean AUTH_REQUIRED = WebSocketConfig.getBoolean("ws.auth.required", true);
+    private static final AuthService authService = new AuthService();
+
+    // Set during shutdown; new connections are turned away
+    private static volatile boolean draining;
 
     @OnOpen
     public void onOpen(Session session) {
-        allSessions.add(session);
+        if (draining) {
+            try {
+                session.close(new CloseReason(CloseReason.CloseCodes.TRY_AGAIN_LATER, "Server shutting down"));
+            } catch (IOException e) {
+                System.err.println("[WebSocket] Error rejecting session: " + e.getMessage());
+            }
+            return;
+        }
+        outboxes.put(session, new SessionOutbox(session));
+        synchronized (eventLog) {
+            // Broadcasts after this point reach the session live
+            sessionOpenSeqs.put(session, eventLog.getLastSeq());
+            allSessions.add(session);
+            unsubscribedSessions.add(session);
+        }
+        heartbeats.register(session);
         System.out.println("[WebSocket] New connection opened: " + session.getId());
     }
 
     @OnClose
     public void onClose(Session session, CloseReason closeReason) {
-        allSessions.remove(session);
-        
-        Integer userId = sessionUserIds.remove(session);
-        if (userId != null) {
-            userSessions.remove(userId);
-        }
-        sessionRoles.remove(session);
+        removeSession(session);
         
         System.out.println("[WebSocket] Connection closed: " + session.getId() + 
                 " - Reason: " + closeReason.getReasonPhrase());
@@ -49,66 +124,369 @@ public class ClubServerEndpoint {
 
     @OnMessage
     public void onMessage(String messageJson, Session session) {
+        heartbeats.touch(session);
+        MetricsRegistry.counter("ws.server.receivedBytes").add(messageJson.length());
+        WsMessageEvent event = new WsMessageEvent();
+        event.begin();
+        MetricsRegistry.Timing timing = MetricsRegistry.time("ws.server.handle");
         try {
             WebSocketMessage message = WebSocketMessage.fromJson(messageJson);
-            
+            MetricsRegistry.counter("ws.server.received." + message.getType()).increment();
+            event.messageType = String.valueOf(message.getType());
+
             switch (message.getType()) {
                 case REGISTER -> handleRegister(session, message);
+                case SUBSCRIBE -> handleSubscription(session, message, true);
+                case UNSUBSCRIBE -> handleSubscription(session, message, false);
                 case PING -> sendToSession(session, WebSocketMessage.pong());
+                case NEW_MEMBER_REQUEST, DATA_REFRESH -> relay(session, message, false);
+                case REQUEST_ACCEPTED, REQUEST_DECLINED, MEMBER_STATUS_CHANGED, STATS_UPDATE ->
+                        relay(session, message, true);
                 default -> System.out.println("[WebSocket] Received message: " + message.getType());
             }
         } catch (Exception e) {
             System.err.println("[WebSocket] Error processing message: " + e.getMessage());
+        } finally {
+            timing.close();
+        }
+        event.end();
+        if (event.shouldCommit()) {
+            event.size = messageJson.length();
+            event.direction = WsMessageEvent.IN;
+            event.side = "server";
+            event.commit();
+        }
+    }
+
+    @OnMessage
+    public void onPong(PongMessage pong, Session session) {
+        heartbeats.onPong(session, pong.getApplicationData());
+    }
+
+    /**
+     * Add or remove topic subscriptions. The first SUBSCRIBE switches the
+     * session from receiving everything to receiving only its topics.
+     */
+    private void handleSubscription(Session session, WebSocketMessage message, boolean subscribe) {
+        MessagePayload.Topics topics = message.getPayload(MessagePayload.Topics.class);
+        if (topics == null || !allSessions.contains(session)) {
+            return;
+        }
+        synchronized (eventLog) {
+            Set<String> current = sessionTopics.computeIfAbsent(session, s -> ConcurrentHashMap.newKeySet());
+            unsubscribedSessions.remove(session);
+            for (String topic : topics.topics()) {
+                if (subscribe) {
+                    current.add(topic);
+                    topicSessions.computeIfAbsent(topic, t -> ConcurrentHashMap.newKeySet()).add(session);
+                } else {
+                    current.remove(topic);
+                    Set<Session> subscribers = topicSessions.get(topic);
+                    if (subscribers != null) {
+                        subscribers.remove(session);
+                    }
+                }
+            }
         }
+        System.out.println("[WebSocket] " + (subscribe ? "Subscribed " : "Unsubscribed ") +
+                session.getId() + " " + topics.topics());
+    }
+
+    /**
+     * Whether a session should receive a message on the given topic.
+     */
+    private static boolean wants(Session session, String topic) {
+        if (topic == null) {
+            return true;
+        }
+        Set<String> topics = sessionTopics.get(session);
+        return topics == null || topics.contains(topic);
+    }
+
+    /**
+     * Route a notification raised by a client to its recipients.
+     */
+    private void relay(Session session, WebSocketMessage message, boolean adminOnly) {
+        if (!sessionUserIds.containsKey(session)) {
+            System.err.println("[WebSocket] Ignoring " + message.getType() + " from unregistered session " + session.getId());
+            return;
+        }
+        if (adminOnly && !"ADMIN".equals(verifiedRoles.get(session))) {
+            System.err.println("[WebSocket] Ignoring " + message.getType() + " from non-admin session " + session.getId());
+            return;
+        }
+        message.setSeq(0);
+        send(message);
+    }
+
+    /**
+     * Remove a session from every index so fan-out stops targeting it.
+     */
+    private static void removeSession(Session session) {
+        allSessions.remove(session);
+
+        Integer userId = sessionUserIds.remove(session);
+        if (userId != null) {
+            // A newer connection of the same user may already own the slot
+            if (userSessions.remove(userId, session)) {
+                ClusterFanout fanout = cluster;
+                if (fanout != null) {
+                    fanout.userLeft(userId);
+                }
+            }
+        }
+        sessionRoles.remove(session);
+        verifiedRoles.remove(session);
+        sessionOpenSeqs.remove(session);
+
+        unsubscribedSessions.remove(session);
+        Set<String> topics = sessionTopics.remove(session);
+        if (topics != null) {
+            for (String topic : topics) {
+                Set<Session> subscribers = topicSessions.get(topic);
+                if (subscribers != null) {
+                    subscribers.remove(session);
+                }
+            }
+        }
+
+        SessionOutbox outbox = outboxes.remove(session);
+        if (outbox != null) {
+            outbox.close();
+        }
+        heartbeats.unregister(session);
+    }
+
+    /**
+     * Drop a session that stopped answering heartbeats.
+     * Called on the timer thread, so the close handshake runs elsewhere.
+     */
+    private static void closeIdleSession(Session session) {
+        removeSession(session);
+        System.out.println("[WebSocket] Closing idle session: " + session.getId());
+        CompletableFuture.runAsync(() -> {
+            try {
+                session.close(new CloseReason(CloseReason.CloseCodes.GOING_AWAY, "Idle timeout"));
+            } catch (Exception e) {
+                System.err.println("[WebSocket] Error closing idle session: " + e.getMessage());
+            }
+        });
     }
 
     /**
      * Register a client with user ID and role for targeted messaging.
+     * A reconnecting client sends the last sequence number it saw and gets
+     * the events it missed, or RESYNC if they are no longer buffered.
      */
     private void handleRegister(Session session, WebSocketMessage message) {
-        int userId = message.getPayloadInt("userId");
-        String role = message.getPayloadString("role");
-        
-        if (userId > 0) {
-            userSessions.put(userId, session);
-            sessionUserIds.put(session, userId);
+        MessagePayload.Register register = message.getPayload(MessagePayload.Register.class);
+        if (register == null) {
+            System.err.println("[WebSocket] REGISTER without payload from " + session.getId());
+            return;
         }
+        int userId = register.userId();
+        long lastSeenSeq = register.lastSeq();
+        String role = verifyRole(session, userId, register.role(), register.token());
         if (role != null) {
-            sessionRoles.put(session, role);
+            verifiedRoles.put(session, role);
+        } else {
+            verifiedRoles.remove(session);
+            // An unverified ADMIN claim would otherwise receive admin-only traffic
+            role = "ADMIN".equals(register.role()) ? null : register.role();
+        }
+
+        synchronized (eventLog) {
+            if (userId > 0) {
+                userSessions.put(userId, session);
+                sessionUserIds.put(session, userId);
+            }
+            if (role != null) {
+                sessionRoles.put(session, role);
+            } else {
+                sessionRoles.remove(session);
+            }
+
+            // Events up to openSeq were published before this connection existed;
+            // targeted events after it were published before the indexes knew the session.
+            long openSeq = sessionOpenSeqs.getOrDefault(session, eventLog.getLastSeq());
+            boolean resync = false;
+            List<String> missed = new ArrayList<>();
+            if (lastSeenSeq > 0) {
+                if (eventLog.canResume(lastSeenSeq)) {
+                    missed.addAll(eventLog.eventsFor(lastSeenSeq, openSeq, userId, role,
+                            topic -> wants(session, topic)));
+                } else {
+                    resync = true;
+                }
+            }
+            missed.addAll(eventLog.targetedEventsFor(Math.max(openSeq, lastSeenSeq), userId, role,
+                    topic -> wants(session, topic)));
+
+            if (resync) {
+                WebSocketMessage resyncMessage = WebSocketMessage.resync(eventLog.getLastSeq());
+                deliveries.add(new Delivery(List.of(session), resyncMessage.toJson(), conflationKey(resyncMessage)));
+            }
+            for (String json : missed) {
+                deliveries.add(new Delivery(List.of(session), json, null));
+            }
+            if (lastSeenSeq > 0) {
+                System.out.println("[WebSocket] Resume from seq " + lastSeenSeq + ": " +
+                        (resync ? "resync required" : "replayed " + missed.size() + " events"));
+            }
+        }
+        flushDeliveries();
+        
+        ClusterFanout fanout = cluster;
+        if (fanout != null && userId > 0) {
+            fanout.userJoined(userId, role);
         }
         
         System.out.println("[WebSocket] Registered: userId=" + userId + ", role=" + role);
     }
 
 
+    /**
+     * The role of the user behind a REGISTER as stored in the database, or
+     * null when its token is missing, unknown, expired or for another user.
+     */
+    private static String verifyRole(Session session, int userId, String claimedRole, String token) {
+        if (!AUTH_REQUIRED) {
+            return claimedRole;
+        }
+        if (token == null) {
+            return null;
+        }
+        try {
+            User user = authService.verifyToken(token).orElse(null);
+            if (user == null || user.getId() != userId) {
+                System.err.println("[WebSocket] Invalid login token from session " + session.getId());
+                return null;
+            }
+            return user.getRole();
+        } catch (RuntimeException e) {
+            System.err.println("[WebSocket] Could not verify login token: " + e.getMessage());
+            return null;
+        }
+    }
+
     /**
      * Broadcast message to all connected clients.
      */
     public static void broadcast(WebSocketMessage message) {
-        String json = message.toJson();
-        for (Session session : allSessions) {
-            sendAsync(session, json);
+        ClusterFanout fanout = cluster;
+        if (fanout != null) {
+            fanout.publishBroadcast(message.toJson());
         }
+        deliverBroadcast(message);
     }
 
     /**
      * Send message to a specific user by ID.
+     * A user connected to another node is reached through the cluster directory.
      */
     public static void sendToUser(int userId, WebSocketMessage message) {
-        Session session = userSessions.get(userId);
-        if (session != null && session.isOpen()) {
-            sendAsync(session, message.toJson());
+        message.forUser(userId);
+        ClusterFanout fanout = cluster;
+        if (fanout != null && !userSessions.containsKey(userId)
+                && fanout.publishToUser(userId, message.toJson())) {
+            return;
         }
+        deliverToUser(userId, message);
     }
 
     /**
      * Send message to all users with a specific role.
      */
     public static void sendToRole(String role, WebSocketMessage message) {
-        String json = message.toJson();
-        for (Map.Entry<Session, String> entry : sessionRoles.entrySet()) {
-            if (role.equals(entry.getValue())) {
-                sendAsync(entry.getKey(), json);
+        message.forRole(role);
+        ClusterFanout fanout = cluster;
+        if (fanout != null) {
+            fanout.publishToRole(role, message.toJson());
+        }
+        deliverToRole(role, message);
+    }
+
+    private static void deliverBroadcast(WebSocketMessage message) {
+        MetricsRegistry.Timing timing = MetricsRegistry.time("ws.server.deliver.broadcast");
+        try {
+            String key = conflationKey(message);
+            String topic = message.getTopic();
+            synchronized (eventLog) {
+                String json = eventLog.append(message);
+                List<Session> recipients;
+                if (topic == null) {
+                    recipients = new ArrayList<>(allSessions);
+                } else {
+                    // Only sessions interested in the topic, so cost tracks interest
+                    recipients = new ArrayList<>(unsubscribedSessions);
+                    Set<Session> subscribers = topicSessions.get(topic);
+                    if (subscribers != null) {
+                        recipients.addAll(subscribers);
+                    }
+                }
+                deliveries.add(new Delivery(recipients, json, key));
+            }
+            flushDeliveries();
+        } finally {
+            timing.close();
+        }
+    }
+
+    private static void deliverToUser(int userId, WebSocketMessage message) {
+        MetricsRegistry.Timing timing = MetricsRegistry.time("ws.server.deliver.user");
+        try {
+            String key = conflationKey(message);
+            synchronized (eventLog) {
+                String json = eventLog.append(message);
+                Session session = userSessions.get(userId);
+                if (session != null && session.isOpen() && wants(session, message.getTopic())) {
+                    deliveries.add(new Delivery(List.of(session), json, key));
+                }
+            }
+            flushDeliveries();
+        } finally {
+            timing.close();
+        }
+    }
+
+    private static void deliverToRole(String role, WebSocketMessage message) {
+        MetricsRegistry.Timing timing = MetricsRegistry.time("ws.server.deliver.role");
+        try {
+            String key = conflationKey(message);
+            synchronized (eventLog) {
+                String json = eventLog.append(message);
+                String topic = message.getTopic();
+                List<Session> recipients = new ArrayList<>();
+                for (Map.Entry<Session, String> entry : sessionRoles.entrySet()) {
+                    if (role.equals(entry.getValue()) && wants(entry.getKey(), topic)) {
+                        recipients.add(entry.getKey());
+                    }
+                }
+                deliveries.add(new Delivery(recipients, json, key));
+            }
+            flushDeliveries();
+        } finally {
+            timing.close();
+        }
+    }
+
+    /**
+     * Hand queued deliveries to the session outboxes, outside the eventLog
+     * monitor. One thread drains at a time so every session gets its frames
+     * in seq order; a publisher that finds another one draining returns at
+     * once and leaves its delivery to it.
+     */
+    private static void flushDeliveries() {
+        while (!deliveries.isEmpty() && delivering.compareAndSet(false, true)) {
+            try {
+                Delivery delivery;
+                while ((delivery = deliveries.poll()) != null) {
+                    for (Session session : delivery.sessions()) {
+                        sendAsync(session, delivery.json(), delivery.conflationKey());
+                    }
+                }
+            } finally {
+                delivering.set(false);
             }
         }
     }
@@ -165,20 +543,32 @@ public class ClubServerEndpoint {
 
     private static void sendToSession(Session session, WebSocketMessage message) {
         if (session != null && session.isOpen()) {
-            sendAsync(session, message.toJson());
+            sendAsync(session, message.toJson(), conflationKey(message));
         }
     }
 
-    private static void sendAsync(Session session, String json) {
-        try {
-            if (session.isOpen()) {
-                session.getAsyncRemote().sendText(json);
-            }
-        } catch (Exception e) {
-            System.err.println("[WebSocket] Failed to send message: " + e.getMessage());
+    /**
+     * Queue a frame on the session's bounded outbox.
+     */
+    private static void sendAsync(Session session, String json, String conflationKey) {
+        SessionOutbox outbox = outboxes.get(session);
+        if (outbox != null && session.isOpen()) {
+            outbox.offer(json, conflationKey);
         }
     }
 
+    /**
+     * Messages where only the latest queued copy matters share a conflation key.
+     */
+    private static String conflationKey(WebSocketMessage message) {
+        return switch (message.getType()) {
+            case STATS_UPDATE -> "STATS_UPDATE";
+            case DATA_REFRESH -> message.getPayload() instanceof MessagePayload.DataRefresh refresh
+                    ? "DATA_REFRESH:" + refresh.tableType() : null;
+            default -> null;
+        };
+    }
+
     /**
      * Get count of connected sessions.
      */
@@ -186,6 +576,133 @@ public class ClubServerEndpoint {
         return allSessions.size();
     }
 
+    /**
+     * Get total number of frames waiting in session outboxes.
+     */
+    public static int getQueuedMessageCount() {
+        int total = 0;
+        for (SessionOutbox outbox : outboxes.values()) {
+            total += outbox.getQueuedMessages();
+        }
+        return total;
+    }
+
+    /**
+     * Get the deepest session outbox.
+     */
+    public static int getMaxQueueDepth() {
+        int max = 0;
+        for (SessionOutbox outbox : outboxes.values()) {
+            max = Math.max(max, outbox.getQueuedMessages());
+        }
+        return max;
+    }
+
+    /**
+     * Get the heartbeat round-trip-time histogram (microseconds).
+     */
+    public static LatencyHistogram getRttHistogram() {
+        return heartbeats.getRttHistogram();
+    }
+
+    /**
+     * Get the cluster fan-out, or null when running single-node.
+     */
+    public static ClusterFanout getCluster() {
+        return cluster;
+    }
+
+    /**
+     * Join the cluster: messages from other nodes are delivered to local sessions
+     * with sequence numbers from this node's event log.
+     */
+    static void enableCluster(ClusterBus bus) {
+        ClusterFanout fanout = new ClusterFanout(bus, new ClusterFanout.LocalDelivery() {
+            @Override
+            public void broadcast(String messageJson) {
+                deliverBroadcast(WebSocketMessage.fromJson(messageJson));
+            }
+
+            @Override
+            public void toUser(int userId, String messageJson) {
+                deliverToUser(userId, WebSocketMessage.fromJson(messageJson));
+            }
+
+            @Override
+            public void toRole(String role, String messageJson) {
+                deliverToRole(role, WebSocketMessage.fromJson(messageJson));
+            }
+
+            @Override
+            public Map<Integer, String> localUsers() {
+                Map<Integer, String> users = new HashMap<>();
+                for (Map.Entry<Integer, Session> entry : userSessions.entrySet()) {
+                    String role = sessionRoles.get(entry.getValue());
+                    users.put(entry.getKey(), role != null ? role : "");
+                }
+                return users;
+            }
+        });
+        cluster = fanout;
+        fanout.start();
+
+        MetricsRegistry.gauge("cluster.nodes", fanout::getNodeCount);
+        MetricsRegistry.counter("cluster.published", fanout::getPublishedCount);
+        MetricsRegistry.counter("cluster.received", fanout::getReceivedCount);
+        MetricsRegistry.counter("cluster.lost", fanout::getLostCount);
+        MetricsRegistry.histogram("cluster.deliveryLatency", fanout.getDeliveryLatency());
+    }
+
+    /**
+     * Stop accepting connections, give outboxes up to timeoutMs to flush,
+     * then close every session with GOING_AWAY so clients reconnect elsewhere.
+     */
+    static void drain(long timeoutMs) {
+        draining = true;
+        long deadline = System.currentTimeMillis() + timeoutMs;
+        while (getQueuedMessageCount() > 0 && System.currentTimeMillis() < deadline) {
+            try {
+                Thread.sleep(20);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+        }
+        int pending = getQueuedMessageCount();
+
+        for (Session session : allSessions) {
+            removeSession(session);
+            try {
+                session.close(new CloseReason(CloseReason.CloseCodes.GOING_AWAY, "Server shutting down"));
+            } catch (Exception e) {
+                System.err.println("[WebSocket] Error closing session: " + e.getMessage());
+            }
+        }
+        System.out.println("[WebSocket] Drained sessions" +
+                (pending > 0 ? ", " + pending + " queued messages dropped" : ""));
+    }
+
+    /**
+     * Stop heartbeat timers and leave the cluster when the server shuts down.
+     */
+    static void shutdown() {
+        heartbeats.shutdown();
+        draining = false;
+        ClusterFanout fanout = cluster;
+        cluster = null;
+        if (fanout != null) {
+            fanout.stop();
+        }
+    }
+
+    /**
+     * Get the number of sessions subscribed to a topic.
+     */
+    public static int getSubscriberCount(String topic) {
+        Set<Session> subscribers = topicSessions.get(topic);
+        return subscribers != null ? subscribers.size() : 0;
+    }
+
     /**
      * Get count of admin connections.
      */
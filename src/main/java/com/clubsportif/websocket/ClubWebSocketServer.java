@@ -1,23 +1,34 @@
 package com.clubsportif.websocket;
 
+import com.clubsportif.cluster.PostgresClusterBus;
+import com.clubsportif.config.WebSocketConfig;
+import org.glassfish.grizzly.threadpool.ThreadPoolConfig;
+import org.glassfish.tyrus.container.grizzly.server.GrizzlyServerContainer;
 import org.glassfish.tyrus.server.Server;
 
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.UUID;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.atomic.AtomicBoolean;
 
 /**
  * Standalone WebSocket server using Tyrus.
- * Runs on port 8025 without Spring Boot.
+ * Host, port and Grizzly thread pools come from websocket.properties
+ * (ws.server.*); see {@link com.clubsportif.app.ServerMain} for the headless launcher.
  */
 public class ClubWebSocketServer {
 
-    private static final String HOST = "localhost";
-    private static final int PORT = 8025;
+    private static final String HOST = WebSocketConfig.getString("ws.server.host", "localhost");
+    private static final int PORT = WebSocketConfig.getInt("ws.server.port", 8025);
+    private static final int SELECTOR_THREADS = WebSocketConfig.getInt("ws.server.selectorThreads", 0);
+    private static final int WORKER_THREADS = WebSocketConfig.getInt("ws.server.workerThreads", 0);
+    private static final long DRAIN_TIMEOUT_MS = WebSocketConfig.getLong("ws.server.drainTimeoutMs", 5000);
     private static final String ROOT_PATH = "/";
     
     private static Server server;
+    private static PerMessageDeflateExtension deflateExtension;
     private static final AtomicBoolean running = new AtomicBoolean(false);
     private static Thread serverThread;
 
@@ -34,9 +45,19 @@ public class ClubWebSocketServer {
             try {
                 // Configure server properties for module access
                 Map<String, Object> properties = new HashMap<>();
+                configureThreadPools(properties);
+
+                // Offer permessage-deflate to clients unless disabled in websocket.properties
+                deflateExtension = PerMessageDeflateExtension.fromConfig(false);
+                ClubServerConfigurator.setExtensions(
+                        deflateExtension != null ? List.of(deflateExtension) : List.of());
+                if (deflateExtension != null) {
+                    System.out.println("[WebSocket Server] Compression enabled: " + deflateExtension);
+                }
                 
                 server = new Server(HOST, PORT, ROOT_PATH, properties, ClubServerEndpoint.class);
                 server.start();
+                startCluster();
                 running.set(true);
                 System.out.println("[WebSocket Server] Started on ws://" + HOST + ":" + PORT + "/club");
                 
@@ -61,8 +82,51 @@ public class ClubWebSocketServer {
         }
     }
 
+    /**
+     * Size Grizzly's selector and worker pools; 0 keeps Grizzly's defaults.
+     */
+    private static void configureThreadPools(Map<String, Object> properties) {
+        if (SELECTOR_THREADS > 0) {
+            properties.put(GrizzlyServerContainer.SELECTOR_THREAD_POOL_CONFIG, ThreadPoolConfig.defaultConfig()
+                    .setPoolName("WebSocket-Selector")
+                    .setCorePoolSize(SELECTOR_THREADS)
+                    .setMaxPoolSize(SELECTOR_THREADS));
+        }
+        if (WORKER_THREADS > 0) {
+            properties.put(GrizzlyServerContainer.WORKER_THREAD_POOL_CONFIG, ThreadPoolConfig.defaultConfig()
+                    .setPoolName("WebSocket-Worker")
+                    .setCorePoolSize(WORKER_THREADS)
+                    .setMaxPoolSize(WORKER_THREADS));
+        }
+        if (SELECTOR_THREADS > 0 || WORKER_THREADS > 0) {
+            System.out.println("[WebSocket Server] Threads: selector=" +
+                    (SELECTOR_THREADS > 0 ? SELECTOR_THREADS : "default") +
+                    ", worker=" + (WORKER_THREADS > 0 ? WORKER_THREADS : "default"));
+        }
+    }
+
+    /**
+     * Join other server nodes over PostgreSQL LISTEN/NOTIFY if clustering is enabled.
+     */
+    private static void startCluster() {
+        if (!WebSocketConfig.getBoolean("ws.cluster.enabled", false)) {
+            return;
+        }
+        String nodeId = WebSocketConfig.getString("ws.cluster.nodeId", "");
+        if (nodeId.isBlank()) {
+            nodeId = UUID.randomUUID().toString().replace("-", "").substring(0, 12);
+        }
+        try {
+            ClubServerEndpoint.enableCluster(new PostgresClusterBus(nodeId));
+        } catch (Exception e) {
+            System.err.println("[WebSocket Server] Cluster disabled: " + e.getMessage());
+        }
+    }
+
     /**
      * Stop the WebSocket server.
+     * Sessions are drained first: queued messages get up to ws.server.drainTimeoutMs
+     * to flush, then clients are closed with GOING_AWAY and reconnect.
      */
     public static void stop() {
         if (!running.get()) {
@@ -70,10 +134,12 @@ public class ClubWebSocketServer {
         }
 
         try {
+            ClubServerEndpoint.drain(DRAIN_TIMEOUT_MS);
             if (server != null) {
                 server.stop();
                 server = null;
             }
+            ClubServerEndpoint.shutdown();
             
             if (serverThread != null) {
                 serverThread.interrupt();
@@ -81,6 +147,10 @@ public class ClubWebSocketServer {
             }
             
             running.set(false);
+            if (deflateExtension != null) {
+                System.out.println("[WebSocket Server] " + deflateExtension.getStats());
+            }
+            System.out.println("[WebSocket Server] Heartbeat RTT: " + ClubServerEndpoint.getRttHistogram());
             System.out.println("[WebSocket Server] Stopped");
         } catch (Exception e) {
             System.err.println("[WebSocket Server] Error stopping: " + e.getMessage());
@@ -101,6 +171,13 @@ public class ClubWebSocketServer {
         return "ws://" + HOST + ":" + PORT + "/club";
     }
 
+    /**
+     * Get compression statistics, or null if permessage-deflate is disabled.
+     */
+    public static PerMessageDeflateExtension.Stats getCompressionStats() {
+        return deflateExtension != null ? deflateExtension.getStats() : null;
+    }
+
     /**
      * Get the port number.
      */
@@ -0,0 +1,107 @@
+package com.clubsportif.websocket;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Predicate;
+
+/**
+ * Sequenced log of recent server-originated messages.
+ * Every published message gets the next sequence number and is kept in a
+ * fixed-size ring buffer so reconnecting clients can be sent only what they
+ * missed. Sequence numbers start at (server start millis << 20), so they keep
+ * increasing across server restarts and a client resuming against a new server
+ * falls outside the buffer and is told to resync.
+ * <p>
+ * The monitor of this object orders publishing against registration; callers
+ * that need a compound action hold it with {@code synchronized (eventLog)}.
+ */
+public class EventLog {
+
+    private final Event[] ring;
+    private long lastSeq;
+    private long oldestSeq;
+
+    public EventLog(int capacity) {
+        this.ring = new Event[Math.max(16, capacity)];
+        this.lastSeq = System.currentTimeMillis() << 20;
+        this.oldestSeq = lastSeq + 1;
+    }
+
+    /**
+     * Assign the next sequence number, store the message and return its JSON.
+     */
+    public synchronized String append(WebSocketMessage message) {
+        long seq = ++lastSeq;
+        message.setSeq(seq);
+        String json = message.toJson();
+
+        int slot = (int) (seq % ring.length);
+        ring[slot] = new Event(seq, message.getTargetUserId(), message.getTargetRole(), message.getTopic(), json);
+        if (seq - oldestSeq >= ring.length) {
+            oldestSeq = seq - ring.length + 1;
+        }
+        return json;
+    }
+
+    public synchronized long getLastSeq() {
+        return lastSeq;
+    }
+
+    /**
+     * Check whether every event after lastSeenSeq is still in the buffer.
+     */
+    public synchronized boolean canResume(long lastSeenSeq) {
+        return lastSeenSeq >= oldestSeq - 1 && lastSeenSeq <= lastSeq;
+    }
+
+    /**
+     * Events with lastSeenSeq < seq <= uptoSeq addressed to the given recipient
+     * on a topic it wants. Callers check {@link #canResume(long)} first.
+     */
+    public synchronized List<String> eventsFor(long lastSeenSeq, long uptoSeq, int userId, String role,
+                                               Predicate<String> wantsTopic) {
+        List<String> result = new ArrayList<>();
+        long from = Math.max(lastSeenSeq + 1, oldestSeq);
+        for (long seq = from; seq <= Math.min(uptoSeq, lastSeq); seq++) {
+            Event event = ring[(int) (seq % ring.length)];
+            if (event != null && event.seq == seq && event.isFor(userId, role) && wantsTopic.test(event.topic)) {
+                result.add(event.json);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * User- or role-targeted events with fromSeq < seq, for the given recipient
+     * on a topic it wants.
+     */
+    public synchronized List<String> targetedEventsFor(long fromSeq, int userId, String role,
+                                                       Predicate<String> wantsTopic) {
+        List<String> result = new ArrayList<>();
+        for (long seq = Math.max(fromSeq + 1, oldestSeq); seq <= lastSeq; seq++) {
+            Event event = ring[(int) (seq % ring.length)];
+            if (event != null && event.seq == seq && !event.isBroadcast() && event.isFor(userId, role)
+                    && wantsTopic.test(event.topic)) {
+                result.add(event.json);
+            }
+        }
+        return result;
+    }
+
+    private record Event(long seq, int targetUserId, String targetRole, String topic, String json) {
+
+        boolean isBroadcast() {
+            return targetUserId <= 0 && targetRole == null;
+        }
+
+        boolean isFor(int userId, String role) {
+            if (targetUserId > 0) {
+                return targetUserId == userId;
+            }
+            if (targetRole != null) {
+                return targetRole.equals(role);
+            }
+            return true;
+        }
+    }
+}
@@ -0,0 +1,170 @@
+package com.clubsportif.websocket;
+
+import com.clubsportif.metrics.LatencyHistogram;
+import com.clubsportif.metrics.MetricsRegistry;
+import javafx.application.Platform;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+/**
+ * Hands incoming messages to the JavaFX thread in coalesced drains.
+ * Network threads append to a lock-free queue; only the append that finds
+ * the queue idle posts a Platform.runLater, so a burst of messages costs one
+ * runnable and is handled within a single pulse. Within a drain the latest
+ * STATS_UPDATE wins, duplicate DATA_REFRESH messages for the same table
+ * collapse into one, and a RESYNC makes table refreshes redundant.
+ */
+public class FxDispatchQueue {
+
+    // Messages handled per runnable, so a flood cannot starve rendering
+    private static final int MAX_DRAIN = 1024;
+
+    private final Consumer<WebSocketMessage> handler;
+    private final ConcurrentLinkedQueue<WebSocketMessage> queue = new ConcurrentLinkedQueue<>();
+    private final AtomicBoolean scheduled = new AtomicBoolean(false);
+    private final AtomicInteger depth = new AtomicInteger();
+
+    private final LongAdder enqueued = new LongAdder();
+    private final LongAdder dispatched = new LongAdder();
+    private final LongAdder conflated = new LongAdder();
+    private final LongAdder drains = new LongAdder();
+    private final AtomicInteger maxDepth = new AtomicInteger();
+    private final LatencyHistogram drainTime = new LatencyHistogram("us");
+
+    public FxDispatchQueue(Consumer<WebSocketMessage> handler) {
+        this.handler = handler;
+        // The UI path as seen from the FX thread; the newest queue is the one exported
+        MetricsRegistry.gauge("ws.client.fx.queueDepth", depth::get);
+        MetricsRegistry.gauge("ws.client.fx.maxQueueDepth", maxDepth::get);
+        MetricsRegistry.counter("ws.client.fx.dispatched", dispatched::sum);
+        MetricsRegistry.counter("ws.client.fx.conflated", conflated::sum);
+        MetricsRegistry.histogram("ws.client.fx.drain", drainTime);
+    }
+
+    /**
+     * Queue a message for the FX thread; safe to call from any thread.
+     */
+    public void offer(WebSocketMessage message) {
+        queue.offer(message);
+        enqueued.increment();
+        int current = depth.incrementAndGet();
+        int max;
+        while (current > (max = maxDepth.get()) && !maxDepth.compareAndSet(max, current)) {
+            // retry
+        }
+        if (scheduled.compareAndSet(false, true)) {
+            Platform.runLater(this::drain);
+        }
+    }
+
+    private void drain() {
+        long start = System.nanoTime();
+        // Messages queued from here on schedule another drain
+        scheduled.set(false);
+
+        List<WebSocketMessage> batch = new ArrayList<>();
+        WebSocketMessage message;
+        while (batch.size() < MAX_DRAIN && (message = queue.poll()) != null) {
+            batch.add(message);
+        }
+        depth.addAndGet(-batch.size());
+        if (!queue.isEmpty() && scheduled.compareAndSet(false, true)) {
+            Platform.runLater(this::drain);
+        }
+
+        for (WebSocketMessage m : conflate(batch)) {
+            try {
+                handler.accept(m);
+            } catch (Exception e) {
+                System.err.println("[WebSocket Client] Handler failed for " + m.getType() + ": " + e.getMessage());
+            }
+            dispatched.increment();
+        }
+        drains.increment();
+        drainTime.record((System.nanoTime() - start) / 1000);
+    }
+
+    /**
+     * Drop messages superseded by a later one in the same drain, keeping the
+     * survivors in arrival order.
+     */
+    private List<WebSocketMessage> conflate(List<WebSocketMessage> batch) {
+        if (batch.size() < 2) {
+            return batch;
+        }
+        boolean resync = false;
+        Map<String, Integer> lastIndex = new HashMap<>();
+        for (int i = 0; i < batch.size(); i++) {
+            WebSocketMessage m = batch.get(i);
+            if (m.getType() == WebSocketMessage.MessageType.RESYNC) {
+                resync = true;
+            }
+            String key = conflationKey(m);
+            if (key != null) {
+                lastIndex.put(key, i);
+            }
+        }
+
+        List<WebSocketMessage> result = new ArrayList<>(batch.size());
+        for (int i = 0; i < batch.size(); i++) {
+            WebSocketMessage m = batch.get(i);
+            String key = conflationKey(m);
+            boolean superseded = key != null && lastIndex.get(key) != i;
+            boolean coveredByResync = resync && m.getType() == WebSocketMessage.MessageType.DATA_REFRESH;
+            if (superseded || coveredByResync) {
+                conflated.increment();
+            } else {
+                result.add(m);
+            }
+        }
+        return result;
+    }
+
+    private static String conflationKey(WebSocketMessage message) {
+        if (message.getType() == null) {
+            return null;
+        }
+        return switch (message.getType()) {
+            case STATS_UPDATE -> "STATS_UPDATE";
+            case DATA_REFRESH -> message.getPayload() instanceof MessagePayload.DataRefresh refresh
+                    ? "DATA_REFRESH:" + refresh.tableType() : null;
+            default -> null;
+        };
+    }
+
+    /**
+     * Messages waiting for the FX thread.
+     */
+    public int getQueueDepth() {
+        return depth.get();
+    }
+
+    public int getMaxQueueDepth() {
+        return maxDepth.get();
+    }
+
+    /**
+     * Time spent per drain on the FX thread (microseconds).
+     */
+    public LatencyHistogram getDrainTime() {
+        return drainTime;
+    }
+
+    public String getStats() {
+        return "DispatchStats{enqueued=" + enqueued.sum() +
+                ", dispatched=" + dispatched.sum() +
+                ", conflated=" + conflated.sum() +
+                ", drains=" + drains.sum() +
+                ", depth=" + depth.get() +
+                ", maxDepth=" + maxDepth.get() +
+                ", drainTime=[" + drainTime + "]}";
+    }
+}
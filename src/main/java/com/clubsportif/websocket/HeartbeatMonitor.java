@@ -0,0 +1,170 @@
+package com.clubsportif.websocket;
+
+import com.clubsportif.config.WebSocketConfig;
+import com.clubsportif.metrics.LatencyHistogram;
+import com.clubsportif.util.HashedWheelTimer;
+import jakarta.websocket.Session;
+
+import java.nio.ByteBuffer;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Server-driven heartbeats and idle detection for all sessions.
+ * Each session has one entry on a shared hashed timing wheel. When it fires,
+ * a session that has been silent longer than the idle timeout is handed to
+ * the idle callback; otherwise a WebSocket ping carrying the send time is
+ * sent and the entry is re-armed. Pongs give a per-session round-trip time,
+ * recorded into a histogram.
+ */
+public class HeartbeatMonitor {
+
+    private static final long INTERVAL_MS = WebSocketConfig.getLong("ws.heartbeat.intervalMs", 15000);
+    private static final long IDLE_TIMEOUT_MS = WebSocketConfig.getLong("ws.heartbeat.idleTimeoutMs", 45000);
+    private static final long TICK_MS = WebSocketConfig.getLong("ws.wheel.tickMs", 100);
+    private static final int WHEEL_SIZE = WebSocketConfig.getInt("ws.wheel.size", 512);
+
+    private final Consumer<Session> onIdle;
+    private final Map<Session, Entry> entries = new ConcurrentHashMap<>();
+    private final LatencyHistogram rttHistogram = new LatencyHistogram("us");
+    private volatile HashedWheelTimer timer;
+
+    public HeartbeatMonitor(Consumer<Session> onIdle) {
+        this.onIdle = onIdle;
+    }
+
+    private HashedWheelTimer timer() {
+        HashedWheelTimer current = timer;
+        if (current == null) {
+            synchronized (this) {
+                if (timer == null) {
+                    timer = new HashedWheelTimer("WebSocket-Heartbeat", TICK_MS, TimeUnit.MILLISECONDS, WHEEL_SIZE);
+                }
+                current = timer;
+            }
+        }
+        return current;
+    }
+
+    /**
+     * Start tracking a session.
+     */
+    public void register(Session session) {
+        if (INTERVAL_MS <= 0) {
+            return;
+        }
+        Entry entry = new Entry(session);
+        entries.put(session, entry);
+        schedule(entry);
+    }
+
+    /**
+     * Stop tracking a session.
+     */
+    public void unregister(Session session) {
+        Entry entry = entries.remove(session);
+        if (entry != null && entry.timeout != null) {
+            entry.timeout.cancel();
+        }
+    }
+
+    /**
+     * Record inbound activity; any message proves the peer is alive.
+     */
+    public void touch(Session session) {
+        Entry entry = entries.get(session);
+        if (entry != null) {
+            entry.lastSeenNanos = System.nanoTime();
+        }
+    }
+
+    /**
+     * Handle a pong whose payload is the ping's send time.
+     */
+    public void onPong(Session session, ByteBuffer payload) {
+        Entry entry = entries.get(session);
+        if (entry == null) {
+            return;
+        }
+        long now = System.nanoTime();
+        entry.lastSeenNanos = now;
+        if (payload != null && payload.remaining() == Long.BYTES) {
+            long rttMicros = (now - payload.getLong(payload.position())) / 1000;
+            entry.lastRttMicros = rttMicros;
+            rttHistogram.record(rttMicros);
+        }
+    }
+
+    private void schedule(Entry entry) {
+        try {
+            entry.timeout = timer().newTimeout(() -> check(entry), INTERVAL_MS, TimeUnit.MILLISECONDS);
+        } catch (IllegalStateException e) {
+            // Timer stopped during shutdown
+        }
+    }
+
+    private void check(Entry entry) {
+        if (entries.get(entry.session) != entry) {
+            return;
+        }
+        Session session = entry.session;
+        long idleMs = (System.nanoTime() - entry.lastSeenNanos) / 1_000_000;
+        if (!session.isOpen() || idleMs > IDLE_TIMEOUT_MS) {
+            entries.remove(session, entry);
+            onIdle.accept(session);
+            return;
+        }
+
+        try {
+            ByteBuffer payload = ByteBuffer.allocate(Long.BYTES).putLong(0, System.nanoTime());
+            session.getAsyncRemote().sendPing(payload);
+        } catch (Exception e) {
+            System.err.println("[WebSocket] Failed to ping " + session.getId() + ": " + e.getMessage());
+        }
+        schedule(entry);
+    }
+
+    /**
+     * Stop the timing wheel; sessions registered afterwards start a new one.
+     */
+    public void shutdown() {
+        HashedWheelTimer current;
+        synchronized (this) {
+            current = timer;
+            timer = null;
+        }
+        if (current != null) {
+            current.stop();
+        }
+        entries.clear();
+    }
+
+    /**
+     * Last measured round-trip time in microseconds, or -1 if none yet.
+     */
+    public long getLastRttMicros(Session session) {
+        Entry entry = entries.get(session);
+        return entry != null ? entry.lastRttMicros : -1;
+    }
+
+    public LatencyHistogram getRttHistogram() {
+        return rttHistogram;
+    }
+
+    public int getTrackedSessionCount() {
+        return entries.size();
+    }
+
+    private static final class Entry {
+        private final Session session;
+        private volatile long lastSeenNanos = System.nanoTime();
+        private volatile long lastRttMicros = -1;
+        private volatile HashedWheelTimer.Timeout timeout;
+
+        Entry(Session session) {
+            this.session = session;
+        }
+    }
+}
@@ -0,0 +1,120 @@
+package com.clubsportif.websocket;
+
+import java.util.List;
+
+/**
+ * Typed payloads of {@link WebSocketMessage}, one record per message type.
+ * Encoded and decoded by {@link WebSocketMessageCodec} without reflection.
+ */
+public sealed interface MessagePayload {
+
+    /**
+     * Field lookup by JSON name, for callers that still use
+     * {@link WebSocketMessage#getPayloadValue(String)}.
+     */
+    Object get(String key);
+
+    MessagePayload EMPTY = new Empty();
+
+    record Register(int userId, String role, long lastSeq, String token) implements MessagePayload {
+        @Override
+        public Object get(String key) {
+            return switch (key) {
+                case "userId" -> userId;
+                case "role" -> role;
+                case "lastSeq" -> lastSeq;
+                case "token" -> token;
+                default -> null;
+            };
+        }
+    }
+
+    record NewMemberRequest(int requestId, String memberName, String subscription) implements MessagePayload {
+        @Override
+        public Object get(String key) {
+            return switch (key) {
+                case "requestId" -> requestId;
+                case "memberName" -> memberName;
+                case "subscription" -> subscription;
+                default -> null;
+            };
+        }
+    }
+
+    record RequestAccepted(int requestId, String subscription, String endDate) implements MessagePayload {
+        @Override
+        public Object get(String key) {
+            return switch (key) {
+                case "requestId" -> requestId;
+                case "subscription" -> subscription;
+                case "endDate" -> endDate;
+                default -> null;
+            };
+        }
+    }
+
+    record RequestDeclined(int requestId, String reason) implements MessagePayload {
+        @Override
+        public Object get(String key) {
+            return switch (key) {
+                case "requestId" -> requestId;
+                case "reason" -> reason;
+                default -> null;
+            };
+        }
+    }
+
+    record MemberStatusChanged(int memberId, String newStatus) implements MessagePayload {
+        @Override
+        public Object get(String key) {
+            return switch (key) {
+                case "memberId" -> memberId;
+                case "newStatus" -> newStatus;
+                default -> null;
+            };
+        }
+    }
+
+    record StatsUpdate(int totalMembers, int activeMembers, int dailyRequests) implements MessagePayload {
+        @Override
+        public Object get(String key) {
+            return switch (key) {
+                case "totalMembers" -> totalMembers;
+                case "activeMembers" -> activeMembers;
+                case "dailyRequests" -> dailyRequests;
+                default -> null;
+            };
+        }
+    }
+
+    record DataRefresh(String tableType) implements MessagePayload {
+        @Override
+        public Object get(String key) {
+            return "tableType".equals(key) ? tableType : null;
+        }
+    }
+
+    record Topics(List<String> topics) implements MessagePayload {
+        @Override
+        public Object get(String key) {
+            return "topics".equals(key) ? topics : null;
+        }
+    }
+
+    record Resync(long currentSeq) implements MessagePayload {
+        @Override
+        public Object get(String key) {
+            return "currentSeq".equals(key) ? currentSeq : null;
+        }
+    }
+
+    /**
+     * Payload of PING, PONG and unknown message types.
+     */
+    record Empty() implements MessagePayload {
+        @Override
+        public Object get(String key) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,373 @@
+package com.clubsportif.websocket;
+
+import com.clubsportif.config.WebSocketConfig;
+import jakarta.websocket.Extension;
+import org.glassfish.tyrus.core.TyrusExtension;
+import org.glassfish.tyrus.core.extension.ExtendedExtension;
+import org.glassfish.tyrus.core.frame.Frame;
+
+import java.io.ByteArrayOutputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * permessage-deflate (RFC 7692) for Tyrus, used by both the server and the client.
+ * Messages below the size threshold are sent uncompressed (RSV1 clear), which the
+ * RFC allows even when context takeover is in use.
+ * One instance is shared by all connections of a side; per-connection state lives
+ * in the Tyrus extension context.
+ */
+public class PerMessageDeflateExtension implements ExtendedExtension {
+
+    public static final String NAME = "permessage-deflate";
+
+    private static final String SERVER_NO_CONTEXT_TAKEOVER = "server_no_context_takeover";
+    private static final String CLIENT_NO_CONTEXT_TAKEOVER = "client_no_context_takeover";
+    private static final String SERVER_MAX_WINDOW_BITS = "server_max_window_bits";
+    private static final String STATE_KEY = NAME + ".state";
+
+    private static final byte OPCODE_CONTINUATION = 0x0;
+    private static final byte OPCODE_TEXT = 0x1;
+    private static final byte OPCODE_BINARY = 0x2;
+    private static final byte[] TAIL = {0x00, 0x00, (byte) 0xff, (byte) 0xff};
+
+    private final boolean client;
+    private final int threshold;
+    private final int level;
+    private final boolean serverNoContextTakeover;
+    private final boolean clientNoContextTakeover;
+    private final Stats stats = new Stats();
+
+    public PerMessageDeflateExtension(boolean client, int threshold, int level,
+                                      boolean serverNoContextTakeover, boolean clientNoContextTakeover) {
+        this.client = client;
+        this.threshold = threshold;
+        this.level = level;
+        this.serverNoContextTakeover = serverNoContextTakeover;
+        this.clientNoContextTakeover = clientNoContextTakeover;
+    }
+
+    /**
+     * Create an extension from websocket.properties, or null if compression is disabled.
+     */
+    public static PerMessageDeflateExtension fromConfig(boolean client) {
+        if (!WebSocketConfig.getBoolean("ws.deflate.enabled", true)) {
+            return null;
+        }
+        return new PerMessageDeflateExtension(
+            client,
+            WebSocketConfig.getInt("ws.deflate.threshold", 256),
+            WebSocketConfig.getInt("ws.deflate.level", Deflater.DEFAULT_COMPRESSION),
+            WebSocketConfig.getBoolean("ws.deflate.serverNoContextTakeover", false),
+            WebSocketConfig.getBoolean("ws.deflate.clientNoContextTakeover", false)
+        );
+    }
+
+    @Override
+    public String getName() {
+        return NAME;
+    }
+
+    /**
+     * Parameters offered by the client in its handshake request.
+     */
+    @Override
+    public List<Extension.Parameter> getParameters() {
+        List<Extension.Parameter> parameters = new ArrayList<>();
+        if (serverNoContextTakeover) {
+            parameters.add(new TyrusExtension.TyrusParameter(SERVER_NO_CONTEXT_TAKEOVER, null));
+        }
+        if (clientNoContextTakeover) {
+            parameters.add(new TyrusExtension.TyrusParameter(CLIENT_NO_CONTEXT_TAKEOVER, null));
+        }
+        return parameters;
+    }
+
+    /**
+     * Check whether a client offer can be honoured. java.util.zip always uses a
+     * 32K window, so offers that restrict the server window must be declined.
+     */
+    public boolean accepts(List<Extension.Parameter> offered) {
+        if (offered == null) return true;
+        for (Extension.Parameter parameter : offered) {
+            if (SERVER_MAX_WINDOW_BITS.equals(parameter.getName())
+                    && !"15".equals(parameter.getValue())) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // ==================== Negotiation ====================
+
+    @Override
+    public List<Extension.Parameter> onExtensionNegotiation(ExtensionContext context,
+                                                           List<Extension.Parameter> requestedParameters) {
+        boolean serverReset = serverNoContextTakeover || hasParameter(requestedParameters, SERVER_NO_CONTEXT_TAKEOVER);
+        boolean clientReset = clientNoContextTakeover;
+
+        // Server side: we deflate with server_no_context_takeover, inflate with client_no_context_takeover
+        replaceState(context, new State(level, serverReset, clientReset));
+
+        List<Extension.Parameter> response = new ArrayList<>();
+        if (serverReset) {
+            response.add(new TyrusExtension.TyrusParameter(SERVER_NO_CONTEXT_TAKEOVER, null));
+        }
+        if (clientReset) {
+            response.add(new TyrusExtension.TyrusParameter(CLIENT_NO_CONTEXT_TAKEOVER, null));
+        }
+        // RFC 7692 7.1.2.1: an accepted server_max_window_bits offer must be echoed
+        // (accepts() only lets 15 through, the window we use)
+        if (hasParameter(requestedParameters, SERVER_MAX_WINDOW_BITS)) {
+            response.add(new TyrusExtension.TyrusParameter(SERVER_MAX_WINDOW_BITS, "15"));
+        }
+        return response;
+    }
+
+    @Override
+    public void onHandshakeResponse(ExtensionContext context, List<Extension.Parameter> responseParameters) {
+        boolean clientReset = clientNoContextTakeover || hasParameter(responseParameters, CLIENT_NO_CONTEXT_TAKEOVER);
+        boolean serverReset = hasParameter(responseParameters, SERVER_NO_CONTEXT_TAKEOVER);
+
+        // Client side: we deflate with client_no_context_takeover, inflate with server_no_context_takeover
+        replaceState(context, new State(level, clientReset, serverReset));
+    }
+
+    @Override
+    public void destroy(ExtensionContext context) {
+        Object state = context.getProperties().remove(STATE_KEY);
+        if (state instanceof State) {
+            ((State) state).end();
+        }
+    }
+
+    // ==================== Frame processing ====================
+
+    @Override
+    public Frame processOutgoing(ExtensionContext context, Frame frame) {
+        if (frame.isControlFrame() || !frame.isFin()
+                || (frame.getOpcode() != OPCODE_TEXT && frame.getOpcode() != OPCODE_BINARY)) {
+            // Fragmented messages go out uncompressed
+            return frame;
+        }
+        byte[] payload = frame.getPayloadData();
+        if (payload.length < threshold) {
+            stats.messagesSkipped.increment();
+            return frame;
+        }
+
+        State state = getState(context);
+        long start = System.nanoTime();
+        byte[] compressed;
+        synchronized (state) {
+            compressed = state.deflate(payload);
+        }
+        stats.compressNanos.add(System.nanoTime() - start);
+        stats.messagesCompressed.increment();
+        stats.bytesBeforeCompression.add(payload.length);
+        stats.bytesAfterCompression.add(compressed.length);
+
+        return Frame.builder(frame).rsv1(true).payloadData(compressed).build();
+    }
+
+    @Override
+    public Frame processIncoming(ExtensionContext context, Frame frame) {
+        if (frame.isControlFrame()) {
+            return frame;
+        }
+        State state = getState(context);
+        synchronized (state) {
+            if (frame.getOpcode() != OPCODE_CONTINUATION) {
+                state.inflatingMessage = frame.isRsv1();
+            }
+            if (!state.inflatingMessage) {
+                return frame;
+            }
+
+            long start = System.nanoTime();
+            byte[] payload = frame.getPayloadData();
+            byte[] inflated;
+            try {
+                inflated = state.inflate(payload, frame.isFin());
+            } catch (DataFormatException e) {
+                throw new IllegalStateException("Invalid compressed frame: " + e.getMessage(), e);
+            }
+            stats.inflateNanos.add(System.nanoTime() - start);
+            stats.bytesBeforeInflate.add(payload.length);
+            stats.bytesAfterInflate.add(inflated.length);
+            if (frame.isFin()) {
+                stats.messagesInflated.increment();
+                state.inflatingMessage = false;
+            }
+
+            return Frame.builder(frame).rsv1(false).payloadData(inflated).build();
+        }
+    }
+
+    private State getState(ExtensionContext context) {
+        Object state = context.getProperties().get(STATE_KEY);
+        if (state instanceof State) {
+            return (State) state;
+        }
+        // Negotiation callback was not invoked for this connection; assume context takeover
+        State created = new State(level, false, false);
+        context.getProperties().put(STATE_KEY, created);
+        return created;
+    }
+
+    private static void replaceState(ExtensionContext context, State state) {
+        Object previous = context.getProperties().put(STATE_KEY, state);
+        if (previous instanceof State) {
+            ((State) previous).end();
+        }
+    }
+
+    private static boolean hasParameter(List<Extension.Parameter> parameters, String name) {
+        if (parameters == null) return false;
+        for (Extension.Parameter parameter : parameters) {
+            if (name.equals(parameter.getName())) return true;
+        }
+        return false;
+    }
+
+    public boolean isClient() {
+        return client;
+    }
+
+    public int getThreshold() {
+        return threshold;
+    }
+
+    public Stats getStats() {
+        return stats;
+    }
+
+    @Override
+    public String toString() {
+        return NAME + "{threshold=" + threshold +
+                ", level=" + level +
+                ", serverNoContextTakeover=" + serverNoContextTakeover +
+                ", clientNoContextTakeover=" + clientNoContextTakeover +
+                '}';
+    }
+
+    /**
+     * Per-connection compressor state.
+     */
+    private static final class State {
+        private final Deflater deflater;
+        private final Inflater inflater;
+        private final boolean resetDeflater;
+        private final boolean resetInflater;
+        private final byte[] buffer = new byte[8192];
+        private boolean inflatingMessage;
+
+        State(int level, boolean resetDeflater, boolean resetInflater) {
+            this.deflater = new Deflater(level, true);
+            this.inflater = new Inflater(true);
+            this.resetDeflater = resetDeflater;
+            this.resetInflater = resetInflater;
+        }
+
+        byte[] deflate(byte[] payload) {
+            ByteArrayOutputStream out = new ByteArrayOutputStream(Math.max(64, payload.length / 2));
+            deflater.setInput(payload);
+            int count;
+            do {
+                count = deflater.deflate(buffer, 0, buffer.length, Deflater.SYNC_FLUSH);
+                out.write(buffer, 0, count);
+            } while (count == buffer.length);
+            if (resetDeflater) {
+                deflater.reset();
+            }
+
+            // Strip the 00 00 ff ff trailer left by the sync flush (RFC 7692 7.2.1)
+            byte[] result = out.toByteArray();
+            int length = result.length;
+            if (length >= 4 && result[length - 4] == 0 && result[length - 3] == 0
+                    && result[length - 2] == (byte) 0xff && result[length - 1] == (byte) 0xff) {
+                length -= 4;
+            }
+            return length == result.length ? result : Arrays.copyOf(result, length);
+        }
+
+        byte[] inflate(byte[] payload, boolean last) throws DataFormatException {
+            ByteArrayOutputStream out = new ByteArrayOutputStream(payload.length * 3);
+            inflateInto(payload, out);
+            if (last) {
+                inflateInto(TAIL, out);
+                if (resetInflater) {
+                    inflater.reset();
+                }
+            }
+            return out.toByteArray();
+        }
+
+        private void inflateInto(byte[] input, ByteArrayOutputStream out) throws DataFormatException {
+            inflater.setInput(input);
+            while (!inflater.needsInput()) {
+                int count = inflater.inflate(buffer);
+                if (count == 0 && (inflater.finished() || inflater.needsDictionary())) {
+                    break;
+                }
+                out.write(buffer, 0, count);
+            }
+        }
+
+        void end() {
+            deflater.end();
+            inflater.end();
+        }
+    }
+
+    /**
+     * Compression counters shared by all connections using this extension.
+     */
+    public static class Stats {
+        private final LongAdder messagesCompressed = new LongAdder();
+        private final LongAdder messagesSkipped = new LongAdder();
+        private final LongAdder bytesBeforeCompression = new LongAdder();
+        private final LongAdder bytesAfterCompression = new LongAdder();
+        private final LongAdder compressNanos = new LongAdder();
+        private final LongAdder messagesInflated = new LongAdder();
+        private final LongAdder bytesBeforeInflate = new LongAdder();
+        private final LongAdder bytesAfterInflate = new LongAdder();
+        private final LongAdder inflateNanos = new LongAdder();
+
+        public long getMessagesCompressed() { return messagesCompressed.sum(); }
+        public long getMessagesSkipped() { return messagesSkipped.sum(); }
+        public long getBytesBeforeCompression() { return bytesBeforeCompression.sum(); }
+        public long getBytesAfterCompression() { return bytesAfterCompression.sum(); }
+        public long getCompressNanos() { return compressNanos.sum(); }
+        public long getMessagesInflated() { return messagesInflated.sum(); }
+        public long getBytesBeforeInflate() { return bytesBeforeInflate.sum(); }
+        public long getBytesAfterInflate() { return bytesAfterInflate.sum(); }
+        public long getInflateNanos() { return inflateNanos.sum(); }
+
+        /**
+         * Compressed size divided by original size for compressed messages (lower is better).
+         */
+        public double getCompressionRatio() {
+            long before = getBytesBeforeCompression();
+            return before == 0 ? 1.0 : (double) getBytesAfterCompression() / before;
+        }
+
+        @Override
+        public String toString() {
+            long compressed = getMessagesCompressed();
+            return "DeflateStats{" +
+                    "compressed=" + compressed +
+                    ", skipped=" + getMessagesSkipped() +
+                    ", ratio=" + String.format("%.3f", getCompressionRatio()) +
+                    ", avgCompressMicros=" + (compressed == 0 ? 0 : getCompressNanos() / compressed / 1000) +
+                    ", inflated=" + getMessagesInflated() +
+                    ", inflateMillis=" + getInflateNanos() / 1_000_000 +
+                    '}';
+        }
+    }
+}
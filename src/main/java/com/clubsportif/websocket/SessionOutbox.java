@@ -0,0 +1,344 @@
+package com.clubsportif.websocket;
+
+import com.clubsportif.config.WebSocketConfig;
+import com.clubsportif.metrics.LatencyHistogram;
+import com.clubsportif.metrics.MetricsRegistry;
+import com.clubsportif.metrics.WsMessageEvent;
+import jakarta.websocket.CloseReason;
+import jakarta.websocket.SendResult;
+import jakarta.websocket.Session;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Bounded outbound queue for one WebSocket session.
+ * Only one send is in flight at a time; the next frame is sent from the
+ * completion callback of the previous one. When the queue is over its
+ * message or byte bound the oldest frames are dropped, and frames with a
+ * conflation key replace any queued frame with the same key (only the
+ * latest STATS_UPDATE matters). A session that stays over the bound for
+ * longer than the eviction delay is closed as a slow consumer.
+ * <p>
+ * Frames are held for a short batching window and everything queued by then
+ * is shipped as one BATCH frame, so bursts of admin notifications cost one
+ * WebSocket frame instead of many.
+ */
+public class SessionOutbox {
+
+    private static final int MAX_MESSAGES = WebSocketConfig.getInt("ws.outbox.maxMessages", 256);
+    private static final long MAX_BYTES = WebSocketConfig.getLong("ws.outbox.maxBytes", 1024 * 1024);
+    private static final long EVICT_AFTER_MS = WebSocketConfig.getLong("ws.outbox.evictAfterMs", 10000);
+    private static final long SEND_TIMEOUT_MS = WebSocketConfig.getLong("ws.outbox.sendTimeoutMs", 15000);
+    private static final long BATCH_WINDOW_MS = WebSocketConfig.getLong("ws.batch.windowMs", 20);
+    private static final int BATCH_MAX_MESSAGES = WebSocketConfig.getInt("ws.batch.maxMessages", 64);
+    private static final long BATCH_MAX_BYTES = WebSocketConfig.getLong("ws.batch.maxBytes", 64 * 1024);
+
+    private static final ScheduledExecutorService flushScheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread t = new Thread(r, "WebSocket-Outbox-Flush");
+        t.setDaemon(true);
+        return t;
+    });
+
+    // Counters shared by all outboxes
+    private static final LongAdder sentCount = new LongAdder();
+    private static final LongAdder droppedCount = new LongAdder();
+    private static final LongAdder conflatedCount = new LongAdder();
+    private static final LongAdder failedCount = new LongAdder();
+    private static final LongAdder evictedCount = new LongAdder();
+    private static final LongAdder batchCount = new LongAdder();
+    private static final LongAdder batchedMessageCount = new LongAdder();
+    private static final LongAdder sentBytes = new LongAdder();
+    // From handing a frame to the container until its completion callback
+    private static final LatencyHistogram sendTime = MetricsRegistry.timer("ws.server.send");
+
+    static {
+        MetricsRegistry.counter("ws.server.sent", sentCount::sum);
+        MetricsRegistry.counter("ws.server.sentBytes", sentBytes::sum);
+        MetricsRegistry.counter("ws.server.outbox.dropped", droppedCount::sum);
+        MetricsRegistry.counter("ws.server.outbox.conflated", conflatedCount::sum);
+        MetricsRegistry.counter("ws.server.outbox.failed", failedCount::sum);
+        MetricsRegistry.counter("ws.server.outbox.evicted", evictedCount::sum);
+        MetricsRegistry.counter("ws.server.batches", batchCount::sum);
+        MetricsRegistry.counter("ws.server.batchedMessages", batchedMessageCount::sum);
+    }
+
+    private final Session session;
+    private final Deque<Entry> queue = new ArrayDeque<>();
+    private long queuedBytes;
+    private boolean inFlight;
+    private boolean draining;
+    private boolean closed;
+    private boolean flushScheduled;
+    private long overLimitSince;
+    private long inFlightSince;
+    private int inFlightBytes;
+    private WsMessageEvent inFlightEvent;
+
+    public SessionOutbox(Session session) {
+        this.session = session;
+        session.getAsyncRemote().setSendTimeout(SEND_TIMEOUT_MS);
+    }
+
+    /**
+     * Queue a frame for sending.
+     *
+     * @param json           serialized message
+     * @param conflationKey  key identifying frames that supersede each other, or null
+     */
+    public void offer(String json, String conflationKey) {
+        boolean evict = false;
+        boolean scheduleFlush = false;
+        synchronized (this) {
+            if (closed) {
+                return;
+            }
+            if (conflationKey != null && replaceQueued(json, conflationKey)) {
+                conflatedCount.increment();
+            } else {
+                Entry entry = new Entry(json, conflationKey);
+                queue.addLast(entry);
+                queuedBytes += entry.size;
+            }
+
+            if (isOverLimit()) {
+                long now = System.currentTimeMillis();
+                if (overLimitSince == 0) {
+                    overLimitSince = now;
+                } else if (now - overLimitSince > EVICT_AFTER_MS) {
+                    evict = true;
+                }
+                while (isOverLimit() && queue.size() > 1) {
+                    Entry dropped = queue.pollFirst();
+                    queuedBytes -= dropped.size;
+                    droppedCount.increment();
+                }
+            } else {
+                overLimitSince = 0;
+            }
+
+            // An in-flight send drains the queue on completion; otherwise wait for the window
+            if (BATCH_WINDOW_MS > 0 && !inFlight && !flushScheduled) {
+                flushScheduled = true;
+                scheduleFlush = true;
+            }
+        }
+
+        if (evict) {
+            evict();
+        } else if (scheduleFlush) {
+            flushScheduler.schedule(this::flush, BATCH_WINDOW_MS, TimeUnit.MILLISECONDS);
+        } else if (BATCH_WINDOW_MS <= 0) {
+            drain();
+        }
+    }
+
+    private void flush() {
+        synchronized (this) {
+            flushScheduled = false;
+        }
+        drain();
+    }
+
+    private boolean replaceQueued(String json, String conflationKey) {
+        Iterator<Entry> it = queue.iterator();
+        while (it.hasNext()) {
+            Entry entry = it.next();
+            if (conflationKey.equals(entry.conflationKey)) {
+                queuedBytes -= entry.size;
+                entry.replace(json);
+                queuedBytes += entry.size;
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private boolean isOverLimit() {
+        return queue.size() > MAX_MESSAGES || queuedBytes > MAX_BYTES;
+    }
+
+    /**
+     * Send queued frames one at a time. Completion callbacks that run inline
+     * on this thread are picked up by the loop instead of recursing.
+     */
+    private void drain() {
+        synchronized (this) {
+            if (draining) {
+                return;
+            }
+            draining = true;
+        }
+        while (true) {
+            String next;
+            synchronized (this) {
+                if (inFlight || closed || queue.isEmpty()) {
+                    draining = false;
+                    return;
+                }
+                next = pollBatch();
+                inFlight = true;
+                inFlightSince = System.nanoTime();
+                inFlightBytes = next.length();
+                inFlightEvent = sendEvent(next);
+            }
+            try {
+                session.getAsyncRemote().sendText(next, this::onSendResult);
+            } catch (Exception e) {
+                onSendResult(new SendResult(e));
+            }
+        }
+    }
+
+    /**
+     * Take queued frames up to the batch bounds; several frames become one BATCH frame.
+     * Must be called while holding the lock.
+     */
+    private String pollBatch() {
+        Entry first = queue.pollFirst();
+        queuedBytes -= first.size;
+        if (queue.isEmpty() || BATCH_MAX_MESSAGES <= 1) {
+            return first.json;
+        }
+
+        List<String> batch = new ArrayList<>();
+        batch.add(first.json);
+        long bytes = first.size;
+        while (!queue.isEmpty() && batch.size() < BATCH_MAX_MESSAGES
+                && bytes + queue.peekFirst().size <= BATCH_MAX_BYTES) {
+            Entry entry = queue.pollFirst();
+            queuedBytes -= entry.size;
+            bytes += entry.size;
+            batch.add(entry.json);
+        }
+        if (batch.size() == 1) {
+            return first.json;
+        }
+        batchCount.increment();
+        batchedMessageCount.add(batch.size());
+        return WebSocketMessage.batchJson(batch);
+    }
+
+    private void onSendResult(SendResult result) {
+        boolean loopRunning;
+        long startedAt;
+        int bytes;
+        WsMessageEvent event;
+        synchronized (this) {
+            inFlight = false;
+            loopRunning = draining;
+            startedAt = inFlightSince;
+            bytes = inFlightBytes;
+            event = inFlightEvent;
+            inFlightEvent = null;
+        }
+        sendTime.record((System.nanoTime() - startedAt) / 1000);
+        if (event != null) {
+            event.commit();
+        }
+        if (result.isOK()) {
+            sentCount.increment();
+            sentBytes.add(bytes);
+        } else {
+            failedCount.increment();
+            System.err.println("[WebSocket] Failed to send message: " +
+                    (result.getException() != null ? result.getException().getMessage() : "unknown"));
+        }
+        if (!loopRunning) {
+            drain();
+        }
+    }
+
+    /**
+     * JFR event for an outgoing frame, or null when the event is disabled.
+     */
+    private static WsMessageEvent sendEvent(String frame) {
+        WsMessageEvent event = new WsMessageEvent();
+        if (!event.isEnabled()) {
+            return null;
+        }
+        event.begin();
+        event.messageType = WebSocketMessage.typeOf(frame);
+        event.size = frame.length();
+        event.direction = WsMessageEvent.OUT;
+        event.side = "server";
+        return event;
+    }
+
+    private void evict() {
+        synchronized (this) {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            queue.clear();
+            queuedBytes = 0;
+        }
+        evictedCount.increment();
+        System.err.println("[WebSocket] Evicting slow consumer: " + session.getId());
+        // The close handshake can block; keep it off the publishing thread
+        CompletableFuture.runAsync(() -> {
+            try {
+                session.close(new CloseReason(CloseReason.CloseCodes.TRY_AGAIN_LATER, "Slow consumer"));
+            } catch (Exception e) {
+                System.err.println("[WebSocket] Error closing slow session: " + e.getMessage());
+            }
+        });
+    }
+
+    /**
+     * Discard queued frames when the session closes.
+     */
+    public synchronized void close() {
+        closed = true;
+        queue.clear();
+        queuedBytes = 0;
+    }
+
+    public synchronized int getQueuedMessages() {
+        return queue.size();
+    }
+
+    public synchronized long getQueuedBytes() {
+        return queuedBytes;
+    }
+
+    public Session getSession() {
+        return session;
+    }
+
+    // ==================== Global counters ====================
+
+    public static long getSentCount() { return sentCount.sum(); }
+    public static long getDroppedCount() { return droppedCount.sum(); }
+    public static long getConflatedCount() { return conflatedCount.sum(); }
+    public static long getFailedCount() { return failedCount.sum(); }
+    public static long getEvictedCount() { return evictedCount.sum(); }
+    public static long getBatchCount() { return batchCount.sum(); }
+    public static long getBatchedMessageCount() { return batchedMessageCount.sum(); }
+
+    private static final class Entry {
+        private String json;
+        private long size;
+        private final String conflationKey;
+
+        Entry(String json, String conflationKey) {
+            this.conflationKey = conflationKey;
+            replace(json);
+        }
+
+        void replace(String json) {
+            this.json = json;
+            // Estimate of encoded size; exact for ASCII, close enough for bounds otherwise
+            this.size = json.length();
+        }
+    }
+}
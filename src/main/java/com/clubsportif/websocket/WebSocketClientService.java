@@ -1,28 +1,52 @@
 package com.clubsportif.websocket;
 
+import com.clubsportif.config.WebSocketConfig;
+import com.clubsportif.metrics.LatencyHistogram;
+import com.clubsportif.metrics.MetricsRegistry;
+import com.clubsportif.metrics.WsMessageEvent;
 import jakarta.websocket.*;
 import javafx.application.Platform;
 import org.glassfish.tyrus.client.ClientManager;
 
 import java.net.URI;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
 import java.util.concurrent.*;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
 import java.util.function.Consumer;
 
 /**
  * WebSocket client service for JavaFX controllers.
  * Handles connection, auto-reconnection, and message dispatching.
+ * Connects to the server at ws.client.url; notifications raised by the
+ * controllers are sent to the server, which routes them to their recipients.
+ * Only the topics whose handlers are set are subscribed to, so the server
+ * does not send messages this view would ignore.
  */
 public class WebSocketClientService {
 
-    private static final String WS_URL = "ws://localhost:8025/club";
+    private static final String WS_URL = WebSocketConfig.getString("ws.client.url", "ws://localhost:8025/club");
     private static final int MAX_RECONNECT_ATTEMPTS = 10;
     private static final long INITIAL_RECONNECT_DELAY_MS = 1000;
     private static final long MAX_RECONNECT_DELAY_MS = 30000;
 
+    private static final LongAdder sentMessages = MetricsRegistry.counter("ws.client.sent");
+    private static final LongAdder receivedMessages = MetricsRegistry.counter("ws.client.received");
+    private static final LongAdder receivedBytes = MetricsRegistry.counter("ws.client.receivedBytes");
+    private static final LongAdder reconnects = MetricsRegistry.counter("ws.client.reconnects");
+    // Server timestamp to arrival, in ms; includes clock skew between hosts
+    private static final LatencyHistogram deliveryLatency = new LatencyHistogram("ms");
+
+    static {
+        MetricsRegistry.histogram("ws.client.delivery", deliveryLatency);
+    }
+
     private Session session;
     private final ClientManager client;
+    private final PerMessageDeflateExtension deflateExtension;
     private final AtomicBoolean connected = new AtomicBoolean(false);
     private final AtomicBoolean shouldReconnect = new AtomicBoolean(true);
     private final AtomicInteger reconnectAttempts = new AtomicInteger(0);
@@ -35,6 +59,14 @@ public class WebSocketClientService {
 
     private int userId;
     private String userRole;
+    // Login token the server checks the user and role against, null when there is none
+    private String loginToken;
+
+    // Highest server event sequence seen, sent on reconnect to replay missed events
+    private volatile long lastSeq;
+
+    // Incoming messages, handed to the FX thread in coalesced drains
+    private final FxDispatchQueue dispatchQueue = new FxDispatchQueue(this::deliver);
     
     // Message handlers
     private Consumer<WebSocketMessage> onNewMemberRequest;
@@ -43,18 +75,36 @@ public class WebSocketClientService {
     private Consumer<WebSocketMessage> onMemberStatusChanged;
     private Consumer<WebSocketMessage> onStatsUpdate;
     private Consumer<WebSocketMessage> onDataRefresh;
+    private Consumer<WebSocketMessage> onResync;
     private Consumer<Boolean> onConnectionStateChanged;
 
+    // Tables whose DATA_REFRESH the view handles
+    private List<String> dataRefreshTables = List.of("members", "requests");
+    // Topics the server has for the current connection
+    private final Set<String> subscribedTopics = new HashSet<>();
+
     public WebSocketClientService() {
         this.client = ClientManager.createClient();
+        this.deflateExtension = PerMessageDeflateExtension.fromConfig(true);
     }
 
     /**
      * Connect to WebSocket server with user credentials.
      */
     public void connect(int userId, String role) {
+        connect(userId, role, null);
+    }
+
+    /**
+     * Connect with a login token from {@code AuthService.issueToken}; the
+     * server only relays admin notifications from sessions whose token
+     * belongs to an admin.
+     */
+    public void connect(int userId, String role, String token) {
         this.userId = userId;
         this.userRole = role;
+        this.loginToken = token;
+        this.lastSeq = 0;
         this.shouldReconnect.set(true);
         this.reconnectAttempts.set(0);
         
@@ -69,6 +119,7 @@ public class WebSocketClientService {
         try {
             // Use Configurator to pass this service to the endpoint
             ClientEndpointConfig config = ClientEndpointConfig.Builder.create()
+                .extensions(deflateExtension != null ? List.of(deflateExtension) : List.of())
                 .configurator(new ClientEndpointConfig.Configurator() {
                     @Override
                     public void beforeRequest(java.util.Map<String, java.util.List<String>> headers) {
@@ -78,7 +129,7 @@ public class WebSocketClientService {
                 .build();
             config.getUserProperties().put("service", this);
             
-            session = client.connectToServer(new ClubClientEndpoint(this), new URI(WS_URL));
+            session = client.connectToServer(new ClubClientEndpoint(this), config, new URI(WS_URL));
         } catch (Exception e) {
             System.err.println("[WebSocket Client] Connection failed: " + e.getMessage());
             scheduleReconnect();
@@ -105,6 +156,7 @@ public class WebSocketClientService {
         );
 
         System.out.println("[WebSocket Client] Reconnecting in " + delay + "ms (attempt " + attempts + ")");
+        reconnects.increment();
         
         scheduler.schedule(this::doConnect, delay, TimeUnit.MILLISECONDS);
     }
@@ -132,14 +184,56 @@ public class WebSocketClientService {
      */
     public void send(WebSocketMessage message) {
         if (session != null && session.isOpen()) {
+            WsMessageEvent event = new WsMessageEvent();
+            event.begin();
             try {
-                session.getAsyncRemote().sendText(message.toJson());
+                String json = message.toJson();
+                session.getAsyncRemote().sendText(json);
+                sentMessages.increment();
+                event.end();
+                if (event.shouldCommit()) {
+                    event.messageType = String.valueOf(message.getType());
+                    event.size = json.length();
+                    event.direction = WsMessageEvent.OUT;
+                    event.side = "client";
+                    event.commit();
+                }
             } catch (Exception e) {
                 System.err.println("[WebSocket Client] Failed to send: " + e.getMessage());
             }
         }
     }
 
+    // ==================== Notifications (routed by the server) ====================
+
+    /**
+     * Notify all admins about a new membership request.
+     */
+    public void notifyNewRequest(int requestId, String memberName, String subscription) {
+        send(WebSocketMessage.newMemberRequest(requestId, memberName, subscription));
+    }
+
+    /**
+     * Notify member that their request was accepted.
+     */
+    public void notifyRequestAccepted(int userId, int requestId, String subscription, String endDate) {
+        send(WebSocketMessage.requestAccepted(userId, requestId, subscription, endDate));
+    }
+
+    /**
+     * Notify member that their request was declined.
+     */
+    public void notifyRequestDeclined(int userId, int requestId, String reason) {
+        send(WebSocketMessage.requestDeclined(userId, requestId, reason));
+    }
+
+    /**
+     * Trigger data refresh on all clients.
+     */
+    public void notifyDataRefresh(String tableType) {
+        send(WebSocketMessage.dataRefresh(tableType));
+    }
+
     /**
      * Check if connected.
      */
@@ -147,53 +241,148 @@ public class WebSocketClientService {
         return connected.get();
     }
 
+    /**
+     * Get compression statistics, or null if permessage-deflate is disabled.
+     */
+    public PerMessageDeflateExtension.Stats getCompressionStats() {
+        return deflateExtension != null ? deflateExtension.getStats() : null;
+    }
+
+    /**
+     * Get the FX dispatch queue, for its depth and drain-time metrics.
+     */
+    public FxDispatchQueue getDispatchQueue() {
+        return dispatchQueue;
+    }
+
     /**
      * Shutdown the client completely.
      */
     public void shutdown() {
         disconnect();
         scheduler.shutdown();
+        System.out.println("[WebSocket Client] " + dispatchQueue.getStats());
     }
 
     // ==================== Handler Setters ====================
 
     public void setOnNewMemberRequest(Consumer<WebSocketMessage> handler) {
         this.onNewMemberRequest = handler;
+        updateSubscriptions();
     }
 
     public void setOnRequestAccepted(Consumer<WebSocketMessage> handler) {
         this.onRequestAccepted = handler;
+        updateSubscriptions();
     }
 
     public void setOnRequestDeclined(Consumer<WebSocketMessage> handler) {
         this.onRequestDeclined = handler;
+        updateSubscriptions();
     }
 
     public void setOnMemberStatusChanged(Consumer<WebSocketMessage> handler) {
         this.onMemberStatusChanged = handler;
+        updateSubscriptions();
     }
 
     public void setOnStatsUpdate(Consumer<WebSocketMessage> handler) {
         this.onStatsUpdate = handler;
+        updateSubscriptions();
     }
 
     public void setOnDataRefresh(Consumer<WebSocketMessage> handler) {
+        setOnDataRefresh(handler, "members", "requests");
+    }
+
+    /**
+     * Handle DATA_REFRESH only for the given tables (and "all").
+     */
+    public void setOnDataRefresh(Consumer<WebSocketMessage> handler, String... tables) {
         this.onDataRefresh = handler;
+        this.dataRefreshTables = List.of(tables);
+        updateSubscriptions();
+    }
+
+    /**
+     * Called when the server cannot replay missed events; the view should reload everything.
+     */
+    public void setOnResync(Consumer<WebSocketMessage> handler) {
+        this.onResync = handler;
     }
 
     public void setOnConnectionStateChanged(Consumer<Boolean> handler) {
         this.onConnectionStateChanged = handler;
     }
 
+    // ==================== Topic Subscriptions ====================
+
+    /**
+     * Topics for the handlers that are currently set.
+     */
+    private Set<String> wantedTopics() {
+        Set<String> topics = new HashSet<>();
+        if (onNewMemberRequest != null) {
+            topics.add("requests");
+        }
+        if (onMemberStatusChanged != null) {
+            topics.add("members");
+        }
+        if (onStatsUpdate != null) {
+            topics.add("stats");
+        }
+        if (onDataRefresh != null) {
+            topics.addAll(dataRefreshTables);
+            topics.add("all");
+        }
+        if (onRequestAccepted != null || onRequestDeclined != null) {
+            topics.add(WebSocketMessage.userTopic(userId));
+        }
+        return topics;
+    }
+
+    /**
+     * Bring the server's subscriptions in line with the handlers that are set.
+     */
+    private synchronized void updateSubscriptions() {
+        if (!connected.get()) {
+            return;
+        }
+        Set<String> wanted = wantedTopics();
+        Set<String> added = new HashSet<>(wanted);
+        added.removeAll(subscribedTopics);
+        Set<String> removed = new HashSet<>(subscribedTopics);
+        removed.removeAll(wanted);
+
+        if (!added.isEmpty()) {
+            send(WebSocketMessage.subscribe(added));
+        }
+        if (!removed.isEmpty()) {
+            send(WebSocketMessage.unsubscribe(removed));
+        }
+        subscribedTopics.clear();
+        subscribedTopics.addAll(wanted);
+    }
+
     // ==================== Endpoint Callbacks (called by ClubClientEndpoint) ====================
 
     void handleOpen(Session session) {
+        this.session = session;
         connected.set(true);
+        MetricsRegistry.gauge("ws.client.connected", () -> connected.get() ? 1 : 0);
         reconnectAttempts.set(0);
         System.out.println("[WebSocket Client] Connected to server");
 
-        // Register with server
-        send(WebSocketMessage.register(userId, userRole));
+        // Subscribe before registering so replayed events are filtered by topic too
+        synchronized (this) {
+            Set<String> topics = wantedTopics();
+            send(WebSocketMessage.subscribe(topics));
+            subscribedTopics.clear();
+            subscribedTopics.addAll(topics);
+        }
+
+        // Register with server, resuming after the last event we saw
+        send(WebSocketMessage.register(userId, userRole, lastSeq, loginToken));
 
         // Notify connection state change on JavaFX thread
         if (onConnectionStateChanged != null) {
@@ -217,43 +406,82 @@ public class WebSocketClientService {
     }
 
     void handleMessage(String messageJson) {
+        receivedBytes.add(messageJson.length());
+        long now = System.currentTimeMillis();
+        WsMessageEvent event = new WsMessageEvent();
+        event.begin();
         try {
-            WebSocketMessage message = WebSocketMessage.fromJson(messageJson);
-            dispatchMessage(message);
+            // A frame may carry a BATCH of messages coalesced by the server
+            for (WebSocketMessage message : WebSocketMessage.fromJsonAll(messageJson)) {
+                if (message.getSeq() > lastSeq) {
+                    lastSeq = message.getSeq();
+                } else if (message.getType() == WebSocketMessage.MessageType.RESYNC) {
+                    // Caller reloads everything, so resume from the server's current position
+                    MessagePayload.Resync resync = message.getPayload(MessagePayload.Resync.class);
+                    if (resync != null) {
+                        lastSeq = Math.max(lastSeq, resync.currentSeq());
+                    }
+                }
+                receivedMessages.increment();
+                if (message.getTimestamp() > 0) {
+                    deliveryLatency.record(Math.max(0, now - message.getTimestamp()));
+                }
+                dispatchMessage(message);
+            }
         } catch (Exception e) {
             System.err.println("[WebSocket Client] Failed to parse message: " + e.getMessage());
         }
+        event.end();
+        if (event.shouldCommit()) {
+            event.messageType = WebSocketMessage.typeOf(messageJson);
+            event.size = messageJson.length();
+            event.direction = WsMessageEvent.IN;
+            event.side = "client";
+            event.commit();
+        }
     }
 
     /**
-     * Dispatch message to appropriate handler on JavaFX thread.
+     * Queue message for its handler; bursts are coalesced into one FX-thread drain.
      */
     private void dispatchMessage(WebSocketMessage message) {
-        Platform.runLater(() -> {
-            switch (message.getType()) {
-                case NEW_MEMBER_REQUEST -> {
-                    if (onNewMemberRequest != null) onNewMemberRequest.accept(message);
-                }
-                case REQUEST_ACCEPTED -> {
-                    if (onRequestAccepted != null) onRequestAccepted.accept(message);
-                }
-                case REQUEST_DECLINED -> {
-                    if (onRequestDeclined != null) onRequestDeclined.accept(message);
-                }
-                case MEMBER_STATUS_CHANGED -> {
-                    if (onMemberStatusChanged != null) onMemberStatusChanged.accept(message);
-                }
-                case STATS_UPDATE -> {
-                    if (onStatsUpdate != null) onStatsUpdate.accept(message);
-                }
-                case DATA_REFRESH -> {
-                    if (onDataRefresh != null) onDataRefresh.accept(message);
-                }
-                case PONG -> {
-                    // Keep-alive response, no action needed
-                }
-                default -> System.out.println("[WebSocket Client] Unhandled message type: " + message.getType());
+        dispatchQueue.offer(message);
+    }
+
+    /**
+     * Dispatch message to appropriate handler (on the JavaFX thread).
+     */
+    private void deliver(WebSocketMessage message) {
+        if (message.getType() == null) {
+            System.out.println("[WebSocket Client] Ignoring message of unknown type");
+            return;
+        }
+        switch (message.getType()) {
+            case NEW_MEMBER_REQUEST -> {
+                if (onNewMemberRequest != null) onNewMemberRequest.accept(message);
+            }
+            case REQUEST_ACCEPTED -> {
+                if (onRequestAccepted != null) onRequestAccepted.accept(message);
+            }
+            case REQUEST_DECLINED -> {
+                if (onRequestDeclined != null) onRequestDeclined.accept(message);
+            }
+            case MEMBER_STATUS_CHANGED -> {
+                if (onMemberStatusChanged != null) onMemberStatusChanged.accept(message);
             }
-        });
+            case STATS_UPDATE -> {
+                if (onStatsUpdate != null) onStatsUpdate.accept(message);
+            }
+            case DATA_REFRESH -> {
+                if (onDataRefresh != null) onDataRefresh.accept(message);
+            }
+            case RESYNC -> {
+                if (onResync != null) onResync.accept(message);
+            }
+            case PONG -> {
+                // Keep-alive response, no action needed
+            }
+            default -> System.out.println("[WebSocket Client] Unhandled message type: " + message.getType());
+        }
     }
 }
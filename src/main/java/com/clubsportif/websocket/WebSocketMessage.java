@@ -1,23 +1,23 @@
 package com.clubsportif.websocket;
 
-import com.google.gson.Gson;
-import com.google.gson.GsonBuilder;
-import com.google.gson.JsonDeserializer;
-import com.google.gson.JsonSerializer;
+import com.clubsportif.websocket.MessagePayload.*;
 
-import java.time.LocalDate;
-import java.time.format.DateTimeFormatter;
-import java.util.Map;
+import java.util.Collection;
+import java.util.List;
 
 /**
  * WebSocket message protocol for real-time communication.
  * Used for serialization/deserialization between client and server.
+ * Payloads are typed records (see {@link MessagePayload}) encoded by
+ * {@link WebSocketMessageCodec}.
  */
 public class WebSocketMessage {
 
     public enum MessageType {
         // Client -> Server
         REGISTER,           // Register client with user info
+        SUBSCRIBE,          // Start receiving messages on the given topics
+        UNSUBSCRIBE,        // Stop receiving messages on the given topics
         
         // Server -> Client(s)
         NEW_MEMBER_REQUEST, // New membership request (notify admins)
@@ -26,6 +26,8 @@ public class WebSocketMessage {
         MEMBER_STATUS_CHANGED, // Member status changed (notify admins)
         STATS_UPDATE,       // Dashboard statistics update
         DATA_REFRESH,       // Trigger table reload
+        BATCH,              // Several messages coalesced into one frame
+        RESYNC,             // Missed events no longer buffered, reload everything
         
         // Bidirectional
         PING,               // Keep-alive ping
@@ -35,24 +37,15 @@ public class WebSocketMessage {
     private MessageType type;
     private int targetUserId;      // For targeted messages (0 = broadcast)
     private String targetRole;     // ADMIN, MEMBER, or null for all
-    private Map<String, Object> payload;
+    private MessagePayload payload;
     private long timestamp;
-
-    // Gson instance with LocalDate support
-    private static final Gson GSON = new GsonBuilder()
-            .registerTypeAdapter(LocalDate.class, 
-                (JsonSerializer<LocalDate>) (date, type, context) -> 
-                    context.serialize(date.format(DateTimeFormatter.ISO_LOCAL_DATE)))
-            .registerTypeAdapter(LocalDate.class,
-                (JsonDeserializer<LocalDate>) (json, type, context) -> 
-                    LocalDate.parse(json.getAsString(), DateTimeFormatter.ISO_LOCAL_DATE))
-            .create();
+    private long seq;              // Server event sequence (0 = not sequenced)
 
     public WebSocketMessage() {
         this.timestamp = System.currentTimeMillis();
     }
 
-    public WebSocketMessage(MessageType type, Map<String, Object> payload) {
+    public WebSocketMessage(MessageType type, MessagePayload payload) {
         this();
         this.type = type;
         this.payload = payload;
@@ -60,62 +53,88 @@ public class WebSocketMessage {
 
     // Factory methods for common messages
     public static WebSocketMessage newMemberRequest(int requestId, String memberName, String subscription) {
-        return new WebSocketMessage(MessageType.NEW_MEMBER_REQUEST, Map.of(
-            "requestId", requestId,
-            "memberName", memberName,
-            "subscription", subscription
-        )).forRole("ADMIN");
+        return new WebSocketMessage(MessageType.NEW_MEMBER_REQUEST, new NewMemberRequest(
+            requestId, memberName, subscription)).forRole("ADMIN");
     }
 
     public static WebSocketMessage requestAccepted(int targetUserId, int requestId, String subscription, String endDate) {
-        return new WebSocketMessage(MessageType.REQUEST_ACCEPTED, Map.of(
-            "requestId", requestId,
-            "subscription", subscription,
-            "endDate", endDate
-        )).forUser(targetUserId);
+        return new WebSocketMessage(MessageType.REQUEST_ACCEPTED, new RequestAccepted(
+            requestId, subscription, endDate)).forUser(targetUserId);
     }
 
     public static WebSocketMessage requestDeclined(int targetUserId, int requestId, String reason) {
-        return new WebSocketMessage(MessageType.REQUEST_DECLINED, Map.of(
-            "requestId", requestId,
-            "reason", reason != null ? reason : "Request was declined by administrator"
-        )).forUser(targetUserId);
+        return new WebSocketMessage(MessageType.REQUEST_DECLINED, new RequestDeclined(
+            requestId, reason != null ? reason : "Request was declined by administrator")).forUser(targetUserId);
     }
 
     public static WebSocketMessage memberStatusChanged(int memberId, String newStatus) {
-        return new WebSocketMessage(MessageType.MEMBER_STATUS_CHANGED, Map.of(
-            "memberId", memberId,
-            "newStatus", newStatus
-        )).forRole("ADMIN");
+        return new WebSocketMessage(MessageType.MEMBER_STATUS_CHANGED, new MemberStatusChanged(
+            memberId, newStatus)).forRole("ADMIN");
     }
 
     public static WebSocketMessage statsUpdate(int totalMembers, int activeMembers, int dailyRequests) {
-        return new WebSocketMessage(MessageType.STATS_UPDATE, Map.of(
-            "totalMembers", totalMembers,
-            "activeMembers", activeMembers,
-            "dailyRequests", dailyRequests
-        )).forRole("ADMIN");
+        return new WebSocketMessage(MessageType.STATS_UPDATE, new StatsUpdate(
+            totalMembers, activeMembers, dailyRequests)).forRole("ADMIN");
     }
 
     public static WebSocketMessage dataRefresh(String tableType) {
-        return new WebSocketMessage(MessageType.DATA_REFRESH, Map.of(
-            "tableType", tableType
-        ));
+        return new WebSocketMessage(MessageType.DATA_REFRESH, new DataRefresh(tableType));
     }
 
     public static WebSocketMessage register(int userId, String role) {
-        return new WebSocketMessage(MessageType.REGISTER, Map.of(
-            "userId", userId,
-            "role", role
-        ));
+        return new WebSocketMessage(MessageType.REGISTER, new Register(userId, role, 0, null));
+    }
+
+    public static WebSocketMessage register(int userId, String role, long lastSeq) {
+        return new WebSocketMessage(MessageType.REGISTER, new Register(userId, role, lastSeq, null));
+    }
+
+    public static WebSocketMessage register(int userId, String role, long lastSeq, String token) {
+        return new WebSocketMessage(MessageType.REGISTER, new Register(userId, role, lastSeq, token));
+    }
+
+    public static WebSocketMessage subscribe(Collection<String> topics) {
+        return new WebSocketMessage(MessageType.SUBSCRIBE, new Topics(List.copyOf(topics)));
+    }
+
+    public static WebSocketMessage unsubscribe(Collection<String> topics) {
+        return new WebSocketMessage(MessageType.UNSUBSCRIBE, new Topics(List.copyOf(topics)));
+    }
+
+    public static WebSocketMessage resync(long currentSeq) {
+        return new WebSocketMessage(MessageType.RESYNC, new Resync(currentSeq));
     }
 
     public static WebSocketMessage ping() {
-        return new WebSocketMessage(MessageType.PING, Map.of());
+        return new WebSocketMessage(MessageType.PING, MessagePayload.EMPTY);
     }
 
     public static WebSocketMessage pong() {
-        return new WebSocketMessage(MessageType.PONG, Map.of());
+        return new WebSocketMessage(MessageType.PONG, MessagePayload.EMPTY);
+    }
+
+    /**
+     * Topic a client must be subscribed to in order to receive this message,
+     * or null if it goes to every recipient regardless of subscriptions.
+     * Topics are table names ("members", "requests", "all"), "stats",
+     * and "user:&lt;id&gt;" for messages addressed to one user.
+     */
+    public String getTopic() {
+        if (type == null) {
+            return null;
+        }
+        return switch (type) {
+            case DATA_REFRESH -> payload instanceof DataRefresh refresh ? refresh.tableType() : null;
+            case STATS_UPDATE -> "stats";
+            case NEW_MEMBER_REQUEST -> "requests";
+            case MEMBER_STATUS_CHANGED -> "members";
+            case REQUEST_ACCEPTED, REQUEST_DECLINED -> targetUserId > 0 ? userTopic(targetUserId) : null;
+            default -> null;
+        };
+    }
+
+    public static String userTopic(int userId) {
+        return "user:" + userId;
     }
 
     // Builder-style methods
@@ -131,11 +150,47 @@ public class WebSocketMessage {
 
     // Serialization
     public String toJson() {
-        return GSON.toJson(this);
+        return WebSocketMessageCodec.encode(this);
     }
 
     public static WebSocketMessage fromJson(String json) {
-        return GSON.fromJson(json, WebSocketMessage.class);
+        return WebSocketMessageCodec.decode(json);
+    }
+
+    /**
+     * Wrap already-serialized messages into a single BATCH frame.
+     * The messages are embedded as-is, so they are not serialized twice.
+     */
+    public static String batchJson(List<String> messageJsons) {
+        int size = 64;
+        for (String json : messageJsons) {
+            size += json.length() + 1;
+        }
+        StringBuilder sb = new StringBuilder(size);
+        sb.append("{\"type\":\"").append(MessageType.BATCH.name()).append("\",\"payload\":{\"messages\":[");
+        for (int i = 0; i < messageJsons.size(); i++) {
+            if (i > 0) sb.append(',');
+            sb.append(messageJsons.get(i));
+        }
+        sb.append("]},\"timestamp\":").append(System.currentTimeMillis()).append('}');
+        return sb.toString();
+    }
+
+    /**
+     * Type name of a serialized frame without parsing it, relying on the
+     * codec writing "type" first; null for other input.
+     */
+    static String typeOf(String json) {
+        String prefix = "{\"type\":\"";
+        int end = json.indexOf('"', prefix.length());
+        return json.startsWith(prefix) && end > 0 ? json.substring(prefix.length(), end) : null;
+    }
+
+    /**
+     * Parse a frame that holds either a single message or a BATCH of messages.
+     */
+    public static List<WebSocketMessage> fromJsonAll(String json) {
+        return WebSocketMessageCodec.decodeAll(json);
     }
 
     // Getters and setters
@@ -148,12 +203,22 @@ public class WebSocketMessage {
     public String getTargetRole() { return targetRole; }
     public void setTargetRole(String targetRole) { this.targetRole = targetRole; }
 
-    public Map<String, Object> getPayload() { return payload; }
-    public void setPayload(Map<String, Object> payload) { this.payload = payload; }
+    public MessagePayload getPayload() { return payload; }
+    public void setPayload(MessagePayload payload) { this.payload = payload; }
+
+    /**
+     * Typed payload, or null if the payload is of another type.
+     */
+    public <T extends MessagePayload> T getPayload(Class<T> payloadType) {
+        return payloadType.isInstance(payload) ? payloadType.cast(payload) : null;
+    }
 
     public long getTimestamp() { return timestamp; }
     public void setTimestamp(long timestamp) { this.timestamp = timestamp; }
 
+    public long getSeq() { return seq; }
+    public void setSeq(long seq) { this.seq = seq; }
+
     @SuppressWarnings("unchecked")
     public <T> T getPayloadValue(String key) {
         if (payload == null) return null;
@@ -168,6 +233,14 @@ public class WebSocketMessage {
         return 0;
     }
 
+    public long getPayloadLong(String key) {
+        Object value = getPayloadValue(key);
+        if (value instanceof Number) {
+            return ((Number) value).longValue();
+        }
+        return 0;
+    }
+
     public String getPayloadString(String key) {
         Object value = getPayloadValue(key);
         return value != null ? value.toString() : null;
@@ -177,6 +250,7 @@ public class WebSocketMessage {
     public String toString() {
         return "WebSocketMessage{" +
                 "type=" + type +
+                ", seq=" + seq +
                 ", targetUserId=" + targetUserId +
                 ", targetRole='" + targetRole + '\'' +
                 ", payload=" + payload +
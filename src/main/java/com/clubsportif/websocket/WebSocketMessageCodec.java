@@ -0,0 +1,409 @@
+package com.clubsportif.websocket;
+
+import com.clubsportif.websocket.MessagePayload.*;
+import com.clubsportif.websocket.WebSocketMessage.MessageType;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonParser;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Streaming JSON codec for {@link WebSocketMessage}.
+ * Hand-written JsonWriter/JsonReader code per payload type: no reflection,
+ * no intermediate Map or tree, and integers are read as ints instead of
+ * boxed doubles. Encoding reuses a per-thread character buffer.
+ * <p>
+ * The wire format is unchanged:
+ * {"type":..,"targetUserId":..,"targetRole":..,"payload":{..},"timestamp":..,"seq":..}
+ */
+final class WebSocketMessageCodec {
+
+    // Buffers that grew past this are not kept for reuse
+    private static final int MAX_RETAINED_CHARS = 16 * 1024;
+
+    private static final ThreadLocal<BufferWriter> BUFFERS = ThreadLocal.withInitial(BufferWriter::new);
+
+    private WebSocketMessageCodec() {
+    }
+
+    // ==================== Encoding ====================
+
+    static String encode(WebSocketMessage message) {
+        BufferWriter buffer = BUFFERS.get();
+        buffer.reset();
+        try {
+            JsonWriter out = new JsonWriter(buffer);
+            out.setSerializeNulls(false);
+            out.beginObject();
+            if (message.getType() != null) {
+                out.name("type").value(message.getType().name());
+            }
+            out.name("targetUserId").value(message.getTargetUserId());
+            out.name("targetRole").value(message.getTargetRole());
+            if (message.getPayload() != null) {
+                out.name("payload");
+                writePayload(out, message.getPayload());
+            }
+            out.name("timestamp").value(message.getTimestamp());
+            out.name("seq").value(message.getSeq());
+            out.endObject();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return buffer.toString();
+    }
+
+    private static void writePayload(JsonWriter out, MessagePayload payload) throws IOException {
+        out.beginObject();
+        switch (payload) {
+            case Register p -> {
+                out.name("userId").value(p.userId());
+                out.name("role").value(p.role());
+                out.name("lastSeq").value(p.lastSeq());
+                out.name("token").value(p.token());
+            }
+            case NewMemberRequest p -> {
+                out.name("requestId").value(p.requestId());
+                out.name("memberName").value(p.memberName());
+                out.name("subscription").value(p.subscription());
+            }
+            case RequestAccepted p -> {
+                out.name("requestId").value(p.requestId());
+                out.name("subscription").value(p.subscription());
+                out.name("endDate").value(p.endDate());
+            }
+            case RequestDeclined p -> {
+                out.name("requestId").value(p.requestId());
+                out.name("reason").value(p.reason());
+            }
+            case MemberStatusChanged p -> {
+                out.name("memberId").value(p.memberId());
+                out.name("newStatus").value(p.newStatus());
+            }
+            case StatsUpdate p -> {
+                out.name("totalMembers").value(p.totalMembers());
+                out.name("activeMembers").value(p.activeMembers());
+                out.name("dailyRequests").value(p.dailyRequests());
+            }
+            case DataRefresh p -> out.name("tableType").value(p.tableType());
+            case Topics p -> {
+                out.name("topics").beginArray();
+                for (String topic : p.topics()) {
+                    out.value(topic);
+                }
+                out.endArray();
+            }
+            case Resync p -> out.name("currentSeq").value(p.currentSeq());
+            case Empty p -> {
+                // no fields
+            }
+        }
+        out.endObject();
+    }
+
+    // ==================== Decoding ====================
+
+    static WebSocketMessage decode(String json) {
+        try (JsonReader in = new JsonReader(new StringReader(json))) {
+            return readMessage(in, null);
+        } catch (IOException e) {
+            throw new IllegalArgumentException("Invalid message: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Decode a frame that holds either a single message or a BATCH of messages.
+     */
+    static List<WebSocketMessage> decodeAll(String json) {
+        try (JsonReader in = new JsonReader(new StringReader(json))) {
+            List<WebSocketMessage> batch = new ArrayList<>();
+            WebSocketMessage message = readMessage(in, batch);
+            return message.getType() == MessageType.BATCH ? batch : List.of(message);
+        } catch (IOException e) {
+            throw new IllegalArgumentException("Invalid message: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Read one message object. For a BATCH frame, the embedded messages are
+     * added to batch (when not null) and the returned message has no payload.
+     */
+    private static WebSocketMessage readMessage(JsonReader in, List<WebSocketMessage> batch) throws IOException {
+        WebSocketMessage message = new WebSocketMessage();
+        // Payload seen before the type, decoded once the type is known
+        JsonElement earlyPayload = null;
+        boolean typeSeen = false;
+
+        in.beginObject();
+        while (in.hasNext()) {
+            switch (in.nextName()) {
+                case "type" -> {
+                    message.setType(parseType(nextString(in)));
+                    typeSeen = true;
+                }
+                case "targetUserId" -> message.setTargetUserId(in.nextInt());
+                case "targetRole" -> message.setTargetRole(nextString(in));
+                case "timestamp" -> message.setTimestamp(in.nextLong());
+                case "seq" -> message.setSeq(in.nextLong());
+                case "payload" -> {
+                    if (in.peek() == JsonToken.NULL) {
+                        in.nextNull();
+                    } else if (!typeSeen) {
+                        earlyPayload = JsonParser.parseReader(in);
+                    } else {
+                        readPayloadInto(in, message, batch);
+                    }
+                }
+                default -> in.skipValue();
+            }
+        }
+        in.endObject();
+
+        if (earlyPayload != null) {
+            try (JsonReader payloadIn = new JsonReader(new StringReader(earlyPayload.toString()))) {
+                readPayloadInto(payloadIn, message, batch);
+            }
+        }
+        return message;
+    }
+
+    private static void readPayloadInto(JsonReader in, WebSocketMessage message, List<WebSocketMessage> batch)
+            throws IOException {
+        if (message.getType() == MessageType.BATCH && batch != null) {
+            readBatch(in, batch);
+        } else {
+            message.setPayload(readPayload(in, message.getType()));
+        }
+    }
+
+    private static void readBatch(JsonReader in, List<WebSocketMessage> batch) throws IOException {
+        in.beginObject();
+        while (in.hasNext()) {
+            if ("messages".equals(in.nextName())) {
+                in.beginArray();
+                while (in.hasNext()) {
+                    batch.add(readMessage(in, null));
+                }
+                in.endArray();
+            } else {
+                in.skipValue();
+            }
+        }
+        in.endObject();
+    }
+
+    private static MessagePayload readPayload(JsonReader in, MessageType type) throws IOException {
+        if (type == null) {
+            in.skipValue();
+            return MessagePayload.EMPTY;
+        }
+        in.beginObject();
+        MessagePayload payload = switch (type) {
+            case REGISTER -> {
+                int userId = 0;
+                String role = null;
+                long lastSeq = 0;
+                String token = null;
+                while (in.hasNext()) {
+                    switch (in.nextName()) {
+                        case "userId" -> userId = in.nextInt();
+                        case "role" -> role = nextString(in);
+                        case "lastSeq" -> lastSeq = in.nextLong();
+                        case "token" -> token = nextString(in);
+                        default -> in.skipValue();
+                    }
+                }
+                yield new Register(userId, role, lastSeq, token);
+            }
+            case NEW_MEMBER_REQUEST -> {
+                int requestId = 0;
+                String memberName = null;
+                String subscription = null;
+                while (in.hasNext()) {
+                    switch (in.nextName()) {
+                        case "requestId" -> requestId = in.nextInt();
+                        case "memberName" -> memberName = nextString(in);
+                        case "subscription" -> subscription = nextString(in);
+                        default -> in.skipValue();
+                    }
+                }
+                yield new NewMemberRequest(requestId, memberName, subscription);
+            }
+            case REQUEST_ACCEPTED -> {
+                int requestId = 0;
+                String subscription = null;
+                String endDate = null;
+                while (in.hasNext()) {
+                    switch (in.nextName()) {
+                        case "requestId" -> requestId = in.nextInt();
+                        case "subscription" -> subscription = nextString(in);
+                        case "endDate" -> endDate = nextString(in);
+                        default -> in.skipValue();
+                    }
+                }
+                yield new RequestAccepted(requestId, subscription, endDate);
+            }
+            case REQUEST_DECLINED -> {
+                int requestId = 0;
+                String reason = null;
+                while (in.hasNext()) {
+                    switch (in.nextName()) {
+                        case "requestId" -> requestId = in.nextInt();
+                        case "reason" -> reason = nextString(in);
+                        default -> in.skipValue();
+                    }
+                }
+                yield new RequestDeclined(requestId, reason);
+            }
+            case MEMBER_STATUS_CHANGED -> {
+                int memberId = 0;
+                String newStatus = null;
+                while (in.hasNext()) {
+                    switch (in.nextName()) {
+                        case "memberId" -> memberId = in.nextInt();
+                        case "newStatus" -> newStatus = nextString(in);
+                        default -> in.skipValue();
+                    }
+                }
+                yield new MemberStatusChanged(memberId, newStatus);
+            }
+            case STATS_UPDATE -> {
+                int totalMembers = 0;
+                int activeMembers = 0;
+                int dailyRequests = 0;
+                while (in.hasNext()) {
+                    switch (in.nextName()) {
+                        case "totalMembers" -> totalMembers = in.nextInt();
+                        case "activeMembers" -> activeMembers = in.nextInt();
+                        case "dailyRequests" -> dailyRequests = in.nextInt();
+                        default -> in.skipValue();
+                    }
+                }
+                yield new StatsUpdate(totalMembers, activeMembers, dailyRequests);
+            }
+            case DATA_REFRESH -> {
+                String tableType = null;
+                while (in.hasNext()) {
+                    if ("tableType".equals(in.nextName())) {
+                        tableType = nextString(in);
+                    } else {
+                        in.skipValue();
+                    }
+                }
+                yield new DataRefresh(tableType);
+            }
+            case SUBSCRIBE, UNSUBSCRIBE -> {
+                List<String> topics = new ArrayList<>();
+                while (in.hasNext()) {
+                    if ("topics".equals(in.nextName())) {
+                        in.beginArray();
+                        while (in.hasNext()) {
+                            topics.add(in.nextString());
+                        }
+                        in.endArray();
+                    } else {
+                        in.skipValue();
+                    }
+                }
+                yield new Topics(topics);
+            }
+            case RESYNC -> {
+                long currentSeq = 0;
+                while (in.hasNext()) {
+                    if ("currentSeq".equals(in.nextName())) {
+                        currentSeq = in.nextLong();
+                    } else {
+                        in.skipValue();
+                    }
+                }
+                yield new Resync(currentSeq);
+            }
+            default -> {
+                while (in.hasNext()) {
+                    in.nextName();
+                    in.skipValue();
+                }
+                yield MessagePayload.EMPTY;
+            }
+        };
+        in.endObject();
+        return payload;
+    }
+
+    private static MessageType parseType(String name) {
+        if (name == null) {
+            return null;
+        }
+        try {
+            return MessageType.valueOf(name);
+        } catch (IllegalArgumentException e) {
+            // Unknown types decode like Gson did: with a null type
+            return null;
+        }
+    }
+
+    private static String nextString(JsonReader in) throws IOException {
+        if (in.peek() == JsonToken.NULL) {
+            in.nextNull();
+            return null;
+        }
+        return in.nextString();
+    }
+
+    /**
+     * Writer over a StringBuilder that is reset instead of reallocated.
+     */
+    private static final class BufferWriter extends Writer {
+        private StringBuilder sb = new StringBuilder(512);
+
+        void reset() {
+            if (sb.capacity() > MAX_RETAINED_CHARS) {
+                sb = new StringBuilder(512);
+            } else {
+                sb.setLength(0);
+            }
+        }
+
+        @Override
+        public void write(int c) {
+            sb.append((char) c);
+        }
+
+        @Override
+        public void write(char[] cbuf, int off, int len) {
+            sb.append(cbuf, off, len);
+        }
+
+        @Override
+        public void write(String str, int off, int len) {
+            sb.append(str, off, off + len);
+        }
+
+        @Override
+        public Writer append(CharSequence csq) {
+            sb.append(csq);
+            return this;
+        }
+
+        @Override
+        public void flush() {
+        }
+
+        @Override
+        public void close() {
+        }
+
+        @Override
+        public String toString() {
+            return sb.toString();
+        }
+    }
+}